@@ -0,0 +1,161 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.dji.wpmzsdk.common.utils.kml.model.Location2D;
+import com.dji.wpmzsdk.manager.WPMZManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import io.empowerbits.sightflight.Services.mission.BuiltMission;
+import io.empowerbits.sightflight.Services.mission.MissionKmzBuilder;
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * WpmlWriterParityTest - WpmlWriter against WPMZManager and the KMZ cleaning pass
+ *
+ * Builds the same mission twice through MissionKmzBuilder on a device: once with the
+ * SDK writer followed by the profile's KmzCleaner rules, once with the native writer.
+ * Both archives must hold the same entries with the same documents, apart from the
+ * creation and update times. The native writer is only used for a profile that
+ * passes here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WpmlWriterParityTest {
+
+    private static final String TAG = "WpmlWriterParityTest";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final double POI_LATITUDE = 31.5204;
+    private static final double POI_LONGITUDE = 74.3587;
+
+    private File scratchDir;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        scratchDir = new File(context.getCacheDir(), "wpml-parity");
+        if (!scratchDir.isDirectory() && !scratchDir.mkdirs()) {
+            throw new IOException("Could not create " + scratchDir);
+        }
+    }
+
+    @Test
+    public void nativeWriterMatchesTheSdkForMini4Pro() throws IOException {
+        assertParity(WpmlAircraftProfile.MINI_4_PRO);
+    }
+
+    @Test
+    public void nativeWriterMatchesTheSdkForTheDefaultProfile() throws IOException {
+        assertParity(WpmlAircraftProfile.SDK_DEFAULT);
+    }
+
+    private void assertParity(WpmlAircraftProfile profile) throws IOException {
+        Map<String, String> sdk = build(profile, false);
+        Map<String, String> written = build(profile, true);
+
+        assertEquals(sdk.keySet(), written.keySet());
+        for (Map.Entry<String, String> entry : sdk.entrySet()) {
+            assertEquals(profile + " " + entry.getKey(),
+                    withoutTimes(entry.getValue()), withoutTimes(written.get(entry.getKey())));
+        }
+    }
+
+    private Map<String, String> build(WpmlAircraftProfile profile, boolean nativeWriter) throws IOException {
+        MissionKmzBuilder builder = new MissionKmzBuilder(WPMZManager.getInstance(), scratchDir, scratchDir);
+        builder.setAircraftProfile(profile);
+        builder.setUseNativeWriter(nativeWriter);
+
+        BuiltMission built = builder.build("parity", missionSetting(), waypointSettings());
+        assertNotNull(built.getKmz());
+        if (!built.getFile().delete()) {
+            Log.w(TAG, "Could not delete " + built.getFile().getPath());
+        }
+        return unzip(built.getKmz());
+    }
+
+    private static MissionSetting missionSetting() {
+        MissionSetting missionSetting = new MissionSetting();
+        missionSetting.poiLocation = new Location2D(POI_LATITUDE, POI_LONGITUDE);
+        return missionSetting;
+    }
+
+    /**
+     * Five waypoints around the POI: different heights, speeds and gimbal pitches, and
+     * legs both shorter and longer than the turn damping distances of the profiles
+     */
+    private static List<WaypointSetting> waypointSettings() {
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        waypoints.add(waypoint(31.5210, 74.3580, 30.0, 5.0, -30.0));
+        waypoints.add(waypoint(31.5211, 74.3581, 32.5, 3.5, -45.0));
+        waypoints.add(waypoint(31.5198, 74.3594, 40.0, 4.0, -60.0));
+        waypoints.add(waypoint(31.5190, 74.3580, 45.0, 8.0, -90.0));
+        waypoints.add(waypoint(31.5200, 74.3575, 35.0, 6.0, 0.0));
+        return waypoints;
+    }
+
+    private static WaypointSetting waypoint(double latitude, double longitude, double altitude,
+                                            double speed, double gimbalPitchAngle) {
+        WaypointSetting waypoint = new WaypointSetting();
+        waypoint.latitude = latitude;
+        waypoint.longitude = longitude;
+        waypoint.altitude = altitude;
+        waypoint.waypointSpeed = speed;
+        waypoint.gimbalPitchAngle = gimbalPitchAngle;
+        return waypoint;
+    }
+
+    /** The document with its creation and update times blanked */
+    private static String withoutTimes(String xml) {
+        return xml.replaceAll("<wpml:(createTime|updateTime)>\\d+</wpml:\\1>", "<wpml:$1></wpml:$1>");
+    }
+
+    private static Map<String, String> unzip(byte[] kmz) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(kmz));
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName(), new String(readAll(zip), UTF_8));
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return entries;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+}
@@ -38,9 +38,6 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.graphics.Color;
 
 import io.empowerbits.sightflight.ApiResponse.AddProjectResponse;
@@ -50,6 +47,7 @@ import io.empowerbits.sightflight.Retrofit.ApiService;
 import io.empowerbits.sightflight.models.FlightAddress;
 import io.empowerbits.sightflight.models.Project;
 import io.empowerbits.sightflight.util.ActivityCollector;
+import io.empowerbits.sightflight.util.MapIconCache;
 import io.empowerbits.sightflight.util.UserSessionManager;
 import com.google.gson.Gson;
 
@@ -864,25 +862,7 @@ public class ProjectInfoActivity extends AppCompatActivity implements OnMapReady
      * Create a green dot icon for inspection waypoints
      */
     private BitmapDescriptor createGreenDotIcon() {
-        int size = 50; // Increased size from 30 to 50 pixels
-        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-
-        Paint paint = new Paint();
-        paint.setColor(Color.rgb(0, 200, 0)); // Green color
-        paint.setStyle(Paint.Style.FILL);
-        paint.setAntiAlias(true);
-
-        // Draw filled circle
-        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
-
-        // Add white border for better visibility
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(3); // Increased border width
-        canvas.drawCircle(size / 2f, size / 2f, size / 2f - 1.5f, paint);
-
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        return MapIconCache.getInstance(this).getDot(50, Color.rgb(0, 200, 0), 3);
     }
 
     /**
@@ -28,9 +28,6 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.graphics.Color;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -40,11 +37,15 @@ import io.empowerbits.sightflight.ApiResponse.AddProjectResponse;
 import io.empowerbits.sightflight.R;
 import io.empowerbits.sightflight.Retrofit.ApiClient;
 import io.empowerbits.sightflight.Retrofit.ApiService;
+import io.empowerbits.sightflight.Services.mission.OrbitPathGenerator;
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
 import io.empowerbits.sightflight.models.FlightAddress;
 import io.empowerbits.sightflight.models.FlightSetting;
 import io.empowerbits.sightflight.models.Project;
 import io.empowerbits.sightflight.models.WaypointAddress;
 import io.empowerbits.sightflight.util.ActivityCollector;
+import io.empowerbits.sightflight.util.MapIconCache;
+import io.empowerbits.sightflight.util.MapOverlayReconciler;
 import io.empowerbits.sightflight.util.MapHelper;
 import io.empowerbits.sightflight.util.UserSessionManager;
 
@@ -117,7 +118,7 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
     private MapHelper mapHelper; // For regular waypoints (numbered 9+)
     private MapHelper smallCircleMapHelper; // For small circle waypoints (numbered 1-8)
     private Marker projectLocationMarker;
-    private List<Marker> inspectionWaypointMarkers = new ArrayList<>(); // Green dot markers for inspection waypoints
+    private MapOverlayReconciler inspectionWaypointOverlay; // Green dot markers for inspection waypoints
     private static final int MAX_INSPECTION_WAYPOINTS = 8;
 
     // Camera position state for orientation change
@@ -643,21 +644,15 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
                 Log.d(TAG, "Added " + inspectionWaypoints.size() + " inspection waypoints FIRST");
             }
 
-            // 2. Generate and add regular waypoints AFTER inspection waypoints
+            // 2. Generate and add regular waypoints AFTER inspection waypoints, one ring
+            // around the project, clockwise from north
             if (mapHelper != null) {
                 mapHelper.setCenterLocation(centerLocation);
-                // Start numbering from 1 (not SMALL_CIRCLE_WAYPOINT_COUNT + 1)
-                mapHelper.updateWaypoints(count, radiusFeet, 1);
-
-                // Get generated waypoints from MapHelper
-                List<LatLng> regularWaypoints = mapHelper.getWaypoints();
-
-                for (LatLng waypoint : regularWaypoints) {
-                    FlightAddress waypointAddress = new FlightAddress(waypoint.latitude, waypoint.longitude);
-                    waypointList.add(waypointAddress);
-                }
-                Log.d(TAG, "Added " + regularWaypoints.size() + " regular waypoints (numbered 1-" + count + ") AFTER inspection");
             }
+            OrbitPathGenerator.OrbitPath ring = new OrbitPathGenerator(centerLat, centerLng, 0)
+                    .ring(radiusFeet * ProjectMissionPlanner.FEET_TO_METERS, count, 0, 0);
+            waypointList.addAll(ring.toFlightAddresses());
+            Log.d(TAG, "Added " + ring.size() + " regular waypoints (numbered 1-" + count + ") AFTER inspection");
 
             Log.d(TAG, "Total waypoints: " + waypointList.size() + " (Inspection: " + inspectionWaypoints.size() + ", Regular: " + count + ")");
 
@@ -788,25 +783,7 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
      * Create a small green dot icon for inspection waypoints
      */
     private BitmapDescriptor createGreenDotIcon() {
-        int size = 30; // Size of the dot in pixels
-        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-
-        Paint paint = new Paint();
-        paint.setColor(Color.rgb(0, 200, 0)); // Green color
-        paint.setStyle(Paint.Style.FILL);
-        paint.setAntiAlias(true);
-
-        // Draw filled circle
-        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
-
-        // Optional: Add white border
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(2);
-        canvas.drawCircle(size / 2f, size / 2f, size / 2f - 1, paint);
-
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        return MapIconCache.getInstance(this).getDot(30, Color.rgb(0, 200, 0), 2);
     }
 
     private void displayRestoredWaypoints() {
@@ -816,13 +793,9 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
                 return;
             }
 
-            // Clear existing inspection markers
-            for (Marker marker : inspectionWaypointMarkers) {
-                if (marker != null) {
-                    marker.remove();
-                }
+            if (inspectionWaypointOverlay == null) {
+                inspectionWaypointOverlay = new MapOverlayReconciler(googleMap);
             }
-            inspectionWaypointMarkers.clear();
 
             // Determine how many waypoints are inspection waypoints (FIRST 5-8 in list)
             // Structure: [inspection1, ..., inspection8, regular1, ..., regular130]
@@ -848,7 +821,9 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
             Log.d(TAG, "Displaying " + inspectionCount + " inspection waypoints (first) and " + regularWaypointCount + " regular waypoints (after)");
             Log.d(TAG, "Total waypoints in list: " + waypointList.size());
 
-            // Display inspection waypoints as green dots (FIRST N waypoints in the list)
+            // Display inspection waypoints as green dots (FIRST N waypoints in the list),
+            // moving the markers already on the map
+            List<MarkerOptions> inspectionMarkerOptions = new ArrayList<>();
             if (inspectionCount > 0 && waypointList.size() >= inspectionCount) {
                 for (int i = 0; i < inspectionCount; i++) {
                     FlightAddress waypoint = waypointList.get(i);
@@ -860,31 +835,26 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
                             .icon(createGreenDotIcon())
                             .anchor(0.5f, 0.5f)
                             .draggable(false); // Not draggable in this activity
-
-                    Marker marker = googleMap.addMarker(markerOptions);
-                    if (marker != null) {
-                        inspectionWaypointMarkers.add(marker);
-                    }
+                    inspectionMarkerOptions.add(markerOptions);
                 }
-                Log.d(TAG, "Displayed " + inspectionWaypointMarkers.size() + " inspection waypoint markers (first " + inspectionCount + " items in list)");
+            }
+            inspectionWaypointOverlay.setMarkers(inspectionMarkerOptions);
+            if (!inspectionMarkerOptions.isEmpty()) {
+                Log.d(TAG, "Displayed " + inspectionWaypointOverlay.getMarkers().size() + " inspection waypoint markers (first " + inspectionCount + " items in list)");
             }
 
             // Display regular waypoints using MapHelper (AFTER inspection waypoints)
             // Extract ONLY the regular waypoints from the list (skip first inspectionCount items)
             if (mapHelper != null && regularWaypointCount > 0) {
-                // Get current radius from UI
-                String radiusText = waypointRadiusEdt.getText().toString().trim();
-                int radiusFeet = radiusText.isEmpty() ? WAYPOINT_RADIUS_DEFAULT : Integer.parseInt(radiusText);
-
                 // Extract regular waypoints from the list (starting from index inspectionCount)
-                List<LatLng> regularWaypoints = new ArrayList<>();
+                List<LatLng> regularWaypoints = new ArrayList<>(regularWaypointCount);
                 for (int i = inspectionCount; i < waypointList.size(); i++) {
                     FlightAddress waypoint = waypointList.get(i);
                     regularWaypoints.add(new LatLng(waypoint.lat, waypoint.lng));
                 }
 
-                // Use MapHelper to display regular waypoints with numbered markers starting from 1
-                mapHelper.updateWaypoints(regularWaypointCount, radiusFeet, 1);
+                // Show them as they are, numbered from 1, instead of generating the ring again
+                mapHelper.setWaypoints(regularWaypoints, 1);
                 Log.d(TAG, "Displayed " + regularWaypoints.size() + " regular waypoints using MapHelper");
             }
 
@@ -1077,6 +1047,8 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
 
             // Get inspection waypoints from visible markers (green dots)
             List<FlightAddress> inspectionWaypointsList = new ArrayList<>();
+            List<Marker> inspectionWaypointMarkers = inspectionWaypointOverlay != null
+                    ? inspectionWaypointOverlay.getMarkers() : new ArrayList<>();
             for (int i = 0; i < inspectionWaypointMarkers.size(); i++) {
                 inspectionWaypointsList.add(new FlightAddress(
                     inspectionWaypointMarkers.get(i).getPosition().latitude,
@@ -1211,12 +1183,10 @@ public class ProjectWaypointActivity extends AppCompatActivity implements OnMapR
             }
 
             // Cleanup inspection waypoint markers
-            for (Marker marker : inspectionWaypointMarkers) {
-                if (marker != null) {
-                    marker.remove();
-                }
+            if (inspectionWaypointOverlay != null) {
+                inspectionWaypointOverlay.clear();
+                inspectionWaypointOverlay = null;
             }
-            inspectionWaypointMarkers.clear();
 
             // Cleanup MapHelper instances
             if (mapHelper != null) {
@@ -5,10 +5,14 @@ import android.util.Log;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import java.io.File;
+
 import androidx.appcompat.app.AppCompatActivity;
 
 import io.empowerbits.sightflight.Services.ConnectionStateManager;
 import io.empowerbits.sightflight.Services.TelemetryService;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryReplay;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
 import io.empowerbits.sightflight.util.ServiceManager;
 import io.empowerbits.sightflight.util.SpeedDisplayManager;
 import io.empowerbits.sightflight.util.TelemetryDisplayManager;
@@ -32,6 +36,10 @@ import io.empowerbits.sightflight.util.TelemetryDisplayManager;
 public class SampleTelemetryActivity extends AppCompatActivity {
     private static final String TAG = "SampleTelemetryActivity";
     
+    // Optional: play a recorded flight instead of live data (no aircraft needed)
+    public static final String EXTRA_REPLAY_FILE = "replay_file";
+    public static final String EXTRA_REPLAY_SPEED = "replay_speed";
+    
     // Services
     private TelemetryService telemetryService;
     boolean isDroneConnected = false;
@@ -72,6 +80,21 @@ public class SampleTelemetryActivity extends AppCompatActivity {
         initializeServices();
         initializeDisplayManagers();
         setupTelemetryViews();
+        startReplayFromIntent();
+    }
+    
+    /**
+     * EXAMPLE: How to drive the display managers from a recorded flight
+     * e.g. adb shell am start -n .../SampleTelemetryActivity --es replay_file /path/to/mission.eefr --ef replay_speed 4
+     * A speed of 0 replays as fast as possible.
+     */
+    private void startReplayFromIntent() {
+        String replayPath = getIntent().getStringExtra(EXTRA_REPLAY_FILE);
+        if (replayPath == null || telemetryService == null) {
+            return;
+        }
+        float speed = getIntent().getFloatExtra(EXTRA_REPLAY_SPEED, 1f);
+        telemetryService.startReplay(new File(replayPath), speed > 0 ? speed : TelemetryReplay.MAX_SPEED);
     }
     
     /**
@@ -236,6 +259,10 @@ public class SampleTelemetryActivity extends AppCompatActivity {
         
         Log.d(TAG, "Activity destroyed - cleaning up");
         
+        if (telemetryService != null && telemetryService.isReplaying()) {
+            telemetryService.stopReplay();
+        }
+        
         // Cleanup display managers
         if (telemetryDisplayManager != null) {
             telemetryDisplayManager.cleanup();
@@ -288,20 +315,22 @@ public class SampleTelemetryActivity extends AppCompatActivity {
      */
     private void logCurrentTelemetryValues() {
         if (telemetryService != null) {
-            Log.d(TAG, "=== Current Telemetry Values ===");
-            Log.d(TAG, "Flight Mode: " + telemetryService.getCurrentFlightMode());
-            Log.d(TAG, "GPS Signal: " + telemetryService.getCurrentGpsSignalLevel());
-            Log.d(TAG, "Satellites: " + telemetryService.getCurrentSatelliteCount());
-            Log.d(TAG, "Remote Signal: " + telemetryService.getCurrentLinkSignalQuality() + "%");
-            Log.d(TAG, "Battery: " + telemetryService.getCurrentBatteryPercentage() + "%");
-            Log.d(TAG, "Altitude: " + String.format("%.1f", telemetryService.getCurrentAltitude()) + "m");
-            Log.d(TAG, "H-Speed: " + String.format("%.1f", telemetryService.getCurrentHorizontalVelocity()) + "m/s");
-            Log.d(TAG, "V-Speed: " + String.format("%.1f", telemetryService.getCurrentVerticalVelocity()) + "m/s");
+            // One snapshot read so every value below comes from the same instant
+            TelemetrySnapshot snapshot = telemetryService.getSnapshot();
+            Log.d(TAG, "=== Current Telemetry Values (seq " + snapshot.sequence + ") ===");
+            Log.d(TAG, "Flight Mode: " + snapshot.flightMode);
+            Log.d(TAG, "GPS Signal: " + snapshot.gpsSignalLevel);
+            Log.d(TAG, "Satellites: " + snapshot.satelliteCount);
+            Log.d(TAG, "Remote Signal: " + snapshot.linkSignalQuality + "%");
+            Log.d(TAG, "Battery: " + snapshot.batteryPercentage + "%");
+            Log.d(TAG, "Altitude: " + String.format("%.1f", snapshot.altitude) + "m");
+            Log.d(TAG, "H-Speed: " + String.format("%.1f", snapshot.horizontalVelocity) + "m/s");
+            Log.d(TAG, "V-Speed: " + String.format("%.1f", snapshot.verticalVelocity) + "m/s");
             
-            if (telemetryService.getCurrentLocation() != null) {
+            if (snapshot.hasLocation) {
                 Log.d(TAG, "Location: " + 
-                      String.format("%.6f", telemetryService.getCurrentLocation().getLatitude()) + ", " +
-                      String.format("%.6f", telemetryService.getCurrentLocation().getLongitude()));
+                      String.format("%.6f", snapshot.latitude) + ", " +
+                      String.format("%.6f", snapshot.longitude));
             }
             Log.d(TAG, "================================");
         }
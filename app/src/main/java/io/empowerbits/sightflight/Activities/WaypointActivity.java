@@ -9,14 +9,8 @@ import android.content.IntentFilter;
 import android.content.ServiceConnection;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.PorterDuff;
-import android.graphics.Rect;
-import android.graphics.Typeface;
 import android.location.Location;
 import android.os.Bundle;
 import android.os.Handler;
@@ -62,7 +56,6 @@ import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
-import com.google.android.gms.maps.model.Polyline;
 import com.google.android.gms.maps.model.PolylineOptions;
 import com.google.android.gms.maps.model.Polygon;
 import com.google.android.gms.maps.model.PolygonOptions;
@@ -87,6 +80,10 @@ import io.empowerbits.sightflight.Services.ButtonsListenerService;
 import io.empowerbits.sightflight.Services.CommandService_V5SDK;
 import io.empowerbits.sightflight.Services.ConnectionStateManager;
 import io.empowerbits.sightflight.Services.TelemetryService;
+import io.empowerbits.sightflight.Services.mission.MissionKmzBuilder;
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
+import io.empowerbits.sightflight.Services.telemetry.FlightTimePredictor;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
 import io.empowerbits.sightflight.models.FlightAddress;
 import io.empowerbits.sightflight.models.MissionSetting;
 import io.empowerbits.sightflight.models.Obstacle;
@@ -97,7 +94,11 @@ import io.empowerbits.sightflight.util.PermissionHelper;
 import io.empowerbits.sightflight.util.SessionUtils;
 import io.empowerbits.sightflight.util.SpeedDisplayManager;
 import io.empowerbits.sightflight.util.TelemetryDisplayManager;
+import io.empowerbits.sightflight.util.TelemetryLatencyOverlay;
 import io.empowerbits.sightflight.util.UserSessionManager;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlMissionValidator;
 
 import org.json.JSONObject;
 
@@ -128,6 +129,8 @@ import dji.v5.manager.aircraft.flysafe.info.FlySafeTipInformation;
 import dji.v5.manager.aircraft.flysafe.info.FlySafeWarningInformation;
 import dji.v5.manager.aircraft.flysafe.info.FlyZoneInformation;
 import dji.v5.manager.interfaces.IFlyZoneManager;
+import io.empowerbits.sightflight.util.MapIconCache;
+import io.empowerbits.sightflight.util.MapOverlayReconciler;
 import io.empowerbits.sightflight.util.NFZManager;
 
 /**
@@ -148,7 +151,12 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
     private ImageView stopMissionButton;
     private ImageView pauseResumeButton;
     private ArrayList<WaypointSetting> waypointsList;
-    private Polyline waypointPolyline;
+    // Checks waypointsList as it is edited, kept in step with it
+    private WpmlMissionValidator missionValidator;
+    private int draggedWaypointIndex = -1;
+    private String shownValidationMessage;
+    // Mission path, its points are updated in place as waypoints change
+    private MapOverlayReconciler waypointPathOverlay;
     // Services
     private CommandService_V5SDK commandService;
     private TelemetryService telemetryService;
@@ -162,12 +170,17 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
     private Marker droneMarker;
     private Marker homeLocationMarker;
     private Double currentDroneHeading = 0.0;
+    private TelemetryService.LocationChangedListener droneLocationListener;
+    private TelemetryService.HeadingChangedListener droneHeadingListener;
+    private TelemetryService.ReturnDeadlineChangedListener returnDeadlineListener;
+    private boolean returnWarningShown = false;
     private boolean missionInProgress = false;
     private boolean missionPaused = false;
     private Handler uiHandler;
     MissionSetting missionSetting;
     private CameraFeedFragment cameraFeedFragment;
     private TelemetryDisplayManager telemetryDisplayManager;
+    private TelemetryLatencyOverlay telemetryLatencyOverlay;
     private SpeedDisplayManager speedDisplayManager;
 
     // Flight logging
@@ -237,6 +250,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         isManualWaypointMode = getIntent().getBooleanExtra("mode", false);
 
         waypointsList = new ArrayList<>();
+        missionValidator = new WpmlMissionValidator(ConnectionStateManager.getInstance().getCurrentAircraftProfile());
         points = new ArrayList<>();
         uiHandler = new Handler(Looper.getMainLooper());
         SessionUtils.initialize(this);
@@ -253,6 +267,9 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         ConnectionStateManager.getInstance().getConnectionState().observe(this, isConnected -> {
             updateConnection(isConnected);
         });
+        ConnectionStateManager.getInstance().getProductType().observe(this, productType -> {
+            onAircraftProfileChanged(ConnectionStateManager.getInstance().getCurrentAircraftProfile());
+        });
     }
 
     void updateConnection(boolean isConnected){
@@ -307,6 +324,10 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                 telemetryDisplayManager.setupTelemetryServices(telemetryService);
                 speedDisplayManager.setupTelemetryServices(telemetryService);
 
+                // Telemetry latency readout, debug builds only
+                telemetryLatencyOverlay = new TelemetryLatencyOverlay(this, telemetryService);
+                telemetryLatencyOverlay.show();
+
                 // Set home location for distance calculation if available
                 if (homeLocation != null) {
                     speedDisplayManager.setHomeLocation(homeLocation.latitude, homeLocation.longitude);
@@ -352,6 +373,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         if(currentProject != null){
             missionSetting = new MissionSetting();
             missionSetting.poiLocation = new Location2D(Double.parseDouble(currentProject.latitude), Double.parseDouble(currentProject.longitude));
+            syncMissionValidator();
 
             double maxHeight = currentProject.must_height;
             List<Obstacle> obstacles = currentProject.getObstacles();
@@ -388,57 +410,88 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                 showMessage("Failed to create home marker on map");
             }
 
-            // 4. Process non-grid flight
-            double subjectPhotoHeight = currentProject.height_of_house + 45;
-            double horizonPathHeight = currentProject.height_of_house + 15;
+            // 4. Process non-grid flight, all waypoints in one batch
             List<FlightAddress> flightPath = currentProject.getWaypointList();
-            double maxObstacleHeight = maxHeight + 10;
-
-            if (!flightPath.isEmpty()) {
-                double[] heights = {150, subjectPhotoHeight,
-                        maxObstacleHeight, horizonPathHeight};
-
-                for (int i = 0; i < heights.length; i++) {
-                    double height = heights[i];
-                    drawWaypoint(Double.parseDouble(currentProject.latitude), Double.parseDouble(currentProject.longitude), currentProject, height, false);
-                }
-
-                boolean containsInnerPath = false;
-                int noOfInspectionWaypoints = 8;
-                if (currentProject.flight_setting != null) {
-                    String flightSettingStr = currentProject.getFlightSettingAsString();
-                    if (flightSettingStr != null && !flightSettingStr.isEmpty() && !flightSettingStr.equals("null")) {
-                        try {
-                            JSONObject flightSettings = new JSONObject(flightSettingStr);
-                            if (flightSettings.has("noOfWaypoints")) {
-                                if(flightPath.size() > (flightSettings.getInt("noOfWaypoints"))){
-                                    containsInnerPath = true;
-                                }
-                            }
-                            if (flightSettings.has("noOfInspectionWaypoints")) {
-                                noOfInspectionWaypoints = flightSettings.getInt("noOfInspectionWaypoints");
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing flight settings: " + e.getMessage());
+            int noOfWaypoints = 0;
+            int noOfInspectionWaypoints = ProjectMissionPlanner.DEFAULT_INSPECTION_WAYPOINTS;
+            if (currentProject.flight_setting != null) {
+                String flightSettingStr = currentProject.getFlightSettingAsString();
+                if (flightSettingStr != null && !flightSettingStr.isEmpty() && !flightSettingStr.equals("null")) {
+                    try {
+                        JSONObject flightSettings = new JSONObject(flightSettingStr);
+                        if (flightSettings.has("noOfWaypoints")) {
+                            noOfWaypoints = flightSettings.getInt("noOfWaypoints");
                         }
+                        if (flightSettings.has("noOfInspectionWaypoints")) {
+                            noOfInspectionWaypoints = flightSettings.getInt("noOfInspectionWaypoints");
+                        }
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error parsing flight settings: " + e.getMessage());
                     }
                 }
+            }
+            ProjectMissionPlanner planner = new ProjectMissionPlanner(projLat, projLng, missionSetting.poiHeight,
+                    currentProject.height_of_house, maxHeight);
+            drawWaypoints(planner.plan(flightPath, noOfWaypoints, noOfInspectionWaypoints));
+        }
+    }
 
-                // 4. Process remaining waypoints with maxObstacleHeight
-                for (int i = 0; i < flightPath.size(); i++) {
-                    FlightAddress waypoint = flightPath.get(i);
-                    if(containsInnerPath && i < noOfInspectionWaypoints){
-                        drawWaypoint(waypoint.lat, waypoint.lng,
-                                currentProject, horizonPathHeight, true);
-                    }else{
-                        drawWaypoint(waypoint.lat, waypoint.lng,
-                                currentProject, maxObstacleHeight, false);
-                    }
+    /**
+     * Add precomputed waypoints, e.g. a whole project, with one save, one polyline
+     * rebuild, one validator sync and one NFZ check instead of one per waypoint as
+     * drawWaypoint does
+     */
+    private void drawWaypoints(List<WaypointSetting> waypoints) {
+        if (waypoints.isEmpty()) {
+            return;
+        }
+        if (googleMap == null) {
+            showMessage("Map not ready - cannot add waypoint");
+            return;
+        }
+        try {
+            for (WaypointSetting waypointSetting : waypoints) {
+                waypointSetting.name = "Waypoint " + (points.size() + 1);
+                Marker marker = addWaypointMarker(waypointSetting.latitude, waypointSetting.longitude,
+                        waypointSetting.altitude / ProjectMissionPlanner.FEET_TO_METERS);
+                if (marker == null) {
+                    showMessage("Failed to create waypoint marker");
+                    break;
                 }
+                waypointsList.add(waypointSetting);
             }
+            syncMissionValidator();
+            SessionUtils.saveWaypoints(waypointsList);
+            invalidatePreparedMission();
+            updateWaypointPolyline();
+            checkWaypointsForNFZ();
+        } catch (Exception e) {
+            Log.e(TAG, "Error creating waypoints: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Numbered, draggable marker for the next waypoint, added to points
+     */
+    private Marker addWaypointMarker(double lat, double lng, double heightFeet) {
+        LatLng position = new LatLng(lat, lng);
+        int markerNumber = points.size() + 1;
+        MarkerOptions markerOptions = new MarkerOptions()
+                .position(position)
+                .title("Waypoint " + markerNumber)
+                .snippet("Waypoint #" + markerNumber + " - Altitude: " + (Math.round(heightFeet * 10) / 10.0) + "f")
+                .icon(createWaypointMarker(markerNumber))
+                .anchor(0.5f, 0.5f)
+                .draggable(!missionInProgress);
+
+        Marker marker = googleMap.addMarker(markerOptions);
+        if (marker != null) {
+            marker.setVisible(true);
+            points.add(marker);
+        }
+        return marker;
+    }
+
     public void drawWaypoint(double lat, double lng, Project project, double height, boolean isIspectionMarker) {
         try {
             // Step 1: Create a new waypoint
@@ -446,23 +499,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             String waypointName = "Waypoint " + (points.size() + 1);
             waypointSetting.name = waypointName;
             if (googleMap != null) {
-                LatLng position = new LatLng(lat, lng);
-                int markerNumber = points.size() + 1;
-                BitmapDescriptor waypointIcon = createWaypointMarker(markerNumber);
-
-                MarkerOptions markerOptions = new MarkerOptions()
-                        .position(position)
-                        .title(waypointName)
-                        .snippet("Waypoint #" + markerNumber + " - Altitude: "+ height + "f")
-                        .icon(waypointIcon)
-                        .anchor(0.5f, 0.5f);
-
-                Marker marker = googleMap.addMarker(markerOptions);
-
-                if (marker != null) {
-                    marker.setVisible(true);
-                    points.add(marker);
-                } else {
+                if (addWaypointMarker(lat, lng, height) == null) {
                     showMessage("Failed to create waypoint marker");
                     return;
                 }
@@ -499,7 +536,9 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
 
             waypointSetting.altitude = height * 0.3048;
             waypointsList.add(waypointSetting);
+            missionValidator.addWaypoint(MissionKmzBuilder.toWpmlWaypoint(waypointSetting));
             SessionUtils.saveWaypoints(waypointsList);
+            invalidatePreparedMission();
             updateWaypointPolyline();
 
             // Check NFZ after adding waypoint
@@ -514,24 +553,19 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             if (googleMap == null) {
                 return;
             }
-            if (waypointPolyline != null) {
-                waypointPolyline.remove();
-                waypointPolyline = null;
-            }
-            if (!waypointsList.isEmpty()) {
-                PolylineOptions polylineOptions = new PolylineOptions()
-                        .color(getResources().getColor(android.R.color.holo_blue_bright))
-                        .width(8f)
-                        .geodesic(true);
-                for (WaypointSetting waypoint : waypointsList) {
-                    if (waypoint.latitude != null && waypoint.longitude != null) {
-                        polylineOptions.add(new LatLng(waypoint.latitude, waypoint.longitude));
-                    }
-                }
-                if (polylineOptions.getPoints().size() >= 2) {
-                    waypointPolyline = googleMap.addPolyline(polylineOptions);
+            if (waypointPathOverlay == null) {
+                waypointPathOverlay = new MapOverlayReconciler(googleMap);
+            }
+            List<LatLng> pathPoints = new ArrayList<>(waypointsList.size());
+            for (WaypointSetting waypoint : waypointsList) {
+                if (waypoint.latitude != null && waypoint.longitude != null) {
+                    pathPoints.add(new LatLng(waypoint.latitude, waypoint.longitude));
                 }
             }
+            waypointPathOverlay.setPath(pathPoints, new PolylineOptions()
+                    .color(getResources().getColor(android.R.color.holo_blue_bright))
+                    .width(8f)
+                    .geodesic(true));
         } catch (Exception e) {
             // Error updating waypoint polyline
         }
@@ -539,36 +573,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
 
     BitmapDescriptor createWaypointMarker(int waypointNumber) {
         try {
-            // Use the same map_marker resource as FlightWaypointsActivity
-            Bitmap originalBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.map_marker);
-
-            if (originalBitmap == null) {
-                return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN);
-            }
-
-            // Create mutable copy to draw on
-            Bitmap mutableBitmap = originalBitmap.copy(Bitmap.Config.ARGB_8888, true);
-            Canvas canvas = new Canvas(mutableBitmap);
-
-            // Set up paint for the number text (same as FlightWaypointsActivity)
-            Paint textPaint = new Paint();
-            textPaint.setColor(Color.WHITE);
-            textPaint.setTextSize(35);
-            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
-            textPaint.setAntiAlias(true);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-
-            // Draw the number on the marker
-            String numberText = String.valueOf(waypointNumber);
-            Rect textBounds = new Rect();
-            textPaint.getTextBounds(numberText, 0, numberText.length(), textBounds);
-
-            // Position text in center of marker (same calculation as FlightWaypointsActivity)
-            float x = mutableBitmap.getWidth() / 2.0f;
-            float y = (mutableBitmap.getHeight() / 3.0f) - textBounds.exactCenterY();
-            canvas.drawText(numberText, x, y, textPaint);
-            return BitmapDescriptorFactory.fromBitmap(mutableBitmap);
-
+            return MapIconCache.getInstance(this).getWaypointMarker(waypointNumber);
         } catch (Exception e) {
             // Fallback to default green marker if creation fails
             return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN);
@@ -686,6 +691,14 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
      */
     private void setupButtonListeners() {
         startMissionButton.setOnClickListener(v -> {
+            if (!missionValidator.isValid()) {
+                // Not blocking: checkValidation on the built KMZ has the final word
+                showMessage("⚠️ " + missionValidator.getIssues().get(0).getMessage());
+            }
+            // Build and upload while the storage, NFZ and confirmation popups are up
+            if (commandService != null) {
+                commandService.prepareWaypointMission(missionSetting, waypointsList);
+            }
             showStorageCheckPopup();
         });
         
@@ -740,6 +753,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         pauseResumeButton.setVisibility(View.GONE);
         missionInProgress = false;
         missionPaused = false;
+        setWaypointMarkersDraggable(true);
     }
     
     /**
@@ -870,6 +884,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
 
         // Setup marker click listener for waypoint settings
         setupWaypointMarkerClickListener();
+        setupWaypointMarkerDragListener();
 
         if (homeLocation != null) {
             updateMapWithHomeLocation();
@@ -910,38 +925,60 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         // Since TelemetryService is a singleton class (not Android Service),
         // we'll use it directly to get location updates
         if (telemetryService != null) {
-            telemetryService.setLocationChangedListener(new TelemetryService.LocationChangedListener() {
+            droneLocationListener = new TelemetryService.LocationChangedListener() {
                 @Override
                 public void onLocationChanged(LocationCoordinate3D location) {
-                    uiHandler.post(() -> updateDroneLocationOnMap(location));
+                    // Delivered on the main thread once per frame by TelemetryService
+                    updateDroneLocationOnMap(location);
+                    telemetryService.recordViewApplied(TelemetryChannelId.LOCATION);
                 }
 
                 @Override
                 public void onHomeLocationChanged(LocationCoordinate2D location) {
-                    uiHandler.post(() -> {
-                        if (googleMap == null || location == null) return;
-                        LatLng dronePosition = new LatLng(location.getLatitude(), location.getLongitude());
-                        if (homeLocationMarker == null) {
-                            MarkerOptions droneMarkerOptions = new MarkerOptions()
-                                    .position(dronePosition)
-                                    .title("Home Location")
-                                    .icon(BitmapDescriptorFactory.fromResource(R.drawable.home));
-                            homeLocationMarker = googleMap.addMarker(droneMarkerOptions);
-                        } else {
-                            homeLocationMarker.setPosition(dronePosition);
-                        }
-                    });
+                    if (googleMap == null || location == null) return;
+                    LatLng dronePosition = new LatLng(location.getLatitude(), location.getLongitude());
+                    if (homeLocationMarker == null) {
+                        MarkerOptions droneMarkerOptions = new MarkerOptions()
+                                .position(dronePosition)
+                                .title("Home Location")
+                                .icon(BitmapDescriptorFactory.fromResource(R.drawable.home));
+                        homeLocationMarker = googleMap.addMarker(droneMarkerOptions);
+                    } else {
+                        homeLocationMarker.setPosition(dronePosition);
+                    }
                 }
-            });
+            };
+            telemetryService.addLocationChangedListener(droneLocationListener);
 
             // Setup heading listener for drone marker rotation
-            telemetryService.setHeadingChangedListener(new TelemetryService.HeadingChangedListener() {
+            droneHeadingListener = new TelemetryService.HeadingChangedListener() {
                 @Override
                 public void onHeadingChanged(Double heading) {
                     currentDroneHeading = heading;
-                    uiHandler.post(() -> updateDroneMarkerRotation(heading));
+                    updateDroneMarkerRotation(heading);
+                    telemetryService.recordViewApplied(TelemetryChannelId.HEADING);
                 }
-            });
+            };
+            telemetryService.addHeadingChangedListener(droneHeadingListener);
+
+            // Warn once per mission when the battery only just covers the way home
+            returnDeadlineListener = new TelemetryService.ReturnDeadlineChangedListener() {
+                @Override
+                public void onReturnDeadlineChanged(Double mustReturnInSeconds) {
+                    if (!missionInProgress || mustReturnInSeconds == null) {
+                        return;
+                    }
+                    if (mustReturnInSeconds > FlightTimePredictor.RETURN_WARNING_SECONDS) {
+                        returnWarningShown = false;
+                    } else if (!returnWarningShown) {
+                        returnWarningShown = true;
+                        showMessage(mustReturnInSeconds > 0
+                                ? "⚠️ Battery low - return home within " + Math.round(mustReturnInSeconds) + "s"
+                                : "⚠️ Battery low - return home now");
+                    }
+                }
+            };
+            telemetryService.addReturnDeadlineChangedListener(returnDeadlineListener);
         }
 
         Log.d(TAG, "Drone location and heading listeners setup complete");
@@ -1116,6 +1153,8 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             switch (statusType) {
                 case CommandService_V5SDK.STATUS_MISSION_STARTED:
                     missionInProgress = true;
+                    runOnUiThread(() -> setWaypointMarkersDraggable(false));
+                    returnWarningShown = false;
                     // Call flight started log API
                     createAndSaveFlightStartedLog();
                     break;
@@ -1169,9 +1208,15 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
             String startTime = dateFormat.format(new Date());
 
-            // Calculate estimated end time (current time + 13 minutes)
+            // Estimated end time from the mission's remaining path and the battery,
+            // falling back to a typical flight when there is no telemetry yet
+            double secondsToEnd = telemetryService != null ? telemetryService.estimateSecondsToFlightEnd() : -1;
             Calendar calendar = Calendar.getInstance();
-            calendar.add(Calendar.MINUTE, 13);
+            if (secondsToEnd >= 0) {
+                calendar.add(Calendar.SECOND, (int) Math.ceil(secondsToEnd));
+            } else {
+                calendar.add(Calendar.MINUTE, 13);
+            }
             String estimatedEndTime = dateFormat.format(calendar.getTime());
 
             // Get drone name from ConnectionStateManager
@@ -1604,6 +1649,8 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                 break;
         }
         Log.d(TAG, "Mission settings saved: " + missionSetting.getMissionSettingsSummary());
+        syncMissionValidator();
+        invalidatePreparedMission();
     }
 
     /**
@@ -1641,11 +1688,12 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
 
             // Clear waypoint list
             waypointsList.clear();
+            missionValidator.clearWaypoints();
+            invalidatePreparedMission();
 
             // Clear polyline
-            if (waypointPolyline != null) {
-                waypointPolyline.remove();
-                waypointPolyline = null;
+            if (waypointPathOverlay != null) {
+                waypointPathOverlay.clearPath();
             }
 
             // Clear POI marker
@@ -1743,7 +1791,8 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                     .title("Waypoint " + markerNumber)
                     .snippet("Waypoint #" + markerNumber)
                     .icon(waypointIcon)
-                    .anchor(0.5f, 0.5f);
+                    .anchor(0.5f, 0.5f)
+                    .draggable(!missionInProgress);
 
             Marker waypointMarker = googleMap.addMarker(waypointMarkerOptions);
 
@@ -1757,6 +1806,9 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                 waypointSetting.longitude = latLng.longitude;
                 waypointSetting.altitude = missionSetting != null ? missionSetting.getTakeOffSecurityHeightInMeters() : 50;
                 waypointsList.add(waypointSetting);
+                missionValidator.addWaypoint(MissionKmzBuilder.toWpmlWaypoint(waypointSetting));
+                showWaypointValidation(waypointsList.size() - 1);
+                invalidatePreparedMission();
                 // Update polyline
                 updateWaypointPolyline();
                 checkWaypointsForNFZ();
@@ -1764,6 +1816,15 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         }
     }
 
+    /**
+     * Drop the mission the service prepared ahead of confirmation, after any edit
+     */
+    private void invalidatePreparedMission() {
+        if (commandService != null) {
+            commandService.invalidatePreparedMission();
+        }
+    }
+
     /**
      * Show mission start confirmation popup with swipe button
      */
@@ -2043,8 +2104,12 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
 
         // Cleanup TelemetryService (singleton)
         if (telemetryService != null) {
-            telemetryService.setLocationChangedListener(null);
-            telemetryService.setHeadingChangedListener(null);
+            telemetryService.removeLocationChangedListener(droneLocationListener);
+            telemetryService.removeHeadingChangedListener(droneHeadingListener);
+            telemetryService.removeReturnDeadlineChangedListener(returnDeadlineListener);
+        }
+        if (telemetryLatencyOverlay != null) {
+            telemetryLatencyOverlay.hide();
         }
 
         // Cleanup display managers
@@ -2398,35 +2463,7 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
      * Create custom marker icon with number and color
      */
     private BitmapDescriptor createCustomMarkerIcon(int number, int color) {
-        Bitmap bitmap = Bitmap.createBitmap(80, 80, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-
-        // Draw circle
-        Paint paint = new Paint();
-        paint.setColor(color);
-        paint.setStyle(Paint.Style.FILL);
-        paint.setAntiAlias(true);
-        canvas.drawCircle(40, 40, 35, paint);
-
-        // Draw white border
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(4);
-        canvas.drawCircle(40, 40, 35, paint);
-
-        // Draw number
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.FILL);
-        paint.setTextSize(35);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setTypeface(Typeface.DEFAULT_BOLD);
-
-        Rect textBounds = new Rect();
-        String text = String.valueOf(number);
-        paint.getTextBounds(text, 0, text.length(), textBounds);
-        canvas.drawText(text, 40, 40 + textBounds.height()/2, paint);
-
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        return MapIconCache.getInstance(this).getCircleMarker(number, color);
     }
 
     /**
@@ -3291,23 +3328,16 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
      * Generate circle points for visualization
      */
     private List<LatLng> generateCirclePoints(LatLng center, double radiusMeters, int numPoints) {
-        List<LatLng> points = new ArrayList<>();
-        double earthRadius = 6371000; // meters
-
-        for (int i = 0; i <= numPoints; i++) {
-            double angle = 2 * Math.PI * i / numPoints;
-
-            // Calculate offset in meters
-            double dx = radiusMeters * Math.cos(angle);
-            double dy = radiusMeters * Math.sin(angle);
+        double[] lats = new double[numPoints];
+        double[] lngs = new double[numPoints];
+        Geodesy.circle(center.latitude, center.longitude, radiusMeters, numPoints, 0, lats, lngs);
 
-            // Convert to lat/lng offsets
-            double deltaLat = dy / earthRadius * (180 / Math.PI);
-            double deltaLng = dx / (earthRadius * Math.cos(Math.toRadians(center.latitude))) * (180 / Math.PI);
-
-            points.add(new LatLng(center.latitude + deltaLat, center.longitude + deltaLng));
+        List<LatLng> points = new ArrayList<>(numPoints + 1);
+        for (int i = 0; i < numPoints; i++) {
+            points.add(new LatLng(lats[i], lngs[i]));
         }
-
+        // Closed ring
+        points.add(points.get(0));
         return points;
     }
 
@@ -3321,39 +3351,8 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             // Create label text
             String labelText = zone.category != null ? zone.category : "NFZ";
 
-            // Increased dimensions for larger label
-            int width = 400;
-            int height = 100;
-
-            // Create a custom marker with text
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(bitmap);
-
-            // Background
-            Paint bgPaint = new Paint();
-            bgPaint.setColor(NFZManager.getNFZColor(zone.category));
-            bgPaint.setAlpha(200);
-            bgPaint.setStyle(Paint.Style.FILL);
-            canvas.drawRoundRect(10, 10, width - 10, height - 10, 15, 15, bgPaint);
-
-            // Border
-            Paint borderPaint = new Paint();
-            borderPaint.setColor(Color.WHITE);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(3);
-            canvas.drawRoundRect(10, 10, width - 10, height - 10, 15, 15, borderPaint);
-
-            // Text - increased font size
-            Paint textPaint = new Paint();
-            textPaint.setColor(Color.WHITE);
-            textPaint.setTextSize(36);
-            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
-            textPaint.setAntiAlias(true);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-
-            canvas.drawText(labelText, width / 2, height / 2 + 12, textPaint);
-
-            BitmapDescriptor icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+            BitmapDescriptor icon = MapIconCache.getInstance(this)
+                    .getLabel(labelText, NFZManager.getNFZColor(zone.category));
 
             MarkerOptions markerOptions = new MarkerOptions()
                     .position(position)
@@ -3387,39 +3386,8 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
             // Create label text
             String labelText = zone.category != null ? zone.category : "NFZ";
 
-            // Increased dimensions for larger label
-            int width = 400;
-            int height = 100;
-
-            // Create a custom marker with text
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(bitmap);
-
-            // Background
-            Paint bgPaint = new Paint();
-            bgPaint.setColor(NFZManager.getNFZColor(zone.category));
-            bgPaint.setAlpha(200);
-            bgPaint.setStyle(Paint.Style.FILL);
-            canvas.drawRoundRect(10, 10, width - 10, height - 10, 15, 15, bgPaint);
-
-            // Border
-            Paint borderPaint = new Paint();
-            borderPaint.setColor(Color.WHITE);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(3);
-            canvas.drawRoundRect(10, 10, width - 10, height - 10, 15, 15, borderPaint);
-
-            // Text - increased font size
-            Paint textPaint = new Paint();
-            textPaint.setColor(Color.WHITE);
-            textPaint.setTextSize(36);  // Increased from 24 to 36
-            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
-            textPaint.setAntiAlias(true);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-
-            canvas.drawText(labelText, width / 2, height / 2 + 12, textPaint);
-
-            BitmapDescriptor icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+            BitmapDescriptor icon = MapIconCache.getInstance(this)
+                    .getLabel(labelText, NFZManager.getNFZColor(zone.category));
 
             MarkerOptions markerOptions = new MarkerOptions()
                     .position(center)
@@ -3563,6 +3531,119 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
         Log.d(TAG, "Waypoint marker click listener setup successfully");
     }
 
+    /**
+     * Move waypoints by dragging their markers, validating the waypoint on every frame;
+     * the mission on the aircraft is not edited while it is flown
+     */
+    private void setupWaypointMarkerDragListener() {
+        googleMap.setOnMarkerDragListener(new GoogleMap.OnMarkerDragListener() {
+            @Override
+            public void onMarkerDragStart(Marker marker) {
+                if (missionInProgress) {
+                    draggedWaypointIndex = -1;
+                    return;
+                }
+                draggedWaypointIndex = points.indexOf(marker);
+                onMarkerDrag(marker);
+            }
+
+            @Override
+            public void onMarkerDrag(Marker marker) {
+                if (draggedWaypointIndex < 0 || draggedWaypointIndex >= waypointsList.size()) {
+                    return;
+                }
+                WaypointSetting waypointSetting = waypointsList.get(draggedWaypointIndex);
+                waypointSetting.latitude = marker.getPosition().latitude;
+                waypointSetting.longitude = marker.getPosition().longitude;
+                missionValidator.setWaypoint(draggedWaypointIndex, MissionKmzBuilder.toWpmlWaypoint(waypointSetting));
+                showWaypointValidation(draggedWaypointIndex);
+            }
+
+            @Override
+            public void onMarkerDragEnd(Marker marker) {
+                if (draggedWaypointIndex < 0) {
+                    // A drag refused at its start, put the marker back on its waypoint
+                    int waypointIndex = points.indexOf(marker);
+                    if (waypointIndex >= 0 && waypointIndex < waypointsList.size()) {
+                        WaypointSetting waypointSetting = waypointsList.get(waypointIndex);
+                        marker.setPosition(new LatLng(waypointSetting.latitude, waypointSetting.longitude));
+                    }
+                    return;
+                }
+                onMarkerDrag(marker);
+                draggedWaypointIndex = -1;
+                SessionUtils.saveWaypoints(waypointsList);
+                invalidatePreparedMission();
+                updateWaypointPolyline();
+                checkWaypointsForNFZ();
+            }
+        });
+    }
+
+    /**
+     * Lock the waypoint markers in place while a mission is flown
+     */
+    private void setWaypointMarkersDraggable(boolean draggable) {
+        if (points == null) {
+            return;
+        }
+        for (Marker marker : points) {
+            marker.setDraggable(draggable);
+        }
+    }
+
+    /**
+     * Check the mission against the limits of the newly connected aircraft
+     */
+    private void onAircraftProfileChanged(WpmlAircraftProfile profile) {
+        if (missionValidator.getProfile() == profile) {
+            return;
+        }
+        Log.d(TAG, "Aircraft profile changed to " + profile);
+        missionValidator = new WpmlMissionValidator(profile);
+        syncMissionValidator();
+        for (int i = 0; i < points.size(); i++) {
+            showWaypointValidation(i);
+        }
+    }
+
+    /**
+     * Rebuild the validator's mission after the mission settings or the POI changed
+     */
+    private void syncMissionValidator() {
+        missionValidator.setMission(MissionKmzBuilder.toWpmlMission(
+                missionSetting != null ? missionSetting : new MissionSetting(), waypointsList));
+    }
+
+    /**
+     * Dim a waypoint's marker while it has problems and show the first one in the status
+     * text; called on every drag frame, so views are only touched when something changes.
+     * Mission-wide problems are shown when the mission is started.
+     */
+    private void showWaypointValidation(int waypointIndex) {
+        if (waypointIndex < 0 || waypointIndex >= points.size()) {
+            return;
+        }
+        List<WpmlMissionValidator.Issue> issues = missionValidator.getWaypointIssues(waypointIndex);
+        Marker marker = points.get(waypointIndex);
+        float alpha = issues.isEmpty() ? 1.0f : 0.6f;
+        if (marker.getAlpha() != alpha) {
+            marker.setAlpha(alpha);
+        }
+        String message = issues.isEmpty() ? null
+                : "⚠️ Waypoint " + (waypointIndex + 1) + ": " + issues.get(0).getMessage();
+        if (message == null ? shownValidationMessage == null : message.equals(shownValidationMessage)) {
+            return;
+        }
+        shownValidationMessage = message;
+        if (message != null) {
+            statusTextView.setVisibility(View.VISIBLE);
+            statusTextView.setText(message);
+        } else {
+            statusTextView.setVisibility(View.GONE);
+        }
+    }
+
     /**
      * Show waypoint setting popup dialog
      */
@@ -3671,6 +3752,9 @@ public class WaypointActivity extends AppCompatActivity implements OnMapReadyCal
                     waypointSetting.altitude = 1.0 + (altitudeSlider.getProgress() / 10.0);
                     waypointSetting.waypointSpeed = 1.0 + (waypointSpeedSlider.getProgress() / 10.0);
                     waypointSetting.gimbalPitchAngle = gimbalPitchAngleSlider.getProgress() - 90.0;
+                    missionValidator.setWaypoint(waypointIndex, MissionKmzBuilder.toWpmlWaypoint(waypointSetting));
+                    showWaypointValidation(waypointIndex);
+                    invalidatePreparedMission();
                     marker.setTitle(waypointSetting.name);
                     waypointSettingPopup.dismiss();
                 } catch (Exception e) {
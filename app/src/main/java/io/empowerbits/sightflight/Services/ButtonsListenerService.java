@@ -17,6 +17,8 @@ import dji.sdk.keyvalue.value.common.ComponentIndexType;
 import dji.v5.common.callback.CommonCallbacks;
 import dji.v5.manager.KeyManager;
 import io.empowerbits.sightflight.Activities.WaypointActivity;
+import io.empowerbits.sightflight.Services.mission.MissionJournal;
+import io.empowerbits.sightflight.Services.mission.MissionJournalFormat;
 
 /**
  * ButtonsListenerService monitors DJI Remote Controller button presses and joystick movements during waypoint missions.
@@ -327,7 +329,7 @@ public class ButtonsListenerService extends Service {
         localBroadcastManager.sendBroadcast(broadcastIntent);
 
         // Pause the waypoint mission via CommandService_V5SDK
-        pauseWaypointMission();
+        pauseWaypointMission(MissionJournalFormat.SOURCE_RC_BUTTON);
     }
 
     /**
@@ -348,7 +350,7 @@ public class ButtonsListenerService extends Service {
             localBroadcastManager.sendBroadcast(broadcastIntent);
 
             // Pause the waypoint mission
-            pauseWaypointMission();
+            pauseWaypointMission(MissionJournalFormat.SOURCE_JOYSTICK);
 
             // Set flag to prevent repeated pause calls
             missionPausedByJoystick = true;
@@ -364,8 +366,14 @@ public class ButtonsListenerService extends Service {
     /**
      * Pause the waypoint mission by communicating with WaypointMissionManager
      * This gives the pilot control when any RC button is pressed or joystick moved
+     *
+     * @param source MissionJournalFormat source recorded in the mission journal
      */
-    private void pauseWaypointMission() {
+    private void pauseWaypointMission(int source) {
+        MissionJournal journal = MissionJournal.getActive();
+        if (journal != null) {
+            journal.record(MissionJournalFormat.EVENT_PAUSE_REQUESTED, source, 0);
+        }
         try {
             // Access WaypointMissionManager and pause the mission
             dji.v5.manager.aircraft.waypoint3.WaypointMissionManager waypointMissionManager =
@@ -375,11 +383,17 @@ public class ButtonsListenerService extends Service {
                 @Override
                 public void onSuccess() {
                     Log.d(TAG, "✅ Mission paused successfully after RC button press");
+                    if (journal != null) {
+                        journal.record(MissionJournalFormat.EVENT_PAUSED, source, 0);
+                    }
                 }
 
                 @Override
                 public void onFailure(dji.v5.common.error.IDJIError error) {
                     Log.e(TAG, "❌ Failed to pause mission: " + error.description());
+                    if (journal != null) {
+                        journal.record(MissionJournalFormat.EVENT_PAUSE_FAILED, source, error.description());
+                    }
                 }
             });
         } catch (Exception e) {
@@ -13,39 +13,36 @@ import android.widget.Toast;
 
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
-import com.dji.wpmzsdk.common.data.KMZInfo;
-import com.dji.wpmzsdk.common.data.Template;
 import com.dji.wpmzsdk.interfaces.IWPMZManager;
 import com.dji.wpmzsdk.manager.WPMZManager;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import io.empowerbits.sightflight.models.MissionSetting;
 import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.Services.mission.BuiltMission;
+import io.empowerbits.sightflight.Services.mission.MissionBuildTimings;
+import io.empowerbits.sightflight.Services.mission.MissionJournal;
+import io.empowerbits.sightflight.Services.mission.MissionJournalAnalysis;
+import io.empowerbits.sightflight.Services.mission.MissionJournalFormat;
+import io.empowerbits.sightflight.Services.mission.MissionKmzBuilder;
+import io.empowerbits.sightflight.Services.mission.MissionKmzCache;
+import io.empowerbits.sightflight.Services.mission.PreparedMission;
+import io.empowerbits.sightflight.Services.telemetry.FlightRecordFormat;
 import io.empowerbits.sightflight.util.KMZTestUtil;
-import io.empowerbits.sightflight.util.wpml.WaypointInfoModel;
-import io.empowerbits.sightflight.util.KmzCleaner;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
 
 import dji.sdk.keyvalue.value.common.LocationCoordinate2D;
-import dji.sdk.wpmz.value.mission.WaylineActionInfo;
 import dji.sdk.wpmz.value.mission.WaylineCheckError;
-import dji.sdk.wpmz.value.mission.WaylineCheckErrorMsg;
-import dji.sdk.wpmz.value.mission.WaylineLocationCoordinate2D;
-import dji.sdk.wpmz.value.mission.WaylineLocationCoordinate3D;
-import dji.sdk.wpmz.value.mission.WaylineMission;
-import dji.sdk.wpmz.value.mission.WaylineMissionConfig;
-import dji.sdk.wpmz.value.mission.WaylineMissionConfigParseInfo;
-import dji.sdk.wpmz.value.mission.WaylineMissionParseInfo;
-import dji.sdk.wpmz.value.mission.WaylineWaylinesParseInfo;
-import dji.sdk.wpmz.value.mission.WaylineWaypoint;
-import dji.sdk.wpmz.value.mission.WaylineWaypointTurnMode;
-import dji.sdk.wpmz.value.mission.WaylineWaypointTurnParam;
-import dji.sdk.wpmz.value.mission.WaylineWaypointYawMode;
-import dji.sdk.wpmz.value.mission.WaylineWaypointYawParam;
 import dji.v5.common.callback.CommonCallbacks;
 import dji.v5.common.error.IDJIError;
 import dji.v5.manager.aircraft.simulator.InitializationSettings;
@@ -83,6 +80,13 @@ public class CommandService_V5SDK extends Service {
     private static final float DEFAULT_SPEED = 5.0f; // m/s
     private static final float GIMBAL_PITCH = -90.0f; // look down
     private static final String KMZ_FILE_NAME = "waypoint_mission";
+    private static final String FLIGHT_RECORDS_DIR = "flight_records";
+    private static final String FLIGHT_NAME_PREFIX = "flight_";
+    private static final String MISSION_CACHE_DIR = "mission_cache";
+    private static final String LATENCY_REPORT_SUFFIX = "-latency.txt";
+    private static final String JOURNAL_REPORT_SUFFIX = "-journal.txt";
+    // Written with WpmlWriter instead of WPMZManager + KmzCleaner; WpmlWriterParityTest checks it
+    private static final WpmlAircraftProfile NATIVE_WPML_WRITER_PROFILE = WpmlAircraftProfile.MINI_4_PRO;
 
     private LocalBroadcastManager localBroadcastManager;
     private Handler mainHandler;
@@ -94,9 +98,23 @@ public class CommandService_V5SDK extends Service {
     private Intent buttonListenerServiceIntent;
     private File currentKmzFile;
     private File externalKmzFile;
+    private MissionKmzBuilder missionKmzBuilder;
+    private MissionKmzCache missionKmzCache;
+    private ExecutorService exportExecutor;
+    private ExecutorService missionBuildExecutor;
+    private ExecutorService journalExecutor;
+    // Events of the confirmed mission, from confirmation to its end
+    private MissionJournal missionJournal;
+    private String lastJournalState;
+    // Latest mission handed to prepareWaypointMission or startWaypointMission
+    private PreparedMission preparedMission;
+    // Mission whose KMZ is being pushed, the aircraft takes one upload at a time
+    private PreparedMission uploadingMission;
     private int currentWaypointIndex = 0;
     private boolean missionInProgress = false;
     private String currentMissionName = "";
+    // Names the files of one flight; a mission flown again keeps its KMZ name but gets a new one
+    private String currentFlightName = "";
     private final IBinder binder = new CommandServiceBinder();
 
     MissionSetting missionSetting;
@@ -118,6 +136,12 @@ public class CommandService_V5SDK extends Service {
         mainHandler = new Handler(Looper.getMainLooper());
         waypointMissionManager = WaypointMissionManager.getInstance();
         wpmzManager = WPMZManager.getInstance();
+        missionKmzBuilder = new MissionKmzBuilder(wpmzManager, getFilesDir(), getCacheDir());
+        missionKmzCache = new MissionKmzCache(new File(getFilesDir(), MISSION_CACHE_DIR), MissionKmzCache.DEFAULT_MAX_BYTES);
+        missionKmzBuilder.setCache(missionKmzCache);
+        exportExecutor = Executors.newSingleThreadExecutor();
+        missionBuildExecutor = Executors.newSingleThreadExecutor();
+        journalExecutor = Executors.newSingleThreadExecutor();
         buttonListenerServiceIntent = new Intent(this, ButtonsListenerService.class);
 
         setupMissionListeners();
@@ -139,6 +163,10 @@ public class CommandService_V5SDK extends Service {
                     Log.d(TAG, "║ MISSION STATE CHANGED: " + state.name());
                     Log.d(TAG, "║ missionInProgress: " + missionInProgress);
                     Log.d(TAG, "╚══════════════════════════════════════════════════════╝");
+                    if (!state.name().equals(lastJournalState)) {
+                        lastJournalState = state.name();
+                        journal(MissionJournalFormat.EVENT_STATE, state.name());
+                    }
 
                     String statusMessage = "";
                     String statusType = STATUS_HEADING_TO_WAYPOINT;
@@ -151,6 +179,9 @@ public class CommandService_V5SDK extends Service {
                                 missionInProgress = false;
                                 Log.e(TAG, "CRITICAL: Mission state changed to READY while mission was in progress!");
                                 stopButtonListenerService();
+                                stopMissionRecording();
+                                clearMissionPrediction();
+                                closeMissionJournal();
                             } else {
                                 statusMessage = "Mission ready";
                             }
@@ -187,6 +218,9 @@ public class CommandService_V5SDK extends Service {
                             missionInProgress = false;
                             // Stop button listener when mission finishes
                             stopButtonListenerService();
+                            stopMissionRecording();
+                            clearMissionPrediction();
+                            closeMissionJournal();
                             break;
                         case RETURN_TO_START_POINT:
                             statusMessage = "Returning to start point";
@@ -224,6 +258,8 @@ public class CommandService_V5SDK extends Service {
                     // Only update if waypoint changed (to avoid duplicate messages)
                     if (waypointIndex != currentWaypointIndex) {
                         currentWaypointIndex = waypointIndex;
+                        updateMissionPrediction(waypointIndex);
+                        journal(MissionJournalFormat.EVENT_WAYPOINT, waypointIndex);
 
                         if (waypointIndex >= 0 && waypointIndex < waypointSettings.size()) {
                             // ✅ CORRECT: Say "Heading to" not "Reached at"
@@ -253,19 +289,69 @@ public class CommandService_V5SDK extends Service {
     }
 
     /**
-     * Start waypoint mission with predefined waypoints
+     * Build, validate and push the mission in the background while the pilot is still
+     * confirming, so that confirming only has to start it. Edits made afterwards must
+     * be followed by invalidatePreparedMission(); startWaypointMission compares the
+     * mission regardless and never starts a stale one.
+     */
+    public void prepareWaypointMission(MissionSetting missionSetting, List<WaypointSetting> waypointSettings) {
+        if (missionInProgress || waypointSettings == null || waypointSettings.isEmpty()) {
+            return;
+        }
+        PreparedMission mission = prepare(missionSetting, waypointSettings);
+        Log.d(TAG, "Preparing mission " + mission.getKey() + " ahead of confirmation, state " + mission.getState());
+    }
+
+    /**
+     * Drop the speculative mission after an edit; a confirmed mission is left alone
+     */
+    public void invalidatePreparedMission() {
+        PreparedMission mission = preparedMission;
+        if (mission == null || mission.isStartRequested()) {
+            return;
+        }
+        Log.d(TAG, "Prepared mission " + mission.getKey() + " invalidated in state " + mission.getState());
+        mission.cancel();
+        preparedMission = null;
+        if (mission != uploadingMission) {
+            discardBuiltMission(mission);
+        }
+    }
+
+    /**
+     * Start waypoint mission with predefined waypoints; reuses the prepared mission when
+     * it is this one, otherwise builds and uploads it now
      */
     public void startWaypointMission(MissionSetting missionSetting, ArrayList<WaypointSetting> waypointSettings) {
         Log.d(TAG, "Starting waypoint mission creation using DJI SDK KMZTestUtil");
         this.missionSetting = missionSetting;
         this.waypointSettings = waypointSettings;
         try {
-            currentKmzFile = generateKmzFileUsingDJISDK();
-            saveKmzToExternalStorage();
-            verifyKMZFile();
-            //enableSimulator(waypointSettings.get(waypointSettings.size()-1).latitude, waypointSettings.get(waypointSettings.size()-1).longitude, 12);
-            uploadMissionToAircraft();
-
+            PreparedMission mission = prepare(missionSetting, waypointSettings);
+            mission.requestStart();
+            beginFlight();
+            Log.d(TAG, "Mission " + mission.getKey() + " confirmed in state " + mission.getState());
+            openMissionJournal(waypointSettings.size());
+            switch (mission.getState()) {
+                case BUILT:
+                    adoptPreparedMission(mission);
+                    break;
+                case UPLOADING:
+                    adoptPreparedMission(mission);
+                    // Pushed ahead of confirmation, only what is left of it can be timed
+                    journal(MissionJournalFormat.EVENT_UPLOAD_IN_PROGRESS, (int) currentKmzFile.length());
+                    broadcastStatus(STATUS_UPLOADING, "Starting mission upload...", 0, waypointSettings.size());
+                    break;
+                case UPLOADED:
+                    adoptPreparedMission(mission);
+                    journal(MissionJournalFormat.EVENT_UPLOADED, 1);
+                    broadcastStatus(STATUS_UPLOADED, "Mission uploaded successfully", 0, waypointSettings.size());
+                    startPreparedMission(mission);
+                    break;
+                default:
+                    // Still building, onPreparedMissionBuilt continues from here
+                    break;
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error starting waypoint mission: " + e.getMessage(), e);
             showToast("Error creating mission: " + e.getMessage());
@@ -274,230 +360,228 @@ public class CommandService_V5SDK extends Service {
     }
 
     /**
-     * Generate KMZ file using DJI SDK WPMZManager and KMZTestUtil patterns
-     * This uses the official DJI SDK methods to create proper waylines.wpml and template.kml
-     */
-    /**
-     * Generate KMZ file using DJI SDK WPMZManager and KMZTestUtil patterns
-     * This uses the official DJI SDK methods to create proper waylines.wpml and template.kml
+     * The prepared mission for these inputs, started in the background when there is
+     * none or the current one is for other inputs or failed
      */
-    private File generateKmzFileUsingDJISDK() throws IOException {
-        // 1. Create WaylineMission using KMZTestUtil pattern
-        WaylineMission waylineMission = KMZTestUtil.createWaylineMission();
-        WaylineMissionConfig missionConfig = KMZTestUtil.createMissionConfig(missionSetting);
-        List<WaypointInfoModel> waypointInfoModels = createWaypointInfoModels();
-        Template template = KMZTestUtil.createTemplate(waypointInfoModels);
-        long timestamp = System.currentTimeMillis();
-        currentMissionName = KMZ_FILE_NAME + "_" + timestamp;
-        File outputDir = getFilesDir();
-        String kmzPath = new File(outputDir, currentMissionName + ".kmz").getAbsolutePath();
-        wpmzManager.generateKMZFile(
-                kmzPath,            // Full path to output KMZ file
-                waylineMission,     // WaylineMission object
-                missionConfig,      // WaylineMissionConfig object
-                template            // Template object
-        );
-        currentKmzFile = new File(kmzPath);
-        if (!currentKmzFile.exists()) {
-            throw new IOException("WPMZManager.generateKMZFile() did not create the KMZ file");
+    private PreparedMission prepare(MissionSetting missionSetting, List<WaypointSetting> waypointSettings) {
+        // The key covers the profile, so a mission prepared for another aircraft is rebuilt
+        WpmlAircraftProfile profile = ConnectionStateManager.getInstance().getCurrentAircraftProfile();
+        missionKmzBuilder.setAircraftProfile(profile);
+        missionKmzBuilder.setUseNativeWriter(profile == NATIVE_WPML_WRITER_PROFILE);
+        String key = missionKmzBuilder.key(missionSetting, waypointSettings);
+        PreparedMission mission = preparedMission;
+        if (mission != null && mission.getKey().equals(key) && mission.getState() != PreparedMission.State.FAILED) {
+            return mission;
         }
+        invalidatePreparedMission();
+        mission = new PreparedMission(key, missionSetting, waypointSettings);
+        preparedMission = mission;
+        final PreparedMission building = mission;
+        missionBuildExecutor.execute(() -> buildPreparedMission(building));
+        return mission;
+    }
 
-        if (currentKmzFile.length() == 0) {
-            throw new IOException("Generated KMZ file is empty");
+    /**
+     * Runs on missionBuildExecutor
+     */
+    private void buildPreparedMission(PreparedMission mission) {
+        if (mission.isCancelled()) {
+            return;
         }
-
-        Log.d(TAG, "KMZ file generated successfully - size: " + currentKmzFile.length() + " bytes");
-
         try {
-            Log.d(TAG, "Post-processing KMZ to remove corrupt efficiencyFlightModeEnable fields");
-            KmzCleaner.cleanKMZFile(currentKmzFile, outputDir);
-            Log.d(TAG, "KMZ cleaned successfully - new size: " + currentKmzFile.length() + " bytes");
+            BuiltMission built = missionKmzBuilder.build(KMZ_FILE_NAME, mission.getMissionSetting(),
+                    mission.getWaypointSettings());
+            mainHandler.post(() -> onPreparedMissionBuilt(mission, built));
         } catch (Exception e) {
-            Log.e(TAG, "Failed to clean KMZ file: " + e.getMessage(), e);
-            throw new IOException("KMZ cleaning failed: " + e.getMessage());
+            Log.e(TAG, "Error building mission " + mission.getKey() + ": " + e.getMessage(), e);
+            mainHandler.post(() -> onPreparedMissionFailed(mission, "Error creating mission: " + e.getMessage()));
         }
-        return currentKmzFile;
     }
 
-    private void verifyKMZFile (){
-        File outputDir = getFilesDir();
-        Log.d(TAG, "Verifying KMZ File");
-        String kmzPath = new File(outputDir, currentMissionName + ".kmz").getAbsolutePath();
-        try {
-            KMZInfo info = wpmzManager.getKMZInfo(kmzPath);
-            Log.d(TAG, "KMZ Info");
-            WaylineMissionConfigParseInfo info1 = info.getWaylineMissionConfigParseInfo();
-            WaylineMissionParseInfo info2 = info.getWaylineMissionParseInfo();
-            WaylineWaylinesParseInfo info4 = info.getWaylineWaylinesParseInfo();
-            Log.d(TAG, "Info 1 - Mission Config Parse:");
-            Log.d(TAG, info1.toString());
-            Log.d(TAG, "----------------------------");
-            Log.d(TAG, "Info 2 - Mission Parse:");
-            Log.d(TAG, info2.toString());
-            Log.d(TAG, "----------------------------");
-            Log.d(TAG, "Info 3 - Template Parse:");
-            Log.d(TAG, info.getWaylineTemplatesParseInfo().getError().toString());
-            Log.d(TAG, "----------------------------");
-            Log.d(TAG, "Info 4 - Waylines Parse:");
-            Log.d(TAG, info4.toString());
-            Log.d(TAG, "----------------------------");
-            WaylineCheckErrorMsg check = wpmzManager.checkValidation(kmzPath);
-            Log.d(TAG, "Wayline Validation Check:");
-            Log.d(TAG, "Full validation result: " + check.toString());
-
-            List<WaylineCheckError> errors = check.getValue();
-            if (errors != null && !errors.isEmpty()) {
-                Log.e(TAG, "⚠️ KMZ VALIDATION ERRORS FOUND (" + errors.size() + " errors):");
-                for (int i = 0; i < errors.size(); i++) {
-                    WaylineCheckError error = errors.get(i);
-                    Log.e(TAG, "  Error " + (i + 1) + ": " + error.toString());
-                }
-                broadcastStatus(STATUS_ERROR, "KMZ validation failed with " + errors.size() + " error(s). Check logs.", 0, waypointSettings.size());
-            } else {
-                Log.d(TAG, "✓ KMZ validation passed - no errors found");
-                broadcastStatus(STATUS_UPLOADING, "KMZ validation passed", 0, waypointSettings.size());
-            }
-        } catch (Throwable t) {
-            Log.e(TAG, "KMZ validation check threw exception", t);
-            broadcastStatus(STATUS_ERROR, "KMZ validation exception: " + t.getMessage(), 0, waypointSettings.size());
+    private void onPreparedMissionBuilt(PreparedMission mission, BuiltMission built) {
+        mission.onBuilt(built);
+        if (mission != preparedMission) {
+            discardBuiltMission(mission);
+            return;
+        }
+        if (mission.isStartRequested()) {
+            adoptPreparedMission(mission);
+        }
+        uploadMissionToAircraft();
+    }
+
+    private void onPreparedMissionFailed(PreparedMission mission, String failure) {
+        mission.onFailed(failure);
+        if (mission == preparedMission && mission.isStartRequested()) {
+            showToast(failure);
+            broadcastStatus(STATUS_ERROR, failure, 0, waypointSettings.size());
         }
     }
 
     /**
-     * Create waypoint info models with proper DJI SDK structure
+     * Make a confirmed mission the current one: export and report it as a fresh build would
      */
+    private void adoptPreparedMission(PreparedMission mission) {
+        BuiltMission built = mission.getBuiltMission();
+        waypointSettings = new ArrayList<>(mission.getWaypointSettings());
+        currentMissionName = built.getName();
+        currentKmzFile = built.getFile();
+        exportKmzToDownloads(built);
+        reportValidation(built);
+    }
+
     /**
-     * Create waypoint info models with Mini 4 Pro supported features
+     * Start an uploaded mission once; a later confirmation of the same mission uploads it again
      */
-    private List<WaypointInfoModel> createWaypointInfoModels() {
-        List<WaypointInfoModel> waypointInfoModels = new ArrayList<>();
-
-        // Create POI location (Point of Interest) - use first waypoint as POI
-        WaylineLocationCoordinate3D poiLocation = new WaylineLocationCoordinate3D();
-        poiLocation.setLatitude(missionSetting.poiLocation.latitude);
-        poiLocation.setLongitude(missionSetting.poiLocation.longitude);
-        poiLocation.setAltitude(missionSetting.poiHeight);
-
-        for (int i = 0; i < waypointSettings.size(); i++) {
-            WaypointSetting currencWaypoint = waypointSettings.get(i);
-            // Create waypoint
-            WaylineWaypoint waypoint = new WaylineWaypoint();
-            WaylineLocationCoordinate2D location = new WaylineLocationCoordinate2D();
-            location.setLatitude(currencWaypoint.latitude);
-            location.setLongitude(currencWaypoint.longitude);
-            waypoint.setLocation(location);
-
-            waypoint.setHeight(currencWaypoint.altitude);
-            waypoint.setEllipsoidHeight(currencWaypoint.altitude);
-            waypoint.setGimbalPitchAngle(currencWaypoint.gimbalPitchAngle);
-            waypoint.setSpeed(currencWaypoint.waypointSpeed);
-            waypoint.setWaypointIndex(i);
-
-            WaylineWaypointYawParam yawParam = new WaylineWaypointYawParam();
-            yawParam.setYawMode(WaylineWaypointYawMode.TOWARD_POI);
-            yawParam.setEnableYawAngle(true);
-            yawParam.setYawAngle(currencWaypoint.gimbalPitchAngle);
-            yawParam.setPoiLocation(poiLocation);
-            waypoint.setYawParam(yawParam);
-
-            WaylineWaypointTurnParam turnParam = new WaylineWaypointTurnParam();
-            turnParam.setTurnMode(WaylineWaypointTurnMode.TO_POINT_AND_STOP_WITH_CONTINUITY_CURVATURE);
-            turnParam.setTurnDampingDistance(0.0);
-            waypoint.setTurnParam(turnParam);
-            waypoint.setUseStraightLine(true);
-
-            // Create info model and set the waypoint
-            WaypointInfoModel infoModel = new WaypointInfoModel();
-            infoModel.setWaylineWaypoint(waypoint);
-            List<WaylineActionInfo> actionInfos = new ArrayList<>();
-            WaylineActionInfo takePhotoAction = KMZTestUtil.createActionInfo(
-                    com.dji.wpmzsdk.common.utils.kml.model.WaypointActionType.START_TAKE_PHOTO,
-                    null
-            );
-            if (takePhotoAction != null) {
-                actionInfos.add(takePhotoAction);
-            }
-
-            infoModel.setActionInfos(actionInfos);
-            waypointInfoModels.add(infoModel);
+    private void startPreparedMission(PreparedMission mission) {
+        if (preparedMission == mission) {
+            preparedMission = null;
         }
-        return waypointInfoModels;
+        startRealMission();
     }
 
     /**
-     * Save KMZ file to external storage for file manager access
+     * Delete the KMZ of a mission nobody will fly, unless the cache keeps it
      */
-    private void saveKmzToExternalStorage() {
-        try {
-            // Check if external storage is available
-            if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
-                Log.e(TAG, "External storage not available");
-                showToast("External storage not available");
-                return;
-            }
+    private void discardBuiltMission(PreparedMission mission) {
+        BuiltMission built = mission.getBuiltMission();
+        if (built == null || built.getFile().equals(currentKmzFile) || missionKmzCache.owns(built.getFile())) {
+            return;
+        }
+        if (!built.getFile().delete()) {
+            Log.w(TAG, "Could not delete discarded KMZ " + built.getFile().getName());
+        }
+    }
 
-            // Get Downloads directory
-            File downloadsDir;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-            } else {
-                downloadsDir = new File(Environment.getExternalStorageDirectory(), "Download");
+    private void reportValidation(BuiltMission mission) {
+        if (mission.getValidationFailure() != null) {
+            broadcastStatus(STATUS_ERROR, "KMZ validation exception: " + mission.getValidationFailure(), 0, waypointSettings.size());
+            return;
+        }
+        List<WaylineCheckError> errors = mission.getValidationErrors();
+        if (!errors.isEmpty()) {
+            Log.e(TAG, "⚠️ KMZ VALIDATION ERRORS FOUND (" + errors.size() + " errors):");
+            for (int i = 0; i < errors.size(); i++) {
+                WaylineCheckError error = errors.get(i);
+                Log.e(TAG, "  Error " + (i + 1) + ": " + error.toString());
             }
+            broadcastStatus(STATUS_ERROR, "KMZ validation failed with " + errors.size() + " error(s). Check logs.", 0, waypointSettings.size());
+        } else {
+            Log.d(TAG, "✓ KMZ validation passed - no errors found");
+            broadcastStatus(STATUS_UPLOADING, "KMZ validation passed", 0, waypointSettings.size());
+        }
+    }
 
-            // Create EagleEye directory
-            File eagleEyeDir = new File(downloadsDir, "EagleEye");
-            if (!eagleEyeDir.exists()) {
-                boolean created = eagleEyeDir.mkdirs();
-                if (!created) {
-                    Log.e(TAG, "Failed to create EagleEye directory");
-                    showToast("Failed to create Downloads/EagleEye directory");
+    /**
+     * Save KMZ file to external storage for file manager access, in the background
+     * so the upload does not wait for it
+     */
+    private void exportKmzToDownloads(BuiltMission mission) {
+        int totalWaypoints = waypointSettings.size();
+        exportExecutor.execute(() -> {
+            try {
+                // Check if external storage is available
+                if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
+                    Log.e(TAG, "External storage not available");
+                    showToast("External storage not available");
                     return;
                 }
-            }
 
-            // Copy KMZ file to external storage
-            externalKmzFile = new File(eagleEyeDir, currentMissionName + ".kmz");
+                // Get Downloads directory
+                File downloadsDir;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+                } else {
+                    downloadsDir = new File(Environment.getExternalStorageDirectory(), "Download");
+                }
+
+                // Create EagleEye directory
+                File eagleEyeDir = new File(downloadsDir, "EagleEye");
+                if (!eagleEyeDir.exists()) {
+                    boolean created = eagleEyeDir.mkdirs();
+                    if (!created) {
+                        Log.e(TAG, "Failed to create EagleEye directory");
+                        showToast("Failed to create Downloads/EagleEye directory");
+                        return;
+                    }
+                }
 
-            try (FileOutputStream fos = new FileOutputStream(externalKmzFile);
-                 java.io.FileInputStream fis = new java.io.FileInputStream(currentKmzFile)) {
-                byte[] buffer = new byte[1024];
-                int length;
-                while ((length = fis.read(buffer)) > 0) {
-                    fos.write(buffer, 0, length);
+                long start = System.nanoTime();
+                File exportFile = new File(eagleEyeDir, mission.getName() + ".kmz");
+                // Cached missions are named by content, an export of the same size is this one
+                boolean exported = mission.isFromCache() && exportFile.length() == mission.getFile().length();
+                if (!exported) {
+                    if (mission.getKmz() != null) {
+                        // Write the in-memory KMZ in one call, the mission file is never read back
+                        try (FileOutputStream fos = new FileOutputStream(exportFile)) {
+                            fos.write(mission.getKmz());
+                        }
+                    } else {
+                        try (FileChannel source = new FileInputStream(mission.getFile()).getChannel();
+                             FileChannel target = new FileOutputStream(exportFile).getChannel()) {
+                            long position = 0;
+                            long size = source.size();
+                            while (position < size) {
+                                position += source.transferTo(position, size - position, target);
+                            }
+                        }
+                    }
+                    Log.d(TAG, "KMZ exported to " + exportFile.getAbsolutePath() + " in "
+                            + (System.nanoTime() - start) / 1000000 + " ms");
                 }
+                mainHandler.post(() -> {
+                    externalKmzFile = exportFile;
+                    broadcastStatus(STATUS_UPLOADING, "KMZ file saved to Downloads/EagleEye/" + exportFile.getName(), 0, totalWaypoints);
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to save KMZ to external storage: " + e.getMessage(), e);
+            } catch (SecurityException e) {
+                Log.e(TAG, "Permission denied for external storage: " + e.getMessage(), e);
+                showToast("Storage permission required. Please grant permission in Settings.");
             }
-            broadcastStatus(STATUS_UPLOADING, "KMZ file saved to Downloads/EagleEye/" + currentMissionName + ".kmz", 0, waypointSettings.size());
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save KMZ to external storage: " + e.getMessage(), e);
-        } catch (SecurityException e) {
-            Log.e(TAG, "Permission denied for external storage: " + e.getMessage(), e);
-            showToast("Storage permission required. Please grant permission in Settings.");
-        }
+        });
     }
 
     /**
-     * Upload mission KMZ file to aircraft
+     * Upload the prepared mission KMZ file to aircraft, once the upload of an earlier
+     * mission has finished; silent until the pilot confirms the mission
      */
     private void uploadMissionToAircraft() {
-        Log.d(TAG, "Uploading mission to aircraft: " + currentKmzFile.getAbsolutePath());
+        PreparedMission mission = preparedMission;
+        if (uploadingMission != null || mission == null || mission.getState() != PreparedMission.State.BUILT) {
+            return;
+        }
+        File kmzFile = mission.getBuiltMission().getFile();
+        Log.d(TAG, "Uploading mission to aircraft: " + kmzFile.getAbsolutePath());
 
         // Validate KMZ file
-        if (currentKmzFile == null || !currentKmzFile.exists() || currentKmzFile.length() == 0) {
+        if (!kmzFile.exists() || kmzFile.length() == 0) {
             String error = "KMZ file is invalid or empty";
             Log.e(TAG, error);
-            showToast(error);
-            broadcastStatus(STATUS_ERROR, error, 0, waypointSettings.size());
+            mission.onFailed(error);
+            if (mission.isStartRequested()) {
+                journal(MissionJournalFormat.EVENT_UPLOAD_FAILED, error);
+                showToast(error);
+                broadcastStatus(STATUS_ERROR, error, 0, waypointSettings.size());
+            }
             return;
         }
 
-        Log.d(TAG, "KMZ file size: " + currentKmzFile.length() + " bytes");
-        broadcastStatus(STATUS_UPLOADING, "Starting mission upload...", 0, waypointSettings.size());
-        waypointMissionManager.pushKMZFileToAircraft(currentKmzFile.getAbsolutePath(), new CommonCallbacks.CompletionCallbackWithProgress<Double>() {
+        Log.d(TAG, "KMZ file size: " + kmzFile.length() + " bytes");
+        mission.onUploading();
+        uploadingMission = mission;
+        if (mission.isStartRequested()) {
+            journal(MissionJournalFormat.EVENT_UPLOAD_STARTED, (int) kmzFile.length());
+            broadcastStatus(STATUS_UPLOADING, "Starting mission upload...", 0, waypointSettings.size());
+        }
+        waypointMissionManager.pushKMZFileToAircraft(kmzFile.getAbsolutePath(), new CommonCallbacks.CompletionCallbackWithProgress<Double>() {
             @Override
             public void onProgressUpdate(Double progress) {
                 int progressPercent = (int) (progress * 100);
                 mainHandler.post(() -> {
-                    broadcastStatus(STATUS_UPLOADING, "Uploading mission... " + progressPercent + "%", 0, waypointSettings.size());
+                    if (mission == preparedMission && mission.isStartRequested()) {
+                        broadcastStatus(STATUS_UPLOADING, "Uploading mission... " + progressPercent + "%", 0, waypointSettings.size());
+                    }
                 });
             }
 
@@ -505,8 +589,18 @@ public class CommandService_V5SDK extends Service {
             public void onSuccess() {
                 Log.d(TAG, "Mission uploaded successfully");
                 mainHandler.post(() -> {
-                    broadcastStatus(STATUS_UPLOADED, "Mission uploaded successfully", 0, waypointSettings.size());
-                    startRealMission();
+                    uploadingMission = null;
+                    mission.onUploaded();
+                    reportTimeToUpload(mission);
+                    if (mission == preparedMission && mission.isStartRequested()) {
+                        journal(MissionJournalFormat.EVENT_UPLOADED, 0);
+                        broadcastStatus(STATUS_UPLOADED, "Mission uploaded successfully", 0, waypointSettings.size());
+                        startPreparedMission(mission);
+                    } else if (mission != preparedMission) {
+                        discardBuiltMission(mission);
+                    }
+                    // An edit during this upload may have built a newer mission
+                    uploadMissionToAircraft();
                 });
             }
 
@@ -514,12 +608,24 @@ public class CommandService_V5SDK extends Service {
             public void onFailure(IDJIError error) {
                 Log.e(TAG, "Failed to upload mission: " + error.description());
                 mainHandler.post(() -> {
-                    broadcastStatus(STATUS_ERROR, "Upload failed: " + error.description(), 0, waypointSettings.size());
+                    uploadingMission = null;
+                    mission.onFailed("Upload failed: " + error.description());
+                    if (mission == preparedMission && mission.isStartRequested()) {
+                        journal(MissionJournalFormat.EVENT_UPLOAD_FAILED, error.description());
+                        broadcastStatus(STATUS_ERROR, "Upload failed: " + error.description(), 0, waypointSettings.size());
+                    }
+                    uploadMissionToAircraft();
                 });
             }
         });
     }
 
+    private void reportTimeToUpload(PreparedMission mission) {
+        MissionBuildTimings timings = mission.getBuiltMission().getTimings();
+        timings.mark(MissionBuildTimings.STAGE_UPLOAD);
+        Log.d(TAG, "Time to upload" + (mission.isStartRequested() ? ": " : " ahead of confirmation: ") + timings);
+    }
+
     /**
      * Start the real mission execution on the aircraft
      */
@@ -534,8 +640,7 @@ public class CommandService_V5SDK extends Service {
             return;
         }
 
-        File outputDir = getFilesDir();
-        String kmzPath = new File(outputDir, currentMissionName + ".kmz").getAbsolutePath();
+        String kmzPath = currentKmzFile.getAbsolutePath();
         String fileName =  FileUtils.getFileName(kmzPath, ".kmz");
 
         Log.d(TAG, "Mission details:");
@@ -551,8 +656,11 @@ public class CommandService_V5SDK extends Service {
                 Log.d(TAG, "✓✓✓ MISSION START SUCCESS ✓✓✓");
                 Log.d(TAG, "Aircraft should now be taking off!");
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_STARTED, 0);
+                    startMissionPrediction();
                     broadcastStatus(STATUS_MISSION_STARTED, "Mission execution started - Aircraft taking off!", 0, waypointSettings.size());
                     missionInProgress = true;
+                    startMissionRecording();
                     Log.d(TAG, "missionInProgress flag set to: " + missionInProgress);
                 });
             }
@@ -563,6 +671,7 @@ public class CommandService_V5SDK extends Service {
                 Log.e(TAG, "Error code: " + error.errorCode());
                 Log.e(TAG, "Error description: " + error.description());
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_START_FAILED, error.description());
                     broadcastStatus(STATUS_ERROR, "Failed to start mission: " + error.description(), 0, waypointSettings.size());
                 });
             }
@@ -580,6 +689,7 @@ public class CommandService_V5SDK extends Service {
             return;
         }
 
+        beginFlight();
         startRealMission();
     }
 
@@ -601,6 +711,10 @@ public class CommandService_V5SDK extends Service {
                 missionInProgress = false;
                 mainHandler.post(() -> {
                     //disableSimulator();
+                    stopMissionRecording();
+                    clearMissionPrediction();
+                    journal(MissionJournalFormat.EVENT_STOPPED, currentWaypointIndex);
+                    closeMissionJournal();
                     broadcastStatus(STATUS_ERROR, "Mission stopped by user", currentWaypointIndex, waypointSettings.size());
                 });
             }
@@ -620,12 +734,14 @@ public class CommandService_V5SDK extends Service {
      */
     public void pauseMission() {
         Log.d(TAG, "Pausing waypoint mission");
+        journal(MissionJournalFormat.EVENT_PAUSE_REQUESTED, 0);
 
         waypointMissionManager.pauseMission(new CommonCallbacks.CompletionCallback() {
             @Override
             public void onSuccess() {
                 Log.d(TAG, "Mission paused successfully");
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_PAUSED, 0);
                     showToast("Mission paused");
                 });
             }
@@ -634,6 +750,7 @@ public class CommandService_V5SDK extends Service {
             public void onFailure(IDJIError error) {
                 Log.e(TAG, "Failed to pause mission: " + error.description());
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_PAUSE_FAILED, error.description());
                     showToast("Failed to pause mission: " + error.description());
                 });
             }
@@ -645,12 +762,14 @@ public class CommandService_V5SDK extends Service {
      */
     public void resumeMission() {
         Log.d(TAG, "Resuming waypoint mission");
+        journal(MissionJournalFormat.EVENT_RESUME_REQUESTED, 0);
 
         waypointMissionManager.resumeMission(new CommonCallbacks.CompletionCallback() {
             @Override
             public void onSuccess() {
                 Log.d(TAG, "Mission resumed successfully");
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_RESUMED, 0);
                     showToast("Mission resumed");
                 });
             }
@@ -659,6 +778,7 @@ public class CommandService_V5SDK extends Service {
             public void onFailure(IDJIError error) {
                 Log.e(TAG, "Failed to resume mission: " + error.description());
                 mainHandler.post(() -> {
+                    journal(MissionJournalFormat.EVENT_RESUME_FAILED, error.description());
                     showToast("Failed to resume mission: " + error.description());
                 });
             }
@@ -733,6 +853,141 @@ public class CommandService_V5SDK extends Service {
         }
     }
 
+    /**
+     * Name the files of a new flight of the current mission; cached missions share their
+     * KMZ name across flights, so it cannot name what a flight leaves behind
+     */
+    private void beginFlight() {
+        currentFlightName = FLIGHT_NAME_PREFIX + System.currentTimeMillis();
+        Log.d(TAG, "Flight files named " + currentFlightName);
+    }
+
+    /**
+     * Record all telemetry of the current flight to its own flight record file
+     */
+    private void startMissionRecording() {
+        try {
+            File recordFile = new File(getFlightRecordsDir(), currentFlightName + FlightRecordFormat.FILE_EXTENSION);
+            TelemetryService telemetryService = TelemetryService.getInstance(this);
+            telemetryService.resetLatencyStatistics();
+            telemetryService.startFlightRecording(recordFile);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to start flight recording: " + e.getMessage(), e);
+        }
+    }
+
+    private void stopMissionRecording() {
+        try {
+            TelemetryService telemetryService = TelemetryService.getInstance(this);
+            File recordFile = telemetryService.stopFlightRecording();
+            if (recordFile != null) {
+                Log.d(TAG, "Flight record saved: " + recordFile.getAbsolutePath());
+                // Keep the flight's telemetry latency next to its record, to compare across SDK versions
+                String flightName = recordFile.getName().replace(FlightRecordFormat.FILE_EXTENSION, "");
+                telemetryService.dumpLatencyReport(new File(recordFile.getParentFile(),
+                        flightName + LATENCY_REPORT_SUFFIX));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to stop flight recording: " + e.getMessage(), e);
+        }
+    }
+
+    private File getFlightRecordsDir() {
+        File recordsDir = getExternalFilesDir(FLIGHT_RECORDS_DIR);
+        return recordsDir != null ? recordsDir : new File(getFilesDir(), FLIGHT_RECORDS_DIR);
+    }
+
+    /**
+     * Journal the confirmed mission from here on, named like the flight's record; a journal
+     * still open from an earlier mission is closed first
+     */
+    private void openMissionJournal(int waypointCount) {
+        closeMissionJournal();
+        File journalFile = new File(getFlightRecordsDir(), currentFlightName + MissionJournalFormat.FILE_EXTENSION);
+        missionJournal = new MissionJournal(journalFile, journalExecutor,
+                (message, e) -> Log.e(TAG, message + ": " + e.getMessage(), e));
+        lastJournalState = null;
+        MissionJournal.setActive(missionJournal);
+        missionJournal.record(MissionJournalFormat.EVENT_START_REQUESTED, MissionJournalFormat.SOURCE_APP, waypointCount);
+    }
+
+    /**
+     * Record an event of the current mission; app requests are journaled as SOURCE_APP,
+     * everything else as what the aircraft reported
+     */
+    private void journal(int type, int value) {
+        if (missionJournal != null) {
+            missionJournal.record(type, journalSource(type), value);
+        }
+    }
+
+    private void journal(int type, String text) {
+        if (missionJournal != null) {
+            missionJournal.record(type, journalSource(type), text);
+        }
+    }
+
+    private static int journalSource(int type) {
+        switch (type) {
+            case MissionJournalFormat.EVENT_START_REQUESTED:
+            case MissionJournalFormat.EVENT_UPLOAD_STARTED:
+            case MissionJournalFormat.EVENT_UPLOAD_IN_PROGRESS:
+            case MissionJournalFormat.EVENT_PAUSE_REQUESTED:
+            case MissionJournalFormat.EVENT_RESUME_REQUESTED:
+                return MissionJournalFormat.SOURCE_APP;
+            default:
+                return MissionJournalFormat.SOURCE_AIRCRAFT;
+        }
+    }
+
+    /**
+     * Close the mission journal and write its leg timings next to it
+     */
+    private void closeMissionJournal() {
+        MissionJournal journal = missionJournal;
+        if (journal == null) {
+            return;
+        }
+        missionJournal = null;
+        journal.close();
+        try {
+            MissionJournalAnalysis analysis = MissionJournalAnalysis.analyze(journal.getEvents(),
+                    waypointSettings, KMZTestUtil.DEF_AUTO_FLIGHT_SPEED);
+            String report = analysis.toString();
+            Log.d(TAG, "Mission journal " + journal.getFile().getName() + ":\n" + report);
+            File reportFile = new File(journal.getFile().getParentFile(), journal.getFile().getName()
+                    .replace(MissionJournalFormat.FILE_EXTENSION, JOURNAL_REPORT_SUFFIX));
+            journalExecutor.execute(() -> {
+                try (FileOutputStream out = new FileOutputStream(reportFile)) {
+                    out.write(report.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to write mission journal report: " + e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to analyze mission journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Let the telemetry predictor track the remaining mission time and return deadline
+     */
+    private void startMissionPrediction() {
+        try {
+            TelemetryService.getInstance(this).setActiveMission(waypointSettings, missionSetting);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to start mission prediction: " + e.getMessage(), e);
+        }
+    }
+
+    private void updateMissionPrediction(int waypointIndex) {
+        TelemetryService.getInstance(this).setActiveMissionWaypoint(waypointIndex);
+    }
+
+    private void clearMissionPrediction() {
+        TelemetryService.getInstance(this).clearActiveMission();
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
@@ -740,6 +995,9 @@ public class CommandService_V5SDK extends Service {
 
         // Stop button listener service if still running
         stopButtonListenerService();
+        stopMissionRecording();
+        clearMissionPrediction();
+        closeMissionJournal();
 
         // Remove mission listeners
         if (missionStateListener != null) {
@@ -750,8 +1008,16 @@ public class CommandService_V5SDK extends Service {
             waypointMissionManager.removeWaylineExecutingInfoListener(waylineExecutingInfoListener);
         }
 
-        // Clean up temporary files
-        if (currentKmzFile != null && currentKmzFile.exists()) {
+        exportExecutor.shutdown();
+        if (preparedMission != null) {
+            preparedMission.cancel();
+        }
+        missionBuildExecutor.shutdownNow();
+        // Queued journal writes still run
+        journalExecutor.shutdown();
+
+        // Clean up temporary files, cached missions stay for the next flight
+        if (currentKmzFile != null && currentKmzFile.exists() && !missionKmzCache.owns(currentKmzFile)) {
             currentKmzFile.delete();
         }
     }
@@ -4,6 +4,8 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import dji.sdk.keyvalue.value.product.ProductType;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfiles;
 
 /**
  * Singleton class to manage drone connection state across the entire app
@@ -69,6 +71,13 @@ public class ConnectionStateManager {
         return value != null ? value : ProductType.UNKNOWN;
     }
 
+    /**
+     * WPML profile of the connected aircraft, MINI_4_PRO when nothing is connected
+     */
+    public WpmlAircraftProfile getCurrentAircraftProfile() {
+        return WpmlAircraftProfiles.forProductType(getCurrentProductType().name());
+    }
+
     public String getCurrentDroneName() {
         String value = droneName.getValue();
         return value != null ? value : "No Drone Connected";
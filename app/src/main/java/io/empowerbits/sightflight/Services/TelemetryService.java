@@ -5,25 +5,36 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
-import androidx.annotation.Nullable;
-
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import dji.sdk.keyvalue.key.DJIKey;
-import dji.sdk.keyvalue.key.KeyTools;
-import dji.sdk.keyvalue.key.FlightControllerKey;
-import dji.sdk.keyvalue.key.BatteryKey;
-import dji.sdk.keyvalue.key.AirLinkKey;
-import dji.sdk.keyvalue.value.common.ComponentIndexType;
 import dji.sdk.keyvalue.value.common.LocationCoordinate2D;
-import dji.sdk.keyvalue.value.flightcontroller.FlightMode;
-import dji.sdk.keyvalue.value.flightcontroller.GPSSignalLevel;
 import dji.sdk.keyvalue.value.common.LocationCoordinate3D;
-import dji.sdk.keyvalue.value.common.Velocity3D;
-import dji.v5.common.callback.CommonCallbacks;
-import dji.v5.common.error.IDJIError;
-import dji.v5.manager.KeyManager;
+import dji.sdk.wpmz.value.mission.WaylineFinishedAction;
 import dji.v5.manager.SDKManager;
+import io.empowerbits.sightflight.Services.telemetry.DjiTelemetrySource;
+import io.empowerbits.sightflight.Services.telemetry.FlightRecorder;
+import io.empowerbits.sightflight.Services.telemetry.FlightTimePredictor;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannel;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryFrameDispatcher;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryLatencyMonitor;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryMetricsEngine;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryRate;
+import io.empowerbits.sightflight.Services.telemetry.ReplayTelemetrySource;
+import io.empowerbits.sightflight.Services.telemetry.SimulatedTelemetrySource;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySink;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshotStore;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySource;
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.KMZTestUtil;
 
 /**
  * TelemetryService - Real-Time Drone Telemetry Data Service
@@ -42,17 +53,35 @@ import dji.v5.manager.SDKManager;
  * - Vertical velocity (m/s)
  * - Location coordinates (latitude, longitude, altitude)
  * - Aircraft heading/compass direction (0-360 degrees)
+ * - Derived: distance to home, climb rate, ground speed, battery drain rate
+ *   and distance flown, computed incrementally from the channels above
+ * - Predicted: flight time remaining, must-return deadline and time left in the
+ *   active mission
  * 
  * Architecture:
  * - Singleton pattern for app-wide usage
  * - Thread-safe implementation with UI handler
  * - Automatic listener registration/cleanup
+ * - Multi-subscriber channels: one KeyManager listener per value, fanned out
+ *   to every registered consumer
+ * - Lock-free snapshot: every callback publishes a new immutable TelemetrySnapshot
+ *   through one atomic reference, readers always see all channels from one instant
+ * - Frame-coalesced dispatch: callbacks only mark a channel as changed, the newest
+ *   snapshot is delivered on the main thread at most once per display frame
+ * - Per-subscriber rates: a listener added with a TelemetryRate receives its channel at
+ *   most at that frequency and only when the value moved past its change threshold;
+ *   updates no subscriber wants are dropped on the callback thread
+ * - Optional binary flight recording of every update, written off the callback thread
+ * - Latency instrumentation: per-channel histograms of the time from the SDK callback
+ *   to main-thread dispatch and to the view showing the value
+ * - Pluggable telemetry sources: the aircraft through KeyManager, a recorded flight
+ *   replay or a simulated aircraft, one feeding the channels at a time
  * - Real-time callbacks to UI components
  * - Proper lifecycle management
  * 
  * Usage:
  * TelemetryService service = TelemetryService.getInstance(context);
- * service.setFlightModeChangedListener(flightMode -> updateUI(flightMode));
+ * service.addFlightModeChangedListener(flightMode -> updateUI(flightMode));
  * service.startTelemetryMonitoring();
  * 
  * @author Suleman
@@ -74,18 +103,8 @@ public class TelemetryService {
     private AtomicBoolean isInitialized = new AtomicBoolean(false);
     private AtomicBoolean isMonitoring = new AtomicBoolean(false);
     
-    // Current telemetry values (cached for immediate access)
-    private volatile String currentFlightMode = "N/A";
-    private volatile Integer currentGpsSignalLevel = 0;
-    private volatile Integer currentSatelliteCount = 0;
-    private volatile Integer currentLinkSignalQuality = 0;
-    private volatile Integer currentBatteryPercentage = 0;
-    private volatile Double currentAltitude = 0.0;
-    private volatile Double currentHorizontalVelocity = 0.0;
-    private volatile Double currentVerticalVelocity = 0.0;
-    private volatile LocationCoordinate3D currentLocation = null;
-    private volatile LocationCoordinate2D homeLocation = null;
-    private volatile Double currentHeading = 0.0;
+    // Current telemetry values, published as one consistent immutable snapshot
+    private final TelemetrySnapshotStore snapshotStore = new TelemetrySnapshotStore();
     
     // Static telemetry interfaces (equivalent to iOS callbacks)
     public interface FlightModeChangedListener {
@@ -128,18 +147,190 @@ public class TelemetryService {
     public interface HeadingChangedListener {
         void onHeadingChanged(Double heading);
     }
+
+    // Derived metrics
+    public interface DistanceToHomeChangedListener {
+        void onDistanceToHomeChanged(Double distance);
+    }
+
+    public interface ClimbRateChangedListener {
+        void onClimbRateChanged(Double climbRate);
+    }
+
+    public interface GroundSpeedChangedListener {
+        void onGroundSpeedChanged(Double groundSpeed);
+    }
+
+    public interface BatteryDrainRateChangedListener {
+        void onBatteryDrainRateChanged(Double percentPerMinute);
+    }
+
+    public interface DistanceFlownChangedListener {
+        void onDistanceFlownChanged(Double distance);
+    }
+
+    public interface FlightTimeRemainingChangedListener {
+        void onFlightTimeRemainingChanged(Double seconds);
+    }
+
+    /**
+     * @see FlightTimePredictor#RETURN_WARNING_SECONDS
+     */
+    public interface ReturnDeadlineChangedListener {
+        void onReturnDeadlineChanged(Double mustReturnInSeconds);
+    }
+
+    public interface MissionTimeRemainingChangedListener {
+        void onMissionTimeRemainingChanged(Double seconds);
+    }
+
+    /**
+     * Called once per display frame in which at least one channel changed,
+     * after that frame's per-channel callbacks
+     * @param snapshot Snapshot the frame's per-channel callbacks were delivered from
+     * @param changedChannels Bit mask of TelemetryChannelId values updated this frame
+     */
+    public interface TelemetryFrameListener {
+        void onTelemetryFrame(TelemetrySnapshot snapshot, int changedChannels);
+    }
     
-    // Listener instances
-    private FlightModeChangedListener flightModeChangedListener;
-    private GpsSignalStatusChangedListener gpsSignalStatusChangedListener;
-    private GpsSatCountChangedListener gpsSatCountChangedListener;
-    private LinkSignalQualityChangedListener linkSignalQualityChangedListener;
-    private BatteryChargeChangedListener batteryChargeChangedListener;
-    private AltitudeChangedListener altitudeChangedListener;
-    private HorizontalVelocityChangedListener horizontalVelocityChangedListener;
-    private VerticalVelocityChangedListener verticalVelocityChangedListener;
-    private LocationChangedListener locationChangedListener;
-    private HeadingChangedListener headingChangedListener;
+    // Subscriber channels - any number of listeners per value, fed by one SDK listener each
+    private final TelemetryChannel.ErrorHandler channelErrorHandler = (channelName, e) ->
+            Log.e(TAG, "Error in " + channelName + " subscriber: " + e.getMessage(), e);
+    private final TelemetryChannel<FlightModeChangedListener> flightModeChannel =
+            new TelemetryChannel<>("flightMode", channelErrorHandler);
+    private final TelemetryChannel<GpsSignalStatusChangedListener> gpsSignalStatusChannel =
+            new TelemetryChannel<>("gpsSignalStatus", channelErrorHandler);
+    private final TelemetryChannel<GpsSatCountChangedListener> gpsSatCountChannel =
+            new TelemetryChannel<>("gpsSatCount", channelErrorHandler);
+    private final TelemetryChannel<LinkSignalQualityChangedListener> linkSignalQualityChannel =
+            new TelemetryChannel<>("linkSignalQuality", channelErrorHandler);
+    private final TelemetryChannel<BatteryChargeChangedListener> batteryChargeChannel =
+            new TelemetryChannel<>("batteryCharge", channelErrorHandler);
+    private final TelemetryChannel<AltitudeChangedListener> altitudeChannel =
+            new TelemetryChannel<>("altitude", channelErrorHandler);
+    private final TelemetryChannel<HorizontalVelocityChangedListener> horizontalVelocityChannel =
+            new TelemetryChannel<>("horizontalVelocity", channelErrorHandler);
+    private final TelemetryChannel<VerticalVelocityChangedListener> verticalVelocityChannel =
+            new TelemetryChannel<>("verticalVelocity", channelErrorHandler);
+    private final TelemetryChannel<LocationChangedListener> locationChannel =
+            new TelemetryChannel<>("location", channelErrorHandler);
+    private final TelemetryChannel<HeadingChangedListener> headingChannel =
+            new TelemetryChannel<>("heading", channelErrorHandler);
+    private final TelemetryChannel<DistanceToHomeChangedListener> distanceToHomeChannel =
+            new TelemetryChannel<>("distanceToHome", channelErrorHandler);
+    private final TelemetryChannel<ClimbRateChangedListener> climbRateChannel =
+            new TelemetryChannel<>("climbRate", channelErrorHandler);
+    private final TelemetryChannel<GroundSpeedChangedListener> groundSpeedChannel =
+            new TelemetryChannel<>("groundSpeed", channelErrorHandler);
+    private final TelemetryChannel<BatteryDrainRateChangedListener> batteryDrainRateChannel =
+            new TelemetryChannel<>("batteryDrainRate", channelErrorHandler);
+    private final TelemetryChannel<DistanceFlownChangedListener> distanceFlownChannel =
+            new TelemetryChannel<>("distanceFlown", channelErrorHandler);
+    private final TelemetryChannel<FlightTimeRemainingChangedListener> flightTimeRemainingChannel =
+            new TelemetryChannel<>("flightTimeRemaining", channelErrorHandler);
+    private final TelemetryChannel<ReturnDeadlineChangedListener> returnDeadlineChannel =
+            new TelemetryChannel<>("returnDeadline", channelErrorHandler);
+    private final TelemetryChannel<MissionTimeRemainingChangedListener> missionTimeRemainingChannel =
+            new TelemetryChannel<>("missionTimeRemaining", channelErrorHandler);
+    private final TelemetryChannel<TelemetryFrameListener> frameChannel =
+            new TelemetryChannel<>("frame", channelErrorHandler);
+
+    // Derived metrics, updated on the callback thread; guarded by its own monitor
+    private final TelemetryMetricsEngine metricsEngine = new TelemetryMetricsEngine();
+
+    // Coalesces SDK callbacks into one main-thread delivery per display frame
+    private final TelemetryFrameDispatcher frameDispatcher = new TelemetryFrameDispatcher();
+
+    // Channels with updates held back by a subscriber rate, delivered when the earliest is due
+    private final AtomicInteger heldChannels = new AtomicInteger();
+    private final Object heldFlushLock = new Object();
+    private long heldFlushAtNanos = TelemetryChannel.NOTHING_HELD; // guarded by heldFlushLock
+    private final Runnable heldFlush = this::deliverHeldUpdates;
+
+    // Sample to dispatch and sample to view latency per channel
+    private final TelemetryLatencyMonitor latencyMonitor = new TelemetryLatencyMonitor();
+
+    // Binary recorder of the current mission, null when not recording
+    private volatile FlightRecorder flightRecorder;
+
+    // Live aircraft telemetry, the default source
+    private final DjiTelemetrySource liveSource = new DjiTelemetrySource();
+
+    // Source currently feeding the channels, null until initialized or a source is set
+    private volatile TelemetrySource activeSource;
+    
+    // Single entry point for every update: publish the snapshot, record it, dispatch it
+    private final TelemetrySink telemetrySink = new TelemetrySink() {
+        @Override
+        public void onFlightMode(String flightMode) {
+            dispatch(TelemetryChannelId.FLIGHT_MODE, flightModeChannel, snapshotStore.updateFlightMode(flightMode));
+        }
+
+        @Override
+        public void onGpsSignalLevel(int signalLevel) {
+            dispatch(TelemetryChannelId.GPS_SIGNAL, gpsSignalStatusChannel, snapshotStore.updateGpsSignalLevel(signalLevel));
+        }
+
+        @Override
+        public void onSatelliteCount(int satelliteCount) {
+            dispatch(TelemetryChannelId.SATELLITE_COUNT, gpsSatCountChannel, snapshotStore.updateSatelliteCount(satelliteCount));
+        }
+
+        @Override
+        public void onLinkSignalQuality(int signalQuality) {
+            dispatch(TelemetryChannelId.LINK_SIGNAL, linkSignalQualityChannel, snapshotStore.updateLinkSignalQuality(signalQuality));
+        }
+
+        @Override
+        public void onBatteryPercentage(int batteryPercentage) {
+            TelemetrySnapshot snapshot = snapshotStore.updateBatteryPercentage(batteryPercentage);
+            dispatch(TelemetryChannelId.BATTERY, batteryChargeChannel, snapshot);
+            updateMetrics(TelemetryChannelId.bit(TelemetryChannelId.BATTERY), snapshot);
+        }
+
+        @Override
+        public void onAltitude(double altitude) {
+            dispatch(TelemetryChannelId.ALTITUDE, altitudeChannel, snapshotStore.updateAltitude(altitude));
+        }
+
+        @Override
+        public void onVelocity(double horizontalVelocity, double verticalVelocity) {
+            TelemetrySnapshot snapshot = snapshotStore.updateVelocity(horizontalVelocity, verticalVelocity);
+            dispatch(TelemetryChannelId.HORIZONTAL_VELOCITY, horizontalVelocityChannel, snapshot);
+            dispatch(TelemetryChannelId.VERTICAL_VELOCITY, verticalVelocityChannel, snapshot);
+            updateMetrics(TelemetryChannelId.bit(TelemetryChannelId.HORIZONTAL_VELOCITY), snapshot);
+        }
+
+        @Override
+        public void onLocation(double latitude, double longitude, double altitude) {
+            TelemetrySnapshot snapshot = snapshotStore.updateLocation(latitude, longitude, altitude);
+            dispatch(TelemetryChannelId.LOCATION, locationChannel, snapshot);
+            updateMetrics(TelemetryChannelId.bit(TelemetryChannelId.LOCATION), snapshot);
+        }
+
+        @Override
+        public void onLocationLost() {
+            dispatch(TelemetryChannelId.LOCATION, locationChannel, snapshotStore.clearLocation());
+        }
+
+        @Override
+        public void onHomeLocation(double latitude, double longitude) {
+            TelemetrySnapshot snapshot = snapshotStore.updateHomeLocation(latitude, longitude);
+            dispatch(TelemetryChannelId.HOME_LOCATION, locationChannel, snapshot);
+            updateMetrics(TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION), snapshot);
+        }
+
+        @Override
+        public void onHomeLocationLost() {
+            dispatch(TelemetryChannelId.HOME_LOCATION, locationChannel, snapshotStore.clearHomeLocation());
+        }
+
+        @Override
+        public void onHeading(double heading) {
+            dispatch(TelemetryChannelId.HEADING, headingChannel, snapshotStore.updateHeading(heading));
+        }
+    };
     
     /**
      * Private constructor for singleton pattern
@@ -147,8 +338,255 @@ public class TelemetryService {
     private TelemetryService(Context context) {
         this.context = context.getApplicationContext();
         this.uiHandler = new Handler(Looper.getMainLooper());
+        setupFrameDispatcher();
         Log.i(TAG, "TelemetryService created");
     }
+
+    /**
+     * Deliver every channel changed since the previous frame from one snapshot read
+     */
+    private void setupFrameDispatcher() {
+        frameDispatcher.setFrameListener((changedChannels, frameTimeNanos) ->
+                deliverFrame(snapshotStore.get(), changedChannels, false));
+    }
+
+    /**
+     * Runs on the main thread; values are boxed here, once per frame, not per SDK callback.
+     * Rate-limited subscribers receive a value only when their rate admits it, the rest
+     * are held and delivered by the held update flush.
+     * @param heldOnly Deliver only updates held back by a subscriber rate
+     */
+    private void deliverFrame(TelemetrySnapshot snapshot, int changedChannels, boolean heldOnly) {
+        long now = System.nanoTime();
+        latencyMonitor.onDispatched(changedChannels, now);
+        if (changed(changedChannels, TelemetryChannelId.FLIGHT_MODE)) {
+            String flightMode = snapshot.flightMode;
+            publish(TelemetryChannelId.FLIGHT_MODE, flightModeChannel, snapshot, now, heldOnly,
+                    listener -> listener.onFlightModeChanged(flightMode));
+        }
+        if (changed(changedChannels, TelemetryChannelId.GPS_SIGNAL)) {
+            Integer signalLevel = snapshot.gpsSignalLevel;
+            publish(TelemetryChannelId.GPS_SIGNAL, gpsSignalStatusChannel, snapshot, now, heldOnly,
+                    listener -> listener.onGpsSignalStatusChanged(signalLevel));
+        }
+        if (changed(changedChannels, TelemetryChannelId.SATELLITE_COUNT)) {
+            Integer satCount = snapshot.satelliteCount;
+            publish(TelemetryChannelId.SATELLITE_COUNT, gpsSatCountChannel, snapshot, now, heldOnly,
+                    listener -> listener.onGpsSatCountChanged(satCount));
+        }
+        if (changed(changedChannels, TelemetryChannelId.LINK_SIGNAL)) {
+            Integer signalQuality = snapshot.linkSignalQuality;
+            publish(TelemetryChannelId.LINK_SIGNAL, linkSignalQualityChannel, snapshot, now, heldOnly,
+                    listener -> listener.onLinkSignalQualityChanged(signalQuality));
+        }
+        if (changed(changedChannels, TelemetryChannelId.BATTERY)) {
+            Integer batteryPercentage = snapshot.batteryPercentage;
+            publish(TelemetryChannelId.BATTERY, batteryChargeChannel, snapshot, now, heldOnly,
+                    listener -> listener.onBatteryChargeChanged(batteryPercentage));
+        }
+        if (changed(changedChannels, TelemetryChannelId.ALTITUDE)) {
+            Double altitude = snapshot.altitude;
+            publish(TelemetryChannelId.ALTITUDE, altitudeChannel, snapshot, now, heldOnly,
+                    listener -> listener.onAltitudeChanged(altitude));
+        }
+        if (changed(changedChannels, TelemetryChannelId.HORIZONTAL_VELOCITY)) {
+            Double velocity = snapshot.horizontalVelocity;
+            publish(TelemetryChannelId.HORIZONTAL_VELOCITY, horizontalVelocityChannel, snapshot, now, heldOnly,
+                    listener -> listener.onHorizontalVelocityChanged(velocity));
+        }
+        if (changed(changedChannels, TelemetryChannelId.VERTICAL_VELOCITY)) {
+            Double velocity = snapshot.verticalVelocity;
+            publish(TelemetryChannelId.VERTICAL_VELOCITY, verticalVelocityChannel, snapshot, now, heldOnly,
+                    listener -> listener.onVerticalVelocityChanged(velocity));
+        }
+        if (changed(changedChannels, TelemetryChannelId.LOCATION)) {
+            LocationCoordinate3D location = toLocation(snapshot);
+            publish(TelemetryChannelId.LOCATION, locationChannel, snapshot, now, heldOnly,
+                    listener -> listener.onLocationChanged(location));
+        }
+        if (changed(changedChannels, TelemetryChannelId.HOME_LOCATION)) {
+            LocationCoordinate2D home = toHomeLocation(snapshot);
+            publish(TelemetryChannelId.HOME_LOCATION, locationChannel, snapshot, now, heldOnly,
+                    listener -> listener.onHomeLocationChanged(home));
+        }
+        if (changed(changedChannels, TelemetryChannelId.HEADING)) {
+            Double heading = snapshot.heading;
+            publish(TelemetryChannelId.HEADING, headingChannel, snapshot, now, heldOnly,
+                    listener -> listener.onHeadingChanged(heading));
+        }
+        if (changed(changedChannels, TelemetryChannelId.DISTANCE_TO_HOME)) {
+            Double distance = snapshot.distanceToHome;
+            publish(TelemetryChannelId.DISTANCE_TO_HOME, distanceToHomeChannel, snapshot, now, heldOnly,
+                    listener -> listener.onDistanceToHomeChanged(distance));
+        }
+        if (changed(changedChannels, TelemetryChannelId.CLIMB_RATE)) {
+            Double climbRate = snapshot.climbRate;
+            publish(TelemetryChannelId.CLIMB_RATE, climbRateChannel, snapshot, now, heldOnly,
+                    listener -> listener.onClimbRateChanged(climbRate));
+        }
+        if (changed(changedChannels, TelemetryChannelId.GROUND_SPEED)) {
+            Double groundSpeed = snapshot.groundSpeed;
+            publish(TelemetryChannelId.GROUND_SPEED, groundSpeedChannel, snapshot, now, heldOnly,
+                    listener -> listener.onGroundSpeedChanged(groundSpeed));
+        }
+        if (changed(changedChannels, TelemetryChannelId.BATTERY_DRAIN_RATE)) {
+            Double drainRate = snapshot.batteryDrainRate;
+            publish(TelemetryChannelId.BATTERY_DRAIN_RATE, batteryDrainRateChannel, snapshot, now, heldOnly,
+                    listener -> listener.onBatteryDrainRateChanged(drainRate));
+        }
+        if (changed(changedChannels, TelemetryChannelId.DISTANCE_FLOWN)) {
+            Double distance = snapshot.distanceFlown;
+            publish(TelemetryChannelId.DISTANCE_FLOWN, distanceFlownChannel, snapshot, now, heldOnly,
+                    listener -> listener.onDistanceFlownChanged(distance));
+        }
+        if (changed(changedChannels, TelemetryChannelId.FLIGHT_TIME_REMAINING)) {
+            Double seconds = snapshot.flightTimeRemaining;
+            publish(TelemetryChannelId.FLIGHT_TIME_REMAINING, flightTimeRemainingChannel, snapshot, now, heldOnly,
+                    listener -> listener.onFlightTimeRemainingChanged(seconds));
+        }
+        if (changed(changedChannels, TelemetryChannelId.RETURN_DEADLINE)) {
+            Double seconds = snapshot.mustReturnIn;
+            publish(TelemetryChannelId.RETURN_DEADLINE, returnDeadlineChannel, snapshot, now, heldOnly,
+                    listener -> listener.onReturnDeadlineChanged(seconds));
+        }
+        if (changed(changedChannels, TelemetryChannelId.MISSION_TIME_REMAINING)) {
+            Double seconds = snapshot.missionTimeRemaining;
+            publish(TelemetryChannelId.MISSION_TIME_REMAINING, missionTimeRemainingChannel, snapshot, now, heldOnly,
+                    listener -> listener.onMissionTimeRemainingChanged(seconds));
+        }
+        if (!heldOnly) {
+            frameChannel.publish(listener -> listener.onTelemetryFrame(snapshot, changedChannels));
+        }
+    }
+
+    private <L> void publish(int channelId, TelemetryChannel<L> channel, TelemetrySnapshot snapshot,
+                             long nowNanos, boolean heldOnly, TelemetryChannel.Delivery<L> delivery) {
+        holdChannel(channelId, channel.publish(channelId, snapshot, nowNanos, heldOnly, delivery));
+    }
+
+    /**
+     * Remember a channel with held updates and make sure a flush runs when the earliest
+     * is due, callable from any thread
+     * @param dueNanos System.nanoTime() the held update is due, or TelemetryChannel.NOTHING_HELD
+     */
+    private void holdChannel(int channelId, long dueNanos) {
+        if (dueNanos == TelemetryChannel.NOTHING_HELD) {
+            return;
+        }
+        int bit = TelemetryChannelId.bit(channelId);
+        int previous;
+        do {
+            previous = heldChannels.get();
+        } while (!heldChannels.compareAndSet(previous, previous | bit));
+
+        synchronized (heldFlushLock) {
+            if (heldFlushAtNanos != TelemetryChannel.NOTHING_HELD && heldFlushAtNanos - dueNanos <= 0) {
+                return;
+            }
+            heldFlushAtNanos = dueNanos;
+            long delayMs = Math.max(0L, (dueNanos - System.nanoTime() + 999_999L) / 1_000_000L);
+            uiHandler.removeCallbacks(heldFlush);
+            uiHandler.postDelayed(heldFlush, delayMs);
+        }
+    }
+
+    /**
+     * Main thread: deliver the newest value of every held channel to the subscribers
+     * that were waiting for it; any not yet due hold again and reschedule
+     */
+    private void deliverHeldUpdates() {
+        synchronized (heldFlushLock) {
+            heldFlushAtNanos = TelemetryChannel.NOTHING_HELD;
+        }
+        int held = heldChannels.getAndSet(0);
+        if (held != 0) {
+            deliverFrame(snapshotStore.get(), held, true);
+        }
+    }
+
+    private static boolean changed(int changedChannels, int channelId) {
+        return (changedChannels & TelemetryChannelId.bit(channelId)) != 0;
+    }
+
+    /**
+     * Record a published update and mark its channel for the next display frame
+     * if a subscriber's rate admits it; otherwise it is held for the rate-limited
+     * subscribers that will want it once their interval has passed
+     */
+    private void dispatch(int channelId, TelemetryChannel<?> channel, TelemetrySnapshot snapshot) {
+        latencyMonitor.onSample(channelId, snapshot.timestampNanos);
+        FlightRecorder recorder = flightRecorder;
+        if (recorder != null && !TelemetryChannelId.isDerived(channelId)) {
+            recorder.record(TelemetryChannelId.bit(channelId), snapshot);
+        }
+        if (frameChannel.hasSubscribers() || channel.admit(channelId, snapshot, System.nanoTime())) {
+            frameDispatcher.offer(channelId);
+        } else {
+            holdChannel(channelId, channel.getNextDueNanos(channelId));
+        }
+    }
+
+    /**
+     * Fold a raw update into the derived metrics and publish the ones that changed.
+     * Serialized on the engine so callbacks from different SDK threads apply in turn.
+     */
+    private void updateMetrics(int channelMask, TelemetrySnapshot snapshot) {
+        TelemetrySnapshot published;
+        int changed;
+        synchronized (metricsEngine) {
+            changed = metricsEngine.update(channelMask, snapshot);
+            if (changed == 0) {
+                return;
+            }
+            published = snapshotStore.updateMetrics(changed, metricsEngine);
+        }
+        if (changed(changed, TelemetryChannelId.DISTANCE_TO_HOME)) {
+            dispatch(TelemetryChannelId.DISTANCE_TO_HOME, distanceToHomeChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.CLIMB_RATE)) {
+            dispatch(TelemetryChannelId.CLIMB_RATE, climbRateChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.GROUND_SPEED)) {
+            dispatch(TelemetryChannelId.GROUND_SPEED, groundSpeedChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.BATTERY_DRAIN_RATE)) {
+            dispatch(TelemetryChannelId.BATTERY_DRAIN_RATE, batteryDrainRateChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.DISTANCE_FLOWN)) {
+            dispatch(TelemetryChannelId.DISTANCE_FLOWN, distanceFlownChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.FLIGHT_TIME_REMAINING)) {
+            dispatch(TelemetryChannelId.FLIGHT_TIME_REMAINING, flightTimeRemainingChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.RETURN_DEADLINE)) {
+            dispatch(TelemetryChannelId.RETURN_DEADLINE, returnDeadlineChannel, published);
+        }
+        if (changed(changed, TelemetryChannelId.MISSION_TIME_REMAINING)) {
+            dispatch(TelemetryChannelId.MISSION_TIME_REMAINING, missionTimeRemainingChannel, published);
+        }
+    }
+
+    /**
+     * Clear the published telemetry and the metrics history, for a new source
+     */
+    private void resetTelemetry() {
+        synchronized (metricsEngine) {
+            metricsEngine.reset();
+            snapshotStore.reset();
+        }
+    }
+
+    private static LocationCoordinate3D toLocation(TelemetrySnapshot snapshot) {
+        return snapshot.hasLocation
+                ? new LocationCoordinate3D(snapshot.latitude, snapshot.longitude, snapshot.locationAltitude)
+                : null;
+    }
+
+    private static LocationCoordinate2D toHomeLocation(TelemetrySnapshot snapshot) {
+        return snapshot.hasHomeLocation
+                ? new LocationCoordinate2D(snapshot.homeLatitude, snapshot.homeLongitude)
+                : null;
+    }
     
     /**
      * Get singleton instance of TelemetryService
@@ -184,7 +622,10 @@ public class TelemetryService {
         try {
             Log.i(TAG, "Initializing telemetry service with DJI SDK V5...");
             
-            setupTelemetryListeners();
+            // A replay or simulation owns the channels, live data starts when it ends
+            if (activeSource == null) {
+                startSource(liveSource);
+            }
             
             Log.i(TAG, "TelemetryService initialization completed successfully");
         } catch (Exception e) {
@@ -227,670 +668,596 @@ public class TelemetryService {
     }
     
     /**
-     * Setup all DJI SDK telemetry listeners
+     * Force initial telemetry update by requesting current values
      */
-    private void setupTelemetryListeners() {
-        try {
-            Log.d(TAG, "Setting up telemetry listeners...");
-            
-            // Flight Mode Listener
-            setupFlightModeListener();
-            
-            // GPS Signal Status Listener
-            setupGpsSignalStatusListener();
-            
-            // Satellite Count Listener
-            setupSatelliteCountListener();
-            
-            // Link Signal Quality Listener (AirLink)
-            setupLinkSignalQualityListener();
-            
-            // Battery Charge Listener
-            setupBatteryChargeListener();
-            
-            // Altitude Listener
-            setupAltitudeListener();
-            
-            // Velocity Listeners (Horizontal & Vertical)
-            setupVelocityListeners();
-            
-            // Location Listener
-            setupLocationListener();
-
-            // Heading Listener
-            setupHeadingListener();
-
-            Log.d(TAG, "All telemetry listeners setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up telemetry listeners: " + e.getMessage(), e);
+    public void forceInitialTelemetryUpdate() {
+        if (!isInitialized.get()) {
+            Log.w(TAG, "Service not initialized, cannot force telemetry update");
+            return;
         }
+        
+        Log.d(TAG, "Forcing initial telemetry update...");
+        
+        // Ask the active source for every value
+        uiHandler.postDelayed(() -> {
+            try {
+                TelemetrySource source = activeSource;
+                if (source != null) {
+                    source.requestCurrentValues();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error during initial telemetry update: " + e.getMessage(), e);
+            }
+        }, 500); // Small delay to ensure SDK is ready
     }
     
-    /**
-     * Setup Flight Mode listener
-     */
-    private void setupFlightModeListener() {
-        try {
-            DJIKey<FlightMode> flightModeKey = KeyTools.createKey(
-                FlightControllerKey.KeyFlightMode, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(flightModeKey, this, 
-                new CommonCallbacks.KeyListener<FlightMode>() {
-                    @Override
-                    public void onValueChange(FlightMode oldValue, FlightMode newValue) {
-                        String flightModeString = newValue != null ? newValue.name() : "N/A";
-                        currentFlightMode = flightModeString;
-                        
-                        Log.v(TAG, "Flight mode changed: " + flightModeString);
-                        
-                        if (flightModeChangedListener != null) {
-                            uiHandler.post(() -> flightModeChangedListener.onFlightModeChanged(flightModeString));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Flight mode listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up flight mode listener: " + e.getMessage(), e);
-        }
+    // Subscription methods - a listener added without a rate receives every update, one added
+    // with a TelemetryRate only as often and as finely as that rate asks for
+    public void addFlightModeChangedListener(FlightModeChangedListener listener) {
+        flightModeChannel.subscribe(listener);
+    }
+
+    public void addFlightModeChangedListener(FlightModeChangedListener listener, TelemetryRate rate) {
+        flightModeChannel.subscribe(listener, rate);
+    }
+
+    public void removeFlightModeChangedListener(FlightModeChangedListener listener) {
+        flightModeChannel.unsubscribe(listener);
+    }
+
+    public void addGpsSignalStatusChangedListener(GpsSignalStatusChangedListener listener) {
+        gpsSignalStatusChannel.subscribe(listener);
+    }
+
+    public void addGpsSignalStatusChangedListener(GpsSignalStatusChangedListener listener, TelemetryRate rate) {
+        gpsSignalStatusChannel.subscribe(listener, rate);
+    }
+
+    public void removeGpsSignalStatusChangedListener(GpsSignalStatusChangedListener listener) {
+        gpsSignalStatusChannel.unsubscribe(listener);
+    }
+
+    public void addGpsSatCountChangedListener(GpsSatCountChangedListener listener) {
+        gpsSatCountChannel.subscribe(listener);
+    }
+
+    public void addGpsSatCountChangedListener(GpsSatCountChangedListener listener, TelemetryRate rate) {
+        gpsSatCountChannel.subscribe(listener, rate);
+    }
+
+    public void removeGpsSatCountChangedListener(GpsSatCountChangedListener listener) {
+        gpsSatCountChannel.unsubscribe(listener);
+    }
+
+    public void addLinkSignalQualityChangedListener(LinkSignalQualityChangedListener listener) {
+        linkSignalQualityChannel.subscribe(listener);
+    }
+
+    public void addLinkSignalQualityChangedListener(LinkSignalQualityChangedListener listener, TelemetryRate rate) {
+        linkSignalQualityChannel.subscribe(listener, rate);
+    }
+
+    public void removeLinkSignalQualityChangedListener(LinkSignalQualityChangedListener listener) {
+        linkSignalQualityChannel.unsubscribe(listener);
+    }
+
+    public void addBatteryChargeChangedListener(BatteryChargeChangedListener listener) {
+        batteryChargeChannel.subscribe(listener);
+    }
+
+    public void addBatteryChargeChangedListener(BatteryChargeChangedListener listener, TelemetryRate rate) {
+        batteryChargeChannel.subscribe(listener, rate);
+    }
+
+    public void removeBatteryChargeChangedListener(BatteryChargeChangedListener listener) {
+        batteryChargeChannel.unsubscribe(listener);
+    }
+
+    public void addAltitudeChangedListener(AltitudeChangedListener listener) {
+        altitudeChannel.subscribe(listener);
+    }
+
+    public void addAltitudeChangedListener(AltitudeChangedListener listener, TelemetryRate rate) {
+        altitudeChannel.subscribe(listener, rate);
+    }
+
+    public void removeAltitudeChangedListener(AltitudeChangedListener listener) {
+        altitudeChannel.unsubscribe(listener);
+    }
+
+    public void addHorizontalVelocityChangedListener(HorizontalVelocityChangedListener listener) {
+        horizontalVelocityChannel.subscribe(listener);
+    }
+
+    public void addHorizontalVelocityChangedListener(HorizontalVelocityChangedListener listener, TelemetryRate rate) {
+        horizontalVelocityChannel.subscribe(listener, rate);
+    }
+
+    public void removeHorizontalVelocityChangedListener(HorizontalVelocityChangedListener listener) {
+        horizontalVelocityChannel.unsubscribe(listener);
+    }
+
+    public void addVerticalVelocityChangedListener(VerticalVelocityChangedListener listener) {
+        verticalVelocityChannel.subscribe(listener);
+    }
+
+    public void addVerticalVelocityChangedListener(VerticalVelocityChangedListener listener, TelemetryRate rate) {
+        verticalVelocityChannel.subscribe(listener, rate);
+    }
+
+    public void removeVerticalVelocityChangedListener(VerticalVelocityChangedListener listener) {
+        verticalVelocityChannel.unsubscribe(listener);
+    }
+
+    public void addLocationChangedListener(LocationChangedListener listener) {
+        locationChannel.subscribe(listener);
+    }
+
+    public void addLocationChangedListener(LocationChangedListener listener, TelemetryRate rate) {
+        locationChannel.subscribe(listener, rate);
+    }
+
+    public void removeLocationChangedListener(LocationChangedListener listener) {
+        locationChannel.unsubscribe(listener);
+    }
+
+    public void addHeadingChangedListener(HeadingChangedListener listener) {
+        headingChannel.subscribe(listener);
+    }
+
+    public void addHeadingChangedListener(HeadingChangedListener listener, TelemetryRate rate) {
+        headingChannel.subscribe(listener, rate);
+    }
+
+    public void removeHeadingChangedListener(HeadingChangedListener listener) {
+        headingChannel.unsubscribe(listener);
     }
     
+    public void addDistanceToHomeChangedListener(DistanceToHomeChangedListener listener) {
+        distanceToHomeChannel.subscribe(listener);
+    }
+
+    public void addDistanceToHomeChangedListener(DistanceToHomeChangedListener listener, TelemetryRate rate) {
+        distanceToHomeChannel.subscribe(listener, rate);
+    }
+
+    public void removeDistanceToHomeChangedListener(DistanceToHomeChangedListener listener) {
+        distanceToHomeChannel.unsubscribe(listener);
+    }
+
+    public void addClimbRateChangedListener(ClimbRateChangedListener listener) {
+        climbRateChannel.subscribe(listener);
+    }
+
+    public void addClimbRateChangedListener(ClimbRateChangedListener listener, TelemetryRate rate) {
+        climbRateChannel.subscribe(listener, rate);
+    }
+
+    public void removeClimbRateChangedListener(ClimbRateChangedListener listener) {
+        climbRateChannel.unsubscribe(listener);
+    }
+
+    public void addGroundSpeedChangedListener(GroundSpeedChangedListener listener) {
+        groundSpeedChannel.subscribe(listener);
+    }
+
+    public void addGroundSpeedChangedListener(GroundSpeedChangedListener listener, TelemetryRate rate) {
+        groundSpeedChannel.subscribe(listener, rate);
+    }
+
+    public void removeGroundSpeedChangedListener(GroundSpeedChangedListener listener) {
+        groundSpeedChannel.unsubscribe(listener);
+    }
+
+    public void addBatteryDrainRateChangedListener(BatteryDrainRateChangedListener listener) {
+        batteryDrainRateChannel.subscribe(listener);
+    }
+
+    public void addBatteryDrainRateChangedListener(BatteryDrainRateChangedListener listener, TelemetryRate rate) {
+        batteryDrainRateChannel.subscribe(listener, rate);
+    }
+
+    public void removeBatteryDrainRateChangedListener(BatteryDrainRateChangedListener listener) {
+        batteryDrainRateChannel.unsubscribe(listener);
+    }
+
+    public void addDistanceFlownChangedListener(DistanceFlownChangedListener listener) {
+        distanceFlownChannel.subscribe(listener);
+    }
+
+    public void addDistanceFlownChangedListener(DistanceFlownChangedListener listener, TelemetryRate rate) {
+        distanceFlownChannel.subscribe(listener, rate);
+    }
+
+    public void removeDistanceFlownChangedListener(DistanceFlownChangedListener listener) {
+        distanceFlownChannel.unsubscribe(listener);
+    }
+
+    public void addFlightTimeRemainingChangedListener(FlightTimeRemainingChangedListener listener) {
+        flightTimeRemainingChannel.subscribe(listener);
+    }
+
+    public void addFlightTimeRemainingChangedListener(FlightTimeRemainingChangedListener listener, TelemetryRate rate) {
+        flightTimeRemainingChannel.subscribe(listener, rate);
+    }
+
+    public void removeFlightTimeRemainingChangedListener(FlightTimeRemainingChangedListener listener) {
+        flightTimeRemainingChannel.unsubscribe(listener);
+    }
+
+    public void addReturnDeadlineChangedListener(ReturnDeadlineChangedListener listener) {
+        returnDeadlineChannel.subscribe(listener);
+    }
+
+    public void addReturnDeadlineChangedListener(ReturnDeadlineChangedListener listener, TelemetryRate rate) {
+        returnDeadlineChannel.subscribe(listener, rate);
+    }
+
+    public void removeReturnDeadlineChangedListener(ReturnDeadlineChangedListener listener) {
+        returnDeadlineChannel.unsubscribe(listener);
+    }
+
+    public void addMissionTimeRemainingChangedListener(MissionTimeRemainingChangedListener listener) {
+        missionTimeRemainingChannel.subscribe(listener);
+    }
+
+    public void addMissionTimeRemainingChangedListener(MissionTimeRemainingChangedListener listener, TelemetryRate rate) {
+        missionTimeRemainingChannel.subscribe(listener, rate);
+    }
+
+    public void removeMissionTimeRemainingChangedListener(MissionTimeRemainingChangedListener listener) {
+        missionTimeRemainingChannel.unsubscribe(listener);
+    }
+
+    public void addTelemetryFrameListener(TelemetryFrameListener listener) {
+        frameChannel.subscribe(listener);
+    }
+
+    public void removeTelemetryFrameListener(TelemetryFrameListener listener) {
+        frameChannel.unsubscribe(listener);
+    }
+
     /**
-     * Setup GPS Signal Status listener
+     * Start recording every telemetry channel to a binary flight record file,
+     * replacing any recording in progress. The file starts with the current value
+     * of every channel reported so far.
+     * @return true if the recording started
      */
-    private void setupGpsSignalStatusListener() {
+    public boolean startFlightRecording(File file) {
+        stopFlightRecording();
+        FlightRecorder recorder = new FlightRecorder(file, (message, e) ->
+                Log.e(TAG, message + ": " + e.getMessage(), e));
         try {
-            DJIKey<GPSSignalLevel> gpsSignalKey = KeyTools.createKey(
-                FlightControllerKey.KeyGPSSignalLevel, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(gpsSignalKey, this, 
-                new CommonCallbacks.KeyListener<GPSSignalLevel>() {
-                    @Override
-                    public void onValueChange(GPSSignalLevel oldValue, GPSSignalLevel newValue) {
-                        Integer signalLevel = newValue != null ? newValue.value() : 0;
-                        currentGpsSignalLevel = signalLevel;
-                        
-                        Log.v(TAG, "GPS signal level changed: " + signalLevel);
-                        
-                        if (gpsSignalStatusChangedListener != null) {
-                            uiHandler.post(() -> gpsSignalStatusChangedListener.onGpsSignalStatusChanged(signalLevel));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "GPS signal status listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up GPS signal status listener: " + e.getMessage(), e);
+            recorder.start();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to start flight recording: " + e.getMessage(), e);
+            return false;
         }
+        TelemetrySnapshot snapshot = snapshotStore.get();
+        recorder.record(snapshot.receivedChannels, snapshot);
+        flightRecorder = recorder;
+        Log.i(TAG, "Flight recording started: " + file.getAbsolutePath());
+        return true;
     }
-    
+
     /**
-     * Setup Satellite Count listener
+     * Stop the current flight recording, the file is completed in the background
+     * @return The recorded file, or null if nothing was being recorded
      */
-    private void setupSatelliteCountListener() {
-        try {
-            DJIKey<Integer> satCountKey = KeyTools.createKey(
-                FlightControllerKey.KeyGPSSatelliteCount, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(satCountKey, this, 
-                new CommonCallbacks.KeyListener<Integer>() {
-                    @Override
-                    public void onValueChange(Integer oldValue, Integer newValue) {
-                        Integer satCount = newValue != null ? newValue : 0;
-                        currentSatelliteCount = satCount;
-                        
-                        Log.v(TAG, "Satellite count changed: " + satCount);
-                        
-                        if (gpsSatCountChangedListener != null) {
-                            uiHandler.post(() -> gpsSatCountChangedListener.onGpsSatCountChanged(satCount));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Satellite count listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up satellite count listener: " + e.getMessage(), e);
+    public File stopFlightRecording() {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder == null) {
+            return null;
         }
+        flightRecorder = null;
+        recorder.stop();
+        Log.i(TAG, "Flight recording stopped: " + recorder.getFile().getName() +
+                " (" + recorder.getRecordCount() + " records, " + recorder.getDroppedCount() + " dropped)");
+        return recorder.getFile();
     }
-    
+
+    public boolean isFlightRecording() {
+        return flightRecorder != null;
+    }
+
     /**
-     * Setup Link Signal Quality listener (AirLink)
+     * Feed the telemetry channels from another source, such as a recorded flight or a
+     * simulated aircraft. Live listeners are suspended for the duration and restored
+     * when the source ends by itself or useLiveSource() is called.
+     * @return true if the source started
      */
-    private void setupLinkSignalQualityListener() {
-        try {
-            DJIKey<Integer> linkSignalKey = KeyTools.createKey(
-                AirLinkKey.KeySignalQuality, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(linkSignalKey, this, 
-                new CommonCallbacks.KeyListener<Integer>() {
-                    @Override
-                    public void onValueChange(Integer oldValue, Integer newValue) {
-                        Integer signalQuality = newValue != null ? newValue : 0;
-                        currentLinkSignalQuality = signalQuality;
-                        
-                        Log.v(TAG, "Link signal quality changed: " + signalQuality + "%");
-                        
-                        if (linkSignalQualityChangedListener != null) {
-                            uiHandler.post(() -> linkSignalQualityChangedListener.onLinkSignalQualityChanged(signalQuality));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Link signal quality listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up link signal quality listener: " + e.getMessage(), e);
+    public synchronized boolean setTelemetrySource(TelemetrySource source) {
+        if (source == liveSource) {
+            useLiveSource();
+            return true;
         }
+        stopActiveSource();
+        resetTelemetry();
+        return startSource(source);
     }
-    
+
     /**
-     * Setup Battery Charge listener
+     * Stop any replay or simulation and return to live aircraft telemetry
      */
-    private void setupBatteryChargeListener() {
-        try {
-            DJIKey<Integer> batteryKey = KeyTools.createKey(
-                BatteryKey.KeyChargeRemainingInPercent, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(batteryKey, this, 
-                new CommonCallbacks.KeyListener<Integer>() {
-                    @Override
-                    public void onValueChange(Integer oldValue, Integer newValue) {
-                        Integer batteryPercentage = newValue != null ? newValue : 0;
-                        currentBatteryPercentage = batteryPercentage;
-                        
-                        Log.v(TAG, "Battery charge changed: " + batteryPercentage + "%");
-                        
-                        if (batteryChargeChangedListener != null) {
-                            uiHandler.post(() -> batteryChargeChangedListener.onBatteryChargeChanged(batteryPercentage));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Battery charge listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up battery charge listener: " + e.getMessage(), e);
+    public synchronized void useLiveSource() {
+        if (activeSource == liveSource) {
+            return;
         }
+        stopActiveSource();
+        restoreLiveSource();
     }
-    
+
+    public TelemetrySource getTelemetrySource() {
+        return activeSource;
+    }
+
     /**
-     * Setup Altitude listener
+     * Play a recorded flight through the telemetry channels instead of live SDK data
+     * @param speed 1 for real time, N for N times faster or TelemetryReplay.MAX_SPEED
+     * @return true if the replay started
      */
-    private void setupAltitudeListener() {
-        try {
-            DJIKey<Double> altitudeKey = KeyTools.createKey(
-                FlightControllerKey.KeyAltitude, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(altitudeKey, this, 
-                new CommonCallbacks.KeyListener<Double>() {
-                    @Override
-                    public void onValueChange(Double oldValue, Double newValue) {
-                        Double altitude = newValue != null ? newValue : 0.0;
-                        currentAltitude = altitude;
-                        
-                        Log.v(TAG, "Altitude changed: " + String.format("%.1f", altitude) + "m");
-                        
-                        if (altitudeChangedListener != null) {
-                            uiHandler.post(() -> altitudeChangedListener.onAltitudeChanged(altitude));
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Altitude listener setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up altitude listener: " + e.getMessage(), e);
-        }
+    public boolean startReplay(File recordFile, double speed) {
+        return setTelemetrySource(new ReplayTelemetrySource(recordFile, speed));
     }
-    
+
     /**
-     * Setup Velocity listeners (Horizontal & Vertical)
+     * Stop the running replay and return to live telemetry
      */
-    private void setupVelocityListeners() {
-        try {
-            DJIKey<Velocity3D> velocityKey = KeyTools.createKey(
-                FlightControllerKey.KeyAircraftVelocity, ComponentIndexType.LEFT_OR_MAIN);
-                
-            KeyManager.getInstance().listen(velocityKey, this, 
-                new CommonCallbacks.KeyListener<Velocity3D>() {
-                    @Override
-                    public void onValueChange(Velocity3D oldValue, Velocity3D newValue) {
-                        if (newValue != null) {
-                            // Calculate horizontal velocity (magnitude of x and y components)
-                            double horizontalVel = Math.sqrt(Math.pow(newValue.getX(), 2) + Math.pow(newValue.getY(), 2));
-                            double verticalVel = newValue.getZ();
-                            
-                            currentHorizontalVelocity = horizontalVel;
-                            currentVerticalVelocity = verticalVel;
-                            
-                            Log.v(TAG, "Velocity changed - H: " + String.format("%.1f", horizontalVel) + 
-                                      "m/s, V: " + String.format("%.1f", verticalVel) + "m/s");
-                            
-                            if (horizontalVelocityChangedListener != null) {
-                                uiHandler.post(() -> horizontalVelocityChangedListener.onHorizontalVelocityChanged(horizontalVel));
-                            }
-                            
-                            if (verticalVelocityChangedListener != null) {
-                                uiHandler.post(() -> verticalVelocityChangedListener.onVerticalVelocityChanged(verticalVel));
-                            }
-                        }
-                    }
-                });
-                
-            Log.d(TAG, "Velocity listeners setup completed");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up velocity listeners: " + e.getMessage(), e);
+    public void stopReplay() {
+        if (isReplaying()) {
+            useLiveSource();
         }
     }
-    
-    /**
-     * Setup Location listener
-     */
-    private void setupLocationListener() {
-        try {
-            DJIKey<LocationCoordinate3D> locationKey = KeyTools.createKey(
-                FlightControllerKey.KeyAircraftLocation3D, ComponentIndexType.LEFT_OR_MAIN);
-
-            KeyManager.getInstance().listen(locationKey, this,
-                new CommonCallbacks.KeyListener<LocationCoordinate3D>() {
-                    @Override
-                    public void onValueChange(LocationCoordinate3D oldValue, LocationCoordinate3D newValue) {
-                        currentLocation = newValue;
-
-                        if (newValue != null) {
-                            Log.v(TAG, "Location changed: Lat=" + String.format("%.6f", newValue.getLatitude()) +
-                                      ", Lon=" + String.format("%.6f", newValue.getLongitude()) +
-                                      ", Alt=" + String.format("%.1f", newValue.getAltitude()) + "m");
-                        }
-
-                        LocationChangedListener listener = locationChangedListener;
-                        if (listener != null) {
-                            uiHandler.post(() -> listener.onLocationChanged(newValue));
-                        }
-                    }
-                });
-
-            DJIKey<LocationCoordinate2D> locationHomeKey = KeyTools.createKey(
-                    FlightControllerKey.KeyHomeLocation, ComponentIndexType.LEFT_OR_MAIN);
-
-            KeyManager.getInstance().listen(locationHomeKey, this, new CommonCallbacks.KeyListener<LocationCoordinate2D>() {
-                @Override
-                public void onValueChange(@Nullable LocationCoordinate2D locationCoordinate2D, @Nullable LocationCoordinate2D newValue) {
-                    homeLocation = newValue;
-                    LocationChangedListener listener = locationChangedListener;
-                    if (listener != null) {
-                        uiHandler.post(() -> listener.onHomeLocationChanged(newValue));
-                    }
-                }
-            });
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting up location listener: " + e.getMessage(), e);
-        }
+    public boolean isReplaying() {
+        return activeSource instanceof ReplayTelemetrySource;
     }
 
     /**
-     * Setup Heading listener
+     * Fly the mission with a simulated aircraft instead of live SDK data
+     * @return true if the simulation started
      */
-    private void setupHeadingListener() {
+    public boolean startSimulation(List<WaypointSetting> waypoints, MissionSetting missionSetting) {
         try {
-            DJIKey<Double> headingKey = KeyTools.createKey(
-                FlightControllerKey.KeyCompassHeading, ComponentIndexType.LEFT_OR_MAIN);
-
-            KeyManager.getInstance().listen(headingKey, this,
-                new CommonCallbacks.KeyListener<Double>() {
-                    @Override
-                    public void onValueChange(Double oldValue, Double newValue) {
-                        Double heading = newValue != null ? newValue : 0.0;
-                        currentHeading = heading;
-
-                        Log.v(TAG, "Heading changed: " + String.format("%.1f", heading) + "°");
-
-                        if (headingChangedListener != null) {
-                            uiHandler.post(() -> headingChangedListener.onHeadingChanged(heading));
-                        }
-                    }
-                });
+            return setTelemetrySource(new SimulatedTelemetrySource(waypoints, missionSetting.autoFlighSpeed));
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Cannot simulate mission: " + e.getMessage());
+            return false;
+        }
+    }
 
-            Log.d(TAG, "Heading listener setup completed");
+    public boolean isSimulating() {
+        return activeSource instanceof SimulatedTelemetrySource;
+    }
 
+    private synchronized boolean startSource(TelemetrySource source) {
+        activeSource = source;
+        try {
+            source.start(telemetrySink, this::onSourceFinished);
         } catch (Exception e) {
-            Log.e(TAG, "Error setting up heading listener: " + e.getMessage(), e);
+            Log.e(TAG, "Failed to start " + source.getName() + ": " + e.getMessage(), e);
+            activeSource = null;
+            if (source != liveSource) {
+                restoreLiveSource();
+            }
+            return false;
         }
+        Log.i(TAG, "Telemetry source: " + source.getName());
+        return true;
     }
-    
+
+    private void stopActiveSource() {
+        TelemetrySource source = activeSource;
+        activeSource = null;
+        if (source != null) {
+            source.stop();
+        }
+    }
+
     /**
-     * Force initial telemetry update by requesting current values
+     * Called on the source's thread when a replay or simulation ends by itself
      */
-    public void forceInitialTelemetryUpdate() {
-        if (!isInitialized.get()) {
-            Log.w(TAG, "Service not initialized, cannot force telemetry update");
-            return;
+    private void onSourceFinished(TelemetrySource source, Exception error) {
+        if (error != null) {
+            Log.e(TAG, "Telemetry source " + source.getName() + " failed: " + error.getMessage(), error);
+        } else {
+            Log.i(TAG, "Telemetry source " + source.getName() + " finished");
         }
-        
-        Log.d(TAG, "Forcing initial telemetry update...");
-        
-        // Force update for each telemetry parameter
-        uiHandler.postDelayed(() -> {
-            try {
-                requestCurrentFlightMode();
-                requestCurrentGpsSignalStatus();
-                requestCurrentSatelliteCount();
-                requestCurrentLinkSignalQuality();
-                requestCurrentBatteryCharge();
-                requestCurrentAltitude();
-                requestCurrentVelocity();
-                requestCurrentLocation();
-                requestCurrentHeading();
-
-                Log.d(TAG, "Initial telemetry update requests sent");
-            } catch (Exception e) {
-                Log.e(TAG, "Error during initial telemetry update: " + e.getMessage(), e);
+        uiHandler.post(() -> {
+            synchronized (TelemetryService.this) {
+                if (activeSource == source) {
+                    activeSource = null;
+                    restoreLiveSource();
+                }
             }
-        }, 500); // Small delay to ensure SDK is ready
+        });
     }
-    
-    // Request current value methods
-    private void requestCurrentFlightMode() {
-        try {
-            DJIKey<FlightMode> key = KeyTools.createKey(FlightControllerKey.KeyFlightMode, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<FlightMode>() {
-                @Override
-                public void onSuccess(FlightMode flightMode) {
-                    String flightModeString = flightMode != null ? flightMode.name() : "N/A";
-                    currentFlightMode = flightModeString;
-                    if (flightModeChangedListener != null) {
-                        uiHandler.post(() -> flightModeChangedListener.onFlightModeChanged(flightModeString));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current flight mode: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current flight mode: " + e.getMessage());
+
+    private void restoreLiveSource() {
+        if (isInitialized.get()) {
+            resetTelemetry();
+            startSource(liveSource);
+            if (isMonitoring.get()) {
+                forceInitialTelemetryUpdate();
+            }
         }
     }
-    
-    private void requestCurrentGpsSignalStatus() {
-        try {
-            DJIKey<GPSSignalLevel> key = KeyTools.createKey(FlightControllerKey.KeyGPSSignalLevel, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<GPSSignalLevel>() {
-                @Override
-                public void onSuccess(GPSSignalLevel signalLevel) {
-                    Integer level = signalLevel != null ? signalLevel.value() : 0;
-                    currentGpsSignalLevel = level;
-                    if (gpsSignalStatusChangedListener != null) {
-                        uiHandler.post(() -> gpsSignalStatusChangedListener.onGpsSignalStatusChanged(level));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current GPS signal status: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current GPS signal status: " + e.getMessage());
+
+    /**
+     * Measure the distance to home channel from this point, such as the operator or
+     * mission home, instead of the aircraft home point
+     */
+    public void setMetricsHomeLocation(double latitude, double longitude) {
+        synchronized (metricsEngine) {
+            metricsEngine.setHomeOverride(latitude, longitude);
         }
     }
-    
-    private void requestCurrentSatelliteCount() {
-        try {
-            DJIKey<Integer> key = KeyTools.createKey(FlightControllerKey.KeyGPSSatelliteCount, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
-                @Override
-                public void onSuccess(Integer satCount) {
-                    Integer count = satCount != null ? satCount : 0;
-                    currentSatelliteCount = count;
-                    if (gpsSatCountChangedListener != null) {
-                        uiHandler.post(() -> gpsSatCountChangedListener.onGpsSatCountChanged(count));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current satellite count: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current satellite count: " + e.getMessage());
+
+    public void clearMetricsHomeLocation() {
+        synchronized (metricsEngine) {
+            metricsEngine.clearHomeOverride();
         }
     }
-    
-    private void requestCurrentLinkSignalQuality() {
-        try {
-            DJIKey<Integer> key = KeyTools.createKey(AirLinkKey.KeySignalQuality, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
-                @Override
-                public void onSuccess(Integer signalQuality) {
-                    Integer quality = signalQuality != null ? signalQuality : 0;
-                    currentLinkSignalQuality = quality;
-                    if (linkSignalQualityChangedListener != null) {
-                        uiHandler.post(() -> linkSignalQualityChangedListener.onLinkSignalQualityChanged(quality));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current link signal quality: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current link signal quality: " + e.getMessage());
+
+    /**
+     * Restart the derived metrics history, e.g. distance flown at the start of a mission
+     */
+    public void resetMetrics() {
+        synchronized (metricsEngine) {
+            metricsEngine.reset();
         }
     }
-    
-    private void requestCurrentBatteryCharge() {
-        try {
-            DJIKey<Integer> key = KeyTools.createKey(BatteryKey.KeyChargeRemainingInPercent, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
-                @Override
-                public void onSuccess(Integer batteryPercentage) {
-                    Integer percentage = batteryPercentage != null ? batteryPercentage : 0;
-                    currentBatteryPercentage = percentage;
-                    if (batteryChargeChangedListener != null) {
-                        uiHandler.post(() -> batteryChargeChangedListener.onBatteryChargeChanged(percentage));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current battery charge: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current battery charge: " + e.getMessage());
+
+    /**
+     * Predict the remaining time of this mission from now on, until clearActiveMission()
+     * @param waypoints The mission's waypoints, the aircraft is heading to the first one
+     */
+    public void setActiveMission(List<WaypointSetting> waypoints, MissionSetting missionSetting) {
+        if (waypoints == null || waypoints.isEmpty()) {
+            return;
         }
-    }
-    
-    private void requestCurrentAltitude() {
-        try {
-            DJIKey<Double> key = KeyTools.createKey(FlightControllerKey.KeyAltitude, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Double>() {
-                @Override
-                public void onSuccess(Double altitude) {
-                    Double alt = altitude != null ? altitude : 0.0;
-                    currentAltitude = alt;
-                    if (altitudeChangedListener != null) {
-                        uiHandler.post(() -> altitudeChangedListener.onAltitudeChanged(alt));
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current altitude: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current altitude: " + e.getMessage());
+        boolean returnHome = missionSetting == null || missionSetting.finishAction == WaylineFinishedAction.GO_HOME;
+        // The KMZ carries each waypoint's speed and the template default, not autoFlighSpeed
+        synchronized (metricsEngine) {
+            metricsEngine.getFlightTimePredictor().setMission(waypoints, KMZTestUtil.DEF_AUTO_FLIGHT_SPEED, returnHome);
         }
+        // Predict from the current position right away rather than on the next fix
+        updateMetrics(TelemetryChannelId.bit(TelemetryChannelId.LOCATION), snapshotStore.get());
     }
-    
-    private void requestCurrentVelocity() {
-        try {
-            DJIKey<Velocity3D> key = KeyTools.createKey(FlightControllerKey.KeyAircraftVelocity, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Velocity3D>() {
-                @Override
-                public void onSuccess(Velocity3D velocity) {
-                    if (velocity != null) {
-                        double horizontalVel = Math.sqrt(Math.pow(velocity.getX(), 2) + Math.pow(velocity.getY(), 2));
-                        double verticalVel = velocity.getZ();
-                        
-                        currentHorizontalVelocity = horizontalVel;
-                        currentVerticalVelocity = verticalVel;
-                        
-                        if (horizontalVelocityChangedListener != null) {
-                            uiHandler.post(() -> horizontalVelocityChangedListener.onHorizontalVelocityChanged(horizontalVel));
-                        }
-                        if (verticalVelocityChangedListener != null) {
-                            uiHandler.post(() -> verticalVelocityChangedListener.onVerticalVelocityChanged(verticalVel));
-                        }
-                    }
-                }
-                
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current velocity: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current velocity: " + e.getMessage());
+
+    /**
+     * Index of the waypoint the active mission is heading to
+     */
+    public void setActiveMissionWaypoint(int waypointIndex) {
+        synchronized (metricsEngine) {
+            metricsEngine.getFlightTimePredictor().setTargetWaypoint(waypointIndex);
         }
     }
-    
-    private void requestCurrentLocation() {
-        try {
-            DJIKey<LocationCoordinate3D> key = KeyTools.createKey(FlightControllerKey.KeyAircraftLocation3D, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<LocationCoordinate3D>() {
-                @Override
-                public void onSuccess(LocationCoordinate3D location) {
-                    currentLocation = location;
-                    if (locationChangedListener != null) {
-                        uiHandler.post(() -> locationChangedListener.onLocationChanged(location));
-                    }
-                }
 
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current location: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current location: " + e.getMessage());
+    public void clearActiveMission() {
+        synchronized (metricsEngine) {
+            metricsEngine.getFlightTimePredictor().clearMission();
         }
     }
 
-    private void requestCurrentHeading() {
-        try {
-            DJIKey<Double> key = KeyTools.createKey(FlightControllerKey.KeyCompassHeading, ComponentIndexType.LEFT_OR_MAIN);
-            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Double>() {
-                @Override
-                public void onSuccess(Double heading) {
-                    Double head = heading != null ? heading : 0.0;
-                    currentHeading = head;
-                    if (headingChangedListener != null) {
-                        uiHandler.post(() -> headingChangedListener.onHeadingChanged(head));
-                    }
-                }
-
-                @Override
-                public void onFailure(IDJIError error) {
-                    Log.d(TAG, "Failed to get current heading: " + error.description());
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Error requesting current heading: " + e.getMessage());
+    /**
+     * Seconds until the current flight is expected to end: the rest of the active mission
+     * including the return home, or the battery endurance if that runs out first
+     * @return -1 if there is no battery reading yet
+     */
+    public double estimateSecondsToFlightEnd() {
+        synchronized (metricsEngine) {
+            return metricsEngine.getFlightTimePredictor().estimateSecondsToFlightEnd();
         }
     }
-    
-    // Setter methods for listeners
-    public void setFlightModeChangedListener(FlightModeChangedListener listener) {
-        this.flightModeChangedListener = listener;
-    }
-    
-    public void setGpsSignalStatusChangedListener(GpsSignalStatusChangedListener listener) {
-        this.gpsSignalStatusChangedListener = listener;
+
+    // Dispatch statistics
+    public long getOfferedUpdateCount() {
+        return frameDispatcher.getOfferedCount();
     }
-    
-    public void setGpsSatCountChangedListener(GpsSatCountChangedListener listener) {
-        this.gpsSatCountChangedListener = listener;
+
+    /**
+     * Number of updates dropped because a newer value replaced them before the next frame
+     */
+    public long getCoalescedUpdateCount() {
+        return frameDispatcher.getCoalescedCount();
     }
-    
-    public void setLinkSignalQualityChangedListener(LinkSignalQualityChangedListener listener) {
-        this.linkSignalQualityChangedListener = listener;
+
+    public long getDispatchedFrameCount() {
+        return frameDispatcher.getFrameCount();
     }
-    
-    public void setBatteryChargeChangedListener(BatteryChargeChangedListener listener) {
-        this.batteryChargeChangedListener = listener;
+
+    // Latency instrumentation
+    /**
+     * A view now shows the latest delivered value of the channel; display managers call
+     * this right after applying a value so the view latency is measured
+     * @param channelId TelemetryChannelId of the value
+     */
+    public void recordViewApplied(int channelId) {
+        latencyMonitor.onViewApplied(channelId, System.nanoTime());
     }
-    
-    public void setAltitudeChangedListener(AltitudeChangedListener listener) {
-        this.altitudeChangedListener = listener;
+
+    public TelemetryLatencyMonitor getLatencyMonitor() {
+        return latencyMonitor;
     }
-    
-    public void setHorizontalVelocityChangedListener(HorizontalVelocityChangedListener listener) {
-        this.horizontalVelocityChangedListener = listener;
+
+    public void setLatencyTrackingEnabled(boolean enabled) {
+        latencyMonitor.setEnabled(enabled);
     }
-    
-    public void setVerticalVelocityChangedListener(VerticalVelocityChangedListener listener) {
-        this.verticalVelocityChangedListener = listener;
+
+    public void resetLatencyStatistics() {
+        latencyMonitor.reset();
     }
-    
-    public void setLocationChangedListener(LocationChangedListener listener) {
-        this.locationChangedListener = listener;
+
+    public String getLatencyReport() {
+        return latencyMonitor.report();
     }
 
-    public void setHeadingChangedListener(HeadingChangedListener listener) {
-        this.headingChangedListener = listener;
+    /**
+     * Log the latency report and write it to a text file
+     * @return The written file
+     */
+    public File dumpLatencyReport(File file) throws IOException {
+        String report = latencyMonitor.report();
+        Log.i(TAG, report);
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(report);
+        }
+        return file;
+    }
+    
+    /**
+     * Latest telemetry as one consistent snapshot, safe to call from any thread.
+     * Read it once and use its fields rather than calling the getters below in a row,
+     * which may each observe a different update.
+     */
+    public TelemetrySnapshot getSnapshot() {
+        return snapshotStore.get();
     }
     
     // Getter methods for current values (for immediate access)
     public String getCurrentFlightMode() {
-        return currentFlightMode;
+        return snapshotStore.get().flightMode;
     }
     
     public Integer getCurrentGpsSignalLevel() {
-        return currentGpsSignalLevel;
+        return snapshotStore.get().gpsSignalLevel;
     }
     
     public Integer getCurrentSatelliteCount() {
-        return currentSatelliteCount;
+        return snapshotStore.get().satelliteCount;
     }
     
     public Integer getCurrentLinkSignalQuality() {
-        return currentLinkSignalQuality;
+        return snapshotStore.get().linkSignalQuality;
     }
     
     public Integer getCurrentBatteryPercentage() {
-        return currentBatteryPercentage;
+        return snapshotStore.get().batteryPercentage;
     }
     
     public Double getCurrentAltitude() {
-        return currentAltitude;
+        return snapshotStore.get().altitude;
     }
     
     public Double getCurrentHorizontalVelocity() {
-        return currentHorizontalVelocity;
+        return snapshotStore.get().horizontalVelocity;
     }
     
     public Double getCurrentVerticalVelocity() {
-        return currentVerticalVelocity;
+        return snapshotStore.get().verticalVelocity;
     }
     
     public LocationCoordinate3D getCurrentLocation() {
-        return currentLocation;
+        return toLocation(snapshotStore.get());
     }
 
     public Double getCurrentHeading() {
-        return currentHeading;
+        return snapshotStore.get().heading;
     }
     
     /**
@@ -915,32 +1282,47 @@ public class TelemetryService {
             Log.i(TAG, "Cleaning up TelemetryService...");
             
             stopTelemetryMonitoring();
+            stopFlightRecording();
             
-            // Remove all listeners from DJI SDK
-            if (isInitialized.get()) {
-                KeyManager.getInstance().cancelListen(this);
-            }
+            // Stop the active source, this removes all listeners from DJI SDK
+            stopActiveSource();
             
-            // Clear listener references
-            flightModeChangedListener = null;
-            gpsSignalStatusChangedListener = null;
-            gpsSatCountChangedListener = null;
-            linkSignalQualityChangedListener = null;
-            batteryChargeChangedListener = null;
-            altitudeChangedListener = null;
-            horizontalVelocityChangedListener = null;
-            verticalVelocityChangedListener = null;
-            locationChangedListener = null;
-            headingChangedListener = null;
+            // Drop all subscribers
+            flightModeChannel.clear();
+            gpsSignalStatusChannel.clear();
+            gpsSatCountChannel.clear();
+            linkSignalQualityChannel.clear();
+            batteryChargeChannel.clear();
+            altitudeChannel.clear();
+            horizontalVelocityChannel.clear();
+            verticalVelocityChannel.clear();
+            locationChannel.clear();
+            headingChannel.clear();
+            distanceToHomeChannel.clear();
+            climbRateChannel.clear();
+            groundSpeedChannel.clear();
+            batteryDrainRateChannel.clear();
+            distanceFlownChannel.clear();
+            flightTimeRemainingChannel.clear();
+            returnDeadlineChannel.clear();
+            missionTimeRemainingChannel.clear();
+            frameChannel.clear();
             
             // Reset state
             isInitialized.set(false);
             isMonitoring.set(false);
             
-            // Clear UI handler
+            // Clear UI handler and any frame still waiting for vsync
             if (uiHandler != null) {
                 uiHandler.removeCallbacksAndMessages(null);
             }
+            frameDispatcher.cancel();
+            synchronized (heldFlushLock) {
+                uiHandler.removeCallbacks(heldFlush);
+                heldFlushAtNanos = TelemetryChannel.NOTHING_HELD;
+            }
+            heldChannels.set(0);
+            resetTelemetry();
             
             Log.i(TAG, "TelemetryService cleanup completed");
             
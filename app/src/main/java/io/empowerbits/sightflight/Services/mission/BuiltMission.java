@@ -0,0 +1,86 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import dji.sdk.wpmz.value.mission.WaylineCheckError;
+import dji.sdk.wpmz.value.mission.WaylineCheckErrorMsg;
+
+/**
+ * BuiltMission - Upload-ready KMZ of one mission, as produced by MissionKmzBuilder
+ *
+ * Carries the written file for the SDK calls that need a path, the same archive in
+ * memory so copies never read it back, and the outcome of the SDK validation.
+ * Missions taken from MissionKmzCache only have the file.
+ */
+public class BuiltMission {
+
+    private final String name;
+    private final File file;
+    private final byte[] kmz;
+    private final WaylineCheckErrorMsg check;
+    private final String validationFailure;
+    private final MissionBuildTimings timings;
+    private final boolean fromCache;
+
+    BuiltMission(String name, File file, byte[] kmz, WaylineCheckErrorMsg check, String validationFailure,
+                 MissionBuildTimings timings, boolean fromCache) {
+        this.name = name;
+        this.file = file;
+        this.kmz = kmz;
+        this.check = check;
+        this.validationFailure = validationFailure;
+        this.timings = timings;
+        this.fromCache = fromCache;
+    }
+
+    /**
+     * Mission name, which is also the KMZ file name without extension
+     */
+    public String getName() {
+        return name;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * The KMZ archive as written to getFile(), null for cache hits; do not modify
+     */
+    public byte[] getKmz() {
+        return kmz;
+    }
+
+    /**
+     * Result of WPMZManager.checkValidation, null when validation itself failed or when
+     * a cache hit was validated by an earlier process
+     */
+    public WaylineCheckErrorMsg getCheck() {
+        return check;
+    }
+
+    public List<WaylineCheckError> getValidationErrors() {
+        List<WaylineCheckError> errors = check != null ? check.getValue() : null;
+        return errors != null ? errors : Collections.<WaylineCheckError>emptyList();
+    }
+
+    /**
+     * Message of the exception validation threw, null when it ran
+     */
+    public String getValidationFailure() {
+        return validationFailure;
+    }
+
+    public MissionBuildTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Whether generation and validation were skipped because the cache had this mission
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
@@ -0,0 +1,67 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MissionBuildTimings - Wall time of each stage between "start mission" and the upload
+ *
+ * The clock starts when the instance is created; every mark() closes the stage that
+ * ran since the previous mark, so stages never overlap and their sum is the total.
+ * Marks may come from different threads, but never concurrently.
+ */
+public class MissionBuildTimings {
+
+    public static final String STAGE_CACHE = "cache";
+    public static final String STAGE_GENERATE = "generate";
+    public static final String STAGE_CLEAN = "clean";
+    public static final String STAGE_WRITE = "write";
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_UPLOAD = "upload";
+
+    private final long startNanos;
+    private final List<String> stageNames = new ArrayList<>();
+    private final List<Long> stageNanos = new ArrayList<>();
+    private long lastMarkNanos;
+
+    public MissionBuildTimings() {
+        startNanos = System.nanoTime();
+        lastMarkNanos = startNanos;
+    }
+
+    /**
+     * Close the stage that ran since the previous mark
+     */
+    public synchronized void mark(String stage) {
+        long now = System.nanoTime();
+        stageNames.add(stage);
+        stageNanos.add(now - lastMarkNanos);
+        lastMarkNanos = now;
+    }
+
+    /**
+     * Duration of a stage, or -1 when it has not been marked
+     */
+    public synchronized long getStageNanos(String stage) {
+        int index = stageNames.indexOf(stage);
+        return index < 0 ? -1 : stageNanos.get(index);
+    }
+
+    /**
+     * Time from creation to the last mark
+     */
+    public synchronized long getTotalNanos() {
+        return lastMarkNanos - startNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < stageNames.size(); i++) {
+            summary.append(String.format(Locale.US, "%s %.1f ms, ", stageNames.get(i), stageNanos.get(i) / 1e6));
+        }
+        summary.append(String.format(Locale.US, "total %.1f ms", getTotalNanos() / 1e6));
+        return summary.toString();
+    }
+}
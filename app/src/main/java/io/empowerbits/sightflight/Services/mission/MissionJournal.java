@@ -0,0 +1,232 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * MissionJournal - Timestamped, append-only event journal of one mission execution
+ *
+ * Callers record events as they see them (state changes, waypoint changes, uploads,
+ * pause and resume from the app or the RC). Each event is stamped with
+ * System.nanoTime() on the calling thread, encoded into MissionJournalFormat records and
+ * appended to the file on the writer executor, so the calling thread never touches the
+ * disk. Every event is written through as it comes, a crash loses at most the events
+ * still queued. The events are also kept in memory for MissionJournalAnalysis; a mission
+ * produces a few hundred at most.
+ *
+ * The journal of the mission that is flying is published through getActive(), for
+ * ButtonsListenerService which pauses missions on its own.
+ */
+public final class MissionJournal {
+
+    /**
+     * Receives write failures so the journal stays free of Android logging
+     */
+    public interface ErrorHandler {
+        void onJournalError(String message, Exception e);
+    }
+
+    /**
+     * One decoded event
+     */
+    public static final class Event {
+        public final int type;
+        public final int source;
+        public final int value;
+        /** Microseconds since the journal start */
+        public final long timeMicros;
+        /** Resolved text of events whose value is a string id, null otherwise */
+        public final String text;
+
+        public Event(int type, int source, int value, long timeMicros, String text) {
+            this.type = type;
+            this.source = source;
+            this.value = value;
+            this.timeMicros = timeMicros;
+            this.text = text;
+        }
+
+        public long getTimeMillis() {
+            return timeMicros / 1000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%10.3f s  %-16s %-9s %s", timeMicros / 1e6,
+                    MissionJournalFormat.typeName(type), MissionJournalFormat.sourceName(source),
+                    text != null ? text : String.valueOf(value));
+        }
+    }
+
+    private static volatile MissionJournal active;
+
+    private final File file;
+    private final Executor writer;
+    private final ErrorHandler errorHandler;
+    private final long startEpochMillis;
+    private final long startNanos;
+
+    // Guarded by this
+    private final List<Event> events = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private boolean closed;
+
+    // Writer executor only
+    private OutputStream out;
+    private boolean failed;
+
+    /**
+     * @param writer Runs the file writes in submission order, e.g. a single thread executor
+     */
+    public MissionJournal(File file, Executor writer, ErrorHandler errorHandler) {
+        this.file = file;
+        this.writer = writer;
+        this.errorHandler = errorHandler;
+        this.startEpochMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        final byte[] header = header();
+        writer.execute(() -> append(header));
+    }
+
+    /**
+     * Journal of the mission currently executing, or null
+     */
+    public static MissionJournal getActive() {
+        return active;
+    }
+
+    public static void setActive(MissionJournal journal) {
+        active = journal;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public void record(int type, int source, int value) {
+        record(type, source, value, null);
+    }
+
+    /**
+     * Record an event carrying text, for the types MissionJournalFormat.hasText accepts
+     */
+    public void record(int type, int source, String text) {
+        record(type, source, 0, text != null ? text : "");
+    }
+
+    private synchronized void record(int type, int source, int value, String text) {
+        if (closed) {
+            return;
+        }
+        long timeMicros = (System.nanoTime() - startNanos) / 1000;
+        ByteBuffer records;
+        if (text != null) {
+            Integer id = stringIds.get(text);
+            byte[] bytes = null;
+            if (id == null) {
+                id = stringIds.size();
+                stringIds.put(text, id);
+                bytes = text.getBytes(StandardCharsets.UTF_8);
+            }
+            value = id;
+            int count = 1 + (bytes != null ? MissionJournalFormat.stringRecordCount(bytes.length) : 0);
+            records = ByteBuffer.allocate(count * MissionJournalFormat.RECORD_SIZE)
+                    .order(MissionJournalFormat.BYTE_ORDER);
+            if (bytes != null) {
+                putRecord(records, MissionJournalFormat.TYPE_STRING, source, bytes.length, timeMicros);
+                records.put(bytes);
+                records.position(records.capacity() - MissionJournalFormat.RECORD_SIZE);
+            }
+        } else {
+            records = ByteBuffer.allocate(MissionJournalFormat.RECORD_SIZE).order(MissionJournalFormat.BYTE_ORDER);
+        }
+        putRecord(records, type, source, value, timeMicros);
+        events.add(new Event(type, source, value, timeMicros, text));
+        final byte[] bytes = records.array();
+        writer.execute(() -> append(bytes));
+    }
+
+    private static void putRecord(ByteBuffer records, int type, int source, int value, long timeMicros) {
+        records.put((byte) type);
+        records.put((byte) source);
+        records.putShort((short) 0);
+        records.putInt(value);
+        records.putLong(timeMicros);
+    }
+
+    /**
+     * Copy of the events recorded so far, in order
+     */
+    public synchronized List<Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Stop recording; the file is closed once the queued events are written
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (active == this) {
+            active = null;
+        }
+        writer.execute(() -> {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    errorHandler.onJournalError("Closing " + file.getName() + " failed", e);
+                }
+                out = null;
+            }
+        });
+    }
+
+    private byte[] header() {
+        ByteBuffer header = ByteBuffer.allocate(MissionJournalFormat.HEADER_SIZE)
+                .order(MissionJournalFormat.BYTE_ORDER);
+        header.putInt(MissionJournalFormat.MAGIC);
+        header.putShort(MissionJournalFormat.VERSION);
+        header.putShort((short) MissionJournalFormat.RECORD_SIZE);
+        header.putLong(startEpochMillis);
+        header.putLong(startNanos);
+        return header.array();
+    }
+
+    private void append(byte[] bytes) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (out == null) {
+                File dir = file.getParentFile();
+                if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                out = new FileOutputStream(file, true);
+            }
+            out.write(bytes);
+        } catch (IOException e) {
+            failed = true;
+            errorHandler.onJournalError("Writing " + file.getName() + " failed, journal stopped", e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * MissionJournalAnalysis - Timings derived from a MissionJournal
+ *
+ * A leg runs from one waypoint index change to the next. Its active time excludes the
+ * time the mission spent paused or interrupted, its achieved speed is the planned
+ * horizontal distance between the two waypoints over that time, so legs the aircraft
+ * flew well below the planned speed stand out. The gaps before the first waypoint show
+ * where the time between the pilot confirming and the aircraft flying goes: the upload
+ * (or what was left of one begun ahead of confirmation), READY to EXECUTING, and the
+ * approach to the first waypoint.
+ *
+ * Times are milliseconds, -1 when the journal does not contain the events.
+ */
+public class MissionJournalAnalysis {
+
+    /** Legs flown below this share of their planned speed are reported as slow */
+    public static final double SLOW_LEG_RATIO = 0.7;
+
+    public static class Leg {
+        public final int fromIndex;
+        public final int toIndex;
+        public final long activeMillis;
+        public final long pausedMillis;
+        public final double distanceMeters;
+        public final double plannedSpeed;
+
+        Leg(int fromIndex, int toIndex, long activeMillis, long pausedMillis, double distanceMeters,
+            double plannedSpeed) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.activeMillis = activeMillis;
+            this.pausedMillis = pausedMillis;
+            this.distanceMeters = distanceMeters;
+            this.plannedSpeed = plannedSpeed;
+        }
+
+        /**
+         * Meters per second over the active time, NaN when the leg took no time
+         */
+        public double getAverageSpeed() {
+            return activeMillis > 0 ? distanceMeters / (activeMillis / 1000d) : Double.NaN;
+        }
+
+        public boolean isSlow() {
+            double speed = getAverageSpeed();
+            return plannedSpeed > 0 && distanceMeters > 0 && !Double.isNaN(speed)
+                    && speed < plannedSpeed * SLOW_LEG_RATIO;
+        }
+    }
+
+    private long uploadMillis = -1;
+    private long uploadRemainderMillis = -1;
+    private boolean preUploaded;
+    private long startRequestToExecutingMillis = -1;
+    private long readyToExecutingMillis = -1;
+    private long approachMillis = -1;
+    private long pausedMillis;
+    private int pauseCount;
+    private long durationMillis;
+    private final List<Leg> legs = new ArrayList<>();
+
+    private MissionJournalAnalysis() {}
+
+    /**
+     * @param waypoints The mission's waypoints, for the leg distances and planned speeds
+     * @param defaultSpeed Speed of waypoints that have none, m/s
+     */
+    public static MissionJournalAnalysis analyze(List<MissionJournal.Event> events, List<WaypointSetting> waypoints,
+                                                 double defaultSpeed) {
+        MissionJournalAnalysis analysis = new MissionJournalAnalysis();
+        long uploadStarted = -1;
+        long uploadJoined = -1;
+        long startRequested = -1;
+        long ready = -1;
+        long executing = -1;
+        long pauseStart = -1;
+        long pausedTotal = 0;
+        int lastIndex = -1;
+        long lastIndexTime = -1;
+        long lastIndexPaused = 0;
+
+        for (MissionJournal.Event event : events) {
+            long time = event.getTimeMillis();
+            analysis.durationMillis = Math.max(analysis.durationMillis, time);
+            switch (event.type) {
+                case MissionJournalFormat.EVENT_START_REQUESTED:
+                    startRequested = time;
+                    break;
+                case MissionJournalFormat.EVENT_UPLOAD_STARTED:
+                    uploadStarted = time;
+                    uploadJoined = -1;
+                    break;
+                case MissionJournalFormat.EVENT_UPLOAD_IN_PROGRESS:
+                    uploadJoined = time;
+                    uploadStarted = -1;
+                    break;
+                case MissionJournalFormat.EVENT_UPLOADED:
+                    analysis.preUploaded = event.value == 1;
+                    if (uploadStarted >= 0) {
+                        analysis.uploadMillis = time - uploadStarted;
+                    } else if (uploadJoined >= 0) {
+                        analysis.uploadRemainderMillis = time - uploadJoined;
+                    }
+                    break;
+                case MissionJournalFormat.EVENT_PAUSED:
+                    if (pauseStart < 0) {
+                        pauseStart = time;
+                        analysis.pauseCount++;
+                    }
+                    break;
+                case MissionJournalFormat.EVENT_RESUMED:
+                    if (pauseStart >= 0) {
+                        pausedTotal += time - pauseStart;
+                        pauseStart = -1;
+                    }
+                    break;
+                case MissionJournalFormat.EVENT_STATE:
+                    if ("READY".equals(event.text)) {
+                        ready = time;
+                    } else if ("INTERRUPTED".equals(event.text)) {
+                        if (pauseStart < 0) {
+                            pauseStart = time;
+                            analysis.pauseCount++;
+                        }
+                    } else if ("EXECUTING".equals(event.text) || "RECOVERING".equals(event.text)) {
+                        if (pauseStart >= 0) {
+                            pausedTotal += time - pauseStart;
+                            pauseStart = -1;
+                        }
+                        if (executing < 0 && "EXECUTING".equals(event.text)) {
+                            executing = time;
+                            if (startRequested >= 0) {
+                                analysis.startRequestToExecutingMillis = time - startRequested;
+                            }
+                            if (ready >= 0) {
+                                analysis.readyToExecutingMillis = time - ready;
+                            }
+                        }
+                    }
+                    break;
+                case MissionJournalFormat.EVENT_WAYPOINT:
+                    long pausedNow = pausedTotal + (pauseStart >= 0 ? time - pauseStart : 0);
+                    if (lastIndex < 0) {
+                        if (executing >= 0) {
+                            analysis.approachMillis = time - executing;
+                        }
+                    } else if (event.value != lastIndex) {
+                        long paused = pausedNow - lastIndexPaused;
+                        analysis.legs.add(new Leg(lastIndex, event.value, time - lastIndexTime - paused, paused,
+                                distance(waypoints, lastIndex, event.value),
+                                plannedSpeed(waypoints, event.value, defaultSpeed)));
+                    }
+                    lastIndex = event.value;
+                    lastIndexTime = time;
+                    lastIndexPaused = pausedNow;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (pauseStart >= 0) {
+            pausedTotal += analysis.durationMillis - pauseStart;
+        }
+        analysis.pausedMillis = pausedTotal;
+        return analysis;
+    }
+
+    /**
+     * Planned horizontal distance from one waypoint to another along the route
+     */
+    private static double distance(List<WaypointSetting> waypoints, int from, int to) {
+        if (from < 0 || to <= from || to >= waypoints.size()) {
+            return 0;
+        }
+        double distance = 0;
+        for (int i = from; i < to; i++) {
+            WaypointSetting a = waypoints.get(i);
+            WaypointSetting b = waypoints.get(i + 1);
+            if (a.latitude == null || a.longitude == null || b.latitude == null || b.longitude == null) {
+                return 0;
+            }
+            distance += Geodesy.haversine(a.latitude, a.longitude, b.latitude, b.longitude);
+        }
+        return distance;
+    }
+
+    private static double plannedSpeed(List<WaypointSetting> waypoints, int index, double defaultSpeed) {
+        if (index < 0 || index >= waypoints.size()) {
+            return defaultSpeed;
+        }
+        Double speed = waypoints.get(index).waypointSpeed;
+        return speed != null && speed > 0 ? speed : defaultSpeed;
+    }
+
+    /**
+     * Whole upload, when it began after the pilot confirmed
+     */
+    public long getUploadMillis() {
+        return uploadMillis;
+    }
+
+    /**
+     * Part of an upload begun ahead of confirmation that was still left when the pilot
+     * confirmed; its start is not in the journal
+     */
+    public long getUploadRemainderMillis() {
+        return uploadRemainderMillis;
+    }
+
+    /**
+     * Whether the mission was on the aircraft before the pilot confirmed it
+     */
+    public boolean isPreUploaded() {
+        return preUploaded;
+    }
+
+    public long getStartRequestToExecutingMillis() {
+        return startRequestToExecutingMillis;
+    }
+
+    public long getReadyToExecutingMillis() {
+        return readyToExecutingMillis;
+    }
+
+    /**
+     * From EXECUTING to the first waypoint index report
+     */
+    public long getApproachMillis() {
+        return approachMillis;
+    }
+
+    public long getPausedMillis() {
+        return pausedMillis;
+    }
+
+    public int getPauseCount() {
+        return pauseCount;
+    }
+
+    /**
+     * Time of the last event
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public List<Leg> getLegs() {
+        return Collections.unmodifiableList(legs);
+    }
+
+    public List<Leg> getSlowLegs() {
+        List<Leg> slow = new ArrayList<>();
+        for (Leg leg : legs) {
+            if (leg.isSlow()) {
+                slow.add(leg);
+            }
+        }
+        return slow;
+    }
+
+    /**
+     * Plain-text report, one line per leg
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "Duration %s, paused %s in %d pause(s)%n",
+                seconds(durationMillis), seconds(pausedMillis), pauseCount));
+        report.append(String.format(Locale.US, "Upload %s%s, rest of an earlier upload %s%n",
+                seconds(uploadMillis), preUploaded ? " (before confirmation)" : "",
+                seconds(uploadRemainderMillis)));
+        report.append(String.format(Locale.US, "Start request -> EXECUTING %s, READY -> EXECUTING %s%n",
+                seconds(startRequestToExecutingMillis), seconds(readyToExecutingMillis)));
+        report.append(String.format(Locale.US, "EXECUTING -> first waypoint %s%n", seconds(approachMillis)));
+        report.append(String.format(Locale.US, "%-9s %10s %10s %9s %9s %9s%n",
+                "Leg", "Active", "Paused", "Meters", "m/s", "Planned"));
+        for (Leg leg : legs) {
+            report.append(String.format(Locale.US, "%3d -> %-3d %10s %10s %9.1f %9.2f %9.2f%s%n",
+                    leg.fromIndex + 1, leg.toIndex + 1, seconds(leg.activeMillis), seconds(leg.pausedMillis),
+                    leg.distanceMeters, leg.getAverageSpeed(), leg.plannedSpeed, leg.isSlow() ? "  SLOW" : ""));
+        }
+        return report.toString();
+    }
+
+    private static String seconds(long millis) {
+        return millis < 0 ? "-" : String.format(Locale.US, "%.2f s", millis / 1000d);
+    }
+}
@@ -0,0 +1,133 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.nio.ByteOrder;
+
+/**
+ * MissionJournalFormat - Layout of the binary mission journal (.eemj) files
+ *
+ * A file is a 32 byte header followed by fixed-size 16 byte little-endian records,
+ * appended as the events happen:
+ *
+ * Header
+ *   0  int    MAGIC ("EEMJ")
+ *   4  short  VERSION
+ *   6  short  RECORD_SIZE
+ *   8  long   journal start, wall clock epoch millis
+ *   16 long   journal start, System.nanoTime()
+ *   24 8 bytes reserved
+ *
+ * Record
+ *   0  byte   type, one of the EVENT_* constants or TYPE_STRING
+ *   1  byte   source, one of the SOURCE_* constants
+ *   2  short  reserved
+ *   4  int    value, meaning depends on the type (see the constants)
+ *   8  long   microseconds since the journal start
+ *
+ * TYPE_STRING records define the next string id: the value is the UTF-8 byte length,
+ * the bytes follow in as many whole records as needed, zero padded. Events carrying
+ * text (state names, failure descriptions) hold its string id as their value.
+ */
+public final class MissionJournalFormat {
+
+    public static final int MAGIC = 0x4A4D4545; // "EEMJ" little-endian
+    public static final short VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 16;
+
+    // Record offsets
+    public static final int OFFSET_TYPE = 0;
+    public static final int OFFSET_SOURCE = 1;
+    public static final int OFFSET_VALUE = 4;
+    public static final int OFFSET_TIME = 8;
+
+    /** WaypointMissionExecuteState change; value: string id of the state name */
+    public static final int EVENT_STATE = 1;
+    /** WaylineExecutingInfo waypoint index change; value: the new index */
+    public static final int EVENT_WAYPOINT = 2;
+    /** Pilot confirmed the mission; value: waypoint count */
+    public static final int EVENT_START_REQUESTED = 3;
+    /** KMZ push began; value: KMZ size in bytes */
+    public static final int EVENT_UPLOAD_STARTED = 4;
+    /** KMZ on the aircraft; value: 1 when the upload finished before the start request */
+    public static final int EVENT_UPLOADED = 5;
+    /** value: string id of the error */
+    public static final int EVENT_UPLOAD_FAILED = 6;
+    public static final int EVENT_STARTED = 7;
+    /** value: string id of the error */
+    public static final int EVENT_START_FAILED = 8;
+    public static final int EVENT_PAUSE_REQUESTED = 9;
+    public static final int EVENT_PAUSED = 10;
+    /** value: string id of the error */
+    public static final int EVENT_PAUSE_FAILED = 11;
+    public static final int EVENT_RESUME_REQUESTED = 12;
+    public static final int EVENT_RESUMED = 13;
+    /** value: string id of the error */
+    public static final int EVENT_RESUME_FAILED = 14;
+    public static final int EVENT_STOPPED = 15;
+    /** Pilot confirmed while the KMZ push begun ahead of it still ran; value: KMZ size in bytes */
+    public static final int EVENT_UPLOAD_IN_PROGRESS = 16;
+
+    public static final int TYPE_STRING = 0x71;
+
+    /** The app itself: the mission buttons or the service's own logic */
+    public static final int SOURCE_APP = 0;
+    /** An RC button seen by ButtonsListenerService */
+    public static final int SOURCE_RC_BUTTON = 1;
+    /** An RC stick seen by ButtonsListenerService */
+    public static final int SOURCE_JOYSTICK = 2;
+    /** SDK callbacks reporting what the aircraft does */
+    public static final int SOURCE_AIRCRAFT = 3;
+
+    public static final String FILE_EXTENSION = ".eemj";
+
+    private MissionJournalFormat() {}
+
+    /**
+     * Whether the value of an event of this type is a string id
+     */
+    public static boolean hasText(int type) {
+        return type == EVENT_STATE || type == EVENT_UPLOAD_FAILED || type == EVENT_START_FAILED
+                || type == EVENT_PAUSE_FAILED || type == EVENT_RESUME_FAILED;
+    }
+
+    /**
+     * Number of records a TYPE_STRING definition of the given byte length occupies
+     */
+    public static int stringRecordCount(int byteLength) {
+        return 1 + (byteLength + RECORD_SIZE - 1) / RECORD_SIZE;
+    }
+
+    public static String typeName(int type) {
+        switch (type) {
+            case EVENT_STATE: return "state";
+            case EVENT_WAYPOINT: return "waypoint";
+            case EVENT_START_REQUESTED: return "start requested";
+            case EVENT_UPLOAD_STARTED: return "upload started";
+            case EVENT_UPLOADED: return "uploaded";
+            case EVENT_UPLOAD_FAILED: return "upload failed";
+            case EVENT_STARTED: return "started";
+            case EVENT_START_FAILED: return "start failed";
+            case EVENT_PAUSE_REQUESTED: return "pause requested";
+            case EVENT_PAUSED: return "paused";
+            case EVENT_PAUSE_FAILED: return "pause failed";
+            case EVENT_RESUME_REQUESTED: return "resume requested";
+            case EVENT_RESUMED: return "resumed";
+            case EVENT_RESUME_FAILED: return "resume failed";
+            case EVENT_STOPPED: return "stopped";
+            case EVENT_UPLOAD_IN_PROGRESS: return "upload in progress";
+            default: return "type " + type;
+        }
+    }
+
+    public static String sourceName(int source) {
+        switch (source) {
+            case SOURCE_APP: return "app";
+            case SOURCE_RC_BUTTON: return "rc button";
+            case SOURCE_JOYSTICK: return "joystick";
+            case SOURCE_AIRCRAFT: return "aircraft";
+            default: return "source " + source;
+        }
+    }
+}
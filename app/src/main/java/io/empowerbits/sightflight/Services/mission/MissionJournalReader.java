@@ -0,0 +1,85 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MissionJournalReader - Decodes a MissionJournalFormat file back into events
+ *
+ * Journals are small (16 bytes per event), the file is read in one go. A record cut
+ * short by a crash at the end of the file is ignored.
+ */
+public final class MissionJournalReader {
+
+    private MissionJournalReader() {}
+
+    public static final class Journal {
+        public final long startEpochMillis;
+        public final List<MissionJournal.Event> events;
+
+        Journal(long startEpochMillis, List<MissionJournal.Event> events) {
+            this.startEpochMillis = startEpochMillis;
+            this.events = events;
+        }
+    }
+
+    public static Journal read(File file) throws IOException {
+        byte[] bytes;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+        }
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    public static Journal read(ByteBuffer buffer) throws IOException {
+        buffer.order(MissionJournalFormat.BYTE_ORDER);
+        if (buffer.remaining() < MissionJournalFormat.HEADER_SIZE
+                || buffer.getInt(0) != MissionJournalFormat.MAGIC) {
+            throw new IOException("Not a mission journal");
+        }
+        int version = buffer.getShort(4);
+        int recordSize = buffer.getShort(6);
+        if (version > MissionJournalFormat.VERSION || recordSize != MissionJournalFormat.RECORD_SIZE) {
+            throw new IOException("Unsupported mission journal version " + version);
+        }
+        long startEpochMillis = buffer.getLong(8);
+
+        List<String> strings = new ArrayList<>();
+        List<MissionJournal.Event> events = new ArrayList<>();
+        int recordCount = (buffer.limit() - MissionJournalFormat.HEADER_SIZE) / recordSize;
+        int index = 0;
+        while (index < recordCount) {
+            int offset = MissionJournalFormat.HEADER_SIZE + index * recordSize;
+            int type = buffer.get(offset + MissionJournalFormat.OFFSET_TYPE) & 0xFF;
+            int source = buffer.get(offset + MissionJournalFormat.OFFSET_SOURCE) & 0xFF;
+            int value = buffer.getInt(offset + MissionJournalFormat.OFFSET_VALUE);
+            long timeMicros = buffer.getLong(offset + MissionJournalFormat.OFFSET_TIME);
+            if (type == MissionJournalFormat.TYPE_STRING) {
+                int count = MissionJournalFormat.stringRecordCount(value);
+                if (index + count > recordCount) {
+                    break;
+                }
+                byte[] text = new byte[value];
+                ByteBuffer slice = buffer.duplicate();
+                slice.position(offset + recordSize);
+                slice.get(text);
+                strings.add(new String(text, StandardCharsets.UTF_8));
+                index += count;
+                continue;
+            }
+            String text = null;
+            if (MissionJournalFormat.hasText(type)) {
+                text = value >= 0 && value < strings.size() ? strings.get(value) : "";
+            }
+            events.add(new MissionJournal.Event(type, source, value, timeMicros, text));
+            index++;
+        }
+        return new Journal(startEpochMillis, events);
+    }
+}
@@ -0,0 +1,421 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import android.util.Log;
+
+import com.dji.wpmzsdk.common.data.KMZInfo;
+import com.dji.wpmzsdk.common.data.Template;
+import com.dji.wpmzsdk.interfaces.IWPMZManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.KMZTestUtil;
+import io.empowerbits.sightflight.util.KmzCleaner;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+import io.empowerbits.sightflight.util.wpml.WaypointInfoModel;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+import io.empowerbits.sightflight.util.wpml.WpmlWriter;
+
+import dji.sdk.wpmz.value.mission.WaylineActionInfo;
+import dji.sdk.wpmz.value.mission.WaylineCheckErrorMsg;
+import dji.sdk.wpmz.value.mission.WaylineExitOnRCLostAction;
+import dji.sdk.wpmz.value.mission.WaylineExitOnRCLostBehavior;
+import dji.sdk.wpmz.value.mission.WaylineFinishedAction;
+import dji.sdk.wpmz.value.mission.WaylineFlyToWaylineMode;
+import dji.sdk.wpmz.value.mission.WaylineLocationCoordinate2D;
+import dji.sdk.wpmz.value.mission.WaylineLocationCoordinate3D;
+import dji.sdk.wpmz.value.mission.WaylineMission;
+import dji.sdk.wpmz.value.mission.WaylineMissionConfig;
+import dji.sdk.wpmz.value.mission.WaylineMissionConfigParseInfo;
+import dji.sdk.wpmz.value.mission.WaylineMissionParseInfo;
+import dji.sdk.wpmz.value.mission.WaylineWaylinesParseInfo;
+import dji.sdk.wpmz.value.mission.WaylineWaypoint;
+import dji.sdk.wpmz.value.mission.WaylineWaypointTurnMode;
+import dji.sdk.wpmz.value.mission.WaylineWaypointTurnParam;
+import dji.sdk.wpmz.value.mission.WaylineWaypointYawMode;
+import dji.sdk.wpmz.value.mission.WaylineWaypointYawParam;
+
+/**
+ * MissionKmzBuilder - Staged pipeline from waypoints to an upload-ready KMZ
+ *
+ * Stages, each timed in MissionBuildTimings:
+ * - generate: WPMZManager writes the raw KMZ to a scratch file (it only writes to a path),
+ *   or, with the native writer on, WpmlWriter writes the final KMZ into memory
+ * - clean: the raw SDK archive streams through the aircraft profile's KmzCleaner rules
+ *   into memory, the scratch file goes; skipped for the native writer, whose output
+ *   already follows the profile
+ * - write: the cleaned archive is written to its final path, once
+ * - validate: WPMZManager parses and checks the final file
+ *
+ * Both writers apply the whole WpmlAircraftProfile of the connected aircraft (turn
+ * mode, efficiency flight mode, namespace, actions) in that one pass; MINI_4_PRO
+ * until setAircraftProfile says otherwise.
+ *
+ * Anything that needs another copy (such as the Downloads export) takes it from
+ * BuiltMission.getKmz() instead of reading the file back.
+ *
+ * With a MissionKmzCache set, an unchanged mission skips every stage after the
+ * lookup, and missions that pass validation are moved into the cache.
+ */
+public class MissionKmzBuilder {
+    private static final String TAG = "MissionKmzBuilder";
+    private static final String KMZ_EXTENSION = ".kmz";
+    private static final String RAW_SUFFIX = ".raw" + KMZ_EXTENSION;
+
+    private final IWPMZManager wpmzManager;
+    private final File outputDir;
+    private final File scratchDir;
+    private volatile WpmlAircraftProfile aircraftProfile = WpmlAircraftProfile.MINI_4_PRO;
+    private volatile boolean useNativeWriter;
+    private volatile MissionKmzCache cache;
+
+    /**
+     * @param outputDir Where upload-ready KMZ files are written
+     * @param scratchDir Where the SDK writes the raw KMZ before cleaning
+     */
+    public MissionKmzBuilder(IWPMZManager wpmzManager, File outputDir, File scratchDir) {
+        this.wpmzManager = wpmzManager;
+        this.outputDir = outputDir;
+        this.scratchDir = scratchDir;
+    }
+
+    /**
+     * Build missions for this aircraft, see WpmlAircraftProfiles.forProductType
+     */
+    public void setAircraftProfile(WpmlAircraftProfile profile) {
+        aircraftProfile = profile;
+    }
+
+    public WpmlAircraftProfile getAircraftProfile() {
+        return aircraftProfile;
+    }
+
+    /**
+     * Write missions with WpmlWriter instead of WPMZManager
+     */
+    public void setUseNativeWriter(boolean useNativeWriter) {
+        this.useNativeWriter = useNativeWriter;
+    }
+
+    /**
+     * Look missions up in this cache before building them, and store the ones that pass
+     * validation; null to always build
+     */
+    public void setCache(MissionKmzCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Run every stage for one mission; errors of the SDK validation itself are
+     * reported in the result rather than thrown, as the upload may still succeed
+     * @param namePrefix Start of the mission name; a timestamp, or the mission's cache
+     *                   key when a cache is set, completes it
+     */
+    public BuiltMission build(String namePrefix, MissionSetting missionSetting,
+                              List<WaypointSetting> waypointSettings) throws IOException {
+        MissionBuildTimings timings = new MissionBuildTimings();
+        WpmlAircraftProfile profile = aircraftProfile;
+        boolean nativeWriter = useNativeWriter;
+        MissionKmzCache cache = this.cache;
+
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = MissionKmzCache.key(missionSetting, waypointSettings,
+                    generatorName(profile, nativeWriter));
+            MissionKmzCache.Entry entry = cache.get(cacheKey);
+            timings.mark(MissionBuildTimings.STAGE_CACHE);
+            if (entry != null) {
+                Log.d(TAG, "KMZ cache hit " + entry.getFile().getName() + " (" + cache + "): " + timings);
+                return new BuiltMission(missionName(entry.getFile()), entry.getFile(), null, entry.getCheck(),
+                        null, timings, true);
+            }
+        }
+        String missionName = namePrefix + "_" + System.currentTimeMillis();
+
+        byte[] kmz;
+        if (nativeWriter) {
+            kmz = writeNative(profile, missionSetting, waypointSettings);
+            timings.mark(MissionBuildTimings.STAGE_GENERATE);
+        } else {
+            File rawFile = generate(missionName, profile, missionSetting, waypointSettings);
+            timings.mark(MissionBuildTimings.STAGE_GENERATE);
+            kmz = clean(profile, rawFile);
+            timings.mark(MissionBuildTimings.STAGE_CLEAN);
+        }
+
+        File kmzFile = new File(outputDir, missionName + KMZ_EXTENSION);
+        try (OutputStream out = new FileOutputStream(kmzFile)) {
+            out.write(kmz);
+        }
+        timings.mark(MissionBuildTimings.STAGE_WRITE);
+
+        WaylineCheckErrorMsg check = null;
+        String validationFailure = null;
+        try {
+            check = validate(kmzFile);
+        } catch (Throwable t) {
+            Log.e(TAG, "KMZ validation check threw exception", t);
+            validationFailure = String.valueOf(t.getMessage());
+        }
+        timings.mark(MissionBuildTimings.STAGE_VALIDATE);
+
+        boolean passed = validationFailure == null && check != null
+                && (check.getValue() == null || check.getValue().isEmpty());
+        if (cache != null && passed) {
+            MissionKmzCache.Entry entry = cache.put(cacheKey, namePrefix, kmzFile, check);
+            if (entry != null) {
+                kmzFile = entry.getFile();
+                missionName = missionName(kmzFile);
+            }
+        }
+
+        Log.d(TAG, "Built " + kmzFile.getName() + " (" + kmz.length + " bytes): " + timings);
+        return new BuiltMission(missionName, kmzFile, kmz, check, validationFailure, timings, false);
+    }
+
+    /**
+     * Identity of the KMZ build() would produce for these inputs with the current writer
+     * and aircraft profile, equal for equal missions whether or not a cache is set
+     */
+    public String key(MissionSetting missionSetting, List<WaypointSetting> waypointSettings) {
+        return MissionKmzCache.key(missionSetting, waypointSettings,
+                generatorName(aircraftProfile, useNativeWriter));
+    }
+
+    private static String generatorName(WpmlAircraftProfile profile, boolean nativeWriter) {
+        return (nativeWriter ? "WpmlWriter " : "WPMZManager ") + profile.getSignature();
+    }
+
+    private static String missionName(File kmzFile) {
+        String name = kmzFile.getName();
+        return name.substring(0, name.length() - KMZ_EXTENSION.length());
+    }
+
+    /**
+     * Generate the raw KMZ using DJI SDK WPMZManager and KMZTestUtil patterns
+     * This uses the official DJI SDK methods to create proper waylines.wpml and template.kml
+     */
+    private File generate(String missionName, WpmlAircraftProfile profile, MissionSetting missionSetting,
+                          List<WaypointSetting> waypointSettings) throws IOException {
+        WaylineMission waylineMission = KMZTestUtil.createWaylineMission();
+        WaylineMissionConfig missionConfig = KMZTestUtil.createMissionConfig(missionSetting);
+        List<WaypointInfoModel> waypointInfoModels = createWaypointInfoModels(profile, missionSetting,
+                waypointSettings);
+        Template template = KMZTestUtil.createTemplate(waypointInfoModels);
+
+        File rawFile = new File(scratchDir, missionName + RAW_SUFFIX);
+        wpmzManager.generateKMZFile(rawFile.getAbsolutePath(), waylineMission, missionConfig, template);
+        if (!rawFile.exists()) {
+            throw new IOException("WPMZManager.generateKMZFile() did not create the KMZ file");
+        }
+        if (rawFile.length() == 0) {
+            rawFile.delete();
+            throw new IOException("Generated KMZ file is empty");
+        }
+        Log.d(TAG, "KMZ file generated successfully - size: " + rawFile.length() + " bytes");
+        return rawFile;
+    }
+
+    private static byte[] writeNative(WpmlAircraftProfile profile, MissionSetting missionSetting,
+                                      List<WaypointSetting> waypointSettings) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + waypointSettings.size() * 512);
+        new WpmlWriter(profile).writeKmz(toWpmlMission(missionSetting, waypointSettings), out);
+        Log.d(TAG, "KMZ written natively for " + profile + " - size: " + out.size() + " bytes");
+        return out.toByteArray();
+    }
+
+    /**
+     * The mission createMissionConfig, createTemplate and createWaypointInfoModels
+     * describe, in WPML terms
+     */
+    public static WpmlMission toWpmlMission(MissionSetting missionSetting, List<WaypointSetting> waypointSettings) {
+        WpmlMission mission = new WpmlMission();
+        mission.flyToWaylineMode = missionSetting.flyToWaylineMode == WaylineFlyToWaylineMode.POINT_TO_POINT
+                ? WpmlMission.FLY_TO_WAYLINE_POINT_TO_POINT : WpmlMission.FLY_TO_WAYLINE_SAFELY;
+        mission.finishAction = toWpml(missionSetting.finishAction);
+        mission.exitOnRCLost = missionSetting.exitOnRCLost == WaylineExitOnRCLostBehavior.GO_ON
+                ? WpmlMission.RC_LOST_GO_CONTINUE : WpmlMission.RC_LOST_EXECUTE_ACTION;
+        mission.executeRCLostAction = toWpml(missionSetting.executeRCLostAction);
+        mission.takeOffSecurityHeight = missionSetting.takeOffSecurityHeight;
+        mission.globalTransitionalSpeed = missionSetting.globalTransitionalSpeed;
+        mission.autoFlightSpeed = KMZTestUtil.DEF_AUTO_FLIGHT_SPEED;
+        mission.globalHeight = KMZTestUtil.DEF_GLOBAL_FLIGHT_HEIGHT;
+        if (missionSetting.poiLocation != null) {
+            mission.setPoi(missionSetting.poiLocation.latitude, missionSetting.poiLocation.longitude,
+                    missionSetting.poiHeight);
+        }
+
+        for (WaypointSetting setting : waypointSettings) {
+            mission.waypoints.add(toWpmlWaypoint(setting));
+        }
+        return mission;
+    }
+
+    /**
+     * One waypoint as toWpmlMission writes it; unset values become NaN
+     */
+    public static WpmlMission.Waypoint toWpmlWaypoint(WaypointSetting setting) {
+        return ProjectMissionPlanner.toWpmlWaypoint(setting);
+    }
+
+    private static String toWpml(WaylineFinishedAction finishAction) {
+        switch (finishAction) {
+            case NO_ACTION:
+                return WpmlMission.FINISH_NO_ACTION;
+            case AUTO_LAND:
+                return WpmlMission.FINISH_AUTO_LAND;
+            case GOTO_FIRST_WAYPOINT:
+                return WpmlMission.FINISH_GOTO_FIRST_WAYPOINT;
+            case GO_HOME:
+            default:
+                return WpmlMission.FINISH_GO_HOME;
+        }
+    }
+
+    private static String toWpml(WaylineExitOnRCLostAction lostAction) {
+        switch (lostAction) {
+            case LANDING:
+                return WpmlMission.RC_LOST_ACTION_LANDING;
+            case HOVER:
+                return WpmlMission.RC_LOST_ACTION_HOVER;
+            case GO_BACK:
+            default:
+                return WpmlMission.RC_LOST_ACTION_GO_BACK;
+        }
+    }
+
+    /**
+     * Bring the SDK output to the aircraft profile: efficiencyFlightModeEnable, drone
+     * enums, namespace version and unsupported actions
+     */
+    private byte[] clean(WpmlAircraftProfile profile, File rawFile) throws IOException {
+        ByteArrayOutputStream cleaned = new ByteArrayOutputStream((int) rawFile.length());
+        try (InputStream in = new FileInputStream(rawFile)) {
+            KmzCleaner.clean(profile, in, cleaned);
+        } catch (IOException e) {
+            throw new IOException("KMZ cleaning failed: " + e.getMessage(), e);
+        } finally {
+            if (!rawFile.delete()) {
+                Log.w(TAG, "Could not delete " + rawFile.getPath());
+            }
+        }
+        if (cleaned.size() == 0) {
+            throw new IOException("Cleaned KMZ file is empty - ZIP creation failed");
+        }
+        return cleaned.toByteArray();
+    }
+
+    private WaylineCheckErrorMsg validate(File kmzFile) {
+        String kmzPath = kmzFile.getAbsolutePath();
+        Log.d(TAG, "Verifying KMZ File");
+        KMZInfo info = wpmzManager.getKMZInfo(kmzPath);
+        WaylineMissionConfigParseInfo configInfo = info.getWaylineMissionConfigParseInfo();
+        WaylineMissionParseInfo missionInfo = info.getWaylineMissionParseInfo();
+        WaylineWaylinesParseInfo waylinesInfo = info.getWaylineWaylinesParseInfo();
+        Log.d(TAG, "Info 1 - Mission Config Parse: " + configInfo);
+        Log.d(TAG, "Info 2 - Mission Parse: " + missionInfo);
+        Log.d(TAG, "Info 3 - Template Parse: " + info.getWaylineTemplatesParseInfo().getError());
+        Log.d(TAG, "Info 4 - Waylines Parse: " + waylinesInfo);
+
+        WaylineCheckErrorMsg check = wpmzManager.checkValidation(kmzPath);
+        Log.d(TAG, "Full validation result: " + check);
+        return check;
+    }
+
+    /**
+     * Create waypoint info models with the features the aircraft profile supports: turn
+     * mode and damping per waypoint, heading toward the POI when there is one
+     */
+    private static List<WaypointInfoModel> createWaypointInfoModels(WpmlAircraftProfile profile,
+                                                                   MissionSetting missionSetting,
+                                                                   List<WaypointSetting> waypointSettings) {
+        List<WaypointInfoModel> waypointInfoModels = new ArrayList<>();
+
+        // Create POI location (Point of Interest), manual missions have none
+        WaylineLocationCoordinate3D poiLocation = null;
+        if (missionSetting.poiLocation != null) {
+            poiLocation = new WaylineLocationCoordinate3D();
+            poiLocation.setLatitude(missionSetting.poiLocation.latitude);
+            poiLocation.setLongitude(missionSetting.poiLocation.longitude);
+            poiLocation.setAltitude(missionSetting.poiHeight);
+        }
+
+        int count = waypointSettings.size();
+        for (int i = 0; i < count; i++) {
+            WaypointSetting currencWaypoint = waypointSettings.get(i);
+            // Create waypoint
+            WaylineWaypoint waypoint = new WaylineWaypoint();
+            WaylineLocationCoordinate2D location = new WaylineLocationCoordinate2D();
+            location.setLatitude(currencWaypoint.latitude);
+            location.setLongitude(currencWaypoint.longitude);
+            waypoint.setLocation(location);
+
+            waypoint.setHeight(currencWaypoint.altitude);
+            waypoint.setEllipsoidHeight(currencWaypoint.altitude);
+            waypoint.setGimbalPitchAngle(currencWaypoint.gimbalPitchAngle);
+            waypoint.setSpeed(currencWaypoint.waypointSpeed);
+            waypoint.setWaypointIndex(i);
+
+            WaylineWaypointYawParam yawParam = new WaylineWaypointYawParam();
+            if (poiLocation != null) {
+                yawParam.setYawMode(WaylineWaypointYawMode.TOWARD_POI);
+                yawParam.setPoiLocation(poiLocation);
+            } else {
+                yawParam.setYawMode(WaylineWaypointYawMode.FOLLOW_WAYLINE);
+            }
+            yawParam.setEnableYawAngle(true);
+            yawParam.setYawAngle(currencWaypoint.gimbalPitchAngle);
+            waypoint.setYawParam(yawParam);
+
+            double legIn = i > 0 ? legLength(waypointSettings.get(i - 1), currencWaypoint) : 0;
+            double legOut = i < count - 1 ? legLength(currencWaypoint, waypointSettings.get(i + 1)) : 0;
+            WaylineWaypointTurnParam turnParam = new WaylineWaypointTurnParam();
+            turnParam.setTurnMode(toTurnMode(profile.getTurnMode(i, count, legIn, legOut)));
+            turnParam.setTurnDampingDistance(profile.getTurnDampingDistance(i, count, legIn, legOut));
+            waypoint.setTurnParam(turnParam);
+            waypoint.setUseStraightLine(true);
+
+            // Create info model and set the waypoint
+            WaypointInfoModel infoModel = new WaypointInfoModel();
+            infoModel.setWaylineWaypoint(waypoint);
+            List<WaylineActionInfo> actionInfos = new ArrayList<>();
+            WaylineActionInfo takePhotoAction = KMZTestUtil.createActionInfo(
+                    com.dji.wpmzsdk.common.utils.kml.model.WaypointActionType.START_TAKE_PHOTO,
+                    null
+            );
+            if (takePhotoAction != null) {
+                actionInfos.add(takePhotoAction);
+            }
+
+            infoModel.setActionInfos(actionInfos);
+            waypointInfoModels.add(infoModel);
+        }
+        return waypointInfoModels;
+    }
+
+    private static double legLength(WaypointSetting from, WaypointSetting to) {
+        return Geodesy.haversine(from.latitude, from.longitude, to.latitude, to.longitude);
+    }
+
+    private static WaylineWaypointTurnMode toTurnMode(String turnMode) {
+        switch (turnMode) {
+            case WpmlAircraftProfile.TURN_COORDINATED:
+                return WaylineWaypointTurnMode.COORDINATE_TURN;
+            case WpmlAircraftProfile.TURN_PASS:
+                return WaylineWaypointTurnMode.TO_POINT_AND_PASS_WITH_CONTINUITY_CURVATURE;
+            case WpmlAircraftProfile.TURN_STOP:
+            default:
+                return WaylineWaypointTurnMode.TO_POINT_AND_STOP_WITH_CONTINUITY_CURVATURE;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import android.util.Log;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+import dji.sdk.wpmz.value.mission.WaylineCheckErrorMsg;
+
+/**
+ * MissionKmzCache - Content-addressed store of upload-ready mission KMZ files
+ *
+ * The key is a hash of everything that ends up in the KMZ: the MissionSetting, the
+ * waypoints and the generator (WPMZManager or a WpmlWriter aircraft profile), so
+ * re-flying an unchanged project finds the KMZ it flew last time and skips
+ * generation, cleaning and validation. Only KMZs that passed the SDK validation are
+ * stored; a hit therefore stands for a passed validation, with its
+ * WaylineCheckErrorMsg as long as the process that validated it is alive.
+ *
+ * Files live in one directory and survive restarts. Entries are evicted least
+ * recently used first once their total size exceeds the byte limit; use is tracked
+ * in memory and, across restarts, through the files' modification times.
+ */
+public class MissionKmzCache {
+    private static final String TAG = "MissionKmzCache";
+    private static final String KMZ_EXTENSION = ".kmz";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    // Bump when generation changes in a way the hashed inputs do not show
+    private static final int KEY_VERSION = 1;
+    private static final int KEY_HEX_LENGTH = 16;
+
+    /**
+     * One cached KMZ
+     */
+    public static final class Entry {
+        private final String key;
+        private final File file;
+        private final long bytes;
+        private final WaylineCheckErrorMsg check;
+
+        Entry(String key, File file, long bytes, WaylineCheckErrorMsg check) {
+            this.key = key;
+            this.file = file;
+            this.bytes = bytes;
+            this.check = check;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Validation result, null for entries found on disk at startup
+         */
+        public WaylineCheckErrorMsg getCheck() {
+            return check;
+        }
+    }
+
+    private final File directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private int hitCount;
+    private int missCount;
+
+    public MissionKmzCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "Failed to create cache directory " + directory);
+        }
+        load();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Hash of the mission as generated by the given generator
+     * @param generator WPMZManager or the WpmlWriter aircraft profile, as text
+     */
+    public static String key(MissionSetting missionSetting, List<WaypointSetting> waypointSettings,
+                             String generator) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            DataOutputStream out = new DataOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    digest.update((byte) b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    digest.update(b, off, len);
+                }
+            });
+            out.writeInt(KEY_VERSION);
+            out.writeUTF(generator);
+            out.writeUTF(String.valueOf(missionSetting.flyToWaylineMode));
+            out.writeUTF(String.valueOf(missionSetting.finishAction));
+            out.writeUTF(String.valueOf(missionSetting.exitOnRCLost));
+            out.writeUTF(String.valueOf(missionSetting.executeRCLostAction));
+            out.writeUTF(String.valueOf(missionSetting.heightMode));
+            out.writeDouble(missionSetting.takeOffSecurityHeight);
+            out.writeDouble(missionSetting.globalTransitionalSpeed);
+            out.writeDouble(missionSetting.autoFlighSpeed);
+            out.writeDouble(missionSetting.poiHeight);
+            out.writeBoolean(missionSetting.poiLocation != null);
+            if (missionSetting.poiLocation != null) {
+                out.writeDouble(missionSetting.poiLocation.latitude);
+                out.writeDouble(missionSetting.poiLocation.longitude);
+            }
+            out.writeInt(waypointSettings.size());
+            for (WaypointSetting waypoint : waypointSettings) {
+                writeValue(out, waypoint.latitude);
+                writeValue(out, waypoint.longitude);
+                writeValue(out, waypoint.altitude);
+                writeValue(out, waypoint.waypointSpeed);
+                writeValue(out, waypoint.gimbalPitchAngle);
+            }
+            out.flush();
+            return toHex(digest.digest(), KEY_HEX_LENGTH);
+        } catch (NoSuchAlgorithmException | IOException e) {
+            // Neither can happen with SHA-256 and an in-memory stream
+            throw new IllegalStateException("Cannot hash mission", e);
+        }
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && (!entry.file.exists() || entry.file.length() != entry.bytes)) {
+            Log.w(TAG, "Cached KMZ changed on disk, dropping " + entry.file.getName());
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        entry.file.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    /**
+     * Adopt a KMZ that passed validation: it is moved into the cache directory, named
+     * namePrefix_key.kmz, and owned by the cache from then on
+     * @return The entry, or null when the file could not be moved and stays where it was
+     */
+    public synchronized Entry put(String key, String namePrefix, File file, WaylineCheckErrorMsg check) {
+        remove(key);
+        File target = new File(directory, namePrefix + "_" + key + KMZ_EXTENSION);
+        if (!file.renameTo(target)) {
+            Log.w(TAG, "Could not move " + file.getName() + " into the cache");
+            return null;
+        }
+        Entry entry = new Entry(key, target, target.length(), check);
+        entries.put(key, entry);
+        totalBytes += entry.bytes;
+        evict();
+        return entry;
+    }
+
+    /**
+     * Whether the file belongs to a cache entry and must not be deleted by others
+     */
+    public synchronized boolean owns(File file) {
+        for (Entry entry : entries.values()) {
+            if (entry.file.equals(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.file.delete();
+        }
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "%d entries, %d KB of %d KB, %d hits, %d misses",
+                entries.size(), totalBytes / 1024, maxBytes / 1024, hitCount, missCount);
+    }
+
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        // Oldest use first, so the access order matches the previous session
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            String name = file.getName();
+            int separator = name.lastIndexOf('_');
+            if (!name.endsWith(KMZ_EXTENSION) || separator < 0 || file.length() == 0) {
+                continue;
+            }
+            String key = name.substring(separator + 1, name.length() - KMZ_EXTENSION.length());
+            Entry entry = new Entry(key, file, file.length(), null);
+            entries.put(key, entry);
+            totalBytes += entry.bytes;
+        }
+        evict();
+        Log.d(TAG, "Loaded mission KMZ cache: " + this);
+    }
+
+    /**
+     * Drop least recently used entries over the byte limit, always keeping the newest
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.bytes;
+            if (!eldest.file.delete()) {
+                Log.w(TAG, "Could not delete evicted " + eldest.file.getName());
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+            entry.file.delete();
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Double value) throws IOException {
+        out.writeDouble(value != null ? value : Double.NaN);
+    }
+
+    private static String toHex(byte[] bytes, int length) {
+        char[] hex = new char[length];
+        for (int i = 0; i < length; i++) {
+            int nibble = (bytes[i / 2] >> (i % 2 == 0 ? 4 : 0)) & 0x0F;
+            hex[i] = Character.forDigit(nibble, 16);
+        }
+        return new String(hex);
+    }
+}
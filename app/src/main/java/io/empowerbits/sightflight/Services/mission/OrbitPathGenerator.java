@@ -0,0 +1,190 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * OrbitPathGenerator - Rings, stacked rings and spirals around a POI
+ *
+ * Points are placed with Geodesy destination-point math, so each one is exactly its
+ * radius from the POI at any latitude. A ring runs clockwise from startBearing; stacked
+ * rings fly one ring per altitude, each starting at the same bearing so the aircraft
+ * climbs straight up between them. A spiral turns continuously while its radius and
+ * altitude change linearly from the first point to the last.
+ *
+ * The gimbal pitch toward the POI follows the rule ProjectMissionPlanner.pitchTowardPoi
+ * applies to single waypoints. It only depends on the horizontal distance, known by
+ * construction, and the altitude: a ring needs it once, a spiral gets it for all points
+ * in one pass, without measuring any distance back.
+ *
+ * Radii and altitudes are meters, altitudes relative to take-off like
+ * WaypointSetting.altitude.
+ *
+ * Plain Java with no Android or SDK types, like ProjectMissionPlanner.
+ */
+public class OrbitPathGenerator {
+
+    /**
+     * Generated points as parallel arrays, in flight order
+     */
+    public static final class OrbitPath {
+        public final double[] latitudes;
+        public final double[] longitudes;
+        public final double[] altitudes;
+        public final double[] gimbalPitches;
+
+        OrbitPath(int size) {
+            latitudes = new double[size];
+            longitudes = new double[size];
+            altitudes = new double[size];
+            gimbalPitches = new double[size];
+        }
+
+        public int size() {
+            return latitudes.length;
+        }
+
+        /**
+         * The points as a Project.flight_path, positions only
+         */
+        public List<FlightAddress> toFlightAddresses() {
+            List<FlightAddress> addresses = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                addresses.add(new FlightAddress(latitudes[i], longitudes[i]));
+            }
+            return addresses;
+        }
+
+        /**
+         * The points as waypoints, named from firstNumber on
+         */
+        public List<WaypointSetting> toWaypointSettings(int firstNumber) {
+            List<WaypointSetting> waypoints = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                WaypointSetting waypoint = new WaypointSetting();
+                waypoint.name = "Waypoint " + (firstNumber + i);
+                waypoint.latitude = latitudes[i];
+                waypoint.longitude = longitudes[i];
+                waypoint.altitude = altitudes[i];
+                waypoint.gimbalPitchAngle = gimbalPitches[i];
+                waypoints.add(waypoint);
+            }
+            return waypoints;
+        }
+    }
+
+    private final double poiLatitude;
+    private final double poiLongitude;
+    private final double poiHeight;
+
+    /**
+     * @param poiHeight Height the gimbal aims at, meters
+     */
+    public OrbitPathGenerator(double poiLatitude, double poiLongitude, double poiHeight) {
+        this.poiLatitude = poiLatitude;
+        this.poiLongitude = poiLongitude;
+        this.poiHeight = poiHeight;
+    }
+
+    /**
+     * One ring of count points at one altitude
+     */
+    public OrbitPath ring(double radiusMeters, int count, double altitudeMeters, double startBearing) {
+        return rings(new double[]{radiusMeters}, new double[]{altitudeMeters}, count, startBearing);
+    }
+
+    /**
+     * One ring per altitude, lowest first as given, e.g. a facade scan
+     * @param radiiMeters Radius of each ring, as long as altitudesMeters
+     */
+    public OrbitPath rings(double[] radiiMeters, double[] altitudesMeters, int pointsPerRing, double startBearing) {
+        checkCount(pointsPerRing);
+        if (radiiMeters.length != altitudesMeters.length) {
+            throw new IllegalArgumentException(radiiMeters.length + " radii for " + altitudesMeters.length
+                    + " altitudes");
+        }
+        OrbitPath path = new OrbitPath(pointsPerRing * radiiMeters.length);
+        double[] ringLatitudes = new double[pointsPerRing];
+        double[] ringLongitudes = new double[pointsPerRing];
+        for (int ring = 0; ring < radiiMeters.length; ring++) {
+            // Rings of the same radius share their positions
+            if (ring == 0 || radiiMeters[ring] != radiiMeters[ring - 1]) {
+                Geodesy.circle(poiLatitude, poiLongitude, radiiMeters[ring], pointsPerRing, startBearing,
+                        ringLatitudes, ringLongitudes);
+            }
+            int offset = ring * pointsPerRing;
+            System.arraycopy(ringLatitudes, 0, path.latitudes, offset, pointsPerRing);
+            System.arraycopy(ringLongitudes, 0, path.longitudes, offset, pointsPerRing);
+            Arrays.fill(path.altitudes, offset, offset + pointsPerRing, altitudesMeters[ring]);
+            Arrays.fill(path.gimbalPitches, offset, offset + pointsPerRing,
+                    pitchTowardPoi(radiiMeters[ring], altitudesMeters[ring]));
+        }
+        return path;
+    }
+
+    /**
+     * Rings of one radius at altitudes from lowest to highest, spacing apart
+     */
+    public OrbitPath rings(double radiusMeters, double lowestAltitude, double highestAltitude, double spacingMeters,
+                           int pointsPerRing, double startBearing) {
+        if (!(spacingMeters > 0) || highestAltitude < lowestAltitude) {
+            throw new IllegalArgumentException("Rings from " + lowestAltitude + " to " + highestAltitude
+                    + " every " + spacingMeters);
+        }
+        // The top ring is flown at highestAltitude even when the spacing does not divide the span
+        int count = (int) Math.ceil((highestAltitude - lowestAltitude) / spacingMeters - 1e-9) + 1;
+        double[] radii = new double[count];
+        double[] altitudes = new double[count];
+        Arrays.fill(radii, radiusMeters);
+        for (int i = 0; i < count; i++) {
+            altitudes[i] = Math.min(highestAltitude, lowestAltitude + i * spacingMeters);
+        }
+        return rings(radii, altitudes, pointsPerRing, startBearing);
+    }
+
+    /**
+     * count points on a continuous spiral of turns revolutions, clockwise from
+     * startBearing, radius and altitude changing linearly along it
+     */
+    public OrbitPath spiral(double startRadius, double endRadius, double startAltitude, double endAltitude,
+                            double turns, int count, double startBearing) {
+        checkCount(count);
+        OrbitPath path = new OrbitPath(count);
+        double steps = Math.max(1, count - 1);
+        double radiusStep = (endRadius - startRadius) / steps;
+        double altitudeStep = (endAltitude - startAltitude) / steps;
+        Geodesy.arc(poiLatitude, poiLongitude, startBearing, 360.0 * turns / steps, startRadius, radiusStep, count,
+                path.latitudes, path.longitudes);
+        double[] altitudes = path.altitudes;
+        double[] pitches = path.gimbalPitches;
+        for (int i = 0; i < count; i++) {
+            altitudes[i] = startAltitude + i * altitudeStep;
+            pitches[i] = pitchTowardPoi(startRadius + i * radiusStep, altitudes[i]);
+        }
+        return path;
+    }
+
+    /**
+     * Gimbal pitch toward the POI from a point at that horizontal distance and altitude,
+     * straight down within ProjectMissionPlanner.OVERHEAD_DISTANCE_METERS, clamped to
+     * +-90 degrees
+     */
+    private double pitchTowardPoi(double distanceMeters, double altitudeMeters) {
+        if (distanceMeters < ProjectMissionPlanner.OVERHEAD_DISTANCE_METERS) {
+            return -90.0;
+        }
+        double pitch = Math.toDegrees(Math.atan((poiHeight - altitudeMeters) / distanceMeters));
+        return Math.max(-90.0, Math.min(90.0, pitch));
+    }
+
+    private static void checkCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("No points for a count of " + count);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+/**
+ * PreparedMission - A mission built and pushed to the aircraft ahead of the pilot's go
+ *
+ * Holds a snapshot of the inputs, so edits made while it builds cannot leak into the
+ * KMZ, and the builder key of that snapshot, which a start request compares against
+ * the mission on screen: only an identical mission is started from the preparation.
+ *
+ * State changes happen on the main thread; only isCancelled() is read by the build
+ * thread, to skip work that was invalidated before it began.
+ */
+public class PreparedMission {
+
+    public enum State {
+        /** Waiting for or running in the build pipeline */
+        BUILDING,
+        /** KMZ ready, waiting for the upload slot */
+        BUILT,
+        UPLOADING,
+        /** On the aircraft, startMission is all that is left */
+        UPLOADED,
+        FAILED
+    }
+
+    private final String key;
+    private final MissionSetting missionSetting;
+    private final List<WaypointSetting> waypointSettings;
+    private State state = State.BUILDING;
+    private BuiltMission builtMission;
+    private String failure;
+    private boolean startRequested;
+    private volatile boolean cancelled;
+
+    /**
+     * @param missionSetting Copied, later edits to the argument are not seen
+     * @param waypointSettings Copied waypoint by waypoint
+     */
+    public PreparedMission(String key, MissionSetting missionSetting, List<WaypointSetting> waypointSettings) {
+        this.key = key;
+        this.missionSetting = missionSetting.copy();
+        List<WaypointSetting> copies = new ArrayList<>(waypointSettings.size());
+        for (WaypointSetting waypointSetting : waypointSettings) {
+            copies.add(waypointSetting.copy());
+        }
+        this.waypointSettings = Collections.unmodifiableList(copies);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public MissionSetting getMissionSetting() {
+        return missionSetting;
+    }
+
+    public List<WaypointSetting> getWaypointSettings() {
+        return waypointSettings;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * The built KMZ, null while building and when the build threw
+     */
+    public BuiltMission getBuiltMission() {
+        return builtMission;
+    }
+
+    /**
+     * Why the build or upload failed, null unless the state is FAILED
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    public void onBuilt(BuiltMission builtMission) {
+        this.builtMission = builtMission;
+        state = State.BUILT;
+    }
+
+    public void onUploading() {
+        state = State.UPLOADING;
+    }
+
+    public void onUploaded() {
+        state = State.UPLOADED;
+    }
+
+    public void onFailed(String failure) {
+        this.failure = failure;
+        state = State.FAILED;
+    }
+
+    /**
+     * Whether the pilot confirmed this mission, from then on it is no longer speculative
+     */
+    public boolean isStartRequested() {
+        return startRequested;
+    }
+
+    public void requestStart() {
+        startRequested = true;
+    }
+
+    /**
+     * Whether the mission on screen changed after this one was prepared
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+}
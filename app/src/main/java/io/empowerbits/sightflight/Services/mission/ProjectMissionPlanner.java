@@ -0,0 +1,145 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+import io.empowerbits.sightflight.util.wpml.WpmlAction;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+
+/**
+ * ProjectMissionPlanner - The waypoints WaypointActivity lays out for a saved project
+ *
+ * Follows setUpCurrentProject for non-grid projects: four vertical shots above the
+ * house (150 ft, house + 45 ft, obstacles + 10 ft, house + 15 ft), then the project's
+ * flight path at obstacle height looking at the POI, with the first inspection
+ * waypoints flown at house + 15 ft looking straight down when the path has an inner
+ * ring. Heights are given in feet and returned in meters, as the activity does.
+ *
+ * Plain Java with no Android or SDK types, so missions can be planned off the device
+ * (see the missioncompiler module).
+ */
+public class ProjectMissionPlanner {
+
+    public static final double FEET_TO_METERS = 0.3048;
+    public static final int DEFAULT_INSPECTION_WAYPOINTS = 8;
+    /** MissionSetting.takeOffSecurityHeight default */
+    public static final double DEFAULT_TAKE_OFF_SECURITY_HEIGHT = 50d;
+    /** MissionSetting.poiHeight default */
+    public static final double DEFAULT_POI_HEIGHT = 4;
+
+    private static final double TOP_SHOT_HEIGHT_FEET = 150;
+    private static final double SUBJECT_PHOTO_CLEARANCE_FEET = 45;
+    private static final double HORIZON_PATH_CLEARANCE_FEET = 15;
+    private static final double OBSTACLE_CLEARANCE_FEET = 10;
+    // OtherHelper.calculatePitchAngle looks straight down this close to the POI
+    static final double OVERHEAD_DISTANCE_METERS = 5;
+    // Same suffix KMZTestUtil.transTakePhoto gives the SDK
+    private static final String TAKE_PHOTO_FILE_SUFFIX = "djitest";
+
+    private final double poiLatitude;
+    private final double poiLongitude;
+    private final double poiHeight;
+    private final double heightOfHouse;
+    private final double maxObstacleHeight;
+
+    /**
+     * @param heightOfHouse Project.height_of_house, feet
+     * @param maxHeight Highest of Project.must_height and the obstacle heights, feet
+     */
+    public ProjectMissionPlanner(double poiLatitude, double poiLongitude, double poiHeight,
+                                 double heightOfHouse, double maxHeight) {
+        this.poiLatitude = poiLatitude;
+        this.poiLongitude = poiLongitude;
+        this.poiHeight = poiHeight;
+        this.heightOfHouse = heightOfHouse;
+        this.maxObstacleHeight = maxHeight + OBSTACLE_CLEARANCE_FEET;
+    }
+
+    /**
+     * @param flightPath Project.getWaypointList(); no waypoints at all when empty
+     * @param noOfWaypoints flight_setting noOfWaypoints, the path has an inner ring when
+     *                      it is longer; 0 or less when unknown
+     * @param noOfInspectionWaypoints flight_setting noOfInspectionWaypoints
+     */
+    public List<WaypointSetting> plan(List<FlightAddress> flightPath, int noOfWaypoints,
+                                      int noOfInspectionWaypoints) {
+        List<WaypointSetting> waypoints = new ArrayList<>(flightPath.size() + 4);
+        if (flightPath.isEmpty()) {
+            return waypoints;
+        }
+        double horizonPathHeight = heightOfHouse + HORIZON_PATH_CLEARANCE_FEET;
+        double[] heights = {TOP_SHOT_HEIGHT_FEET, heightOfHouse + SUBJECT_PHOTO_CLEARANCE_FEET,
+                maxObstacleHeight, horizonPathHeight};
+        for (double height : heights) {
+            waypoints.add(waypoint(waypoints.size(), poiLatitude, poiLongitude, height, false));
+        }
+
+        boolean containsInnerPath = noOfWaypoints > 0 && flightPath.size() > noOfWaypoints;
+        for (int i = 0; i < flightPath.size(); i++) {
+            FlightAddress address = flightPath.get(i);
+            if (containsInnerPath && i < noOfInspectionWaypoints) {
+                waypoints.add(waypoint(waypoints.size(), address.lat, address.lng, horizonPathHeight, true));
+            } else {
+                waypoints.add(waypoint(waypoints.size(), address.lat, address.lng, maxObstacleHeight, false));
+            }
+        }
+        return waypoints;
+    }
+
+    private WaypointSetting waypoint(int index, double latitude, double longitude, double heightFeet,
+                                     boolean inspection) {
+        WaypointSetting waypoint = new WaypointSetting();
+        waypoint.name = "Waypoint " + (index + 1);
+        waypoint.latitude = latitude;
+        waypoint.longitude = longitude;
+        waypoint.altitude = heightFeet * FEET_TO_METERS;
+        waypoint.gimbalPitchAngle = inspection ? -90.0 : (double) pitchTowardPoi(latitude, longitude, waypoint.altitude);
+        return waypoint;
+    }
+
+    /**
+     * Gimbal pitch that looks at the POI from a waypoint, as OtherHelper.calculatePitchAngle
+     * computes it, clamped to +-90 degrees
+     */
+    public float pitchTowardPoi(double latitude, double longitude, double heightMeters) {
+        double distance = Geodesy.haversine(poiLatitude, poiLongitude, latitude, longitude);
+        if (distance < OVERHEAD_DISTANCE_METERS) {
+            return -90f;
+        }
+        float pitch = (float) Math.toDegrees(Math.atan((poiHeight - heightMeters) / distance));
+        return Math.max(-90f, Math.min(90f, pitch));
+    }
+
+    /**
+     * The planned waypoints as a mission toward the POI, with the MissionSetting defaults
+     */
+    public WpmlMission toWpmlMission(List<WaypointSetting> waypoints) {
+        WpmlMission mission = new WpmlMission();
+        mission.takeOffSecurityHeight = DEFAULT_TAKE_OFF_SECURITY_HEIGHT;
+        mission.setPoi(poiLatitude, poiLongitude, poiHeight);
+        for (WaypointSetting waypoint : waypoints) {
+            mission.waypoints.add(toWpmlWaypoint(waypoint));
+        }
+        return mission;
+    }
+
+    /**
+     * One waypoint as MissionKmzBuilder writes it; unset values become NaN
+     */
+    public static WpmlMission.Waypoint toWpmlWaypoint(WaypointSetting setting) {
+        WpmlMission.Waypoint waypoint = new WpmlMission.Waypoint(valueOf(setting.latitude),
+                valueOf(setting.longitude), valueOf(setting.altitude), valueOf(setting.waypointSpeed),
+                valueOf(setting.gimbalPitchAngle));
+        // Same yaw angle createWaypointInfoModels sets, unused while heading toward the POI
+        waypoint.headingAngle = waypoint.gimbalPitchAngle;
+        waypoint.actions.add(WpmlAction.takePhoto(TAKE_PHOTO_FILE_SUFFIX));
+        return waypoint;
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,581 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import dji.sdk.keyvalue.key.DJIKey;
+import dji.sdk.keyvalue.key.KeyTools;
+import dji.sdk.keyvalue.key.FlightControllerKey;
+import dji.sdk.keyvalue.key.BatteryKey;
+import dji.sdk.keyvalue.key.AirLinkKey;
+import dji.sdk.keyvalue.value.common.ComponentIndexType;
+import dji.sdk.keyvalue.value.common.LocationCoordinate2D;
+import dji.sdk.keyvalue.value.flightcontroller.FlightMode;
+import dji.sdk.keyvalue.value.flightcontroller.GPSSignalLevel;
+import dji.sdk.keyvalue.value.common.LocationCoordinate3D;
+import dji.sdk.keyvalue.value.common.Velocity3D;
+import dji.v5.common.callback.CommonCallbacks;
+import dji.v5.common.error.IDJIError;
+import dji.v5.manager.KeyManager;
+
+/**
+ * DjiTelemetrySource - Live aircraft telemetry from the DJI SDK V5 KeyManager
+ *
+ * One KeyManager listener per value, all registered with this object as the listen
+ * holder so stop() removes exactly these listeners. Requires a registered SDK.
+ */
+public final class DjiTelemetrySource implements TelemetrySource {
+    private static final String TAG = "DjiTelemetrySource";
+
+    // Late SDK callbacks after stop() land here instead of the next source's sink
+    private static final TelemetrySink DISCARD = new TelemetrySink() {
+        @Override public void onFlightMode(String flightMode) {}
+        @Override public void onGpsSignalLevel(int signalLevel) {}
+        @Override public void onSatelliteCount(int satelliteCount) {}
+        @Override public void onLinkSignalQuality(int signalQuality) {}
+        @Override public void onBatteryPercentage(int batteryPercentage) {}
+        @Override public void onAltitude(double altitude) {}
+        @Override public void onVelocity(double horizontalVelocity, double verticalVelocity) {}
+        @Override public void onLocation(double latitude, double longitude, double altitude) {}
+        @Override public void onLocationLost() {}
+        @Override public void onHomeLocation(double latitude, double longitude) {}
+        @Override public void onHomeLocationLost() {}
+        @Override public void onHeading(double heading) {}
+    };
+
+    private volatile TelemetrySink sink = DISCARD;
+
+    @Override
+    public String getName() {
+        return "DJI aircraft";
+    }
+
+    @Override
+    public void start(TelemetrySink sink, Listener listener) {
+        // Live data never ends by itself, the listener is not needed
+        this.sink = sink;
+        setupTelemetryListeners();
+    }
+
+    @Override
+    public void requestCurrentValues() {
+        if (sink == DISCARD) {
+            return;
+        }
+        requestCurrentFlightMode();
+        requestCurrentGpsSignalStatus();
+        requestCurrentSatelliteCount();
+        requestCurrentLinkSignalQuality();
+        requestCurrentBatteryCharge();
+        requestCurrentAltitude();
+        requestCurrentVelocity();
+        requestCurrentLocation();
+        requestCurrentHeading();
+
+        Log.d(TAG, "Current value requests sent");
+    }
+
+    @Override
+    public void stop() {
+        try {
+            KeyManager.getInstance().cancelListen(this);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing telemetry listeners: " + e.getMessage(), e);
+        }
+        sink = DISCARD;
+    }
+
+    /**
+     * Setup all DJI SDK telemetry listeners
+     */
+    private void setupTelemetryListeners() {
+        try {
+            Log.d(TAG, "Setting up telemetry listeners...");
+            
+            // Flight Mode Listener
+            setupFlightModeListener();
+            
+            // GPS Signal Status Listener
+            setupGpsSignalStatusListener();
+            
+            // Satellite Count Listener
+            setupSatelliteCountListener();
+            
+            // Link Signal Quality Listener (AirLink)
+            setupLinkSignalQualityListener();
+            
+            // Battery Charge Listener
+            setupBatteryChargeListener();
+            
+            // Altitude Listener
+            setupAltitudeListener();
+            
+            // Velocity Listeners (Horizontal & Vertical)
+            setupVelocityListeners();
+            
+            // Location Listener
+            setupLocationListener();
+
+            // Heading Listener
+            setupHeadingListener();
+
+            Log.d(TAG, "All telemetry listeners setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up telemetry listeners: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Flight Mode listener
+     */
+    private void setupFlightModeListener() {
+        try {
+            DJIKey<FlightMode> flightModeKey = KeyTools.createKey(
+                FlightControllerKey.KeyFlightMode, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(flightModeKey, this, 
+                new CommonCallbacks.KeyListener<FlightMode>() {
+                    @Override
+                    public void onValueChange(FlightMode oldValue, FlightMode newValue) {
+                        String flightModeString = newValue != null ? newValue.name() : "N/A";
+                        sink.onFlightMode(flightModeString);
+                        
+                        Log.v(TAG, "Flight mode changed: " + flightModeString);
+                    }
+                });
+                
+            Log.d(TAG, "Flight mode listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up flight mode listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup GPS Signal Status listener
+     */
+    private void setupGpsSignalStatusListener() {
+        try {
+            DJIKey<GPSSignalLevel> gpsSignalKey = KeyTools.createKey(
+                FlightControllerKey.KeyGPSSignalLevel, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(gpsSignalKey, this, 
+                new CommonCallbacks.KeyListener<GPSSignalLevel>() {
+                    @Override
+                    public void onValueChange(GPSSignalLevel oldValue, GPSSignalLevel newValue) {
+                        Integer signalLevel = newValue != null ? newValue.value() : 0;
+                        sink.onGpsSignalLevel(signalLevel);
+                        
+                        Log.v(TAG, "GPS signal level changed: " + signalLevel);
+                    }
+                });
+                
+            Log.d(TAG, "GPS signal status listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up GPS signal status listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Satellite Count listener
+     */
+    private void setupSatelliteCountListener() {
+        try {
+            DJIKey<Integer> satCountKey = KeyTools.createKey(
+                FlightControllerKey.KeyGPSSatelliteCount, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(satCountKey, this, 
+                new CommonCallbacks.KeyListener<Integer>() {
+                    @Override
+                    public void onValueChange(Integer oldValue, Integer newValue) {
+                        Integer satCount = newValue != null ? newValue : 0;
+                        sink.onSatelliteCount(satCount);
+                        
+                        Log.v(TAG, "Satellite count changed: " + satCount);
+                    }
+                });
+                
+            Log.d(TAG, "Satellite count listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up satellite count listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Link Signal Quality listener (AirLink)
+     */
+    private void setupLinkSignalQualityListener() {
+        try {
+            DJIKey<Integer> linkSignalKey = KeyTools.createKey(
+                AirLinkKey.KeySignalQuality, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(linkSignalKey, this, 
+                new CommonCallbacks.KeyListener<Integer>() {
+                    @Override
+                    public void onValueChange(Integer oldValue, Integer newValue) {
+                        Integer signalQuality = newValue != null ? newValue : 0;
+                        sink.onLinkSignalQuality(signalQuality);
+                        
+                        Log.v(TAG, "Link signal quality changed: " + signalQuality + "%");
+                    }
+                });
+                
+            Log.d(TAG, "Link signal quality listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up link signal quality listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Battery Charge listener
+     */
+    private void setupBatteryChargeListener() {
+        try {
+            DJIKey<Integer> batteryKey = KeyTools.createKey(
+                BatteryKey.KeyChargeRemainingInPercent, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(batteryKey, this, 
+                new CommonCallbacks.KeyListener<Integer>() {
+                    @Override
+                    public void onValueChange(Integer oldValue, Integer newValue) {
+                        Integer batteryPercentage = newValue != null ? newValue : 0;
+                        sink.onBatteryPercentage(batteryPercentage);
+                        
+                        Log.v(TAG, "Battery charge changed: " + batteryPercentage + "%");
+                    }
+                });
+                
+            Log.d(TAG, "Battery charge listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up battery charge listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Altitude listener
+     */
+    private void setupAltitudeListener() {
+        try {
+            DJIKey<Double> altitudeKey = KeyTools.createKey(
+                FlightControllerKey.KeyAltitude, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(altitudeKey, this, 
+                new CommonCallbacks.KeyListener<Double>() {
+                    @Override
+                    public void onValueChange(Double oldValue, Double newValue) {
+                        Double altitude = newValue != null ? newValue : 0.0;
+                        sink.onAltitude(altitude);
+                        
+                        Log.v(TAG, "Altitude changed: " + String.format("%.1f", altitude) + "m");
+                    }
+                });
+                
+            Log.d(TAG, "Altitude listener setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up altitude listener: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Velocity listeners (Horizontal & Vertical)
+     */
+    private void setupVelocityListeners() {
+        try {
+            DJIKey<Velocity3D> velocityKey = KeyTools.createKey(
+                FlightControllerKey.KeyAircraftVelocity, ComponentIndexType.LEFT_OR_MAIN);
+                
+            KeyManager.getInstance().listen(velocityKey, this, 
+                new CommonCallbacks.KeyListener<Velocity3D>() {
+                    @Override
+                    public void onValueChange(Velocity3D oldValue, Velocity3D newValue) {
+                        if (newValue != null) {
+                            // Calculate horizontal velocity (magnitude of x and y components)
+                            double horizontalVel = Math.sqrt(Math.pow(newValue.getX(), 2) + Math.pow(newValue.getY(), 2));
+                            double verticalVel = newValue.getZ();
+                            
+                            sink.onVelocity(horizontalVel, verticalVel);
+                            
+                            Log.v(TAG, "Velocity changed - H: " + String.format("%.1f", horizontalVel) + 
+                                      "m/s, V: " + String.format("%.1f", verticalVel) + "m/s");
+                        }
+                    }
+                });
+                
+            Log.d(TAG, "Velocity listeners setup completed");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up velocity listeners: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Setup Location listener
+     */
+    private void setupLocationListener() {
+        try {
+            DJIKey<LocationCoordinate3D> locationKey = KeyTools.createKey(
+                FlightControllerKey.KeyAircraftLocation3D, ComponentIndexType.LEFT_OR_MAIN);
+
+            KeyManager.getInstance().listen(locationKey, this,
+                new CommonCallbacks.KeyListener<LocationCoordinate3D>() {
+                    @Override
+                    public void onValueChange(LocationCoordinate3D oldValue, LocationCoordinate3D newValue) {
+                        forwardLocation(newValue);
+
+                        if (newValue != null) {
+                            Log.v(TAG, "Location changed: Lat=" + String.format("%.6f", newValue.getLatitude()) +
+                                      ", Lon=" + String.format("%.6f", newValue.getLongitude()) +
+                                      ", Alt=" + String.format("%.1f", newValue.getAltitude()) + "m");
+                        }
+                    }
+                });
+
+            DJIKey<LocationCoordinate2D> locationHomeKey = KeyTools.createKey(
+                    FlightControllerKey.KeyHomeLocation, ComponentIndexType.LEFT_OR_MAIN);
+
+            KeyManager.getInstance().listen(locationHomeKey, this, new CommonCallbacks.KeyListener<LocationCoordinate2D>() {
+                @Override
+                public void onValueChange(@Nullable LocationCoordinate2D locationCoordinate2D, @Nullable LocationCoordinate2D newValue) {
+                    forwardHomeLocation(newValue);
+                }
+            });
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up location listener: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Setup Heading listener
+     */
+    private void setupHeadingListener() {
+        try {
+            DJIKey<Double> headingKey = KeyTools.createKey(
+                FlightControllerKey.KeyCompassHeading, ComponentIndexType.LEFT_OR_MAIN);
+
+            KeyManager.getInstance().listen(headingKey, this,
+                new CommonCallbacks.KeyListener<Double>() {
+                    @Override
+                    public void onValueChange(Double oldValue, Double newValue) {
+                        Double heading = newValue != null ? newValue : 0.0;
+                        sink.onHeading(heading);
+
+                        Log.v(TAG, "Heading changed: " + String.format("%.1f", heading) + "°");
+                    }
+                });
+
+            Log.d(TAG, "Heading listener setup completed");
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error setting up heading listener: " + e.getMessage(), e);
+        }
+    }
+
+    // Request current value methods
+    private void requestCurrentFlightMode() {
+        try {
+            DJIKey<FlightMode> key = KeyTools.createKey(FlightControllerKey.KeyFlightMode, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<FlightMode>() {
+                @Override
+                public void onSuccess(FlightMode flightMode) {
+                    String flightModeString = flightMode != null ? flightMode.name() : "N/A";
+                    sink.onFlightMode(flightModeString);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current flight mode: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current flight mode: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentGpsSignalStatus() {
+        try {
+            DJIKey<GPSSignalLevel> key = KeyTools.createKey(FlightControllerKey.KeyGPSSignalLevel, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<GPSSignalLevel>() {
+                @Override
+                public void onSuccess(GPSSignalLevel signalLevel) {
+                    Integer level = signalLevel != null ? signalLevel.value() : 0;
+                    sink.onGpsSignalLevel(level);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current GPS signal status: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current GPS signal status: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentSatelliteCount() {
+        try {
+            DJIKey<Integer> key = KeyTools.createKey(FlightControllerKey.KeyGPSSatelliteCount, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
+                @Override
+                public void onSuccess(Integer satCount) {
+                    Integer count = satCount != null ? satCount : 0;
+                    sink.onSatelliteCount(count);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current satellite count: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current satellite count: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentLinkSignalQuality() {
+        try {
+            DJIKey<Integer> key = KeyTools.createKey(AirLinkKey.KeySignalQuality, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
+                @Override
+                public void onSuccess(Integer signalQuality) {
+                    Integer quality = signalQuality != null ? signalQuality : 0;
+                    sink.onLinkSignalQuality(quality);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current link signal quality: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current link signal quality: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentBatteryCharge() {
+        try {
+            DJIKey<Integer> key = KeyTools.createKey(BatteryKey.KeyChargeRemainingInPercent, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Integer>() {
+                @Override
+                public void onSuccess(Integer batteryPercentage) {
+                    Integer percentage = batteryPercentage != null ? batteryPercentage : 0;
+                    sink.onBatteryPercentage(percentage);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current battery charge: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current battery charge: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentAltitude() {
+        try {
+            DJIKey<Double> key = KeyTools.createKey(FlightControllerKey.KeyAltitude, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Double>() {
+                @Override
+                public void onSuccess(Double altitude) {
+                    Double alt = altitude != null ? altitude : 0.0;
+                    sink.onAltitude(alt);
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current altitude: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current altitude: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentVelocity() {
+        try {
+            DJIKey<Velocity3D> key = KeyTools.createKey(FlightControllerKey.KeyAircraftVelocity, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Velocity3D>() {
+                @Override
+                public void onSuccess(Velocity3D velocity) {
+                    if (velocity != null) {
+                        double horizontalVel = Math.sqrt(Math.pow(velocity.getX(), 2) + Math.pow(velocity.getY(), 2));
+                        double verticalVel = velocity.getZ();
+                        
+                        sink.onVelocity(horizontalVel, verticalVel);
+                    }
+                }
+                
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current velocity: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current velocity: " + e.getMessage());
+        }
+    }
+    
+    private void requestCurrentLocation() {
+        try {
+            DJIKey<LocationCoordinate3D> key = KeyTools.createKey(FlightControllerKey.KeyAircraftLocation3D, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<LocationCoordinate3D>() {
+                @Override
+                public void onSuccess(LocationCoordinate3D location) {
+                    forwardLocation(location);
+                }
+
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current location: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current location: " + e.getMessage());
+        }
+    }
+
+    private void requestCurrentHeading() {
+        try {
+            DJIKey<Double> key = KeyTools.createKey(FlightControllerKey.KeyCompassHeading, ComponentIndexType.LEFT_OR_MAIN);
+            KeyManager.getInstance().getValue(key, new CommonCallbacks.CompletionCallbackWithParam<Double>() {
+                @Override
+                public void onSuccess(Double heading) {
+                    Double head = heading != null ? heading : 0.0;
+                    sink.onHeading(head);
+                }
+
+                @Override
+                public void onFailure(IDJIError error) {
+                    Log.d(TAG, "Failed to get current heading: " + error.description());
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error requesting current heading: " + e.getMessage());
+        }
+    }
+
+    private void forwardLocation(LocationCoordinate3D location) {
+        if (location != null) {
+            sink.onLocation(location.getLatitude(), location.getLongitude(), location.getAltitude());
+        } else {
+            sink.onLocationLost();
+        }
+    }
+
+    private void forwardHomeLocation(LocationCoordinate2D homeLocation) {
+        if (homeLocation != null) {
+            sink.onHomeLocation(homeLocation.getLatitude(), homeLocation.getLongitude());
+        } else {
+            sink.onHomeLocationLost();
+        }
+    }
+
+}
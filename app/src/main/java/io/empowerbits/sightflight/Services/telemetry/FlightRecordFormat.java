@@ -0,0 +1,87 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.nio.ByteOrder;
+
+/**
+ * FlightRecordFormat - Layout of the binary flight record (.eefr) files
+ *
+ * A file is a 32 byte header followed by fixed-size 24 byte little-endian records,
+ * appended in the order the updates were published:
+ *
+ * Header
+ *   0  int    MAGIC ("EEFR")
+ *   4  short  VERSION
+ *   6  short  RECORD_SIZE
+ *   8  long   recording start, wall clock epoch millis
+ *   16 long   recording start, System.nanoTime()
+ *   24 8 bytes reserved
+ *
+ * Record
+ *   0  byte   type, a TelemetryChannelId or one of the TYPE_* control records
+ *   1  byte   flags, FLAG_ABSENT when the channel was cleared (no location/home)
+ *   2  short  string id (flight mode records only)
+ *   4  int    microseconds since the previous record
+ *   8  16 byte payload
+ *
+ * Payload by type
+ *   GPS_SIGNAL, SATELLITE_COUNT, LINK_SIGNAL, BATTERY    int at 8
+ *   ALTITUDE, HORIZONTAL/VERTICAL_VELOCITY, HEADING      double at 8
+ *   LOCATION       int latitude delta, int longitude delta (1e-7 degrees, relative to
+ *                  the previous location record), double altitude at 16
+ *   HOME_LOCATION  int latitude delta, int longitude delta (1e-7 degrees, relative to
+ *                  the previous home location record)
+ *   TYPE_TIME_SYNC long absolute microseconds since the recording start at 8, written
+ *                  when a time delta does not fit in an int
+ *   TYPE_STRING    int byte length at 8; the UTF-8 bytes follow in as many whole
+ *                  records as needed, zero padded. Defines the string id used by
+ *                  later flight mode records.
+ *
+ * Position deltas restart from zero after an absent record, so the first position
+ * after a gap is stored absolute.
+ */
+public final class FlightRecordFormat {
+
+    public static final int MAGIC = 0x52464545; // "EEFR" little-endian
+    public static final short VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 24;
+
+    // Record offsets
+    public static final int OFFSET_TYPE = 0;
+    public static final int OFFSET_FLAGS = 1;
+    public static final int OFFSET_STRING_ID = 2;
+    public static final int OFFSET_TIME_DELTA = 4;
+    public static final int OFFSET_PAYLOAD = 8;
+    public static final int OFFSET_PAYLOAD_2 = 12;
+    public static final int OFFSET_PAYLOAD_3 = 16;
+
+    // Control record types, outside the TelemetryChannelId range
+    public static final int TYPE_TIME_SYNC = 0x70;
+    public static final int TYPE_STRING = 0x71;
+
+    public static final int FLAG_ABSENT = 0x01;
+
+    /** Fixed-point scale of stored coordinates */
+    public static final double COORDINATE_SCALE = 1e7;
+
+    public static final String FILE_EXTENSION = ".eefr";
+
+    private FlightRecordFormat() {}
+
+    public static long toFixedPoint(double degrees) {
+        return Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    public static double fromFixedPoint(long fixedPoint) {
+        return fixedPoint / COORDINATE_SCALE;
+    }
+
+    /**
+     * Number of records a TYPE_STRING definition of the given byte length occupies
+     */
+    public static int stringRecordCount(int byteLength) {
+        return 1 + (byteLength + RECORD_SIZE - 1) / RECORD_SIZE;
+    }
+}
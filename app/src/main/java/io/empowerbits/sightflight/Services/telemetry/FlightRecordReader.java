@@ -0,0 +1,261 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FlightRecordReader - Sequential decoder for flight record files written by FlightRecorder
+ *
+ * The file is memory-mapped and read record by record. next() resolves the control
+ * records (time sync, string definitions) and position deltas internally, so callers
+ * only see channel records with absolute time and values. Reading allocates nothing
+ * apart from the flight mode strings, once each.
+ */
+public final class FlightRecordReader implements Closeable {
+
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private final long startEpochMillis;
+    private final List<String> strings = new ArrayList<>();
+
+    // Current record
+    private int type;
+    private int flags;
+    private long timeMicros;
+    private int intValue;
+    private double doubleValue;
+    private double latitude;
+    private double longitude;
+    private double altitude;
+    private String stringValue;
+
+    // Delta decoding state
+    private long fixedLatitude;
+    private long fixedLongitude;
+    private long fixedHomeLatitude;
+    private long fixedHomeLongitude;
+
+    public FlightRecordReader(File file) throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size < FlightRecordFormat.HEADER_SIZE) {
+                throw new IOException("Not a flight record: " + file.getName());
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(FlightRecordFormat.BYTE_ORDER);
+
+            if (buffer.getInt(0) != FlightRecordFormat.MAGIC) {
+                throw new IOException("Not a flight record: " + file.getName());
+            }
+            if (buffer.getShort(4) != FlightRecordFormat.VERSION
+                    || buffer.getShort(6) != FlightRecordFormat.RECORD_SIZE) {
+                throw new IOException("Unsupported flight record version " + buffer.getShort(4));
+            }
+            startEpochMillis = buffer.getLong(8);
+            buffer.position(FlightRecordFormat.HEADER_SIZE);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Advance to the next channel record
+     * @return false at the end of the file; a partly written last record is ignored
+     */
+    public boolean next() throws IOException {
+        while (buffer.remaining() >= FlightRecordFormat.RECORD_SIZE) {
+            int base = buffer.position();
+            int recordType = buffer.get(base + FlightRecordFormat.OFFSET_TYPE) & 0xFF;
+            timeMicros += buffer.getInt(base + FlightRecordFormat.OFFSET_TIME_DELTA);
+            buffer.position(base + FlightRecordFormat.RECORD_SIZE);
+
+            if (recordType == FlightRecordFormat.TYPE_TIME_SYNC) {
+                timeMicros = buffer.getLong(base + FlightRecordFormat.OFFSET_PAYLOAD);
+                continue;
+            }
+            if (recordType == FlightRecordFormat.TYPE_STRING) {
+                readString(base);
+                continue;
+            }
+            if (recordType >= TelemetryChannelId.FIRST_DERIVED) {
+                throw new IOException("Unknown record type " + recordType + " at offset " + base);
+            }
+
+            type = recordType;
+            flags = buffer.get(base + FlightRecordFormat.OFFSET_FLAGS) & 0xFF;
+            decodePayload(base);
+            return true;
+        }
+        return false;
+    }
+
+    private void decodePayload(int base) throws IOException {
+        int payload = base + FlightRecordFormat.OFFSET_PAYLOAD;
+        switch (type) {
+            case TelemetryChannelId.FLIGHT_MODE:
+                int stringId = buffer.getShort(base + FlightRecordFormat.OFFSET_STRING_ID);
+                if (stringId < 0 || stringId >= strings.size()) {
+                    throw new IOException("Undefined string id " + stringId + " at offset " + base);
+                }
+                stringValue = strings.get(stringId);
+                break;
+            case TelemetryChannelId.GPS_SIGNAL:
+            case TelemetryChannelId.SATELLITE_COUNT:
+            case TelemetryChannelId.LINK_SIGNAL:
+            case TelemetryChannelId.BATTERY:
+                intValue = buffer.getInt(payload);
+                break;
+            case TelemetryChannelId.LOCATION:
+                if (isAbsent()) {
+                    fixedLatitude = 0;
+                    fixedLongitude = 0;
+                } else {
+                    fixedLatitude += buffer.getInt(payload);
+                    fixedLongitude += buffer.getInt(base + FlightRecordFormat.OFFSET_PAYLOAD_2);
+                    latitude = FlightRecordFormat.fromFixedPoint(fixedLatitude);
+                    longitude = FlightRecordFormat.fromFixedPoint(fixedLongitude);
+                    altitude = buffer.getDouble(base + FlightRecordFormat.OFFSET_PAYLOAD_3);
+                }
+                break;
+            case TelemetryChannelId.HOME_LOCATION:
+                if (isAbsent()) {
+                    fixedHomeLatitude = 0;
+                    fixedHomeLongitude = 0;
+                } else {
+                    fixedHomeLatitude += buffer.getInt(payload);
+                    fixedHomeLongitude += buffer.getInt(base + FlightRecordFormat.OFFSET_PAYLOAD_2);
+                    latitude = FlightRecordFormat.fromFixedPoint(fixedHomeLatitude);
+                    longitude = FlightRecordFormat.fromFixedPoint(fixedHomeLongitude);
+                }
+                break;
+            default:
+                // Altitude, velocities and heading
+                doubleValue = buffer.getDouble(payload);
+                break;
+        }
+    }
+
+    private void readString(int base) throws IOException {
+        int id = buffer.getShort(base + FlightRecordFormat.OFFSET_STRING_ID);
+        int length = buffer.getInt(base + FlightRecordFormat.OFFSET_PAYLOAD);
+        int continuation = (FlightRecordFormat.stringRecordCount(length) - 1) * FlightRecordFormat.RECORD_SIZE;
+        if (id != strings.size() || length < 0 || buffer.remaining() < continuation) {
+            throw new IOException("Corrupt string definition at offset " + base);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + continuation - length);
+        strings.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Pass the current record to a sink; velocity records carry one component only,
+     * use the other component's latest value for the pair
+     */
+    public void deliverTo(TelemetrySink sink, double otherVelocity) {
+        switch (type) {
+            case TelemetryChannelId.FLIGHT_MODE:
+                sink.onFlightMode(stringValue);
+                break;
+            case TelemetryChannelId.GPS_SIGNAL:
+                sink.onGpsSignalLevel(intValue);
+                break;
+            case TelemetryChannelId.SATELLITE_COUNT:
+                sink.onSatelliteCount(intValue);
+                break;
+            case TelemetryChannelId.LINK_SIGNAL:
+                sink.onLinkSignalQuality(intValue);
+                break;
+            case TelemetryChannelId.BATTERY:
+                sink.onBatteryPercentage(intValue);
+                break;
+            case TelemetryChannelId.ALTITUDE:
+                sink.onAltitude(doubleValue);
+                break;
+            case TelemetryChannelId.HORIZONTAL_VELOCITY:
+                sink.onVelocity(doubleValue, otherVelocity);
+                break;
+            case TelemetryChannelId.VERTICAL_VELOCITY:
+                sink.onVelocity(otherVelocity, doubleValue);
+                break;
+            case TelemetryChannelId.LOCATION:
+                if (isAbsent()) {
+                    sink.onLocationLost();
+                } else {
+                    sink.onLocation(latitude, longitude, altitude);
+                }
+                break;
+            case TelemetryChannelId.HOME_LOCATION:
+                if (isAbsent()) {
+                    sink.onHomeLocationLost();
+                } else {
+                    sink.onHomeLocation(latitude, longitude);
+                }
+                break;
+            case TelemetryChannelId.HEADING:
+                sink.onHeading(doubleValue);
+                break;
+        }
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * TelemetryChannelId of the current record
+     */
+    public int getType() {
+        return type;
+    }
+
+    public boolean isAbsent() {
+        return (flags & FlightRecordFormat.FLAG_ABSENT) != 0;
+    }
+
+    /**
+     * Time of the current record in microseconds since the recording started
+     */
+    public long getTimeMicros() {
+        return timeMicros;
+    }
+
+    public int getIntValue() {
+        return intValue;
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    @Override
+    public void close() throws IOException {
+        randomAccessFile.close();
+    }
+}
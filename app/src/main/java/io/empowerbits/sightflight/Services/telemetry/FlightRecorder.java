@@ -0,0 +1,411 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FlightRecorder - Append-only binary recorder for every telemetry channel
+ *
+ * SDK callback threads call record() with the snapshot they just published and the
+ * channels it changed. That only stores the reference in a preallocated ring, so the
+ * callback path does not allocate or touch the file. A single writer thread drains the
+ * ring in batches, encodes fixed-size records (see FlightRecordFormat) into one direct
+ * buffer and appends them through a FileChannel.
+ *
+ * When the ring is full new updates are dropped and counted rather than blocking the
+ * SDK thread; at the default capacity that needs the disk to stall for several seconds.
+ */
+public final class FlightRecorder {
+
+    /**
+     * Receives write failures so the recorder stays free of Android logging
+     */
+    public interface ErrorHandler {
+        void onRecorderError(String message, Exception e);
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final int WRITE_BUFFER_RECORDS = 2048;
+
+    private final File file;
+    private final ErrorHandler errorHandler;
+    private final int capacity;
+
+    // Ring of pending updates, guarded by lock
+    private final Object lock = new Object();
+    private final int[] pendingMasks;
+    private final TelemetrySnapshot[] pendingSnapshots;
+    private int head;
+    private int count;
+    private boolean running;
+    private long droppedCount;
+
+    // Writer thread only
+    private final ByteBuffer writeBuffer =
+            ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * FlightRecordFormat.RECORD_SIZE)
+                    .order(FlightRecordFormat.BYTE_ORDER);
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private FileChannel fileChannel;
+    private RandomAccessFile randomAccessFile;
+    private Thread writerThread;
+    private long startNanos;
+    private long lastRecordNanos;
+    private long lastLatitude;
+    private long lastLongitude;
+    private long lastHomeLatitude;
+    private long lastHomeLongitude;
+    private volatile long recordCount;
+    private volatile long bytesWritten;
+
+    public FlightRecorder(File file, ErrorHandler errorHandler) {
+        this(file, DEFAULT_CAPACITY, errorHandler);
+    }
+
+    public FlightRecorder(File file, int capacity, ErrorHandler errorHandler) {
+        this.file = file;
+        this.capacity = capacity;
+        this.errorHandler = errorHandler;
+        this.pendingMasks = new int[capacity];
+        this.pendingSnapshots = new TelemetrySnapshot[capacity];
+    }
+
+    /**
+     * Create the file, write the header and start the writer thread
+     */
+    public void start() throws IOException {
+        synchronized (lock) {
+            if (running) {
+                return;
+            }
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength(0);
+            fileChannel = randomAccessFile.getChannel();
+
+            startNanos = System.nanoTime();
+            lastRecordNanos = startNanos;
+            writeHeader(System.currentTimeMillis(), startNanos);
+
+            running = true;
+            writerThread = new Thread(this::writerLoop, "FlightRecorder");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    /**
+     * Queue the given channels of a published snapshot, callable from any thread
+     * @param channelMask Bit mask of TelemetryChannelId values to record from the snapshot
+     */
+    public void record(int channelMask, TelemetrySnapshot snapshot) {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            if (count == capacity) {
+                droppedCount++;
+                return;
+            }
+            int index = (head + count) % capacity;
+            pendingMasks[index] = channelMask;
+            pendingSnapshots[index] = snapshot;
+            count++;
+            if (count == capacity / 2) {
+                lock.notify();
+            }
+        }
+    }
+
+    /**
+     * Stop accepting updates; the writer thread then writes everything still queued
+     * and closes the file without blocking the caller
+     */
+    public void stop() {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            lock.notify();
+        }
+    }
+
+    /**
+     * Wait for the writer thread to finish after stop()
+     * @return true if the file is closed
+     */
+    public boolean awaitStopped(long timeoutMs) throws InterruptedException {
+        Thread thread;
+        synchronized (lock) {
+            thread = writerThread;
+        }
+        if (thread == null) {
+            return true;
+        }
+        thread.join(timeoutMs);
+        return !thread.isAlive();
+    }
+
+    public boolean isRecording() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Number of updates discarded because the writer fell behind
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    private void writerLoop() {
+        try {
+            while (true) {
+                int batchStart;
+                int batchSize;
+                boolean stopping;
+                synchronized (lock) {
+                    if (running && count < capacity / 2) {
+                        lock.wait(FLUSH_INTERVAL_MS);
+                    }
+                    batchStart = head;
+                    batchSize = count;
+                    stopping = !running;
+                }
+
+                // Slots of this batch are not reused by producers until count is reduced
+                for (int i = 0; i < batchSize; i++) {
+                    int index = (batchStart + i) % capacity;
+                    encode(pendingMasks[index], pendingSnapshots[index]);
+                    pendingSnapshots[index] = null;
+                }
+                flushBuffer();
+
+                synchronized (lock) {
+                    head = (head + batchSize) % capacity;
+                    count -= batchSize;
+                }
+                if (stopping) {
+                    break;
+                }
+            }
+            fileChannel.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            synchronized (lock) {
+                running = false;
+            }
+            if (errorHandler != null) {
+                errorHandler.onRecorderError("Flight recording to " + file.getName() + " failed", e);
+            }
+        } finally {
+            closeFile();
+        }
+    }
+
+    private void encode(int channelMask, TelemetrySnapshot snapshot) throws IOException {
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.FLIGHT_MODE)) != 0) {
+            int stringId = stringId(snapshot.flightMode, snapshot.timestampNanos);
+            putHeader(TelemetryChannelId.FLIGHT_MODE, 0, stringId, snapshot.timestampNanos);
+            putEmptyPayload();
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.GPS_SIGNAL)) != 0) {
+            putInt(TelemetryChannelId.GPS_SIGNAL, snapshot.gpsSignalLevel, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.SATELLITE_COUNT)) != 0) {
+            putInt(TelemetryChannelId.SATELLITE_COUNT, snapshot.satelliteCount, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.LINK_SIGNAL)) != 0) {
+            putInt(TelemetryChannelId.LINK_SIGNAL, snapshot.linkSignalQuality, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.BATTERY)) != 0) {
+            putInt(TelemetryChannelId.BATTERY, snapshot.batteryPercentage, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.ALTITUDE)) != 0) {
+            putDouble(TelemetryChannelId.ALTITUDE, snapshot.altitude, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.HORIZONTAL_VELOCITY)) != 0) {
+            putDouble(TelemetryChannelId.HORIZONTAL_VELOCITY, snapshot.horizontalVelocity, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.VERTICAL_VELOCITY)) != 0) {
+            putDouble(TelemetryChannelId.VERTICAL_VELOCITY, snapshot.verticalVelocity, snapshot.timestampNanos);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.LOCATION)) != 0) {
+            putLocation(snapshot);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION)) != 0) {
+            putHomeLocation(snapshot);
+        }
+        if ((channelMask & TelemetryChannelId.bit(TelemetryChannelId.HEADING)) != 0) {
+            putDouble(TelemetryChannelId.HEADING, snapshot.heading, snapshot.timestampNanos);
+        }
+    }
+
+    private void putInt(int type, int value, long timestampNanos) throws IOException {
+        putHeader(type, 0, 0, timestampNanos);
+        writeBuffer.putInt(value).putInt(0).putLong(0L);
+    }
+
+    private void putDouble(int type, double value, long timestampNanos) throws IOException {
+        putHeader(type, 0, 0, timestampNanos);
+        writeBuffer.putDouble(value).putLong(0L);
+    }
+
+    private void putLocation(TelemetrySnapshot snapshot) throws IOException {
+        if (!snapshot.hasLocation) {
+            putHeader(TelemetryChannelId.LOCATION, FlightRecordFormat.FLAG_ABSENT, 0, snapshot.timestampNanos);
+            putEmptyPayload();
+            lastLatitude = 0;
+            lastLongitude = 0;
+            return;
+        }
+        long latitude = FlightRecordFormat.toFixedPoint(snapshot.latitude);
+        long longitude = FlightRecordFormat.toFixedPoint(snapshot.longitude);
+        putHeader(TelemetryChannelId.LOCATION, 0, 0, snapshot.timestampNanos);
+        writeBuffer.putInt((int) (latitude - lastLatitude))
+                .putInt((int) (longitude - lastLongitude))
+                .putDouble(snapshot.locationAltitude);
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+    }
+
+    private void putHomeLocation(TelemetrySnapshot snapshot) throws IOException {
+        if (!snapshot.hasHomeLocation) {
+            putHeader(TelemetryChannelId.HOME_LOCATION, FlightRecordFormat.FLAG_ABSENT, 0, snapshot.timestampNanos);
+            putEmptyPayload();
+            lastHomeLatitude = 0;
+            lastHomeLongitude = 0;
+            return;
+        }
+        long latitude = FlightRecordFormat.toFixedPoint(snapshot.homeLatitude);
+        long longitude = FlightRecordFormat.toFixedPoint(snapshot.homeLongitude);
+        putHeader(TelemetryChannelId.HOME_LOCATION, 0, 0, snapshot.timestampNanos);
+        writeBuffer.putInt((int) (latitude - lastHomeLatitude))
+                .putInt((int) (longitude - lastHomeLongitude))
+                .putLong(0L);
+        lastHomeLatitude = latitude;
+        lastHomeLongitude = longitude;
+    }
+
+    private void putEmptyPayload() {
+        writeBuffer.putLong(0L).putLong(0L);
+    }
+
+    /**
+     * Write the common record prefix, preceded by a time sync record if the delta overflows
+     */
+    private void putHeader(int type, int flags, int stringId, long timestampNanos) throws IOException {
+        // Snapshots from different SDK threads may be queued slightly out of time order
+        long nanos = Math.max(timestampNanos, lastRecordNanos);
+        long deltaMicros = (nanos - lastRecordNanos) / 1000L;
+        if (deltaMicros > Integer.MAX_VALUE) {
+            long absoluteMicros = (nanos - startNanos) / 1000L;
+            ensureCapacity(1);
+            writeBuffer.put((byte) FlightRecordFormat.TYPE_TIME_SYNC).put((byte) 0).putShort((short) 0)
+                    .putInt(0)
+                    .putLong(absoluteMicros).putLong(0L);
+            recordCount++;
+            lastRecordNanos = startNanos + absoluteMicros * 1000L;
+            deltaMicros = 0;
+        }
+        // Advance by whole microseconds so rounding never accumulates
+        lastRecordNanos += deltaMicros * 1000L;
+
+        ensureCapacity(1);
+        writeBuffer.put((byte) type).put((byte) flags).putShort((short) stringId).putInt((int) deltaMicros);
+        recordCount++;
+    }
+
+    /**
+     * Id of a string, writing its definition the first time it is seen
+     */
+    private int stringId(String value, long timestampNanos) throws IOException {
+        String key = value != null ? value : "";
+        Integer existing = stringIds.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = stringIds.size();
+        stringIds.put(key, id);
+
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        putHeader(FlightRecordFormat.TYPE_STRING, 0, id, timestampNanos);
+        writeBuffer.putInt(bytes.length).putInt(0).putLong(0L);
+        int padded = (FlightRecordFormat.stringRecordCount(bytes.length) - 1) * FlightRecordFormat.RECORD_SIZE;
+        ensureCapacity(padded / FlightRecordFormat.RECORD_SIZE);
+        writeBuffer.put(bytes);
+        for (int i = bytes.length; i < padded; i++) {
+            writeBuffer.put((byte) 0);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int records) throws IOException {
+        if (writeBuffer.remaining() < records * FlightRecordFormat.RECORD_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            bytesWritten += fileChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void writeHeader(long startEpochMillis, long startNanos) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FlightRecordFormat.HEADER_SIZE).order(FlightRecordFormat.BYTE_ORDER);
+        header.putInt(FlightRecordFormat.MAGIC)
+                .putShort(FlightRecordFormat.VERSION)
+                .putShort((short) FlightRecordFormat.RECORD_SIZE)
+                .putLong(startEpochMillis)
+                .putLong(startNanos)
+                .putLong(0L);
+        header.flip();
+        while (header.hasRemaining()) {
+            bytesWritten += fileChannel.write(header);
+        }
+    }
+
+    private void closeFile() {
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+            if (randomAccessFile != null) {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            if (errorHandler != null) {
+                errorHandler.onRecorderError("Failed to close " + file.getName(), e);
+            }
+        }
+    }
+}
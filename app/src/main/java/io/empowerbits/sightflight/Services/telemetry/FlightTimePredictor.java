@@ -0,0 +1,241 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.util.List;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * FlightTimePredictor - Remaining flight time, return deadline and mission time left
+ *
+ * Combines the battery level and measured drain rate with the distance to home and the
+ * remaining legs of the active mission:
+ * - flight time remaining: battery above RESERVE_BATTERY_PERCENT divided by the drain
+ *   rate; until the drain window covers MIN_DRAIN_WINDOW_SECONDS the nominal pack rate
+ *   is used, early readings are 1% steps over a few seconds
+ * - must return in: flight time remaining minus the time to fly home at RETURN_SPEED
+ *   and descend; at or below zero the aircraft has to turn back now
+ * - mission time remaining: time to the target waypoint plus the precomputed time of
+ *   the remaining legs, plus the return from the last waypoint. Each leg is flown at
+ *   the waypointSpeed of the waypoint it leads to, as written into the KMZ, or the
+ *   template's default speed when the waypoint has none
+ *
+ * Leg times are summed once per mission so every update is constant time. Values
+ * are whole seconds; a channel is reported changed only when its second changes.
+ * Not thread-safe: owned by TelemetryMetricsEngine and serialized with it.
+ */
+public final class FlightTimePredictor {
+
+    /** Battery left on landing, below it the aircraft is considered out of time */
+    public static final double RESERVE_BATTERY_PERCENT = 20.0;
+    /** Drain of a typical pack in flight, used until the measured rate is established */
+    public static final double NOMINAL_DRAIN_PERCENT_PER_MINUTE = 4.0;
+    public static final double MIN_DRAIN_WINDOW_SECONDS = 60.0;
+    public static final double RETURN_SPEED = 10.0; // m/s
+    public static final double DESCENT_SPEED = 3.0; // m/s
+    /** Must-return time at which the operator is warned */
+    public static final double RETURN_WARNING_SECONDS = 60.0;
+
+    // Active mission
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] altitudes;
+    /** Speed of the leg leading to waypoint i */
+    private double[] speeds;
+    /** Flight time from waypoint i to the last waypoint */
+    private double[] remainingLegSeconds;
+    private boolean returnHomeAtEnd;
+    private int targetWaypoint;
+
+    // Return leg from the last waypoint, cached per home position
+    private double returnHomeLatitude = Double.NaN;
+    private double returnHomeLongitude = Double.NaN;
+    private double returnFromLastWaypointSeconds;
+
+    // Results
+    private boolean hasPrediction;
+    private double flightTimeRemaining;
+    private double mustReturnIn;
+    private boolean hasMissionPrediction;
+    private double missionTimeRemaining;
+
+    /**
+     * Start predicting the given mission from its first waypoint
+     * @param defaultSpeed Speed of waypoints without a waypointSpeed in m/s, the
+     *                     template's auto flight speed (KMZTestUtil.DEF_AUTO_FLIGHT_SPEED)
+     * @param returnHomeAtEnd Whether the finish action flies home after the last waypoint
+     */
+    public void setMission(List<WaypointSetting> waypoints, double defaultSpeed, boolean returnHomeAtEnd) {
+        int count = waypoints.size();
+        latitudes = new double[count];
+        longitudes = new double[count];
+        altitudes = new double[count];
+        speeds = new double[count];
+        remainingLegSeconds = new double[count];
+        double fallbackSpeed = defaultSpeed > 0 ? defaultSpeed : RETURN_SPEED;
+        for (int i = 0; i < count; i++) {
+            WaypointSetting waypoint = waypoints.get(i);
+            latitudes[i] = waypoint.latitude != null ? waypoint.latitude : 0.0;
+            longitudes[i] = waypoint.longitude != null ? waypoint.longitude : 0.0;
+            altitudes[i] = waypoint.altitude != null ? waypoint.altitude : 0.0;
+            speeds[i] = waypoint.waypointSpeed != null && waypoint.waypointSpeed > 0
+                    ? waypoint.waypointSpeed : fallbackSpeed;
+        }
+        double[] legs = new double[Math.max(0, count - 1)];
+        Geodesy.legDistances(latitudes, longitudes, legs);
+        for (int i = count - 2; i >= 0; i--) {
+            double vertical = altitudes[i + 1] - altitudes[i];
+            double leg = Math.sqrt(legs[i] * legs[i] + vertical * vertical);
+            remainingLegSeconds[i] = remainingLegSeconds[i + 1] + leg / speeds[i + 1];
+        }
+        this.returnHomeAtEnd = returnHomeAtEnd;
+        targetWaypoint = 0;
+        returnHomeLatitude = Double.NaN;
+        returnHomeLongitude = Double.NaN;
+        hasMissionPrediction = false;
+    }
+
+    /**
+     * The waypoint the aircraft is heading to
+     */
+    public void setTargetWaypoint(int index) {
+        if (latitudes != null) {
+            targetWaypoint = Math.max(0, Math.min(index, latitudes.length));
+        }
+    }
+
+    public void clearMission() {
+        latitudes = null;
+        longitudes = null;
+        altitudes = null;
+        speeds = null;
+        remainingLegSeconds = null;
+        hasMissionPrediction = false;
+    }
+
+    public boolean hasMission() {
+        return latitudes != null && latitudes.length > 0;
+    }
+
+    public void reset() {
+        hasPrediction = false;
+        hasMissionPrediction = false;
+        flightTimeRemaining = 0.0;
+        mustReturnIn = 0.0;
+        missionTimeRemaining = 0.0;
+    }
+
+    /**
+     * Recompute the predictions from the latest snapshot and derived metrics
+     * @param drainWindowSeconds Span the drain rate was measured over
+     * @return Bit mask of the prediction channels whose value changed
+     */
+    public int update(TelemetrySnapshot snapshot, double distanceToHome, boolean hasDistanceToHome,
+                      double drainRate, double drainWindowSeconds) {
+        if (!snapshot.hasReceived(TelemetryChannelId.BATTERY)) {
+            return 0;
+        }
+        int changed = 0;
+
+        double drain = drainWindowSeconds >= MIN_DRAIN_WINDOW_SECONDS && drainRate > 0
+                ? drainRate : NOMINAL_DRAIN_PERCENT_PER_MINUTE;
+        double flightTime = Math.rint(Math.max(0.0, snapshot.batteryPercentage - RESERVE_BATTERY_PERCENT) / drain * 60.0);
+        double timeToHome = (hasDistanceToHome ? distanceToHome / RETURN_SPEED : 0.0)
+                + Math.max(0.0, snapshot.altitude) / DESCENT_SPEED;
+        double returnIn = Math.rint(flightTime - timeToHome);
+
+        if (!hasPrediction || flightTime != flightTimeRemaining) {
+            flightTimeRemaining = flightTime;
+            changed |= TelemetryChannelId.bit(TelemetryChannelId.FLIGHT_TIME_REMAINING);
+        }
+        if (!hasPrediction || returnIn != mustReturnIn) {
+            mustReturnIn = returnIn;
+            changed |= TelemetryChannelId.bit(TelemetryChannelId.RETURN_DEADLINE);
+        }
+        hasPrediction = true;
+
+        if (hasMission() && snapshot.hasLocation) {
+            double missionTime = Math.rint(missionSecondsFrom(snapshot));
+            if (!hasMissionPrediction || missionTime != missionTimeRemaining) {
+                missionTimeRemaining = missionTime;
+                hasMissionPrediction = true;
+                changed |= TelemetryChannelId.bit(TelemetryChannelId.MISSION_TIME_REMAINING);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Seconds until the flight is expected to end: the rest of the mission including the
+     * return home, unless the battery runs out first. Uses the last update's predictions.
+     * @return -1 if there is nothing to predict from yet
+     */
+    public double estimateSecondsToFlightEnd() {
+        if (hasMissionPrediction && hasPrediction) {
+            return Math.min(missionTimeRemaining, flightTimeRemaining);
+        }
+        if (hasMissionPrediction) {
+            return missionTimeRemaining;
+        }
+        return hasPrediction ? flightTimeRemaining : -1;
+    }
+
+    private double missionSecondsFrom(TelemetrySnapshot snapshot) {
+        int last = latitudes.length - 1;
+        double seconds;
+        if (targetWaypoint > last) {
+            seconds = 0.0;
+        } else {
+            double toTarget = distance3d(snapshot.latitude, snapshot.longitude, snapshot.altitude,
+                    latitudes[targetWaypoint], longitudes[targetWaypoint], altitudes[targetWaypoint]);
+            seconds = toTarget / speeds[targetWaypoint] + remainingLegSeconds[targetWaypoint];
+        }
+        if (returnHomeAtEnd) {
+            if (targetWaypoint > last) {
+                // Past the last waypoint, the return is what is left
+                double homeLatitude = snapshot.hasHomeLocation ? snapshot.homeLatitude : latitudes[0];
+                double homeLongitude = snapshot.hasHomeLocation ? snapshot.homeLongitude : longitudes[0];
+                seconds += Geodesy.haversine(snapshot.latitude, snapshot.longitude, homeLatitude, homeLongitude) / RETURN_SPEED
+                        + Math.max(0.0, snapshot.altitude) / DESCENT_SPEED;
+            } else {
+                seconds += returnFromLastWaypoint(snapshot);
+            }
+        }
+        return seconds;
+    }
+
+    private double returnFromLastWaypoint(TelemetrySnapshot snapshot) {
+        double homeLatitude = snapshot.hasHomeLocation ? snapshot.homeLatitude : latitudes[0];
+        double homeLongitude = snapshot.hasHomeLocation ? snapshot.homeLongitude : longitudes[0];
+        if (homeLatitude != returnHomeLatitude || homeLongitude != returnHomeLongitude) {
+            int last = latitudes.length - 1;
+            returnHomeLatitude = homeLatitude;
+            returnHomeLongitude = homeLongitude;
+            returnFromLastWaypointSeconds = Geodesy.haversine(latitudes[last], longitudes[last], homeLatitude, homeLongitude)
+                    / RETURN_SPEED + Math.max(0.0, altitudes[last]) / DESCENT_SPEED;
+        }
+        return returnFromLastWaypointSeconds;
+    }
+
+    private static double distance3d(double lat1, double lon1, double alt1, double lat2, double lon2, double alt2) {
+        double horizontal = Geodesy.haversine(lat1, lon1, lat2, lon2);
+        double vertical = alt2 - alt1;
+        return Math.sqrt(horizontal * horizontal + vertical * vertical);
+    }
+
+    public boolean hasPrediction() {
+        return hasPrediction;
+    }
+
+    public double getFlightTimeRemaining() {
+        return flightTimeRemaining;
+    }
+
+    public double getMustReturnIn() {
+        return mustReturnIn;
+    }
+
+    public double getMissionTimeRemaining() {
+        return missionTimeRemaining;
+    }
+}
@@ -0,0 +1,80 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * ReplayTelemetrySource - TelemetrySource that plays a recorded flight file
+ */
+public final class ReplayTelemetrySource implements TelemetrySource {
+
+    private final File file;
+    private final double speed;
+    private volatile TelemetryReplay replay;
+
+    /**
+     * @param speed Playback speed factor, 1 for real time or TelemetryReplay.MAX_SPEED
+     */
+    public ReplayTelemetrySource(File file, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public String getName() {
+        return "replay of " + file.getName() + " at " + (speed == TelemetryReplay.MAX_SPEED ? "max" : speed + "x") + " speed";
+    }
+
+    @Override
+    public synchronized void start(TelemetrySink sink, Listener listener) throws IOException {
+        if (replay != null) {
+            throw new IllegalStateException("Replay source already started");
+        }
+        TelemetryReplay newReplay = new TelemetryReplay(file, speed, sink, new TelemetryReplay.Listener() {
+            @Override
+            public void onReplayFinished(TelemetryReplay replay, boolean stopped) {
+                if (!stopped && listener != null) {
+                    listener.onSourceFinished(ReplayTelemetrySource.this, null);
+                }
+            }
+
+            @Override
+            public void onReplayFailed(TelemetryReplay replay, Exception e) {
+                if (listener != null) {
+                    listener.onSourceFinished(ReplayTelemetrySource.this, e);
+                }
+            }
+        });
+        newReplay.start();
+        replay = newReplay;
+    }
+
+    @Override
+    public void requestCurrentValues() {
+        // Every recorded value is pushed as it is played
+    }
+
+    @Override
+    public void stop() {
+        TelemetryReplay current = replay;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getDeliveredCount() {
+        TelemetryReplay current = replay;
+        return current != null ? current.getDeliveredCount() : 0;
+    }
+}
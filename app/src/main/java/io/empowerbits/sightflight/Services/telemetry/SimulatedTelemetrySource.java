@@ -0,0 +1,286 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * SimulatedTelemetrySource - Kinematic aircraft that flies a waypoint mission
+ *
+ * The aircraft takes off vertically at the first waypoint, climbs to its altitude, flies
+ * straight 3D legs through the remaining waypoints at a constant speed and hovers at the
+ * last one, which ends the source. Every tick delivers location, altitude, velocity and
+ * heading; the battery drains linearly with flight time. Values follow the DJI SDK
+ * conventions so consumers cannot tell the difference: vertical velocity is the NED
+ * z component (negative while climbing), heading is -180..180 degrees from north.
+ *
+ * start() flies on its own thread paced by the time scale; simulate() flies the whole
+ * mission on the calling thread with no pacing, for tests and benchmarks. Neither
+ * allocates per tick.
+ */
+public final class SimulatedTelemetrySource implements TelemetrySource {
+
+    /**
+     * Fly without pacing
+     */
+    public static final double MAX_TIME_SCALE = Double.POSITIVE_INFINITY;
+
+    public static final double DEFAULT_TICK_RATE_HZ = 10.0;
+
+    // Simulated aircraft
+    private static final double TAKE_OFF_CLIMB_SPEED = 3.0; // m/s
+    private static final double BATTERY_DRAIN_PERCENT_PER_SECOND = 100.0 / (25 * 60); // 25 minute flight
+    private static final int GPS_SIGNAL_LEVEL = 5;
+    private static final int SATELLITE_COUNT = 18;
+    private static final int LINK_SIGNAL_QUALITY = 100;
+
+    // DJI FlightMode names reported for each phase
+    public static final String FLIGHT_MODE_TAKE_OFF = "AUTO_TAKE_OFF";
+    public static final String FLIGHT_MODE_MISSION = "WAYPOINT";
+    public static final String FLIGHT_MODE_HOVER = "GPS_NORMAL";
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] altitudes;
+    private final double flightSpeed;
+    private final double tickRateHz;
+    private final double timeScale;
+
+    private volatile boolean stopRequested;
+    private volatile long tickCount;
+    private Thread flightThread;
+
+    // Flight state, simulation thread only
+    private TelemetrySink sink;
+    private boolean paced;
+    private long startNanos;
+    private long ticks;
+    private double latitude;
+    private double longitude;
+    private double altitude;
+    private double heading;
+    private double flightSeconds;
+    private int batteryPercentage;
+
+    /**
+     * Real-time flight at the default tick rate
+     * @param flightSpeed Mission speed in m/s, usually MissionSetting.autoFlighSpeed
+     */
+    public SimulatedTelemetrySource(List<WaypointSetting> waypoints, double flightSpeed) {
+        this(waypoints, flightSpeed, DEFAULT_TICK_RATE_HZ, 1.0);
+    }
+
+    /**
+     * @param flightSpeed Mission speed in m/s, usually MissionSetting.autoFlighSpeed
+     * @param tickRateHz Updates per simulated second
+     * @param timeScale 1 for real time, N for N times faster or MAX_TIME_SCALE
+     */
+    public SimulatedTelemetrySource(List<WaypointSetting> waypoints, double flightSpeed,
+                                    double tickRateHz, double timeScale) {
+        if (waypoints == null || waypoints.isEmpty()) {
+            throw new IllegalArgumentException("Simulated mission needs at least one waypoint");
+        }
+        if (!(flightSpeed > 0) || !(tickRateHz > 0) || !(timeScale > 0)) {
+            throw new IllegalArgumentException("Speed, tick rate and time scale must be positive");
+        }
+        int count = waypoints.size();
+        latitudes = new double[count];
+        longitudes = new double[count];
+        altitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            WaypointSetting waypoint = waypoints.get(i);
+            if (waypoint.latitude == null || waypoint.longitude == null) {
+                throw new IllegalArgumentException("Waypoint " + i + " has no coordinates");
+            }
+            latitudes[i] = waypoint.latitude;
+            longitudes[i] = waypoint.longitude;
+            altitudes[i] = waypoint.altitude != null ? waypoint.altitude : 0.0;
+        }
+        this.flightSpeed = flightSpeed;
+        this.tickRateHz = tickRateHz;
+        this.timeScale = timeScale;
+    }
+
+    @Override
+    public String getName() {
+        return "simulated mission of " + latitudes.length + " waypoints at " + flightSpeed + " m/s";
+    }
+
+    @Override
+    public synchronized void start(TelemetrySink sink, Listener listener) {
+        if (flightThread != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        flightThread = new Thread(() -> {
+            try {
+                fly(sink, true);
+                if (!stopRequested && listener != null) {
+                    listener.onSourceFinished(this, null);
+                }
+            } catch (RuntimeException e) {
+                if (listener != null) {
+                    listener.onSourceFinished(this, e);
+                }
+            }
+        }, "SimulatedTelemetry");
+        flightThread.setDaemon(true);
+        flightThread.start();
+    }
+
+    /**
+     * Fly the whole mission on the calling thread without pacing
+     * @return Number of ticks delivered
+     */
+    public long simulate(TelemetrySink sink) {
+        synchronized (this) {
+            if (flightThread != null) {
+                throw new IllegalStateException("Simulation already started");
+            }
+        }
+        fly(sink, false);
+        return ticks;
+    }
+
+    @Override
+    public void requestCurrentValues() {
+        // Every value is pushed on each tick
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+        Thread thread;
+        synchronized (this) {
+            thread = flightThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean awaitFinished(long timeoutMs) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = flightThread;
+        }
+        if (thread == null) {
+            return true;
+        }
+        thread.join(timeoutMs);
+        return !thread.isAlive();
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public int getWaypointCount() {
+        return latitudes.length;
+    }
+
+    private void fly(TelemetrySink sink, boolean paced) {
+        this.sink = sink;
+        this.paced = paced && timeScale != MAX_TIME_SCALE;
+        startNanos = System.nanoTime();
+        ticks = 0;
+        latitude = latitudes[0];
+        longitude = longitudes[0];
+        altitude = 0.0;
+        heading = 0.0;
+        flightSeconds = 0.0;
+        batteryPercentage = 100;
+
+        sink.onFlightMode(FLIGHT_MODE_TAKE_OFF);
+        sink.onGpsSignalLevel(GPS_SIGNAL_LEVEL);
+        sink.onSatelliteCount(SATELLITE_COUNT);
+        sink.onLinkSignalQuality(LINK_SIGNAL_QUALITY);
+        sink.onBatteryPercentage(batteryPercentage);
+        sink.onHomeLocation(latitude, longitude);
+        sink.onHeading(heading);
+        sink.onVelocity(0.0, 0.0);
+        sink.onAltitude(altitude);
+        sink.onLocation(latitude, longitude, altitude);
+
+        double step = 1.0 / tickRateHz;
+
+        // Vertical take off to the first waypoint
+        while (!stopRequested && altitude < altitudes[0]) {
+            altitude = Math.min(altitude + TAKE_OFF_CLIMB_SPEED * step, altitudes[0]);
+            tick(step, 0.0, -TAKE_OFF_CLIMB_SPEED);
+        }
+
+        if (!stopRequested && latitudes.length > 1) {
+            sink.onFlightMode(FLIGHT_MODE_MISSION);
+        }
+        for (int i = 1; i < latitudes.length && !stopRequested; i++) {
+            flyLeg(i, step);
+        }
+
+        if (!stopRequested) {
+            sink.onFlightMode(FLIGHT_MODE_HOVER);
+            sink.onVelocity(0.0, 0.0);
+        }
+        this.sink = null;
+    }
+
+    /**
+     * Straight line from the current position to waypoint index, short enough legs
+     * for a local flat-earth approximation
+     */
+    private void flyLeg(int index, double step) {
+        double startLatitude = latitude;
+        double startLongitude = longitude;
+        double startAltitude = altitude;
+        double north = (latitudes[index] - startLatitude) * Geodesy.METERS_PER_DEGREE;
+        double east = (longitudes[index] - startLongitude) * Geodesy.METERS_PER_DEGREE
+                * Math.cos(Math.toRadians(startLatitude));
+        double up = altitudes[index] - startAltitude;
+        double horizontal = Math.sqrt(north * north + east * east);
+        double length = Math.sqrt(horizontal * horizontal + up * up);
+        if (length < 1e-3) {
+            return;
+        }
+        if (horizontal > 1e-3) {
+            heading = Math.toDegrees(Math.atan2(east, north));
+        }
+        double horizontalVelocity = flightSpeed * horizontal / length;
+        double verticalVelocity = -flightSpeed * up / length;
+
+        double travelled = 0.0;
+        while (!stopRequested && travelled < length) {
+            travelled = Math.min(travelled + flightSpeed * step, length);
+            double fraction = travelled / length;
+            latitude = startLatitude + (latitudes[index] - startLatitude) * fraction;
+            longitude = startLongitude + (longitudes[index] - startLongitude) * fraction;
+            altitude = startAltitude + up * fraction;
+            tick(step, horizontalVelocity, verticalVelocity);
+        }
+    }
+
+    private void tick(double step, double horizontalVelocity, double verticalVelocity) {
+        ticks++;
+        tickCount = ticks;
+        if (paced) {
+            waitUntil(startNanos + (long) (ticks * 1e9 / (tickRateHz * timeScale)));
+        }
+        flightSeconds += step;
+        int battery = Math.max(0, (int) Math.ceil(100.0 - flightSeconds * BATTERY_DRAIN_PERCENT_PER_SECOND));
+        if (battery != batteryPercentage) {
+            batteryPercentage = battery;
+            sink.onBatteryPercentage(battery);
+        }
+        sink.onVelocity(horizontalVelocity, verticalVelocity);
+        sink.onHeading(heading);
+        sink.onAltitude(altitude);
+        sink.onLocation(latitude, longitude, altitude);
+    }
+
+    private void waitUntil(long targetNanos) {
+        long remaining;
+        while (!stopRequested && (remaining = targetNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+}
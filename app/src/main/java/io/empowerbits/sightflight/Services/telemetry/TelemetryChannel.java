@@ -0,0 +1,319 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * TelemetryChannel - Typed subscriber list for a single telemetry value
+ *
+ * One channel exists per value TelemetryService publishes (altitude, location, ...).
+ * Registration is copy-on-write, so publishing iterates a stable snapshot without
+ * locking and subscribers may add or remove themselves from inside a callback.
+ *
+ * A failing subscriber is reported and skipped, it never prevents delivery to the
+ * remaining subscribers of the same channel.
+ *
+ * A subscriber may register with a TelemetryRate. Its deliveries then pass a gate that
+ * remembers the last value and time delivered to it: updates below the change threshold
+ * are skipped, updates arriving too soon are held and reported through the publish
+ * result so the owner can deliver them once due. admit() applies the same gate from the
+ * SDK callback thread, so an update no subscriber wants never reaches the main thread.
+ *
+ * @param <L> Listener interface of this channel
+ */
+public final class TelemetryChannel<L> {
+
+    /**
+     * Publish result when no update was held back by a rate limit
+     */
+    public static final long NOTHING_HELD = Long.MAX_VALUE;
+
+    /**
+     * Delivers one published value to one subscriber
+     */
+    public interface Delivery<L> {
+        void deliver(L listener);
+    }
+
+    /**
+     * Receives subscriber failures so the channel stays free of Android logging
+     */
+    public interface ErrorHandler {
+        void onSubscriberError(String channelName, Exception e);
+    }
+
+    /**
+     * Last delivery to one rate-limited subscriber for one channel id. Written on the
+     * delivering thread; admit() reads it from callback threads, a stale read at worst
+     * lets one extra update through to the delivering thread, which checks again.
+     */
+    private static final class RateGate {
+        volatile boolean delivered;
+        volatile long lastDeliveredNanos;
+        volatile boolean pending;
+        volatile boolean lastPresent;
+        volatile double lastValue;
+        volatile double lastLatitude;
+        volatile double lastLongitude;
+    }
+
+    private static final class Subscription<L> {
+        final L listener;
+        volatile TelemetryRate rate;
+        // Indexed by TelemetryChannelId, created on first use; a channel may carry more than one id
+        private final RateGate[] gates = new RateGate[TelemetryChannelId.COUNT];
+
+        Subscription(L listener, TelemetryRate rate) {
+            this.listener = listener;
+            this.rate = rate;
+        }
+
+        synchronized RateGate gate(int channelId) {
+            RateGate gate = gates[channelId];
+            if (gate == null) {
+                gate = new RateGate();
+                gates[channelId] = gate;
+            }
+            return gate;
+        }
+
+        synchronized void resetGates() {
+            for (int i = 0; i < gates.length; i++) {
+                gates[i] = null;
+            }
+        }
+    }
+
+    private final String name;
+    private final ErrorHandler errorHandler;
+    private final CopyOnWriteArrayList<Subscription<L>> subscribers = new CopyOnWriteArrayList<>();
+
+    public TelemetryChannel(String name, ErrorHandler errorHandler) {
+        this.name = name;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Register a subscriber for every update, registering the same instance twice is a no-op
+     * @return true if the subscriber was added
+     */
+    public boolean subscribe(L listener) {
+        return subscribe(listener, null);
+    }
+
+    /**
+     * Register a subscriber with a delivery rate; registering a subscriber again replaces
+     * its rate, and its next update is delivered without waiting
+     * @param rate Rate limit, null or TelemetryRate.UNLIMITED for every update
+     * @return true if the subscriber was added, false if it was already registered
+     */
+    public synchronized boolean subscribe(L listener, TelemetryRate rate) {
+        if (listener == null) {
+            return false;
+        }
+        Subscription<L> existing = find(listener);
+        if (existing != null) {
+            if (rate != null || existing.rate != null) {
+                existing.rate = rate;
+                existing.resetGates();
+            }
+            return false;
+        }
+        return subscribers.add(new Subscription<>(listener, rate));
+    }
+
+    /**
+     * Remove a subscriber
+     * @return true if the subscriber was registered
+     */
+    public synchronized boolean unsubscribe(L listener) {
+        Subscription<L> existing = listener != null ? find(listener) : null;
+        return existing != null && subscribers.remove(existing);
+    }
+
+    private Subscription<L> find(L listener) {
+        for (Subscription<L> subscription : subscribers) {
+            if (subscription.listener.equals(listener)) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Fan a value out to every current subscriber, ignoring rate limits
+     */
+    public void publish(Delivery<L> delivery) {
+        for (Subscription<L> subscription : subscribers) {
+            deliver(subscription, delivery);
+        }
+    }
+
+    /**
+     * Fan the channel's value in the snapshot out to every subscriber whose rate admits it
+     * @param channelId TelemetryChannelId of the value being published
+     * @param heldOnly Deliver only updates previously held back by a rate limit
+     * @return Earliest System.nanoTime() at which a held update is due, or NOTHING_HELD
+     */
+    public long publish(int channelId, TelemetrySnapshot snapshot, long nowNanos,
+                        boolean heldOnly, Delivery<L> delivery) {
+        long nextDue = NOTHING_HELD;
+        for (Subscription<L> subscription : subscribers) {
+            TelemetryRate rate = subscription.rate;
+            if (rate == null || rate.isUnlimited()) {
+                if (!heldOnly) {
+                    deliver(subscription, delivery);
+                }
+                continue;
+            }
+            RateGate gate = subscription.gate(channelId);
+            if (heldOnly && !gate.pending) {
+                continue;
+            }
+            if (gate.delivered && !changedEnough(gate, channelId, snapshot, rate.minChange)) {
+                gate.pending = false;
+                continue;
+            }
+            long due = gate.lastDeliveredNanos + rate.getMinIntervalNanos();
+            if (gate.delivered && nowNanos - due < 0) {
+                gate.pending = true;
+                nextDue = Math.min(nextDue, due);
+                continue;
+            }
+            remember(gate, channelId, snapshot, nowNanos);
+            deliver(subscription, delivery);
+        }
+        return nextDue;
+    }
+
+    /**
+     * Whether an update should be queued for delivery at all, callable from any thread.
+     * When every subscriber is rate limited and none is due, the update is marked held on
+     * the subscribers it changed enough for and false is returned; getNextDueNanos() then
+     * tells when to publish the held updates.
+     */
+    public boolean admit(int channelId, TelemetrySnapshot snapshot, long nowNanos) {
+        boolean admitted = false;
+        for (Subscription<L> subscription : subscribers) {
+            TelemetryRate rate = subscription.rate;
+            if (rate == null || rate.isUnlimited()) {
+                return true;
+            }
+            RateGate gate = subscription.gate(channelId);
+            if (!gate.delivered) {
+                return true;
+            }
+            if (!changedEnough(gate, channelId, snapshot, rate.minChange)) {
+                continue;
+            }
+            if (nowNanos - (gate.lastDeliveredNanos + rate.getMinIntervalNanos()) >= 0) {
+                admitted = true;
+            } else {
+                gate.pending = true;
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Earliest System.nanoTime() at which an update held for a subscriber is due
+     * @return NOTHING_HELD if no update is held
+     */
+    public long getNextDueNanos(int channelId) {
+        long nextDue = NOTHING_HELD;
+        for (Subscription<L> subscription : subscribers) {
+            TelemetryRate rate = subscription.rate;
+            if (rate == null || rate.isUnlimited()) {
+                continue;
+            }
+            RateGate gate = subscription.gate(channelId);
+            if (gate.pending) {
+                nextDue = Math.min(nextDue, gate.lastDeliveredNanos + rate.getMinIntervalNanos());
+            }
+        }
+        return nextDue;
+    }
+
+    private void deliver(Subscription<L> subscription, Delivery<L> delivery) {
+        try {
+            delivery.deliver(subscription.listener);
+        } catch (Exception e) {
+            if (errorHandler != null) {
+                errorHandler.onSubscriberError(name, e);
+            }
+        }
+    }
+
+    /**
+     * Whether the value moved at least minChange from the one last delivered: meters for
+     * positions, the channel unit otherwise; text channels always count as changed
+     */
+    private static boolean changedEnough(RateGate gate, int channelId, TelemetrySnapshot snapshot, double minChange) {
+        if (minChange <= 0) {
+            return true;
+        }
+        switch (channelId) {
+            case TelemetryChannelId.FLIGHT_MODE:
+                return true;
+            case TelemetryChannelId.HEADING:
+                double turn = Math.abs(snapshot.heading - gate.lastValue) % 360.0;
+                return Math.min(turn, 360.0 - turn) >= minChange;
+            case TelemetryChannelId.LOCATION:
+                if (snapshot.hasLocation != gate.lastPresent) {
+                    return true;
+                }
+                return snapshot.hasLocation
+                        && (Geodesy.equirectangular(gate.lastLatitude, gate.lastLongitude, snapshot.latitude, snapshot.longitude) >= minChange
+                        || Math.abs(snapshot.locationAltitude - gate.lastValue) >= minChange);
+            case TelemetryChannelId.HOME_LOCATION:
+                if (snapshot.hasHomeLocation != gate.lastPresent) {
+                    return true;
+                }
+                return snapshot.hasHomeLocation
+                        && Geodesy.equirectangular(gate.lastLatitude, gate.lastLongitude, snapshot.homeLatitude, snapshot.homeLongitude) >= minChange;
+            default:
+                return Math.abs(snapshot.getValue(channelId) - gate.lastValue) >= minChange;
+        }
+    }
+
+    private static void remember(RateGate gate, int channelId, TelemetrySnapshot snapshot, long nowNanos) {
+        switch (channelId) {
+            case TelemetryChannelId.FLIGHT_MODE:
+                break;
+            case TelemetryChannelId.LOCATION:
+                gate.lastPresent = snapshot.hasLocation;
+                gate.lastLatitude = snapshot.latitude;
+                gate.lastLongitude = snapshot.longitude;
+                gate.lastValue = snapshot.locationAltitude;
+                break;
+            case TelemetryChannelId.HOME_LOCATION:
+                gate.lastPresent = snapshot.hasHomeLocation;
+                gate.lastLatitude = snapshot.homeLatitude;
+                gate.lastLongitude = snapshot.homeLongitude;
+                break;
+            default:
+                gate.lastValue = snapshot.getValue(channelId);
+                break;
+        }
+        gate.pending = false;
+        gate.lastDeliveredNanos = nowNanos;
+        gate.delivered = true;
+    }
+
+    public void clear() {
+        subscribers.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
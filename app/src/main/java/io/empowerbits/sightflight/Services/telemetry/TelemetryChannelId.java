@@ -0,0 +1,73 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+/**
+ * TelemetryChannelId - Stable numeric ids for every telemetry channel
+ *
+ * Ids are dense (0..COUNT-1) so pipeline stages can keep per-channel state in
+ * plain arrays and describe a set of changed channels as a single int bit mask.
+ *
+ * Ids from FIRST_DERIVED on are derived channels computed from the others by
+ * TelemetryMetricsEngine; they are never recorded, a replay recomputes them.
+ */
+public final class TelemetryChannelId {
+    public static final int FLIGHT_MODE = 0;
+    public static final int GPS_SIGNAL = 1;
+    public static final int SATELLITE_COUNT = 2;
+    public static final int LINK_SIGNAL = 3;
+    public static final int BATTERY = 4;
+    public static final int ALTITUDE = 5;
+    public static final int HORIZONTAL_VELOCITY = 6;
+    public static final int VERTICAL_VELOCITY = 7;
+    public static final int LOCATION = 8;
+    public static final int HOME_LOCATION = 9;
+    public static final int HEADING = 10;
+
+    // Derived channels
+    public static final int DISTANCE_TO_HOME = 11;
+    public static final int CLIMB_RATE = 12;
+    public static final int GROUND_SPEED = 13;
+    public static final int BATTERY_DRAIN_RATE = 14;
+    public static final int DISTANCE_FLOWN = 15;
+    public static final int FLIGHT_TIME_REMAINING = 16;
+    public static final int RETURN_DEADLINE = 17;
+    public static final int MISSION_TIME_REMAINING = 18;
+
+    public static final int FIRST_DERIVED = DISTANCE_TO_HOME;
+    public static final int COUNT = 19;
+
+    private static final String[] NAMES = {
+            "flightMode",
+            "gpsSignal",
+            "satelliteCount",
+            "linkSignal",
+            "battery",
+            "altitude",
+            "horizontalVelocity",
+            "verticalVelocity",
+            "location",
+            "homeLocation",
+            "heading",
+            "distanceToHome",
+            "climbRate",
+            "groundSpeed",
+            "batteryDrainRate",
+            "distanceFlown",
+            "flightTimeRemaining",
+            "returnDeadline",
+            "missionTimeRemaining"
+    };
+
+    private TelemetryChannelId() {}
+
+    public static String name(int channelId) {
+        return channelId >= 0 && channelId < COUNT ? NAMES[channelId] : "unknown(" + channelId + ")";
+    }
+
+    public static int bit(int channelId) {
+        return 1 << channelId;
+    }
+
+    public static boolean isDerived(int channelId) {
+        return channelId >= FIRST_DERIVED;
+    }
+}
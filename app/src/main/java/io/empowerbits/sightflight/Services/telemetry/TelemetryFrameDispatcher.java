@@ -0,0 +1,123 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TelemetryFrameDispatcher - Coalesces telemetry updates into one delivery per display frame
+ *
+ * SDK callback threads only mark a channel as changed; the values themselves live in the
+ * TelemetrySnapshotStore, so nothing is copied or posted per value. The first mark after a
+ * frame schedules a single Choreographer frame callback (one Handler message at most per
+ * frame), and on vsync the frame listener receives the mask of every channel that changed
+ * since the previous frame and reads the newest values from one snapshot. Updates
+ * superseded before the frame fires are counted as coalesced.
+ *
+ * The frame listener always runs on the main thread.
+ */
+public final class TelemetryFrameDispatcher implements Choreographer.FrameCallback {
+
+    /**
+     * Called once per dispatched frame with the channels changed since the previous one
+     */
+    public interface FrameListener {
+        void onTelemetryFrame(int changedChannels, long frameTimeNanos);
+    }
+
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger pendingChannels = new AtomicInteger();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+
+    // Statistics
+    private final AtomicLong offeredCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong frameCount = new AtomicLong();
+
+    private volatile FrameListener frameListener;
+
+    // Main thread only
+    private Choreographer choreographer;
+
+    private final Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (choreographer == null) {
+                choreographer = Choreographer.getInstance();
+            }
+            choreographer.postFrameCallback(TelemetryFrameDispatcher.this);
+        }
+    };
+
+    public void setFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Mark a channel as changed, callable from any thread
+     */
+    public void offer(int channelId) {
+        offeredCount.incrementAndGet();
+
+        int bit = TelemetryChannelId.bit(channelId);
+        int previous;
+        do {
+            previous = pendingChannels.get();
+        } while (!pendingChannels.compareAndSet(previous, previous | bit));
+
+        if ((previous & bit) != 0) {
+            // The previous update never reached the UI
+            coalescedCount.incrementAndGet();
+        }
+
+        if (frameScheduled.compareAndSet(false, true)) {
+            uiHandler.post(scheduleFrame);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled.set(false);
+        int changed = pendingChannels.getAndSet(0);
+        if (changed == 0) {
+            return;
+        }
+        frameCount.incrementAndGet();
+
+        FrameListener listener = frameListener;
+        if (listener != null) {
+            listener.onTelemetryFrame(changed, frameTimeNanos);
+        }
+    }
+
+    /**
+     * Drop pending changes and any scheduled frame, must be called on the main thread
+     */
+    public void cancel() {
+        uiHandler.removeCallbacks(scheduleFrame);
+        if (choreographer != null) {
+            choreographer.removeFrameCallback(this);
+        }
+        pendingChannels.set(0);
+        frameScheduled.set(false);
+    }
+
+    public long getOfferedCount() {
+        return offeredCount.get();
+    }
+
+    /**
+     * Number of updates superseded by a newer one before they were delivered
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+}
@@ -0,0 +1,155 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TelemetryLatencyMonitor - How stale each telemetry value is when the UI shows it
+ *
+ * Every sample is timestamped three times:
+ * - sample: when the source delivered it, the KeyManager callback for the aircraft
+ *   (the snapshot timestamp)
+ * - dispatch: when the frame delivering it to subscribers started on the main thread
+ * - view: when a display manager applied it to a view
+ *
+ * Per channel, sample to dispatch and sample to view latencies go into lock-free
+ * LatencyHistograms. With frame coalescing and rate limits, the value delivered is the
+ * newest sample of its channel, so the latency is measured from that sample.
+ *
+ * onSample() runs on the callback threads; onDispatched() and onViewApplied() on the
+ * main thread.
+ */
+public final class TelemetryLatencyMonitor {
+
+    private final AtomicLongArray sampleNanos = new AtomicLongArray(TelemetryChannelId.COUNT);
+    private final AtomicLongArray dispatchedSampleNanos = new AtomicLongArray(TelemetryChannelId.COUNT);
+    private final LatencyHistogram[] dispatchLatency = new LatencyHistogram[TelemetryChannelId.COUNT];
+    private final LatencyHistogram[] viewLatency = new LatencyHistogram[TelemetryChannelId.COUNT];
+    private volatile boolean enabled = true;
+    private volatile long startedNanos = System.nanoTime();
+
+    public TelemetryLatencyMonitor() {
+        for (int i = 0; i < TelemetryChannelId.COUNT; i++) {
+            dispatchLatency[i] = new LatencyHistogram();
+            viewLatency[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * A source published a sample of the channel
+     */
+    public void onSample(int channelId, long sampleTimeNanos) {
+        if (enabled) {
+            sampleNanos.set(channelId, sampleTimeNanos);
+        }
+    }
+
+    /**
+     * A frame started delivering the newest sample of every channel in the mask
+     */
+    public void onDispatched(int channelMask, long nowNanos) {
+        if (!enabled) {
+            return;
+        }
+        int remaining = channelMask;
+        while (remaining != 0) {
+            int channelId = Integer.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            long sample = sampleNanos.get(channelId);
+            if (sample != 0L) {
+                dispatchedSampleNanos.set(channelId, sample);
+                dispatchLatency[channelId].record(nowNanos - sample);
+            }
+        }
+    }
+
+    /**
+     * A view now shows the channel's most recently dispatched value
+     */
+    public void onViewApplied(int channelId, long nowNanos) {
+        if (!enabled) {
+            return;
+        }
+        long sample = dispatchedSampleNanos.get(channelId);
+        if (sample != 0L) {
+            viewLatency[channelId].record(nowNanos - sample);
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LatencyHistogram getDispatchLatency(int channelId) {
+        return dispatchLatency[channelId];
+    }
+
+    public LatencyHistogram getViewLatency(int channelId) {
+        return viewLatency[channelId];
+    }
+
+    public void reset() {
+        for (int i = 0; i < TelemetryChannelId.COUNT; i++) {
+            sampleNanos.set(i, 0L);
+            dispatchedSampleNanos.set(i, 0L);
+            dispatchLatency[i].reset();
+            viewLatency[i].reset();
+        }
+        startedNanos = System.nanoTime();
+    }
+
+    /**
+     * One line per channel with samples: count, p50, p99 and max in milliseconds for
+     * sample to dispatch and sample to view
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "Telemetry latency over %.0f s (ms)%n",
+                (System.nanoTime() - startedNanos) / 1e9));
+        report.append(String.format(Locale.US, "%-20s %8s %7s %7s %7s   %8s %7s %7s %7s%n",
+                "channel", "dispatch", "p50", "p99", "max", "view", "p50", "p99", "max"));
+        for (int i = 0; i < TelemetryChannelId.COUNT; i++) {
+            LatencyHistogram dispatch = dispatchLatency[i];
+            LatencyHistogram view = viewLatency[i];
+            if (dispatch.getCount() == 0 && view.getCount() == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.US, "%-20s %8d %7.1f %7.1f %7.1f   %8d %7.1f %7.1f %7.1f%n",
+                    TelemetryChannelId.name(i),
+                    dispatch.getCount(), millis(dispatch.getPercentileNanos(50)),
+                    millis(dispatch.getPercentileNanos(99)), millis(dispatch.getMaxNanos()),
+                    view.getCount(), millis(view.getPercentileNanos(50)),
+                    millis(view.getPercentileNanos(99)), millis(view.getMaxNanos())));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Compact sample to view summary of the given channels, falling back to sample to
+     * dispatch for a channel no view reports, for an on-screen overlay
+     */
+    public String summary(int... channelIds) {
+        StringBuilder summary = new StringBuilder();
+        for (int channelId : channelIds) {
+            LatencyHistogram histogram = viewLatency[channelId].getCount() > 0
+                    ? viewLatency[channelId] : dispatchLatency[channelId];
+            if (summary.length() > 0) {
+                summary.append('\n');
+            }
+            summary.append(String.format(Locale.US, "%-12s p50 %5.1f  p99 %5.1f  max %6.1f ms",
+                    TelemetryChannelId.name(channelId),
+                    millis(histogram.getPercentileNanos(50)),
+                    millis(histogram.getPercentileNanos(99)),
+                    millis(histogram.getMaxNanos())));
+        }
+        return summary.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
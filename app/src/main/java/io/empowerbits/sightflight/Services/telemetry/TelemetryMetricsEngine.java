@@ -0,0 +1,275 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * TelemetryMetricsEngine - Incremental derived metrics over the telemetry stream
+ *
+ * Each published snapshot is folded into the metrics in constant time with no
+ * allocation:
+ * - distance to home: one haversine per location or home update, against the aircraft
+ *   home point or an explicit home override (the operator or mission home)
+ * - climb rate and ground speed: exponential smoothing of the velocity samples, with
+ *   the smoothing factor derived from the time between samples so irregular callback
+ *   rates do not change the time constant
+ * - battery drain rate: percentage used per minute across a sliding window of battery
+ *   samples held in a fixed ring
+ * - distance flown: sum of the steps between location fixes, counting a step only once
+ *   the aircraft has moved MIN_FLOWN_STEP_METERS so GPS jitter while hovering is ignored
+ * - flight time, return deadline and mission time remaining, from FlightTimePredictor
+ *   fed with the metrics above after every update
+ *
+ * Time comes from the snapshot timestamps, so a replay played faster than real time
+ * produces proportionally higher rates. Not thread-safe: callers serialize access.
+ */
+public final class TelemetryMetricsEngine {
+
+    /** Smoothing time constant of climb rate and ground speed */
+    public static final double SMOOTHING_TIME_CONSTANT_SECONDS = 1.0;
+    /** Span of battery samples the drain rate is measured across */
+    public static final double BATTERY_WINDOW_SECONDS = 120.0;
+    /** Movement below this between fixes is not added to the distance flown */
+    public static final double MIN_FLOWN_STEP_METERS = 1.0;
+    /** Larger jumps between fixes are position glitches, not flight */
+    public static final double MAX_FLOWN_STEP_METERS = 500.0;
+
+    private static final int BATTERY_RING_CAPACITY = 64;
+    private static final int LOCATION_BIT = TelemetryChannelId.bit(TelemetryChannelId.LOCATION);
+    private static final int HOME_BIT = TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION);
+    private static final int VELOCITY_BITS = TelemetryChannelId.bit(TelemetryChannelId.HORIZONTAL_VELOCITY)
+            | TelemetryChannelId.bit(TelemetryChannelId.VERTICAL_VELOCITY);
+    private static final int BATTERY_BIT = TelemetryChannelId.bit(TelemetryChannelId.BATTERY);
+    private static final int PREDICTION_INPUT_BITS = LOCATION_BIT | HOME_BIT | VELOCITY_BITS | BATTERY_BIT
+            | TelemetryChannelId.bit(TelemetryChannelId.ALTITUDE);
+
+    private final FlightTimePredictor predictor = new FlightTimePredictor();
+
+    // Results
+    private boolean hasDistanceToHome;
+    private double distanceToHome;
+    private double climbRate;
+    private double groundSpeed;
+    private double batteryDrainRate;
+    private double distanceFlown;
+
+    // Home override
+    private boolean hasHomeOverride;
+    private double homeOverrideLatitude;
+    private double homeOverrideLongitude;
+
+    // Smoothing state
+    private boolean hasVelocity;
+    private long lastVelocityNanos;
+
+    // Distance flown anchor, the last fix that was counted
+    private boolean hasAnchor;
+    private double anchorLatitude;
+    private double anchorLongitude;
+
+    // Battery samples, oldest at batteryHead
+    private final long[] batteryNanos = new long[BATTERY_RING_CAPACITY];
+    private final int[] batteryPercent = new int[BATTERY_RING_CAPACITY];
+    private int batteryHead;
+    private int batterySize;
+
+    /**
+     * Fold one published update into the metrics
+     * @param channelMask Bit mask of the TelemetryChannelId values the update changed
+     * @return Bit mask of the derived channels whose value changed
+     */
+    public int update(int channelMask, TelemetrySnapshot snapshot) {
+        int changed = 0;
+        if ((channelMask & VELOCITY_BITS) != 0) {
+            changed |= updateVelocity(snapshot);
+        }
+        if ((channelMask & LOCATION_BIT) != 0) {
+            changed |= updateDistanceFlown(snapshot);
+        }
+        if ((channelMask & (LOCATION_BIT | HOME_BIT)) != 0) {
+            changed |= updateDistanceToHome(snapshot);
+        }
+        if ((channelMask & BATTERY_BIT) != 0) {
+            changed |= updateBatteryDrain(snapshot);
+        }
+        if ((channelMask & PREDICTION_INPUT_BITS) != 0) {
+            changed |= predictor.update(snapshot, distanceToHome, hasDistanceToHome,
+                    batteryDrainRate, getBatteryWindowSeconds());
+        }
+        return changed;
+    }
+
+    /**
+     * Measure distance to home from this point instead of the aircraft home point
+     */
+    public void setHomeOverride(double latitude, double longitude) {
+        hasHomeOverride = true;
+        homeOverrideLatitude = latitude;
+        homeOverrideLongitude = longitude;
+    }
+
+    public void clearHomeOverride() {
+        hasHomeOverride = false;
+    }
+
+    /**
+     * Forget all history, for a new flight or telemetry source; the home override stays
+     */
+    public void reset() {
+        hasDistanceToHome = false;
+        distanceToHome = 0.0;
+        climbRate = 0.0;
+        groundSpeed = 0.0;
+        batteryDrainRate = 0.0;
+        distanceFlown = 0.0;
+        hasVelocity = false;
+        hasAnchor = false;
+        batteryHead = 0;
+        batterySize = 0;
+        predictor.reset();
+    }
+
+    private int updateVelocity(TelemetrySnapshot snapshot) {
+        // SDK vertical velocity is the NED z component, positive down
+        double climb = -snapshot.verticalVelocity;
+        double speed = snapshot.horizontalVelocity;
+        double newClimbRate;
+        double newGroundSpeed;
+        if (!hasVelocity) {
+            hasVelocity = true;
+            newClimbRate = climb;
+            newGroundSpeed = speed;
+        } else {
+            double elapsed = Math.max(0L, snapshot.timestampNanos - lastVelocityNanos) / 1e9;
+            double alpha = 1.0 - Math.exp(-elapsed / SMOOTHING_TIME_CONSTANT_SECONDS);
+            newClimbRate = climbRate + alpha * (climb - climbRate);
+            newGroundSpeed = groundSpeed + alpha * (speed - groundSpeed);
+        }
+        lastVelocityNanos = snapshot.timestampNanos;
+
+        int changed = 0;
+        if (newClimbRate != climbRate || !snapshot.hasReceived(TelemetryChannelId.CLIMB_RATE)) {
+            climbRate = newClimbRate;
+            changed |= TelemetryChannelId.bit(TelemetryChannelId.CLIMB_RATE);
+        }
+        if (newGroundSpeed != groundSpeed || !snapshot.hasReceived(TelemetryChannelId.GROUND_SPEED)) {
+            groundSpeed = newGroundSpeed;
+            changed |= TelemetryChannelId.bit(TelemetryChannelId.GROUND_SPEED);
+        }
+        return changed;
+    }
+
+    private int updateDistanceFlown(TelemetrySnapshot snapshot) {
+        if (!snapshot.hasLocation) {
+            return 0;
+        }
+        if (!hasAnchor) {
+            hasAnchor = true;
+            anchorLatitude = snapshot.latitude;
+            anchorLongitude = snapshot.longitude;
+            return snapshot.hasReceived(TelemetryChannelId.DISTANCE_FLOWN)
+                    ? 0 : TelemetryChannelId.bit(TelemetryChannelId.DISTANCE_FLOWN);
+        }
+        double step = Geodesy.equirectangular(anchorLatitude, anchorLongitude, snapshot.latitude, snapshot.longitude);
+        if (step < MIN_FLOWN_STEP_METERS) {
+            return 0;
+        }
+        anchorLatitude = snapshot.latitude;
+        anchorLongitude = snapshot.longitude;
+        if (step > MAX_FLOWN_STEP_METERS) {
+            return 0;
+        }
+        distanceFlown += step;
+        return TelemetryChannelId.bit(TelemetryChannelId.DISTANCE_FLOWN);
+    }
+
+    private int updateDistanceToHome(TelemetrySnapshot snapshot) {
+        if (!snapshot.hasLocation || !(hasHomeOverride || snapshot.hasHomeLocation)) {
+            return 0;
+        }
+        double homeLatitude = hasHomeOverride ? homeOverrideLatitude : snapshot.homeLatitude;
+        double homeLongitude = hasHomeOverride ? homeOverrideLongitude : snapshot.homeLongitude;
+        double distance = Geodesy.haversine(homeLatitude, homeLongitude, snapshot.latitude, snapshot.longitude);
+        if (distance == distanceToHome && snapshot.hasReceived(TelemetryChannelId.DISTANCE_TO_HOME)) {
+            return 0;
+        }
+        distanceToHome = distance;
+        hasDistanceToHome = true;
+        return TelemetryChannelId.bit(TelemetryChannelId.DISTANCE_TO_HOME);
+    }
+
+    private int updateBatteryDrain(TelemetrySnapshot snapshot) {
+        long now = snapshot.timestampNanos;
+        int percent = snapshot.batteryPercentage;
+
+        // A charge increase means a battery swap or a new source, start over
+        if (batterySize > 0 && percent > batteryPercent[newestBatteryIndex()]) {
+            batterySize = 0;
+        }
+        if (batterySize == BATTERY_RING_CAPACITY) {
+            batteryHead = (batteryHead + 1) % BATTERY_RING_CAPACITY;
+            batterySize--;
+        }
+        int tail = (batteryHead + batterySize) % BATTERY_RING_CAPACITY;
+        batteryNanos[tail] = now;
+        batteryPercent[tail] = percent;
+        batterySize++;
+
+        // Keep one sample at or before the window start so the window is fully covered
+        long windowStart = now - (long) (BATTERY_WINDOW_SECONDS * 1e9);
+        while (batterySize > 2 && batteryNanos[(batteryHead + 1) % BATTERY_RING_CAPACITY] <= windowStart) {
+            batteryHead = (batteryHead + 1) % BATTERY_RING_CAPACITY;
+            batterySize--;
+        }
+
+        double rate = 0.0;
+        if (batterySize > 1) {
+            double minutes = (now - batteryNanos[batteryHead]) / 60e9;
+            if (minutes > 0) {
+                rate = (batteryPercent[batteryHead] - percent) / minutes;
+            }
+        }
+        if (rate == batteryDrainRate && snapshot.hasReceived(TelemetryChannelId.BATTERY_DRAIN_RATE)) {
+            return 0;
+        }
+        batteryDrainRate = rate;
+        return TelemetryChannelId.bit(TelemetryChannelId.BATTERY_DRAIN_RATE);
+    }
+
+    private int newestBatteryIndex() {
+        return (batteryHead + batterySize - 1) % BATTERY_RING_CAPACITY;
+    }
+
+    /**
+     * Span of the battery samples the drain rate is currently measured over
+     */
+    public double getBatteryWindowSeconds() {
+        if (batterySize < 2) {
+            return 0.0;
+        }
+        return (batteryNanos[newestBatteryIndex()] - batteryNanos[batteryHead]) / 1e9;
+    }
+
+    public FlightTimePredictor getFlightTimePredictor() {
+        return predictor;
+    }
+
+    public double getDistanceToHome() {
+        return distanceToHome;
+    }
+
+    public double getClimbRate() {
+        return climbRate;
+    }
+
+    public double getGroundSpeed() {
+        return groundSpeed;
+    }
+
+    public double getBatteryDrainRate() {
+        return batteryDrainRate;
+    }
+
+    public double getDistanceFlown() {
+        return distanceFlown;
+    }
+}
@@ -0,0 +1,78 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+/**
+ * TelemetryRate - How often a subscriber wants a telemetry channel delivered
+ *
+ * A rate combines a maximum delivery frequency with a minimum change: an update is
+ * delivered only once the value has moved at least minChange from the value last
+ * delivered to that subscriber, and no sooner than 1 / maxRateHz after the previous
+ * delivery. An update held back by the frequency limit is not lost; the newest value
+ * is delivered as soon as the interval has passed.
+ *
+ * The change is measured in the channel's own unit: meters for altitude, location and
+ * distances, m/s for velocities, percent for battery, seconds for time predictions.
+ * Text channels such as the flight mode only honor the frequency limit.
+ *
+ * Immutable; UNLIMITED delivers every update, as subscribing without a rate does.
+ */
+public final class TelemetryRate {
+
+    public static final TelemetryRate UNLIMITED = new TelemetryRate(0.0, 0.0);
+
+    /** Deliveries per second, 0 for no limit */
+    public final double maxRateHz;
+    /** Smallest change delivered, 0 for any update */
+    public final double minChange;
+
+    private final long minIntervalNanos;
+
+    private TelemetryRate(double maxRateHz, double minChange) {
+        this.maxRateHz = maxRateHz;
+        this.minChange = minChange;
+        this.minIntervalNanos = maxRateHz > 0 ? (long) (1e9 / maxRateHz) : 0L;
+    }
+
+    /**
+     * @param maxRateHz Deliveries per second, 0 for no limit
+     * @param minChange Smallest change delivered, 0 for any update
+     */
+    public static TelemetryRate of(double maxRateHz, double minChange) {
+        if (!(maxRateHz >= 0) || !(minChange >= 0)) {
+            throw new IllegalArgumentException("Rate and change threshold must not be negative: "
+                    + maxRateHz + " Hz, " + minChange);
+        }
+        return maxRateHz == 0 && minChange == 0 ? UNLIMITED : new TelemetryRate(maxRateHz, minChange);
+    }
+
+    public static TelemetryRate maxRate(double maxRateHz) {
+        return of(maxRateHz, 0.0);
+    }
+
+    public static TelemetryRate minChange(double minChange) {
+        return of(0.0, minChange);
+    }
+
+    public TelemetryRate withMaxRate(double maxRateHz) {
+        return of(maxRateHz, minChange);
+    }
+
+    public TelemetryRate withMinChange(double minChange) {
+        return of(maxRateHz, minChange);
+    }
+
+    public boolean isUnlimited() {
+        return minIntervalNanos == 0 && minChange == 0;
+    }
+
+    public long getMinIntervalNanos() {
+        return minIntervalNanos;
+    }
+
+    @Override
+    public String toString() {
+        if (isUnlimited()) {
+            return "TelemetryRate{unlimited}";
+        }
+        return "TelemetryRate{maxRate=" + maxRateHz + "Hz, minChange=" + minChange + "}";
+    }
+}
@@ -0,0 +1,189 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TelemetryReplay - Plays a recorded flight back into a TelemetrySink
+ *
+ * Records are delivered on a dedicated thread, like SDK callbacks, in recorded order.
+ * Speed 1 reproduces the original timing, N plays N times faster and MAX_SPEED
+ * delivers as fast as the sink accepts, which makes a replay usable as a repeatable
+ * load generator for the telemetry and UI pipeline.
+ *
+ * The recorder writes the two components of a velocity sample as separate records with
+ * the same timestamp; they are merged back into one onVelocity() call here.
+ */
+public final class TelemetryReplay {
+
+    /**
+     * Play without pacing
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    /**
+     * Called on the replay thread when playback ends
+     */
+    public interface Listener {
+        void onReplayFinished(TelemetryReplay replay, boolean stopped);
+
+        void onReplayFailed(TelemetryReplay replay, Exception e);
+    }
+
+    private final File file;
+    private final double speed;
+    private final TelemetrySink sink;
+    private final Listener listener;
+
+    private volatile boolean stopRequested;
+    private volatile long deliveredCount;
+    private Thread replayThread;
+
+    // Replay thread only
+    private double horizontalVelocity;
+    private double verticalVelocity;
+    private boolean horizontalPending;
+    private long horizontalPendingMicros;
+
+    /**
+     * @param speed Playback speed factor, 1 for real time or MAX_SPEED
+     */
+    public TelemetryReplay(File file, double speed, TelemetrySink sink, Listener listener) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.file = file;
+        this.speed = speed;
+        this.sink = sink;
+        this.listener = listener;
+    }
+
+    /**
+     * Open the record and start playing it
+     * @throws IOException if the file is not a readable flight record
+     */
+    public synchronized void start() throws IOException {
+        if (replayThread != null) {
+            throw new IllegalStateException("Replay already started");
+        }
+        FlightRecordReader reader = new FlightRecordReader(file);
+        replayThread = new Thread(() -> play(reader), "TelemetryReplay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Stop playback, the listener still receives onReplayFinished
+     */
+    public void stop() {
+        stopRequested = true;
+        Thread thread;
+        synchronized (this) {
+            thread = replayThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean awaitFinished(long timeoutMs) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = replayThread;
+        }
+        if (thread == null) {
+            return true;
+        }
+        thread.join(timeoutMs);
+        return !thread.isAlive();
+    }
+
+    public synchronized boolean isRunning() {
+        return replayThread != null && replayThread.isAlive();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    private void play(FlightRecordReader reader) {
+        try {
+            long startNanos = System.nanoTime();
+            while (!stopRequested && reader.next()) {
+                waitUntil(startNanos, reader.getTimeMicros());
+                if (stopRequested) {
+                    break;
+                }
+                deliver(reader);
+            }
+            flushVelocity();
+            reader.close();
+            if (listener != null) {
+                listener.onReplayFinished(this, stopRequested);
+            }
+        } catch (Exception e) {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+            if (listener != null) {
+                listener.onReplayFailed(this, e);
+            }
+        }
+    }
+
+    private void deliver(FlightRecordReader reader) {
+        int type = reader.getType();
+        if (type == TelemetryChannelId.HORIZONTAL_VELOCITY) {
+            flushVelocity();
+            horizontalVelocity = reader.getDoubleValue();
+            horizontalPending = true;
+            horizontalPendingMicros = reader.getTimeMicros();
+            return;
+        }
+        if (type == TelemetryChannelId.VERTICAL_VELOCITY) {
+            if (horizontalPending && horizontalPendingMicros != reader.getTimeMicros()) {
+                flushVelocity();
+            }
+            horizontalPending = false;
+            verticalVelocity = reader.getDoubleValue();
+            sink.onVelocity(horizontalVelocity, verticalVelocity);
+            deliveredCount++;
+            return;
+        }
+        flushVelocity();
+        reader.deliverTo(sink, 0.0);
+        deliveredCount++;
+    }
+
+    /**
+     * Deliver a horizontal velocity that was not followed by its vertical component
+     */
+    private void flushVelocity() {
+        if (horizontalPending) {
+            horizontalPending = false;
+            sink.onVelocity(horizontalVelocity, verticalVelocity);
+            deliveredCount++;
+        }
+    }
+
+    private void waitUntil(long startNanos, long recordMicros) {
+        if (speed == MAX_SPEED) {
+            return;
+        }
+        long target = startNanos + (long) (recordMicros * 1000.0 / speed);
+        long remaining;
+        while (!stopRequested && (remaining = target - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+/**
+ * TelemetrySink - Receives raw telemetry updates from whatever produces them
+ *
+ * TelemetryService implements this once; the live SDK listeners and a replayed flight
+ * record both feed it, so everything downstream (snapshot, recorder, subscribers)
+ * behaves the same regardless of where the data came from.
+ *
+ * Methods may be called from any thread and use primitives only, so producers do not
+ * allocate per update.
+ */
+public interface TelemetrySink {
+    void onFlightMode(String flightMode);
+
+    void onGpsSignalLevel(int signalLevel);
+
+    void onSatelliteCount(int satelliteCount);
+
+    void onLinkSignalQuality(int signalQuality);
+
+    void onBatteryPercentage(int batteryPercentage);
+
+    void onAltitude(double altitude);
+
+    /**
+     * Horizontal and vertical velocity of one sample, in m/s
+     */
+    void onVelocity(double horizontalVelocity, double verticalVelocity);
+
+    void onLocation(double latitude, double longitude, double altitude);
+
+    void onLocationLost();
+
+    void onHomeLocation(double latitude, double longitude);
+
+    void onHomeLocationLost();
+
+    void onHeading(double heading);
+}
@@ -0,0 +1,312 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+/**
+ * TelemetrySnapshot - Immutable, primitive view of every telemetry channel at one instant
+ *
+ * TelemetryService publishes a new snapshot for each SDK update through a single atomic
+ * reference, so a reader that calls getSnapshot() once sees altitude, velocity, location
+ * and the rest from the same moment. The sequence number increases by one per published
+ * update and lets readers detect whether anything changed since their last read; the
+ * received mask tells a channel that is genuinely zero apart from one never reported.
+ *
+ * Snapshots are never mutated; the with* methods return a copy with one channel replaced.
+ */
+public final class TelemetrySnapshot {
+
+    public static final TelemetrySnapshot EMPTY = new TelemetrySnapshot(
+            0L, 0L, 0, "N/A", 0, 0, 0, 0, 0.0, 0.0, 0.0,
+            false, 0.0, 0.0, 0.0, false, 0.0, 0.0, 0.0,
+            0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+
+    private static final int VELOCITY_BITS = TelemetryChannelId.bit(TelemetryChannelId.HORIZONTAL_VELOCITY)
+            | TelemetryChannelId.bit(TelemetryChannelId.VERTICAL_VELOCITY);
+
+    public final long sequence;
+    public final long timestampNanos;
+    /** Bit mask of TelemetryChannelId values reported at least once */
+    public final int receivedChannels;
+
+    public final String flightMode;
+    public final int gpsSignalLevel;
+    public final int satelliteCount;
+    public final int linkSignalQuality;
+    public final int batteryPercentage;
+
+    public final double altitude;
+    public final double horizontalVelocity;
+    public final double verticalVelocity;
+
+    public final boolean hasLocation;
+    public final double latitude;
+    public final double longitude;
+    public final double locationAltitude;
+
+    public final boolean hasHomeLocation;
+    public final double homeLatitude;
+    public final double homeLongitude;
+
+    public final double heading;
+
+    // Derived channels, computed by TelemetryMetricsEngine
+    /** Meters from the aircraft to the home point (or the metrics home override) */
+    public final double distanceToHome;
+    /** Smoothed climb rate in m/s, positive up */
+    public final double climbRate;
+    /** Smoothed horizontal speed in m/s */
+    public final double groundSpeed;
+    /** Battery percentage used per minute over the recent window */
+    public final double batteryDrainRate;
+    /** Meters flown since the metrics were last reset */
+    public final double distanceFlown;
+    /** Seconds of flight left before the battery reaches its reserve */
+    public final double flightTimeRemaining;
+    /** Seconds until the aircraft must turn home to land on the reserve, negative when overdue */
+    public final double mustReturnIn;
+    /** Seconds to finish the active mission including the return home */
+    public final double missionTimeRemaining;
+
+    private TelemetrySnapshot(long sequence, long timestampNanos, int receivedChannels,
+                              String flightMode, int gpsSignalLevel, int satelliteCount,
+                              int linkSignalQuality, int batteryPercentage,
+                              double altitude, double horizontalVelocity, double verticalVelocity,
+                              boolean hasLocation, double latitude, double longitude, double locationAltitude,
+                              boolean hasHomeLocation, double homeLatitude, double homeLongitude,
+                              double heading,
+                              double distanceToHome, double climbRate, double groundSpeed,
+                              double batteryDrainRate, double distanceFlown,
+                              double flightTimeRemaining, double mustReturnIn, double missionTimeRemaining) {
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
+        this.receivedChannels = receivedChannels;
+        this.flightMode = flightMode;
+        this.gpsSignalLevel = gpsSignalLevel;
+        this.satelliteCount = satelliteCount;
+        this.linkSignalQuality = linkSignalQuality;
+        this.batteryPercentage = batteryPercentage;
+        this.altitude = altitude;
+        this.horizontalVelocity = horizontalVelocity;
+        this.verticalVelocity = verticalVelocity;
+        this.hasLocation = hasLocation;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.locationAltitude = locationAltitude;
+        this.hasHomeLocation = hasHomeLocation;
+        this.homeLatitude = homeLatitude;
+        this.homeLongitude = homeLongitude;
+        this.heading = heading;
+        this.distanceToHome = distanceToHome;
+        this.climbRate = climbRate;
+        this.groundSpeed = groundSpeed;
+        this.batteryDrainRate = batteryDrainRate;
+        this.distanceFlown = distanceFlown;
+        this.flightTimeRemaining = flightTimeRemaining;
+        this.mustReturnIn = mustReturnIn;
+        this.missionTimeRemaining = missionTimeRemaining;
+    }
+
+    public boolean hasReceived(int channelId) {
+        return (receivedChannels & TelemetryChannelId.bit(channelId)) != 0;
+    }
+
+    /**
+     * Value of a numeric channel by id; NaN for the flight mode and the positions,
+     * which have no single number
+     */
+    public double getValue(int channelId) {
+        switch (channelId) {
+            case TelemetryChannelId.GPS_SIGNAL: return gpsSignalLevel;
+            case TelemetryChannelId.SATELLITE_COUNT: return satelliteCount;
+            case TelemetryChannelId.LINK_SIGNAL: return linkSignalQuality;
+            case TelemetryChannelId.BATTERY: return batteryPercentage;
+            case TelemetryChannelId.ALTITUDE: return altitude;
+            case TelemetryChannelId.HORIZONTAL_VELOCITY: return horizontalVelocity;
+            case TelemetryChannelId.VERTICAL_VELOCITY: return verticalVelocity;
+            case TelemetryChannelId.HEADING: return heading;
+            case TelemetryChannelId.DISTANCE_TO_HOME: return distanceToHome;
+            case TelemetryChannelId.CLIMB_RATE: return climbRate;
+            case TelemetryChannelId.GROUND_SPEED: return groundSpeed;
+            case TelemetryChannelId.BATTERY_DRAIN_RATE: return batteryDrainRate;
+            case TelemetryChannelId.DISTANCE_FLOWN: return distanceFlown;
+            case TelemetryChannelId.FLIGHT_TIME_REMAINING: return flightTimeRemaining;
+            case TelemetryChannelId.RETURN_DEADLINE: return mustReturnIn;
+            case TelemetryChannelId.MISSION_TIME_REMAINING: return missionTimeRemaining;
+            default: return Double.NaN;
+        }
+    }
+
+    public TelemetrySnapshot withFlightMode(String flightMode, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.FLIGHT_MODE),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withGpsSignalLevel(int gpsSignalLevel, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.GPS_SIGNAL),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withSatelliteCount(int satelliteCount, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.SATELLITE_COUNT),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withLinkSignalQuality(int linkSignalQuality, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.LINK_SIGNAL),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withBatteryPercentage(int batteryPercentage, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.BATTERY),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withAltitude(double altitude, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.ALTITUDE),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    /**
+     * Horizontal and vertical velocity come from one SDK sample and are replaced together
+     */
+    public TelemetrySnapshot withVelocity(double horizontalVelocity, double verticalVelocity, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | VELOCITY_BITS,
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withLocation(double latitude, double longitude, double locationAltitude, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.LOCATION),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                true, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withoutLocation(long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.LOCATION),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                false, 0.0, 0.0, 0.0,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withHomeLocation(double homeLatitude, double homeLongitude, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                true, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withoutHomeLocation(long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                false, 0.0, 0.0, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    public TelemetrySnapshot withHeading(double heading, long timestampNanos) {
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | TelemetryChannelId.bit(TelemetryChannelId.HEADING),
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                distanceToHome, climbRate, groundSpeed, batteryDrainRate, distanceFlown,
+                flightTimeRemaining, mustReturnIn, missionTimeRemaining);
+    }
+
+    /**
+     * Replace the derived channels in one copy
+     * @param metricChannels Bit mask of the derived TelemetryChannelId values that changed
+     */
+    public TelemetrySnapshot withMetrics(int metricChannels, TelemetryMetricsEngine metrics, long timestampNanos) {
+        FlightTimePredictor predictor = metrics.getFlightTimePredictor();
+        return new TelemetrySnapshot(sequence + 1, timestampNanos,
+                receivedChannels | metricChannels,
+                flightMode, gpsSignalLevel, satelliteCount, linkSignalQuality, batteryPercentage,
+                altitude, horizontalVelocity, verticalVelocity,
+                hasLocation, latitude, longitude, locationAltitude,
+                hasHomeLocation, homeLatitude, homeLongitude, heading,
+                metrics.getDistanceToHome(), metrics.getClimbRate(), metrics.getGroundSpeed(),
+                metrics.getBatteryDrainRate(), metrics.getDistanceFlown(),
+                predictor.getFlightTimeRemaining(), predictor.getMustReturnIn(), predictor.getMissionTimeRemaining());
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetrySnapshot{seq=" + sequence +
+                ", mode=" + flightMode +
+                ", gps=" + gpsSignalLevel +
+                ", sats=" + satelliteCount +
+                ", link=" + linkSignalQuality +
+                ", battery=" + batteryPercentage +
+                ", alt=" + altitude +
+                ", hVel=" + horizontalVelocity +
+                ", vVel=" + verticalVelocity +
+                ", location=" + (hasLocation ? latitude + "," + longitude + "," + locationAltitude : "none") +
+                ", home=" + (hasHomeLocation ? homeLatitude + "," + homeLongitude : "none") +
+                ", heading=" + heading +
+                ", distanceToHome=" + distanceToHome +
+                ", climbRate=" + climbRate +
+                ", groundSpeed=" + groundSpeed +
+                ", batteryDrainRate=" + batteryDrainRate +
+                ", distanceFlown=" + distanceFlown +
+                ", flightTimeRemaining=" + flightTimeRemaining +
+                ", mustReturnIn=" + mustReturnIn +
+                ", missionTimeRemaining=" + missionTimeRemaining + "}";
+    }
+}
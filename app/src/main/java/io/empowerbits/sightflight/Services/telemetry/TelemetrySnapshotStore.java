@@ -0,0 +1,167 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TelemetrySnapshotStore - Lock-free holder of the latest TelemetrySnapshot
+ *
+ * SDK callbacks arrive on several threads; each update is a compare-and-set of the
+ * whole snapshot, so concurrent writers never lose each other's channels and readers
+ * never block. Every update method returns the snapshot it published.
+ */
+public final class TelemetrySnapshotStore {
+
+    private final AtomicReference<TelemetrySnapshot> current =
+            new AtomicReference<>(TelemetrySnapshot.EMPTY);
+
+    public TelemetrySnapshot get() {
+        return current.get();
+    }
+
+    public void reset() {
+        current.set(TelemetrySnapshot.EMPTY);
+    }
+
+    public TelemetrySnapshot updateFlightMode(String flightMode) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withFlightMode(flightMode, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateGpsSignalLevel(int gpsSignalLevel) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withGpsSignalLevel(gpsSignalLevel, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateSatelliteCount(int satelliteCount) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withSatelliteCount(satelliteCount, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateLinkSignalQuality(int linkSignalQuality) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withLinkSignalQuality(linkSignalQuality, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateBatteryPercentage(int batteryPercentage) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withBatteryPercentage(batteryPercentage, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateAltitude(double altitude) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withAltitude(altitude, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateVelocity(double horizontalVelocity, double verticalVelocity) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withVelocity(horizontalVelocity, verticalVelocity, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateLocation(double latitude, double longitude, double altitude) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withLocation(latitude, longitude, altitude, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot clearLocation() {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withoutLocation(now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateHomeLocation(double latitude, double longitude) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withHomeLocation(latitude, longitude, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot clearHomeLocation() {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withoutHomeLocation(now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateHeading(double heading) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withHeading(heading, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    public TelemetrySnapshot updateMetrics(int metricChannels, TelemetryMetricsEngine metrics) {
+        long now = System.nanoTime();
+        TelemetrySnapshot previous;
+        TelemetrySnapshot next;
+        do {
+            previous = current.get();
+            next = previous.withMetrics(metricChannels, metrics, now);
+        } while (!current.compareAndSet(previous, next));
+        return next;
+    }
+}
@@ -0,0 +1,46 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import java.io.IOException;
+
+/**
+ * TelemetrySource - Producer of raw telemetry updates for a TelemetrySink
+ *
+ * TelemetryService feeds its snapshot store, recorder and channels from exactly one
+ * source at a time: the aircraft through the DJI SDK, a recorded flight or a simulated
+ * aircraft. Sources may call the sink from any thread, but from one thread at a time.
+ */
+public interface TelemetrySource {
+
+    /**
+     * Called from the source's own thread when a finite source runs out of data
+     */
+    interface Listener {
+        /**
+         * @param error Why the source ended early, null when it ended normally or was stopped
+         */
+        void onSourceFinished(TelemetrySource source, Exception error);
+    }
+
+    /**
+     * Short name for logs
+     */
+    String getName();
+
+    /**
+     * Start delivering updates to the sink
+     * @param listener Notified when the source ends by itself, may be null
+     * @throws IOException if the source data cannot be opened
+     */
+    void start(TelemetrySink sink, Listener listener) throws IOException;
+
+    /**
+     * Ask for the current value of every channel; sources that push every value
+     * continuously may do nothing
+     */
+    void requestCurrentValues();
+
+    /**
+     * Stop delivering updates, the listener is not called for a stop
+     */
+    void stop();
+}
@@ -367,6 +367,26 @@ public class MissionSetting implements Serializable {
         this.takeOffSecurityHeight = meters / 0.3048; // Convert meters to feet
     }
 
+    /**
+     * Copy of these settings, detached from later edits
+     * @return Settings with the same values; poiLocation is shared, it is replaced rather than modified
+     */
+    public MissionSetting copy() {
+        MissionSetting copy = new MissionSetting();
+        copy.missionName = missionName;
+        copy.flyToWaylineMode = flyToWaylineMode;
+        copy.finishAction = finishAction;
+        copy.exitOnRCLost = exitOnRCLost;
+        copy.executeRCLostAction = executeRCLostAction;
+        copy.takeOffSecurityHeight = takeOffSecurityHeight;
+        copy.globalTransitionalSpeed = globalTransitionalSpeed;
+        copy.autoFlighSpeed = autoFlighSpeed;
+        copy.poiHeight = poiHeight;
+        copy.poiLocation = poiLocation;
+        copy.heightMode = heightMode;
+        return copy;
+    }
+
     // ==================== Summary Methods ====================
 
     /**
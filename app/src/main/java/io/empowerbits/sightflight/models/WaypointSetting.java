@@ -12,4 +12,18 @@ public class WaypointSetting implements Serializable {
     public Double altitude = 10.0;
     public Double waypointSpeed = 5.0;
     public Double gimbalPitchAngle = 1.0;
+
+    /**
+     * Copy of this waypoint, detached from later edits
+     */
+    public WaypointSetting copy() {
+        WaypointSetting copy = new WaypointSetting();
+        copy.name = name;
+        copy.latitude = latitude;
+        copy.longitude = longitude;
+        copy.altitude = altitude;
+        copy.waypointSpeed = waypointSpeed;
+        copy.gimbalPitchAngle = gimbalPitchAngle;
+        return copy;
+    }
 }
\ No newline at end of file
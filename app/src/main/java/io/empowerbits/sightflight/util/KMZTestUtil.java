@@ -135,24 +135,33 @@ public class KMZTestUtil {
 
 
     public static  WaylineTemplateWaypointInfo createTemplateWaypointInfo(List<WaypointInfoModel> waypointInfoModels) {
-        WaylineLocationCoordinate3D poiLocation = new WaylineLocationCoordinate3D();
+        WaylineLocationCoordinate3D poiLocation = null;
         List<WaylineWaypoint> waypoints = new ArrayList<>();
         for (WaypointInfoModel infoModel:waypointInfoModels){
             waypoints.add(infoModel.getWaylineWaypoint());
             poiLocation =  infoModel.getWaylineWaypoint().getYawParam().getPoiLocation();
         }
+        // The ends always stop, an inner waypoint carries the aircraft's turn mode
+        WaylineWaypointTurnMode globalTurnMode = WaylineWaypointTurnMode.TO_POINT_AND_STOP_WITH_CONTINUITY_CURVATURE;
+        if (waypoints.size() > 2) {
+            globalTurnMode = waypoints.get(1).getTurnParam().getTurnMode();
+        }
 
         WaylineTemplateWaypointInfo waypointInfo = new WaylineTemplateWaypointInfo();
         waypointInfo.setWaypoints(waypoints);
         waypointInfo.setActionGroups(transformActionsFrom(waypointInfoModels));
         waypointInfo.setGlobalFlightHeight(DEF_GLOBAL_FLIGHT_HEIGHT);
         waypointInfo.setIsGlobalFlightHeightSet(true);
-        waypointInfo.setGlobalTurnMode(WaylineWaypointTurnMode.TO_POINT_AND_STOP_WITH_CONTINUITY_CURVATURE);
+        waypointInfo.setGlobalTurnMode(globalTurnMode);
         waypointInfo.setUseStraightLine(false);
         waypointInfo.setIsTemplateGlobalTurnModeSet(true);
         WaylineWaypointYawParam yawParam = new WaylineWaypointYawParam();
-        yawParam.setYawMode(WaylineWaypointYawMode.TOWARD_POI);
-        yawParam.setPoiLocation(poiLocation);
+        if (poiLocation != null) {
+            yawParam.setYawMode(WaylineWaypointYawMode.TOWARD_POI);
+            yawParam.setPoiLocation(poiLocation);
+        } else {
+            yawParam.setYawMode(WaylineWaypointYawMode.FOLLOW_WAYLINE);
+        }
         waypointInfo.setGlobalYawParam(yawParam);
         waypointInfo.setIsTemplateGlobalYawParamSet(true);
         waypointInfo.setPitchMode(WaylineWaypointPitchMode.USE_POINT_SETTING);
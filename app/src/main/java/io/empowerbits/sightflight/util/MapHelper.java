@@ -7,11 +7,11 @@ import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
-import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
-import com.google.android.gms.maps.model.Polyline;
 import com.google.android.gms.maps.model.PolylineOptions;
 import io.empowerbits.sightflight.R;
+import io.empowerbits.sightflight.Services.mission.OrbitPathGenerator;
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,8 +28,8 @@ public class MapHelper {
     private GoogleMap googleMap;
     private LatLng centerLocation;
     private List<LatLng> waypoints;
-    private List<Marker> waypointMarkers;
-    private Polyline waypointPath;
+    // Waypoint markers and path, updated in place as the count or radius changes
+    private MapOverlayReconciler waypointOverlay;
     
     // Static utility methods for device detection
     
@@ -127,7 +127,7 @@ public class MapHelper {
         this.googleMap = googleMap;
         this.centerLocation = centerLocation;
         this.waypoints = new ArrayList<>();
-        this.waypointMarkers = new ArrayList<>();
+        this.waypointOverlay = new MapOverlayReconciler(googleMap);
         
         Log.d(TAG, "MapHelper instance created with center: " + centerLocation);
     }
@@ -154,41 +154,47 @@ public class MapHelper {
         }
 
         try {
-            // Clear existing waypoints
-            clearWaypointMarkers();
-
             // Generate new waypoints in a circle (using feet directly)
-            waypoints = generateCircularWaypoints(centerLocation, radiusFeet, waypointCount);
-
-            // Add markers for each waypoint
-            for (int i = 0; i < waypoints.size(); i++) {
-                LatLng waypoint = waypoints.get(i);
-
-                // Create numbered marker (starting from startNumber)
-                int markerNumber = startNumber + i;
-
-                MarkerOptions markerOptions = new MarkerOptions()
-                    .position(waypoint)
-                    .title("Waypoint " + markerNumber)
-                    .snippet("Lat: " + String.format("%.6f", waypoint.latitude) +
-                            "\nLng: " + String.format("%.6f", waypoint.longitude))
-                    .icon(createNumberedMarkerIcon(markerNumber))
-                    .anchor(0.5f, 0.8f); // Anchor at bottom center for original map_marker shape
+            setWaypoints(generateCircularWaypoints(centerLocation, radiusFeet, waypointCount), startNumber);
+            Log.d(TAG, "Updated waypoints: " + waypointCount + " points at " + radiusFeet + " feet, starting from #" + startNumber);
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating waypoints: " + e.getMessage());
+        }
+    }
 
-                Marker marker = googleMap.addMarker(markerOptions);
-                if (marker != null) {
-                    waypointMarkers.add(marker);
-                }
-            }
+    /**
+     * Show the given waypoints, e.g. a saved flight path, without regenerating them
+     * @param points Waypoint coordinates in flight order
+     * @param startNumber Starting number for waypoint numbering
+     */
+    public void setWaypoints(List<LatLng> points, int startNumber) {
+        if (googleMap == null) {
+            Log.w(TAG, "Cannot show waypoints - map is null");
+            return;
+        }
+        waypoints = new ArrayList<>(points);
 
-            // Draw path connecting waypoints
-            drawWaypointPath();
+        // Move the existing markers, only a changed count adds or removes any
+        List<MarkerOptions> markerOptionsList = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            LatLng waypoint = waypoints.get(i);
 
-            Log.d(TAG, "Updated waypoints: " + waypointCount + " points at " + radiusFeet + " feet, starting from #" + startNumber);
+            // Create numbered marker (starting from startNumber)
+            int markerNumber = startNumber + i;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating waypoints: " + e.getMessage());
+            MarkerOptions markerOptions = new MarkerOptions()
+                .position(waypoint)
+                .title("Waypoint " + markerNumber)
+                .snippet("Lat: " + String.format("%.6f", waypoint.latitude) +
+                        "\nLng: " + String.format("%.6f", waypoint.longitude))
+                .icon(createNumberedMarkerIcon(markerNumber))
+                .anchor(0.5f, 0.8f); // Anchor at bottom center for original map_marker shape
+            markerOptionsList.add(markerOptions);
         }
+        waypointOverlay.setMarkers(markerOptionsList);
+
+        // Draw path connecting waypoints
+        drawWaypointPath();
     }
     
     /**
@@ -198,49 +204,7 @@ public class MapHelper {
      */
     private com.google.android.gms.maps.model.BitmapDescriptor createNumberedMarkerIcon(int number) {
         try {
-            // Load the original map_marker drawable
-            android.graphics.drawable.Drawable drawable = androidx.core.content.ContextCompat.getDrawable(context, R.drawable.map_marker);
-            if (drawable == null) {
-                Log.w(TAG, "Could not load map_marker drawable, using default");
-                return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED);
-            }
-            
-            // Get drawable dimensions
-            int width = drawable.getIntrinsicWidth();
-            int height = drawable.getIntrinsicHeight();
-            
-            // Create bitmap with same dimensions as original marker
-            android.graphics.Bitmap bitmap = android.graphics.Bitmap.createBitmap(width, height, android.graphics.Bitmap.Config.ARGB_8888);
-            android.graphics.Canvas canvas = new android.graphics.Canvas(bitmap);
-            
-            // Draw the original marker
-            drawable.setBounds(0, 0, width, height);
-            drawable.draw(canvas);
-            
-            // Draw number text on top of the marker
-            android.graphics.Paint textPaint = new android.graphics.Paint();
-            textPaint.setColor(android.graphics.Color.WHITE);
-            textPaint.setTextSize(number > 99 ? width/4f : (number > 9 ? width/3f : width/2.5f));
-            textPaint.setAntiAlias(true);
-            textPaint.setTextAlign(android.graphics.Paint.Align.CENTER);
-            textPaint.setTypeface(android.graphics.Typeface.DEFAULT_BOLD);
-            
-            // Add black shadow for better readability
-            android.graphics.Paint shadowPaint = new android.graphics.Paint(textPaint);
-            shadowPaint.setColor(android.graphics.Color.BLACK);
-            shadowPaint.setStrokeWidth(3);
-            shadowPaint.setStyle(android.graphics.Paint.Style.STROKE);
-            
-            String numberText = String.valueOf(number);
-            float textX = width / 2f;
-            float textY = height / 2.5f; // Position number in upper part of marker
-            
-            // Draw shadow first, then white text on top
-            canvas.drawText(numberText, textX, textY, shadowPaint);
-            canvas.drawText(numberText, textX, textY, textPaint);
-            
-            return BitmapDescriptorFactory.fromBitmap(bitmap);
-            
+            return MapIconCache.getInstance(context).getNumberedMarker(number);
         } catch (Exception e) {
             Log.e(TAG, "Error creating numbered marker with original design: " + e.getMessage());
             // Fallback to original map_marker without number
@@ -255,26 +219,13 @@ public class MapHelper {
      * @return List of waypoint coordinates
      */
     private List<LatLng> generateCircularWaypoints(LatLng center, double radiusFeet, int waypointCount) {
-        List<LatLng> points = new ArrayList<>();
+        OrbitPathGenerator.OrbitPath ring = new OrbitPathGenerator(center.latitude, center.longitude, 0)
+                .ring(radiusFeet * ProjectMissionPlanner.FEET_TO_METERS, waypointCount, 0, 0);
 
-        // Convert radius from feet to degrees (1 foot = 0.3048 meters, 111320 meters per degree latitude)
-        double radiusInDegrees = (radiusFeet * 0.3048) / 111320.0;
-        
-        double angleStep = 360.0 / waypointCount;
-        
-        for (int i = 0; i < waypointCount; i++) {
-            double angle = Math.toRadians(i * angleStep);
-            
-            // Calculate waypoint coordinates
-            double deltaLat = radiusInDegrees * Math.cos(angle);
-            double deltaLng = radiusInDegrees * Math.sin(angle) / Math.cos(Math.toRadians(center.latitude));
-            
-            double waypointLat = center.latitude + deltaLat;
-            double waypointLng = center.longitude + deltaLng;
-            
-            points.add(new LatLng(waypointLat, waypointLng));
+        List<LatLng> points = new ArrayList<>(ring.size());
+        for (int i = 0; i < ring.size(); i++) {
+            points.add(new LatLng(ring.latitudes[i], ring.longitudes[i]));
         }
-        
         return points;
     }
     
@@ -282,24 +233,18 @@ public class MapHelper {
      * Draw polyline connecting all waypoints
      */
     private void drawWaypointPath() {
-        if (waypointPath != null) {
-            waypointPath.remove();
-        }
-        
-        if (waypoints.size() > 1) {
-            PolylineOptions polylineOptions = new PolylineOptions()
-                .addAll(waypoints)
-                .color(android.graphics.Color.BLUE)
-                .width(3f)
-                .geodesic(true);
-            
-            // Close the circle by connecting last point to first
-            if (waypoints.size() > 2) {
-                polylineOptions.add(waypoints.get(0));
-            }
-            
-            waypointPath = googleMap.addPolyline(polylineOptions);
+        List<LatLng> pathPoints = new ArrayList<>(waypoints.size() + 1);
+        pathPoints.addAll(waypoints);
+
+        // Close the circle by connecting last point to first
+        if (waypoints.size() > 2) {
+            pathPoints.add(waypoints.get(0));
         }
+
+        waypointOverlay.setPath(pathPoints, new PolylineOptions()
+            .color(android.graphics.Color.BLUE)
+            .width(3f)
+            .geodesic(true));
     }
     
     /**
@@ -314,17 +259,7 @@ public class MapHelper {
      * Clear all waypoint markers from the map
      */
     private void clearWaypointMarkers() {
-        for (Marker marker : waypointMarkers) {
-            if (marker != null) {
-                marker.remove();
-            }
-        }
-        waypointMarkers.clear();
-        
-        if (waypointPath != null) {
-            waypointPath.remove();
-            waypointPath = null;
-        }
+        waypointOverlay.clear();
     }
     
     /**
@@ -0,0 +1,319 @@
+package io.empowerbits.sightflight.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+
+import io.empowerbits.sightflight.R;
+
+/**
+ * MapIconCache - Shared cache of the rendered map marker and label icons
+ *
+ * Icons are keyed by style, number, color, text and screen density and bounded by the
+ * bytes of their bitmaps, so redrawing a mission after an NFZ check or a regeneration
+ * reuses the descriptors instead of rendering and allocating a bitmap per marker. The
+ * map_marker base bitmaps are decoded once per density.
+ *
+ * Main thread only, like the map itself.
+ */
+public class MapIconCache {
+    private static final String TAG = "MapIconCache";
+
+    private static final int MAX_BYTES = 4 * 1024 * 1024;
+
+    private static final int STYLE_WAYPOINT = 1;
+    private static final int STYLE_NUMBERED = 2;
+    private static final int STYLE_CIRCLE = 3;
+    private static final int STYLE_LABEL = 4;
+    private static final int STYLE_DOT = 5;
+
+    // Same sizes the activities drew with
+    private static final int CIRCLE_SIZE = 80;
+    private static final int LABEL_WIDTH = 400;
+    private static final int LABEL_HEIGHT = 100;
+
+    private static MapIconCache instance;
+
+    private static final class Entry {
+        final BitmapDescriptor descriptor;
+        final int bytes;
+
+        Entry(BitmapDescriptor descriptor, int bytes) {
+            this.descriptor = descriptor;
+            this.bytes = bytes;
+        }
+    }
+
+    private final Context context;
+    private final LruCache<String, Entry> icons = new LruCache<String, Entry>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Entry entry) {
+            return entry.bytes;
+        }
+    };
+    // map_marker as decoded and as drawn at its intrinsic size, for densityDpi
+    private Bitmap decodedMarker;
+    private Bitmap drawnMarker;
+    private int baseDensityDpi;
+
+    private MapIconCache(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized MapIconCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new MapIconCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * map_marker with the number in white, as WaypointActivity draws waypoints
+     */
+    public BitmapDescriptor getWaypointMarker(int number) {
+        String key = key(STYLE_WAYPOINT, number, 0, null);
+        Entry entry = icons.get(key);
+        if (entry == null) {
+            Bitmap base = getDecodedMarker();
+            if (base == null) {
+                return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN);
+            }
+            Bitmap bitmap = base.copy(Bitmap.Config.ARGB_8888, true);
+            Canvas canvas = new Canvas(bitmap);
+
+            Paint textPaint = new Paint();
+            textPaint.setColor(Color.WHITE);
+            textPaint.setTextSize(35);
+            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+            textPaint.setAntiAlias(true);
+            textPaint.setTextAlign(Paint.Align.CENTER);
+
+            String numberText = String.valueOf(number);
+            Rect textBounds = new Rect();
+            textPaint.getTextBounds(numberText, 0, numberText.length(), textBounds);
+            float x = bitmap.getWidth() / 2.0f;
+            float y = (bitmap.getHeight() / 3.0f) - textBounds.exactCenterY();
+            canvas.drawText(numberText, x, y, textPaint);
+            entry = put(key, bitmap);
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * map_marker with the number in outlined white, sized to the digits, as MapHelper
+     * draws the orbit waypoints
+     */
+    public BitmapDescriptor getNumberedMarker(int number) {
+        String key = key(STYLE_NUMBERED, number, 0, null);
+        Entry entry = icons.get(key);
+        if (entry == null) {
+            Bitmap base = getDrawnMarker();
+            if (base == null) {
+                Log.w(TAG, "Could not load map_marker drawable, using default");
+                return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED);
+            }
+            int width = base.getWidth();
+            int height = base.getHeight();
+            Bitmap bitmap = base.copy(Bitmap.Config.ARGB_8888, true);
+            Canvas canvas = new Canvas(bitmap);
+
+            Paint textPaint = new Paint();
+            textPaint.setColor(Color.WHITE);
+            textPaint.setTextSize(number > 99 ? width / 4f : (number > 9 ? width / 3f : width / 2.5f));
+            textPaint.setAntiAlias(true);
+            textPaint.setTextAlign(Paint.Align.CENTER);
+            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+
+            // Black outline for readability
+            Paint shadowPaint = new Paint(textPaint);
+            shadowPaint.setColor(Color.BLACK);
+            shadowPaint.setStrokeWidth(3);
+            shadowPaint.setStyle(Paint.Style.STROKE);
+
+            String numberText = String.valueOf(number);
+            float textX = width / 2f;
+            float textY = height / 2.5f;
+            canvas.drawText(numberText, textX, textY, shadowPaint);
+            canvas.drawText(numberText, textX, textY, textPaint);
+            entry = put(key, bitmap);
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * Filled circle in the color with a white border and number
+     */
+    public BitmapDescriptor getCircleMarker(int number, int color) {
+        String key = key(STYLE_CIRCLE, number, color, null);
+        Entry entry = icons.get(key);
+        if (entry == null) {
+            Bitmap bitmap = Bitmap.createBitmap(CIRCLE_SIZE, CIRCLE_SIZE, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            float center = CIRCLE_SIZE / 2f;
+
+            Paint paint = new Paint();
+            paint.setColor(color);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setAntiAlias(true);
+            canvas.drawCircle(center, center, 35, paint);
+
+            paint.setColor(Color.WHITE);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(4);
+            canvas.drawCircle(center, center, 35, paint);
+
+            paint.setColor(Color.WHITE);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setTextSize(35);
+            paint.setTextAlign(Paint.Align.CENTER);
+            paint.setTypeface(Typeface.DEFAULT_BOLD);
+
+            Rect textBounds = new Rect();
+            String text = String.valueOf(number);
+            paint.getTextBounds(text, 0, text.length(), textBounds);
+            canvas.drawText(text, center, center + textBounds.height() / 2, paint);
+            entry = put(key, bitmap);
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * Rounded label with the text on a translucent background of the color, as the NFZ
+     * zones are labelled
+     */
+    public BitmapDescriptor getLabel(String text, int color) {
+        String key = key(STYLE_LABEL, 0, color, text);
+        Entry entry = icons.get(key);
+        if (entry == null) {
+            Bitmap bitmap = Bitmap.createBitmap(LABEL_WIDTH, LABEL_HEIGHT, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+
+            Paint bgPaint = new Paint();
+            bgPaint.setColor(color);
+            bgPaint.setAlpha(200);
+            bgPaint.setStyle(Paint.Style.FILL);
+            canvas.drawRoundRect(10, 10, LABEL_WIDTH - 10, LABEL_HEIGHT - 10, 15, 15, bgPaint);
+
+            Paint borderPaint = new Paint();
+            borderPaint.setColor(Color.WHITE);
+            borderPaint.setStyle(Paint.Style.STROKE);
+            borderPaint.setStrokeWidth(3);
+            canvas.drawRoundRect(10, 10, LABEL_WIDTH - 10, LABEL_HEIGHT - 10, 15, 15, borderPaint);
+
+            Paint textPaint = new Paint();
+            textPaint.setColor(Color.WHITE);
+            textPaint.setTextSize(36);
+            textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+            textPaint.setAntiAlias(true);
+            textPaint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(text, LABEL_WIDTH / 2, LABEL_HEIGHT / 2 + 12, textPaint);
+            entry = put(key, bitmap);
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * Filled dot of the given pixel size with a white border, as inspection waypoints
+     * are drawn
+     */
+    public BitmapDescriptor getDot(int size, int color, float strokeWidth) {
+        String key = key(STYLE_DOT, size, color, String.valueOf(strokeWidth));
+        Entry entry = icons.get(key);
+        if (entry == null) {
+            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+
+            Paint paint = new Paint();
+            paint.setColor(color);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setAntiAlias(true);
+            canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+
+            paint.setColor(Color.WHITE);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(strokeWidth);
+            canvas.drawCircle(size / 2f, size / 2f, size / 2f - strokeWidth / 2, paint);
+            entry = put(key, bitmap);
+        }
+        return entry.descriptor;
+    }
+
+    /**
+     * Drop all icons, e.g. when the system is low on memory
+     */
+    public void clear() {
+        icons.evictAll();
+        decodedMarker = null;
+        drawnMarker = null;
+    }
+
+    private String key(int style, int number, int color, String text) {
+        StringBuilder key = new StringBuilder(24)
+                .append(style).append(':')
+                .append(number).append(':')
+                .append(color).append(':')
+                .append(densityDpi());
+        if (text != null) {
+            key.append(':').append(text);
+        }
+        return key.toString();
+    }
+
+    private Entry put(String key, Bitmap bitmap) {
+        // The descriptor keeps the bitmap, size the entry by it
+        Entry entry = new Entry(BitmapDescriptorFactory.fromBitmap(bitmap), bitmap.getByteCount());
+        icons.put(key, entry);
+        return entry;
+    }
+
+    private int densityDpi() {
+        return context.getResources().getDisplayMetrics().densityDpi;
+    }
+
+    private void checkBaseDensity() {
+        int density = densityDpi();
+        if (density != baseDensityDpi) {
+            decodedMarker = null;
+            drawnMarker = null;
+            baseDensityDpi = density;
+        }
+    }
+
+    private Bitmap getDecodedMarker() {
+        checkBaseDensity();
+        if (decodedMarker == null) {
+            decodedMarker = BitmapFactory.decodeResource(context.getResources(), R.drawable.map_marker);
+        }
+        return decodedMarker;
+    }
+
+    private Bitmap getDrawnMarker() {
+        checkBaseDensity();
+        if (drawnMarker == null) {
+            Drawable drawable = ContextCompat.getDrawable(context, R.drawable.map_marker);
+            if (drawable == null) {
+                return null;
+            }
+            int width = drawable.getIntrinsicWidth();
+            int height = drawable.getIntrinsicHeight();
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            drawable.setBounds(0, 0, width, height);
+            drawable.draw(new Canvas(bitmap));
+            drawnMarker = bitmap;
+        }
+        return drawnMarker;
+    }
+}
@@ -0,0 +1,139 @@
+package io.empowerbits.sightflight.util;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.Polyline;
+import com.google.android.gms.maps.model.PolylineOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MapOverlayReconciler - Keeps a list of markers and one path on the map in step with
+ * the desired state
+ *
+ * Instead of removing and re-adding every overlay on each change, setMarkers compares
+ * the desired MarkerOptions with what each existing marker last received and only
+ * calls setPosition, setIcon, setTitle and so on for what differs; markers are added or
+ * removed only at the end of the list. setPath updates the polyline with setPoints.
+ * Icons are compared by identity, so pass the shared descriptors from MapIconCache.
+ *
+ * Main thread only, like the map itself.
+ */
+public class MapOverlayReconciler {
+
+    private final GoogleMap googleMap;
+    private final List<Marker> markers = new ArrayList<>();
+    // Options each marker was last updated from
+    private final List<MarkerOptions> applied = new ArrayList<>();
+    private Polyline path;
+    private List<LatLng> pathPoints = Collections.emptyList();
+
+    public MapOverlayReconciler(GoogleMap googleMap) {
+        this.googleMap = googleMap;
+    }
+
+    /**
+     * Make the markers match the options, in order
+     */
+    public void setMarkers(List<MarkerOptions> desired) {
+        int common = Math.min(markers.size(), desired.size());
+        for (int i = 0; i < common; i++) {
+            update(markers.get(i), applied.get(i), desired.get(i));
+            applied.set(i, desired.get(i));
+        }
+        for (int i = markers.size() - 1; i >= desired.size(); i--) {
+            markers.remove(i).remove();
+            applied.remove(i);
+        }
+        for (int i = markers.size(); i < desired.size(); i++) {
+            Marker marker = googleMap.addMarker(desired.get(i));
+            if (marker == null) {
+                // Keep markers and options aligned, the next call retries the rest
+                break;
+            }
+            markers.add(marker);
+            applied.add(desired.get(i));
+        }
+    }
+
+    private static void update(Marker marker, MarkerOptions current, MarkerOptions desired) {
+        if (!desired.getPosition().equals(current.getPosition())) {
+            marker.setPosition(desired.getPosition());
+        }
+        if (desired.getIcon() != current.getIcon()) {
+            marker.setIcon(desired.getIcon());
+        }
+        if (!equal(desired.getTitle(), current.getTitle())) {
+            marker.setTitle(desired.getTitle());
+        }
+        if (!equal(desired.getSnippet(), current.getSnippet())) {
+            marker.setSnippet(desired.getSnippet());
+        }
+        if (desired.getAnchorU() != current.getAnchorU() || desired.getAnchorV() != current.getAnchorV()) {
+            marker.setAnchor(desired.getAnchorU(), desired.getAnchorV());
+        }
+        if (desired.isDraggable() != current.isDraggable()) {
+            marker.setDraggable(desired.isDraggable());
+        }
+        if (desired.isVisible() != current.isVisible()) {
+            marker.setVisible(desired.isVisible());
+        }
+    }
+
+    /**
+     * Make the path follow the points; it is created with the style's color, width and
+     * geodesic flag and removed while there are fewer than two points
+     */
+    public void setPath(List<LatLng> points, PolylineOptions style) {
+        if (points.size() < 2) {
+            clearPath();
+            return;
+        }
+        if (path == null) {
+            path = googleMap.addPolyline(new PolylineOptions()
+                    .color(style.getColor())
+                    .width(style.getWidth())
+                    .geodesic(style.isGeodesic())
+                    .addAll(points));
+        } else if (!points.equals(pathPoints)) {
+            path.setPoints(points);
+        }
+        pathPoints = new ArrayList<>(points);
+    }
+
+    /**
+     * The markers in the order of the last setMarkers call
+     */
+    public List<Marker> getMarkers() {
+        return Collections.unmodifiableList(markers);
+    }
+
+    public void clearMarkers() {
+        for (Marker marker : markers) {
+            marker.remove();
+        }
+        markers.clear();
+        applied.clear();
+    }
+
+    public void clearPath() {
+        if (path != null) {
+            path.remove();
+            path = null;
+        }
+        pathPoints = Collections.emptyList();
+    }
+
+    public void clear() {
+        clearMarkers();
+        clearPath();
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -24,6 +24,7 @@ import dji.v5.manager.aircraft.flysafe.FlyZoneManager;
 import dji.v5.manager.aircraft.flysafe.info.FlyZoneInformation;
 import dji.v5.manager.aircraft.flysafe.info.FlyZoneShape;
 import dji.v5.manager.aircraft.flysafe.info.FlyZoneLicenseInfo;
+import io.empowerbits.sightflight.util.geo.Geodesy;
 
 /**
  * NFZ (No-Fly Zone) Manager
@@ -664,7 +665,7 @@ public class NFZManager {
         List<SimpleFlyZoneInfo> nearbyZones = new ArrayList<>();
 
         for (SimpleFlyZoneInfo zone : allZones) {
-            double distance = calculateDistance(
+            double distance = Geodesy.haversine(
                 location.latitude, location.longitude,
                 zone.latitude, zone.longitude
             );
@@ -728,7 +729,7 @@ public class NFZManager {
                 return false;
             } else {
                 // Fall back to circular zone detection
-                double distance = calculateDistance(
+                double distance = Geodesy.haversine(
                     waypoint.latitude, waypoint.longitude,
                     zone.latitude, zone.longitude
                 );
@@ -1399,23 +1400,4 @@ public class NFZManager {
      * @param callback Progress callback (0.0 to 1.0)
      */
 
-    /**
-     * Calculate distance between two coordinates using Haversine formula
-     */
-    public static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371000; // Earth radius in meters
-
-        double lat1Rad = Math.toRadians(lat1);
-        double lat2Rad = Math.toRadians(lat2);
-        double deltaLat = Math.toRadians(lat2 - lat1);
-        double deltaLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return R * c;
-    }
 }
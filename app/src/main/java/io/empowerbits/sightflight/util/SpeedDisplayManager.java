@@ -7,12 +7,13 @@ import android.util.Log;
 import android.widget.TextView;
 
 import io.empowerbits.sightflight.Services.TelemetryService;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryRate;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
+import io.empowerbits.sightflight.util.geo.Geodesy;
 
 import java.util.Locale;
 
-import dji.sdk.keyvalue.value.common.LocationCoordinate2D;
-import dji.sdk.keyvalue.value.common.LocationCoordinate3D;
-
 /**
  * SpeedDisplayManager handles real-time speed and telemetry data display
  * Updates the speed_view layout components with telemetry data
@@ -26,6 +27,11 @@ import dji.sdk.keyvalue.value.common.LocationCoordinate3D;
 public class SpeedDisplayManager {
     private static final String TAG = "SpeedDisplayManager";
 
+    // Delivery rates matched to the display: one decimal for altitude and speeds,
+    // whole meters for the distance
+    private static final TelemetryRate READOUT_RATE = TelemetryRate.of(5.0, 0.1);
+    private static final TelemetryRate DISTANCE_RATE = TelemetryRate.of(2.0, 1.0);
+
     // UI Components
     private TextView distanceTxt;
     private TextView altitudeTxt;
@@ -35,6 +41,12 @@ public class SpeedDisplayManager {
     // Services
     private TelemetryService telemetryService;
 
+    // Telemetry subscriptions, kept so cleanup removes exactly what was registered
+    private TelemetryService.AltitudeChangedListener altitudeListener;
+    private TelemetryService.HorizontalVelocityChangedListener horizontalVelocityListener;
+    private TelemetryService.VerticalVelocityChangedListener verticalVelocityListener;
+    private TelemetryService.DistanceToHomeChangedListener distanceToHomeListener;
+
     // Context and Handler
     private Context context;
     private Handler uiHandler;
@@ -86,53 +98,64 @@ public class SpeedDisplayManager {
         }
 
         try {
+            // Drop any previous registration before subscribing again
+            unregisterTelemetryListeners();
+
             // Altitude listener
-            telemetryService.setAltitudeChangedListener(new TelemetryService.AltitudeChangedListener() {
+            altitudeListener = new TelemetryService.AltitudeChangedListener() {
                 @Override
                 public void onAltitudeChanged(Double altitude) {
                     if (altitude != null) {
                         currentAltitude = altitude;
                         updateAltitudeDisplay(altitude);
+                        telemetryService.recordViewApplied(TelemetryChannelId.ALTITUDE);
                     }
                 }
-            });
+            };
 
             // Horizontal velocity listener
-            telemetryService.setHorizontalVelocityChangedListener(new TelemetryService.HorizontalVelocityChangedListener() {
+            horizontalVelocityListener = new TelemetryService.HorizontalVelocityChangedListener() {
                 @Override
                 public void onHorizontalVelocityChanged(Double velocity) {
                     if (velocity != null) {
                         currentHorizontalSpeed = velocity;
                         updateHorizontalSpeedDisplay(velocity);
+                        telemetryService.recordViewApplied(TelemetryChannelId.HORIZONTAL_VELOCITY);
                     }
                 }
-            });
+            };
 
             // Vertical velocity listener
-            telemetryService.setVerticalVelocityChangedListener(new TelemetryService.VerticalVelocityChangedListener() {
+            verticalVelocityListener = new TelemetryService.VerticalVelocityChangedListener() {
                 @Override
                 public void onVerticalVelocityChanged(Double velocity) {
                     if (velocity != null) {
                         currentVerticalSpeed = velocity;
                         updateVerticalSpeedDisplay(velocity);
+                        telemetryService.recordViewApplied(TelemetryChannelId.VERTICAL_VELOCITY);
                     }
                 }
-            });
+            };
 
-            // Location listener for distance calculation
-            telemetryService.setLocationChangedListener(new TelemetryService.LocationChangedListener() {
+            // Distance to home, computed once per location update by the telemetry metrics
+            distanceToHomeListener = new TelemetryService.DistanceToHomeChangedListener() {
                 @Override
-                public void onLocationChanged(LocationCoordinate3D location) {
-                    if (location != null) {
-                        updateDistanceFromLocation(location);
+                public void onDistanceToHomeChanged(Double distance) {
+                    if (distance != null) {
+                        updateDistanceDisplay(distance);
+                        telemetryService.recordViewApplied(TelemetryChannelId.DISTANCE_TO_HOME);
                     }
                 }
+            };
 
-                @Override
-                public void onHomeLocationChanged(LocationCoordinate2D location) {
+            telemetryService.addAltitudeChangedListener(altitudeListener, READOUT_RATE);
+            telemetryService.addHorizontalVelocityChangedListener(horizontalVelocityListener, READOUT_RATE);
+            telemetryService.addVerticalVelocityChangedListener(verticalVelocityListener, READOUT_RATE);
+            telemetryService.addDistanceToHomeChangedListener(distanceToHomeListener, DISTANCE_RATE);
 
-                }
-            });
+            if (hasHomeLocation) {
+                telemetryService.setMetricsHomeLocation(homeLatitude, homeLongitude);
+            }
 
             Log.d(TAG, "Telemetry listeners registered successfully");
 
@@ -141,6 +164,19 @@ public class SpeedDisplayManager {
         }
     }
 
+    /**
+     * Remove this manager's subscriptions, leaving other consumers untouched
+     */
+    private void unregisterTelemetryListeners() {
+        if (telemetryService == null) {
+            return;
+        }
+        telemetryService.removeAltitudeChangedListener(altitudeListener);
+        telemetryService.removeHorizontalVelocityChangedListener(horizontalVelocityListener);
+        telemetryService.removeVerticalVelocityChangedListener(verticalVelocityListener);
+        telemetryService.removeDistanceToHomeChangedListener(distanceToHomeListener);
+    }
+
     /**
      * Set home location for distance calculation
      * This should be called when the operator's position is known or when drone takes off
@@ -149,6 +185,9 @@ public class SpeedDisplayManager {
         this.homeLatitude = latitude;
         this.homeLongitude = longitude;
         this.hasHomeLocation = true;
+        if (telemetryService != null) {
+            telemetryService.setMetricsHomeLocation(latitude, longitude);
+        }
         
         Log.d(TAG, "Home location set: " + String.format("%.6f", latitude) + 
                   ", " + String.format("%.6f", longitude));
@@ -158,30 +197,6 @@ public class SpeedDisplayManager {
         updateDistanceDisplay(0.0);
     }
 
-    /**
-     * Update distance based on current drone location
-     */
-    private void updateDistanceFromLocation(LocationCoordinate3D droneLocation) {
-        try {
-            if (droneLocation == null || !hasHomeLocation) {
-                return;
-            }
-            
-            double droneLatitude = droneLocation.getLatitude();
-            double droneLongitude = droneLocation.getLongitude();
-            
-            if (isValidGpsCoordinate(droneLatitude, droneLongitude)) {
-                double distanceToHome = calculateDistance(homeLatitude, homeLongitude,
-                        droneLatitude, droneLongitude);
-                updateDistanceDisplay(distanceToHome);
-                
-                Log.v(TAG, "Distance from home to drone: " + String.format("%.2f", distanceToHome) + "m");
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating distance from location: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Update distance based on GPS coordinates
      * Call this method when drone location changes (for manual updates)
@@ -189,7 +204,7 @@ public class SpeedDisplayManager {
     public void updateDistance(double droneLatitude, double droneLongitude) {
         try {
             if (isValidGpsCoordinate(droneLatitude, droneLongitude) && hasHomeLocation) {
-                double distanceToHome = calculateDistance(homeLatitude, homeLongitude,
+                double distanceToHome = Geodesy.haversine(homeLatitude, homeLongitude,
                         droneLatitude, droneLongitude);
                 updateDistanceDisplay(distanceToHome);
                 Log.d(TAG, "Manual distance update: " + String.format("%.2f", distanceToHome) + "m");
@@ -213,7 +228,7 @@ public class SpeedDisplayManager {
                     setHomeLocation(homeLatitude, homeLongitude);
                 }
 
-                double distanceFromHome = calculateDistance(homeLatitude, homeLongitude,
+                double distanceFromHome = Geodesy.haversine(homeLatitude, homeLongitude,
                         droneLatitude, droneLongitude);
                 updateDistanceDisplay(distanceFromHome);
                 Log.d(TAG, "Distance from home to drone: " + String.format("%.2f", distanceFromHome) + "m");
@@ -223,24 +238,6 @@ public class SpeedDisplayManager {
         }
     }
 
-    /**
-     * Calculate distance between two GPS coordinates using Haversine formula
-     */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double EARTH_RADIUS = 6371000; // meters
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS * c;
-    }
-
     /**
      * Check if GPS coordinates are valid
      */
@@ -254,7 +251,7 @@ public class SpeedDisplayManager {
     private void updateDistanceDisplay(double distance) {
         if (distanceTxt == null) return;
 
-        uiHandler.post(() -> {
+        runOnUiThread(() -> {
             try {
                 String distanceText;
                 if (distance < 1000) {
@@ -272,7 +269,7 @@ public class SpeedDisplayManager {
     private void updateAltitudeDisplay(double altitude) {
         if (altitudeTxt == null) return;
 
-        uiHandler.post(() -> {
+        runOnUiThread(() -> {
             try {
                 String altitudeText = String.format(Locale.getDefault(), "%.1fm", altitude);
                 altitudeTxt.setText(altitudeText);
@@ -285,7 +282,7 @@ public class SpeedDisplayManager {
     private void updateHorizontalSpeedDisplay(double speed) {
         if (horizontalSpeedTxt == null) return;
 
-        uiHandler.post(() -> {
+        runOnUiThread(() -> {
             try {
                 String speedText = String.format(Locale.getDefault(), "%.1fm/s", speed);
                 horizontalSpeedTxt.setText(speedText);
@@ -298,7 +295,7 @@ public class SpeedDisplayManager {
     private void updateVerticalSpeedDisplay(double speed) {
         if (verticalSpeedTxt == null) return;
 
-        uiHandler.post(() -> {
+        runOnUiThread(() -> {
             try {
                 String speedText;
                 if (speed > 0.1) {
@@ -315,6 +312,18 @@ public class SpeedDisplayManager {
         });
     }
 
+    /**
+     * Run directly when already on the main thread (telemetry frame delivery),
+     * otherwise post to it
+     */
+    private void runOnUiThread(Runnable action) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            action.run();
+        } else {
+            uiHandler.post(action);
+        }
+    }
+
     /**
      * Reset all displays to default values
      */
@@ -345,10 +354,11 @@ public class SpeedDisplayManager {
     public void forceRefresh() {
         try {
             if (telemetryService != null) {
-                // Get current values from telemetry service
-                double altitude = telemetryService.getCurrentAltitude();
-                double horizontalVel = telemetryService.getCurrentHorizontalVelocity();
-                double verticalVel = telemetryService.getCurrentVerticalVelocity();
+                // Get current values from one consistent telemetry snapshot
+                TelemetrySnapshot snapshot = telemetryService.getSnapshot();
+                double altitude = snapshot.altitude;
+                double horizontalVel = snapshot.horizontalVelocity;
+                double verticalVel = snapshot.verticalVelocity;
 
                 updateAltitudeDisplay(altitude);
                 updateHorizontalSpeedDisplay(horizontalVel);
@@ -359,10 +369,9 @@ public class SpeedDisplayManager {
                 currentHorizontalSpeed = horizontalVel;
                 currentVerticalSpeed = verticalVel;
 
-                // Update distance if we have location data
-                LocationCoordinate3D currentLocation = telemetryService.getCurrentLocation();
-                if (currentLocation != null) {
-                    updateDistanceFromLocation(currentLocation);
+                // Update distance if it has been computed
+                if (snapshot.hasReceived(TelemetryChannelId.DISTANCE_TO_HOME)) {
+                    updateDistanceDisplay(snapshot.distanceToHome);
                 }
             }
 
@@ -378,6 +387,9 @@ public class SpeedDisplayManager {
     public void resetDistance() {
         totalDistance = 0.0;
         hasHomeLocation = false;
+        if (telemetryService != null) {
+            telemetryService.clearMetricsHomeLocation();
+        }
         updateDistanceDisplay(0.0);
         Log.d(TAG, "Distance counter reset");
     }
@@ -422,6 +434,8 @@ public class SpeedDisplayManager {
                 uiHandler.removeCallbacksAndMessages(null);
             }
 
+            unregisterTelemetryListeners();
+
             // Clear references
             distanceTxt = null;
             altitudeTxt = null;
@@ -9,6 +9,8 @@ import android.widget.TextView;
 
 import io.empowerbits.sightflight.R;
 import io.empowerbits.sightflight.Services.TelemetryService;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryRate;
 
 import java.util.Locale;
 
@@ -35,10 +37,16 @@ import java.util.Locale;
  */
 public class TelemetryDisplayManager {
     private static final String TAG = "TelemetryDisplayManager";
+
+    // Delivery rates - status icons change slowly, and the readouts show one decimal,
+    // so finer or faster updates would only redraw the same text
+    private static final TelemetryRate STATUS_RATE = TelemetryRate.maxRate(1.0);
+    private static final TelemetryRate LINK_SIGNAL_RATE = TelemetryRate.maxRate(2.0);
+    private static final TelemetryRate READOUT_RATE = TelemetryRate.of(5.0, 0.1);
     
     // Context and UI thread handler
     private final Context context;
-    private final Handler uiHandler;
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
     
     // Services
     private TelemetryService telemetryService;
@@ -61,6 +69,50 @@ public class TelemetryDisplayManager {
     private TextView verticalSpeedText;
     private TextView distanceText;
     
+    // Telemetry subscriptions, kept so cleanup removes exactly what was registered.
+    // TelemetryService already delivers on the main thread once per frame, so views are updated directly
+    // and each update is reported back for the latency instrumentation.
+    private final TelemetryService.FlightModeChangedListener flightModeListener =
+            flightMode -> {
+                updateFlightModeUI(flightMode);
+                viewApplied(TelemetryChannelId.FLIGHT_MODE);
+            };
+    private final TelemetryService.GpsSignalStatusChangedListener gpsSignalListener =
+            signalLevel -> {
+                updateGpsSignalUI(signalLevel);
+                viewApplied(TelemetryChannelId.GPS_SIGNAL);
+            };
+    private final TelemetryService.GpsSatCountChangedListener satCountListener =
+            satCount -> {
+                updateSatelliteCountUI(satCount);
+                viewApplied(TelemetryChannelId.SATELLITE_COUNT);
+            };
+    private final TelemetryService.LinkSignalQualityChangedListener linkSignalListener =
+            signalQuality -> {
+                updateRemoteSignalUI(signalQuality);
+                viewApplied(TelemetryChannelId.LINK_SIGNAL);
+            };
+    private final TelemetryService.BatteryChargeChangedListener batteryListener =
+            batteryPercentage -> {
+                updateBatteryUI(batteryPercentage);
+                viewApplied(TelemetryChannelId.BATTERY);
+            };
+    private final TelemetryService.AltitudeChangedListener altitudeListener =
+            altitude -> {
+                updateAltitudeUI(altitude);
+                viewApplied(TelemetryChannelId.ALTITUDE);
+            };
+    private final TelemetryService.HorizontalVelocityChangedListener horizontalSpeedListener =
+            speed -> {
+                updateHorizontalSpeedUI(speed);
+                viewApplied(TelemetryChannelId.HORIZONTAL_VELOCITY);
+            };
+    private final TelemetryService.VerticalVelocityChangedListener verticalSpeedListener =
+            speed -> {
+                updateVerticalSpeedUI(speed);
+                viewApplied(TelemetryChannelId.VERTICAL_VELOCITY);
+            };
+    
     // State tracking
     private boolean isInitialized = false;
     private String activityName;
@@ -73,7 +125,6 @@ public class TelemetryDisplayManager {
     public TelemetryDisplayManager(Context context, String activityName) {
         this.context = context;
         this.activityName = activityName;
-        this.uiHandler = new Handler(Looper.getMainLooper());
         Log.d(TAG, "TelemetryDisplayManager created for " + activityName);
     }
 
@@ -133,47 +184,31 @@ public class TelemetryDisplayManager {
         
         try {
             // Flight mode listener
-            telemetryService.setFlightModeChangedListener(flightMode -> {
-                uiHandler.post(() -> updateFlightModeUI(flightMode));
-            });
+            telemetryService.addFlightModeChangedListener(flightModeListener);
 
             // GPS signal status listener
-            telemetryService.setGpsSignalStatusChangedListener(signalLevel -> {
-                uiHandler.post(() -> updateGpsSignalUI(signalLevel));
-            });
+            telemetryService.addGpsSignalStatusChangedListener(gpsSignalListener, STATUS_RATE);
 
             // GPS satellite count listener
-            telemetryService.setGpsSatCountChangedListener(satCount -> {
-                uiHandler.post(() -> updateSatelliteCountUI(satCount));
-            });
+            telemetryService.addGpsSatCountChangedListener(satCountListener, STATUS_RATE);
 
             // Link signal quality listener (for remote signal)
-            telemetryService.setLinkSignalQualityChangedListener(signalQuality -> {
-                uiHandler.post(() -> updateRemoteSignalUI(signalQuality));
-            });
+            telemetryService.addLinkSignalQualityChangedListener(linkSignalListener, LINK_SIGNAL_RATE);
 
             // Battery charge listener
-            telemetryService.setBatteryChargeChangedListener(batteryPercentage -> {
-                uiHandler.post(() -> updateBatteryUI(batteryPercentage));
-            });
+            telemetryService.addBatteryChargeChangedListener(batteryListener, STATUS_RATE);
             
             // Dynamic telemetry listeners (if additional components are available)
             if (altitudeText != null) {
-                telemetryService.setAltitudeChangedListener(altitude -> {
-                    uiHandler.post(() -> updateAltitudeUI(altitude));
-                });
+                telemetryService.addAltitudeChangedListener(altitudeListener, READOUT_RATE);
             }
             
             if (horizontalSpeedText != null) {
-                telemetryService.setHorizontalVelocityChangedListener(speed -> {
-                    uiHandler.post(() -> updateHorizontalSpeedUI(speed));
-                });
+                telemetryService.addHorizontalVelocityChangedListener(horizontalSpeedListener, READOUT_RATE);
             }
             
             if (verticalSpeedText != null) {
-                telemetryService.setVerticalVelocityChangedListener(speed -> {
-                    uiHandler.post(() -> updateVerticalSpeedUI(speed));
-                });
+                telemetryService.addVerticalVelocityChangedListener(verticalSpeedListener, READOUT_RATE);
             }
 
             Log.d(TAG, "Telemetry listeners setup successfully for " + activityName);
@@ -182,6 +217,32 @@ public class TelemetryDisplayManager {
         }
     }
 
+    /**
+     * Remove this manager's subscriptions, leaving other consumers untouched
+     */
+    private void removeTelemetryListeners() {
+        if (telemetryService == null) {
+            return;
+        }
+        telemetryService.removeFlightModeChangedListener(flightModeListener);
+        telemetryService.removeGpsSignalStatusChangedListener(gpsSignalListener);
+        telemetryService.removeGpsSatCountChangedListener(satCountListener);
+        telemetryService.removeLinkSignalQualityChangedListener(linkSignalListener);
+        telemetryService.removeBatteryChargeChangedListener(batteryListener);
+        telemetryService.removeAltitudeChangedListener(altitudeListener);
+        telemetryService.removeHorizontalVelocityChangedListener(horizontalSpeedListener);
+        telemetryService.removeVerticalVelocityChangedListener(verticalSpeedListener);
+    }
+
+    /**
+     * A telemetry value reached its view
+     */
+    private void viewApplied(int channelId) {
+        if (telemetryService != null) {
+            telemetryService.recordViewApplied(channelId);
+        }
+    }
+
     private void updateFlightModeUI(String flightMode) {
         try {
             if (flightModeText != null) {
@@ -458,6 +519,9 @@ public class TelemetryDisplayManager {
      */
     public void cleanup() {
         try {
+            // Unsubscribe before dropping the service reference
+            removeTelemetryListeners();
+            
             // Clear UI references
             flightModeText = null;
             satelliteCountText = null;
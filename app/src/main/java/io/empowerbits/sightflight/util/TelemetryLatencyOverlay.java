@@ -0,0 +1,134 @@
+package io.empowerbits.sightflight.util;
+
+import android.app.Activity;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import io.empowerbits.sightflight.Services.TelemetryService;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+
+/**
+ * TelemetryLatencyOverlay - Debug overlay of telemetry latency on top of an activity
+ *
+ * Shows p50/p99/max of the time from the SDK callback to the view for the channels the
+ * HUD depends on, refreshed once a second. Long-press writes the full per-channel
+ * report to the app's external files directory.
+ *
+ * Only attaches in debuggable builds, so activities can call show() unconditionally.
+ */
+public class TelemetryLatencyOverlay {
+    private static final String TAG = "TelemetryLatencyOverlay";
+
+    private static final long REFRESH_INTERVAL_MS = 1000;
+    private static final String REPORTS_DIR = "telemetry_latency";
+
+    private static final int[] CHANNELS = {
+            TelemetryChannelId.LOCATION,
+            TelemetryChannelId.HEADING,
+            TelemetryChannelId.ALTITUDE,
+            TelemetryChannelId.HORIZONTAL_VELOCITY,
+            TelemetryChannelId.BATTERY,
+            TelemetryChannelId.DISTANCE_TO_HOME
+    };
+
+    private final Activity activity;
+    private final TelemetryService telemetryService;
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private TextView overlayText;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            if (overlayText == null) {
+                return;
+            }
+            overlayText.setText(telemetryService.getLatencyMonitor().summary(CHANNELS));
+            uiHandler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+
+    public TelemetryLatencyOverlay(Activity activity, TelemetryService telemetryService) {
+        this.activity = activity;
+        this.telemetryService = telemetryService;
+    }
+
+    /**
+     * Attach the overlay to the activity content, a no-op in release builds
+     */
+    public void show() {
+        if (overlayText != null || telemetryService == null || !isDebuggable()) {
+            return;
+        }
+        try {
+            ViewGroup content = activity.findViewById(android.R.id.content);
+            if (content == null) {
+                return;
+            }
+            overlayText = new TextView(activity);
+            overlayText.setTypeface(Typeface.MONOSPACE);
+            overlayText.setTextSize(TypedValue.COMPLEX_UNIT_SP, 9);
+            overlayText.setTextColor(Color.WHITE);
+            overlayText.setBackgroundColor(Color.argb(140, 0, 0, 0));
+            int padding = Math.round(4 * activity.getResources().getDisplayMetrics().density);
+            overlayText.setPadding(padding, padding, padding, padding);
+            overlayText.setOnLongClickListener(v -> {
+                dumpReport();
+                return true;
+            });
+
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                    Gravity.BOTTOM | Gravity.START);
+            content.addView(overlayText, params);
+            uiHandler.post(refresh);
+            Log.d(TAG, "Latency overlay shown");
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing latency overlay: " + e.getMessage(), e);
+        }
+    }
+
+    public void hide() {
+        uiHandler.removeCallbacks(refresh);
+        if (overlayText != null) {
+            ViewGroup parent = (ViewGroup) overlayText.getParent();
+            if (parent != null) {
+                parent.removeView(overlayText);
+            }
+            overlayText = null;
+        }
+    }
+
+    private void dumpReport() {
+        try {
+            File directory = activity.getExternalFilesDir(REPORTS_DIR);
+            if (directory == null) {
+                directory = new File(activity.getFilesDir(), REPORTS_DIR);
+            }
+            String name = "latency-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".txt";
+            File file = telemetryService.dumpLatencyReport(new File(directory, name));
+            Toast.makeText(activity, "Latency report saved: " + file.getName(), Toast.LENGTH_SHORT).show();
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing latency report: " + e.getMessage(), e);
+            Toast.makeText(activity, "Could not save latency report", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private boolean isDebuggable() {
+        return (activity.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+}
@@ -0,0 +1,303 @@
+package io.empowerbits.sightflight.util.geo;
+
+/**
+ * Geodesy - Distances, bearings and destination points on a spherical earth
+ *
+ * One implementation for the NFZ checks, mission planning, flight-time prediction and
+ * the HUD, which each carried their own haversine. Angles are in degrees, distances in
+ * meters, on a sphere of the mean earth radius (the same model the SDK distance
+ * readouts and the previous copies used, within 0.5% of the ellipsoid).
+ *
+ * The batch methods work on primitive arrays and allocate nothing, for the loops that
+ * run per waypoint or per telemetry fix. equirectangular is the fast mode for short
+ * ranges: a single cosine and square root instead of the haversine's trigonometry,
+ * within FAST_MAX_RELATIVE_ERROR of it up to FAST_MAX_DISTANCE_METERS below
+ * FAST_MAX_LATITUDE.
+ *
+ * Plain Java, usable on the JVM (see the benchmarks and missioncompiler modules).
+ */
+public final class Geodesy {
+
+    /** Mean earth radius */
+    public static final double EARTH_RADIUS_METERS = 6371000.0;
+    /** Length of one degree of latitude, and of longitude on the equator */
+    public static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180.0;
+
+    /** Range the equirectangular error bound holds for */
+    public static final double FAST_MAX_DISTANCE_METERS = 10000.0;
+    /** Highest latitude, either hemisphere, the equirectangular error bound holds at */
+    public static final double FAST_MAX_LATITUDE = 80.0;
+    /**
+     * Largest relative difference between equirectangular and haversine in that range;
+     * measured worst case is 3.7e-6, at 80 degrees over 10 km (under 4 cm)
+     */
+    public static final double FAST_MAX_RELATIVE_ERROR = 1e-5;
+
+    // Points between exact evaluations of the stepped angles in arc
+    private static final int RECURRENCE_RESEED = 64;
+
+    private Geodesy() {}
+
+    /**
+     * Great-circle distance
+     */
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Flat-earth distance at the mean latitude, for short ranges (see FAST_MAX_RELATIVE_ERROR)
+     */
+    public static double equirectangular(double lat1, double lon1, double lat2, double lon2) {
+        // Across the antimeridian the short way round is the other side
+        double x = Math.toRadians(normalizeLongitude(lon2 - lon1)) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Whether equirectangular is within FAST_MAX_RELATIVE_ERROR for this pair
+     */
+    public static boolean isFastAccurate(double lat1, double lon1, double lat2, double lon2) {
+        return Math.abs(lat1) <= FAST_MAX_LATITUDE && Math.abs(lat2) <= FAST_MAX_LATITUDE
+                && equirectangular(lat1, lon1, lat2, lon2) <= FAST_MAX_DISTANCE_METERS;
+    }
+
+    /**
+     * Initial bearing from the first point toward the second, 0 to 360 clockwise from north
+     */
+    public static double bearing(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double cosPhi2 = Math.cos(phi2);
+        double y = Math.sin(dLon) * cosPhi2;
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * cosPhi2 * Math.cos(dLon);
+        return normalizeBearing(Math.toDegrees(Math.atan2(y, x)));
+    }
+
+    /**
+     * Point reached from a start point along a great circle
+     * @param out Receives latitude at 0 and longitude at 1
+     */
+    public static void destination(double lat, double lon, double bearing, double distanceMeters, double[] out) {
+        double phi1 = Math.toRadians(lat);
+        double delta = distanceMeters / EARTH_RADIUS_METERS;
+        destination(Math.sin(phi1), Math.cos(phi1), lon, Math.sin(delta), Math.cos(delta),
+                Math.toRadians(bearing), out, 0, out, 1);
+    }
+
+    // Batch
+
+    /**
+     * Distance of each leg of a path, legs[i] from point i to i + 1
+     * @param legs At least lats.length - 1 long
+     * @return Length of the whole path
+     */
+    public static double legDistances(double[] lats, double[] lons, double[] legs) {
+        int n = lats.length;
+        checkLength(lons, n);
+        checkLength(legs, n - 1);
+        double total = 0;
+        if (n == 0) {
+            return total;
+        }
+        double cosPrev = Math.cos(Math.toRadians(lats[0]));
+        for (int i = 1; i < n; i++) {
+            double cos = Math.cos(Math.toRadians(lats[i]));
+            double sinLat = Math.sin(Math.toRadians(lats[i] - lats[i - 1]) / 2);
+            double sinLon = Math.sin(Math.toRadians(lons[i] - lons[i - 1]) / 2);
+            double a = sinLat * sinLat + cosPrev * cos * sinLon * sinLon;
+            double leg = 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+            legs[i - 1] = leg;
+            total += leg;
+            cosPrev = cos;
+        }
+        return total;
+    }
+
+    /**
+     * Great-circle distance from one point to each of the others
+     */
+    public static void distancesFrom(double lat, double lon, double[] lats, double[] lons, double[] distances) {
+        int n = lats.length;
+        checkLength(lons, n);
+        checkLength(distances, n);
+        double cos0 = Math.cos(Math.toRadians(lat));
+        for (int i = 0; i < n; i++) {
+            double sinLat = Math.sin(Math.toRadians(lats[i] - lat) / 2);
+            double sinLon = Math.sin(Math.toRadians(lons[i] - lon) / 2);
+            double a = sinLat * sinLat + cos0 * Math.cos(Math.toRadians(lats[i])) * sinLon * sinLon;
+            distances[i] = 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        }
+    }
+
+    /**
+     * equirectangular from one point to each of the others, for points within
+     * FAST_MAX_DISTANCE_METERS of it
+     */
+    public static void fastDistancesFrom(double lat, double lon, double[] lats, double[] lons, double[] distances) {
+        int n = lats.length;
+        checkLength(lons, n);
+        checkLength(distances, n);
+        for (int i = 0; i < n; i++) {
+            distances[i] = equirectangular(lat, lon, lats[i], lons[i]);
+        }
+    }
+
+    /**
+     * Initial bearing of each leg of a path, bearings[i] from point i to i + 1
+     * @param bearings At least lats.length - 1 long
+     */
+    public static void bearings(double[] lats, double[] lons, double[] bearings) {
+        int n = lats.length;
+        checkLength(lons, n);
+        checkLength(bearings, n - 1);
+        if (n == 0) {
+            return;
+        }
+        double phi = Math.toRadians(lats[0]);
+        double sinPrev = Math.sin(phi);
+        double cosPrev = Math.cos(phi);
+        for (int i = 1; i < n; i++) {
+            phi = Math.toRadians(lats[i]);
+            double sin = Math.sin(phi);
+            double cos = Math.cos(phi);
+            double dLon = Math.toRadians(lons[i] - lons[i - 1]);
+            double y = Math.sin(dLon) * cos;
+            double x = cosPrev * sin - sinPrev * cos * Math.cos(dLon);
+            bearings[i - 1] = normalizeBearing(Math.toDegrees(Math.atan2(y, x)));
+            sinPrev = sin;
+            cosPrev = cos;
+        }
+    }
+
+    /**
+     * Points reached from one start point, one per bearing and distance
+     */
+    public static void destinations(double lat, double lon, double[] bearings, double[] distances,
+                                    double[] outLats, double[] outLons) {
+        int n = bearings.length;
+        checkLength(distances, n);
+        checkLength(outLats, n);
+        checkLength(outLons, n);
+        double phi1 = Math.toRadians(lat);
+        double sinPhi1 = Math.sin(phi1);
+        double cosPhi1 = Math.cos(phi1);
+        for (int i = 0; i < n; i++) {
+            double delta = distances[i] / EARTH_RADIUS_METERS;
+            destination(sinPhi1, cosPhi1, lon, Math.sin(delta), Math.cos(delta), Math.toRadians(bearings[i]),
+                    outLats, i, outLons, i);
+        }
+    }
+
+    /**
+     * count points evenly spaced on a circle around a center, clockwise from startBearing
+     * @param outLats At least count long, as outLons
+     */
+    public static void circle(double lat, double lon, double radiusMeters, int count, double startBearing,
+                              double[] outLats, double[] outLons) {
+        arc(lat, lon, startBearing, 360.0 / count, radiusMeters, 0, count, outLats, outLons);
+    }
+
+    /**
+     * count points around a center, point i at bearing startBearing + i * bearingStep and
+     * distance startDistance + i * distanceStep; a circle, a spiral, or a radial line
+     * @param outLats At least count long, as outLons
+     */
+    public static void arc(double lat, double lon, double startBearing, double bearingStep, double startDistance,
+                           double distanceStep, int count, double[] outLats, double[] outLons) {
+        checkLength(outLats, count);
+        checkLength(outLons, count);
+        double phi1 = Math.toRadians(lat);
+        double sinPhi1 = Math.sin(phi1);
+        double cosPhi1 = Math.cos(phi1);
+        double theta0 = Math.toRadians(startBearing);
+        double thetaStep = Math.toRadians(bearingStep);
+        double delta0 = startDistance / EARTH_RADIUS_METERS;
+        double deltaStep = distanceStep / EARTH_RADIUS_METERS;
+        // Both angles advance by a fixed step, rotate their sine and cosine instead of
+        // evaluating them per point, and start over from the exact values now and then
+        double sinStepTheta = Math.sin(thetaStep);
+        double cosStepTheta = Math.cos(thetaStep);
+        double sinStepDelta = Math.sin(deltaStep);
+        double cosStepDelta = Math.cos(deltaStep);
+        double sinTheta = 0;
+        double cosTheta = 1;
+        double sinDelta = 0;
+        double cosDelta = 1;
+        for (int i = 0; i < count; i++) {
+            if (i % RECURRENCE_RESEED == 0) {
+                double theta = theta0 + i * thetaStep;
+                double delta = delta0 + i * deltaStep;
+                sinTheta = Math.sin(theta);
+                cosTheta = Math.cos(theta);
+                sinDelta = Math.sin(delta);
+                cosDelta = Math.cos(delta);
+            } else {
+                double sin = sinTheta * cosStepTheta + cosTheta * sinStepTheta;
+                cosTheta = cosTheta * cosStepTheta - sinTheta * sinStepTheta;
+                sinTheta = sin;
+                if (deltaStep != 0) {
+                    sin = sinDelta * cosStepDelta + cosDelta * sinStepDelta;
+                    cosDelta = cosDelta * cosStepDelta - sinDelta * sinStepDelta;
+                    sinDelta = sin;
+                }
+            }
+            destination(sinPhi1, cosPhi1, lon, sinDelta, cosDelta, sinTheta, cosTheta, outLats, i, outLons, i);
+        }
+    }
+
+    private static void destination(double sinPhi1, double cosPhi1, double lon, double sinDelta, double cosDelta,
+                                    double theta, double[] outLats, int latIndex, double[] outLons, int lonIndex) {
+        destination(sinPhi1, cosPhi1, lon, sinDelta, cosDelta, Math.sin(theta), Math.cos(theta),
+                outLats, latIndex, outLons, lonIndex);
+    }
+
+    private static void destination(double sinPhi1, double cosPhi1, double lon, double sinDelta, double cosDelta,
+                                    double sinTheta, double cosTheta, double[] outLats, int latIndex,
+                                    double[] outLons, int lonIndex) {
+        double sinPhi2 = Math.max(-1, Math.min(1, sinPhi1 * cosDelta + cosPhi1 * sinDelta * cosTheta));
+        double cosPhi2 = Math.sqrt(1 - sinPhi2 * sinPhi2);
+        // atan instead of asin and atan2 where the quadrant allows, several times faster
+        double phi2 = cosPhi2 > 0 ? Math.atan(sinPhi2 / cosPhi2) : Math.copySign(Math.PI / 2, sinPhi2);
+        double y = sinTheta * sinDelta * cosPhi1;
+        double x = cosDelta - sinPhi1 * sinPhi2;
+        double lambda = x > 0 ? Math.atan(y / x) : Math.atan2(y, x);
+        outLats[latIndex] = Math.toDegrees(phi2);
+        outLons[lonIndex] = normalizeLongitude(lon + Math.toDegrees(lambda));
+    }
+
+    /**
+     * Bearing folded into 0 (inclusive) to 360 (exclusive)
+     */
+    public static double normalizeBearing(double degrees) {
+        double bearing = degrees % 360.0;
+        if (bearing < 0) {
+            bearing += 360.0;
+        }
+        // A tiny negative remainder rounds up to 360
+        return bearing < 360.0 ? bearing : 0.0;
+    }
+
+    /**
+     * Longitude folded into -180 (inclusive) to 180 (exclusive)
+     */
+    public static double normalizeLongitude(double degrees) {
+        if (degrees >= -180.0 && degrees < 180.0) {
+            return degrees;
+        }
+        double longitude = (degrees + 180.0) % 360.0;
+        return (longitude < 0 ? longitude + 360.0 : longitude) - 180.0;
+    }
+
+    private static void checkLength(double[] array, int length) {
+        if (array.length < Math.max(0, length)) {
+            throw new IllegalArgumentException("Array of " + array.length + " for " + length + " values");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+
+/**
+ * AircraftProfileRules - The KmzRules that bring WPMZManager output to an aircraft profile
+ *
+ * WPMZManager writes WpmlAircraftProfile.SDK_DEFAULT; every way the profile differs
+ * from it (efficiency flight mode, drone and payload enums, namespace version,
+ * unsupported actions) becomes one rule. KmzCleaner caches a KmzTransformer per profile.
+ */
+public final class AircraftProfileRules {
+
+    private static final String TEMPLATE_KML = "template.kml";
+    private static final String WAYLINES_WPML = "waylines.wpml";
+    private static final String EFFICIENCY_FLIGHT_MODE = "wpml:efficiencyFlightModeEnable";
+
+    private AircraftProfileRules() {
+    }
+
+    public static List<KmzRule> forProfile(WpmlAircraftProfile profile) {
+        WpmlAircraftProfile sdk = WpmlAircraftProfile.SDK_DEFAULT;
+        List<KmzRule> rules = new ArrayList<>();
+        if (!profile.isEfficiencyFlightModeSupported()) {
+            rules.add(new RemoveElementRule(EFFICIENCY_FLIGHT_MODE, TEMPLATE_KML, WAYLINES_WPML));
+        } else if (profile.isEfficiencyFlightModeEnabled()) {
+            rules.add(new ReplaceElementTextRule(EFFICIENCY_FLIGHT_MODE, "1", TEMPLATE_KML, WAYLINES_WPML));
+        }
+        addEnumRule(rules, "wpml:droneEnumValue", sdk.getDroneEnumValue(), profile.getDroneEnumValue());
+        addEnumRule(rules, "wpml:droneSubEnumValue", sdk.getDroneSubEnumValue(), profile.getDroneSubEnumValue());
+        addEnumRule(rules, "wpml:payloadEnumValue", sdk.getPayloadEnumValue(), profile.getPayloadEnumValue());
+        if (!profile.getWpmlVersion().equals(sdk.getWpmlVersion())) {
+            rules.add(new ReplaceAttributeValueRule("fix wpml namespace", "xmlns:wpml",
+                    sdk.getWpmlNamespace(), profile.getWpmlNamespace(), TEMPLATE_KML, WAYLINES_WPML));
+        }
+        // e.g. Mini 4 Pro does not support: gimbalRotate, gimbalEvenlyRotate
+        List<String> unsupported = new ArrayList<>();
+        for (String action : sdk.getSupportedActions()) {
+            if (!profile.supportsAction(action)) {
+                unsupported.add(action);
+            }
+        }
+        if (!unsupported.isEmpty()) {
+            rules.add(new RemoveActionGroupRule("remove unsupported actions",
+                    unsupported.toArray(new String[0]), WAYLINES_WPML));
+        }
+        return rules;
+    }
+
+    private static void addEnumRule(List<KmzRule> rules, String elementName, int sdkValue, int profileValue) {
+        if (sdkValue != profileValue) {
+            rules.add(new ReplaceElementTextRule(elementName, String.valueOf(profileValue), TEMPLATE_KML,
+                    WAYLINES_WPML));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ElementCaptureFilter - Base for filters that keep or drop whole elements
+ *
+ * Every occurrence of the watched element is captured from its start tag to its
+ * matching end tag, together with the indentation in front of it. The subclass sees
+ * each captured token and decides at the end tag whether the element is dropped or
+ * passed on unchanged. Dropping an element that sits on its own line removes the
+ * whole line. Only one element is held at a time, so memory stays bounded by the
+ * largest captured element, and nothing is held when content is not buffered.
+ */
+abstract class ElementCaptureFilter extends XmlFilter {
+
+    private final String elementName;
+    private final boolean bufferContent;
+
+    // Whitespace seen since the last token, passed on with the next one unless dropped
+    private final StringBuilder heldWhitespace = new StringBuilder();
+    private final XmlToken whitespaceToken = new XmlToken();
+    private boolean holdingWhitespace;
+
+    // Element being captured
+    private int depth;
+    private String leadingWhitespace;
+    private final List<XmlToken> captured = new ArrayList<>();
+
+    /**
+     * @param bufferContent Keep the captured tokens so the element can be passed on;
+     *                      without it every captured element is dropped
+     */
+    ElementCaptureFilter(XmlFilter downstream, String elementName, boolean bufferContent) {
+        super(downstream);
+        this.elementName = elementName;
+        this.bufferContent = bufferContent;
+    }
+
+    /**
+     * A new element starts, with its start tag
+     */
+    protected abstract void onCaptureStart(XmlToken startTag);
+
+    /**
+     * A token inside the element, after the start tag and up to the end tag
+     */
+    protected abstract void onCapturedToken(XmlToken token);
+
+    /**
+     * The element ended
+     * @return true to drop it, false to pass it on
+     */
+    protected abstract boolean dropCaptured();
+
+    @Override
+    public final void onToken(XmlToken token) throws IOException {
+        if (depth > 0) {
+            capture(token);
+            if (token.isStartTag(elementName) && !token.isSelfClosing()) {
+                depth++;
+            } else if (token.isEndTag(elementName) && --depth == 0) {
+                endCapture();
+            }
+            return;
+        }
+        if (token.isWhitespace()) {
+            releaseWhitespace();
+            heldWhitespace.append(token.raw);
+            holdingWhitespace = true;
+            return;
+        }
+        if (token.isStartTag(elementName)) {
+            leadingWhitespace = holdingWhitespace ? heldWhitespace.toString() : null;
+            holdingWhitespace = false;
+            heldWhitespace.setLength(0);
+            onCaptureStart(token);
+            if (bufferContent) {
+                captured.add(token.copy());
+            }
+            if (token.isSelfClosing()) {
+                endCapture();
+            } else {
+                depth = 1;
+            }
+            return;
+        }
+        releaseWhitespace();
+        downstream.onToken(token);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (depth > 0) {
+            throw new IOException("Unterminated " + elementName + " element");
+        }
+        releaseWhitespace();
+        super.finish();
+    }
+
+    private void capture(XmlToken token) {
+        onCapturedToken(token);
+        if (bufferContent) {
+            captured.add(token.copy());
+        }
+    }
+
+    private void endCapture() throws IOException {
+        boolean drop = dropCaptured() || !bufferContent;
+        if (!drop) {
+            if (leadingWhitespace != null) {
+                emitWhitespace(leadingWhitespace);
+            }
+            for (XmlToken token : captured) {
+                downstream.onToken(token);
+            }
+        }
+        captured.clear();
+        leadingWhitespace = null;
+    }
+
+    private void releaseWhitespace() throws IOException {
+        if (holdingWhitespace) {
+            emitWhitespace(heldWhitespace);
+            holdingWhitespace = false;
+        }
+        heldWhitespace.setLength(0);
+    }
+
+    private void emitWhitespace(CharSequence whitespace) throws IOException {
+        whitespaceToken.clear(XmlToken.TEXT);
+        whitespaceToken.raw.append(whitespace);
+        downstream.onToken(whitespaceToken);
+    }
+}
@@ -0,0 +1,27 @@
+package io.empowerbits.sightflight.util.kmz;
+
+/**
+ * KmzRule - One transformation applied to the XML entries of a KMZ archive
+ *
+ * A rule creates a fresh XmlFilter for each entry it applies to; KmzTransformer
+ * chains the filters of all applicable rules so every entry is read and rewritten
+ * exactly once whatever the number of rules.
+ */
+public interface KmzRule {
+
+    /**
+     * Short name for logs and timing reports
+     */
+    String getName();
+
+    /**
+     * @param entryName Path of the entry inside the archive, such as "wpmz/waylines.wpml"
+     */
+    boolean appliesTo(String entryName);
+
+    /**
+     * Filter for one entry
+     * @param changes Count every change made, for the transform report
+     */
+    XmlFilter newFilter(XmlFilter downstream, KmzTransformer.RuleStats changes);
+}
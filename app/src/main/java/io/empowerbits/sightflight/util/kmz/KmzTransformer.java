@@ -0,0 +1,381 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * KmzTransformer - Single-pass zip-to-zip rewrite of the XML entries of a KMZ
+ *
+ * Each entry is read from the source archive once and written straight into the
+ * target archive. XML entries stream through XmlTokenizer and the filters of every
+ * applicable KmzRule chained together, all other entries are copied as they are.
+ * Nothing is extracted to disk and memory stays bounded by the stream buffers plus
+ * the largest element a rule holds back.
+ *
+ * Each entry is timed with System.nanoTime at every hand-over between stages, so the
+ * time between two hand-overs is charged to the rule that was running. Reading
+ * (inflating and tokenizing) and writing (encoding and deflating) are reported as
+ * stages of their own.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class KmzTransformer {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final String[] XML_SUFFIXES = {".kml", ".wpml", ".xml"};
+
+    /**
+     * Time and changes of one rule or stage over a whole transform
+     */
+    public static final class RuleStats {
+        private final String name;
+        private long nanos;
+        private int changes;
+
+        RuleStats(String name) {
+            this.name = name;
+        }
+
+        public void countChange() {
+            changes++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Time spent in the rule over all entries it applied to
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        public int getChanges() {
+            return changes;
+        }
+    }
+
+    /**
+     * Outcome of one transform
+     */
+    public static final class Result {
+        private final List<RuleStats> ruleStats;
+        private final RuleStats readStats;
+        private final RuleStats writeStats;
+        int entryCount;
+        int xmlEntryCount;
+        long tokenCount;
+        long totalNanos;
+
+        Result(List<RuleStats> ruleStats, RuleStats readStats, RuleStats writeStats) {
+            this.ruleStats = ruleStats;
+            this.readStats = readStats;
+            this.writeStats = writeStats;
+        }
+
+        public List<RuleStats> getRuleStats() {
+            return Collections.unmodifiableList(ruleStats);
+        }
+
+        public RuleStats getReadStats() {
+            return readStats;
+        }
+
+        public RuleStats getWriteStats() {
+            return writeStats;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public int getXmlEntryCount() {
+            return xmlEntryCount;
+        }
+
+        public long getTokenCount() {
+            return tokenCount;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public int getTotalChanges() {
+            int total = 0;
+            for (RuleStats stats : ruleStats) {
+                total += stats.changes;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder(String.format(Locale.US,
+                    "%d entries (%d XML, %d tokens) in %.2f ms; read %.2f ms, write %.2f ms",
+                    entryCount, xmlEntryCount, tokenCount, totalNanos / 1e6,
+                    readStats.getNanos() / 1e6, writeStats.getNanos() / 1e6));
+            for (RuleStats stats : ruleStats) {
+                summary.append(String.format(Locale.US, "; %s: %d changes, %.2f ms",
+                        stats.name, stats.changes, stats.getNanos() / 1e6));
+            }
+            return summary.toString();
+        }
+    }
+
+    /**
+     * Charges the time between switches to the stage that was running
+     */
+    private static final class StageClock {
+        private long last;
+        private RuleStats current;
+
+        StageClock(RuleStats first) {
+            current = first;
+            last = System.nanoTime();
+        }
+
+        void enter(RuleStats stage) {
+            long now = System.nanoTime();
+            current.nanos += now - last;
+            last = now;
+            current = stage;
+        }
+    }
+
+    /**
+     * Link between two stages of the chain that moves the clock to the downstream one
+     */
+    private static final class StageBoundary extends XmlFilter {
+        private final StageClock clock;
+        private final RuleStats upstreamStage;
+        private final RuleStats downstreamStage;
+
+        StageBoundary(XmlFilter downstream, StageClock clock, RuleStats upstreamStage, RuleStats downstreamStage) {
+            super(downstream);
+            this.clock = clock;
+            this.upstreamStage = upstreamStage;
+            this.downstreamStage = downstreamStage;
+        }
+
+        @Override
+        public void onToken(XmlToken token) throws IOException {
+            clock.enter(downstreamStage);
+            downstream.onToken(token);
+            clock.enter(upstreamStage);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            clock.enter(downstreamStage);
+            downstream.finish();
+            clock.enter(upstreamStage);
+        }
+    }
+
+    /**
+     * End of the chain, writes every token's raw text without allocating
+     */
+    private static final class WriterSink extends XmlFilter {
+        private final Writer writer;
+        private char[] scratch = new char[1024];
+
+        WriterSink(Writer writer) {
+            super(null);
+            this.writer = writer;
+        }
+
+        @Override
+        public void onToken(XmlToken token) throws IOException {
+            StringBuilder raw = token.raw;
+            int length = raw.length();
+            if (length > scratch.length) {
+                scratch = new char[Math.max(length, scratch.length * 2)];
+            }
+            raw.getChars(0, length, scratch, 0);
+            writer.write(scratch, 0, length);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final List<KmzRule> rules;
+
+    public KmzTransformer(List<KmzRule> rules) {
+        this.rules = new ArrayList<>(rules);
+    }
+
+    public List<KmzRule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Transform a KMZ file into another file, which must not be the source
+     */
+    public Result transform(File source, File target) throws IOException {
+        if (source.getCanonicalFile().equals(target.getCanonicalFile())) {
+            throw new IOException("KMZ transform target must differ from the source: " + source);
+        }
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new FileOutputStream(target)) {
+            return transform(in, out);
+        }
+    }
+
+    /**
+     * Read a KMZ archive from in and write the transformed archive to out. Neither
+     * stream is closed; out receives the complete archive before this returns.
+     */
+    public Result transform(InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        List<RuleStats> ruleStats = new ArrayList<>(rules.size());
+        for (KmzRule rule : rules) {
+            ruleStats.add(new RuleStats(rule.getName()));
+        }
+        Result result = new Result(ruleStats, new RuleStats("read"), new RuleStats("write"));
+
+        ZipInputStream zipIn = new ZipInputStream(new BufferedInputStream(unclosable(in), STREAM_BUFFER_SIZE));
+        ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(unclosable(out), STREAM_BUFFER_SIZE));
+        byte[] copyBuffer = new byte[STREAM_BUFFER_SIZE];
+        try {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                ZipEntry outEntry = new ZipEntry(entry.getName());
+                if (entry.getTime() != -1) {
+                    outEntry.setTime(entry.getTime());
+                }
+                zipOut.putNextEntry(outEntry);
+                if (!entry.isDirectory()) {
+                    List<Integer> applicable = applicableRules(entry.getName());
+                    if (applicable.isEmpty()) {
+                        copy(zipIn, zipOut, copyBuffer);
+                    } else {
+                        transformEntry(zipIn, zipOut, applicable, result);
+                        result.xmlEntryCount++;
+                    }
+                }
+                zipOut.closeEntry();
+                zipIn.closeEntry();
+                result.entryCount++;
+            }
+            if (result.entryCount == 0) {
+                throw new IOException("KMZ archive has no entries");
+            }
+            zipOut.finish();
+            zipOut.flush();
+        } finally {
+            // Both wrap unclosable streams, closing only releases the inflater and deflater
+            zipIn.close();
+            zipOut.close();
+        }
+        result.totalNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private List<Integer> applicableRules(String entryName) {
+        List<Integer> applicable = new ArrayList<>(rules.size());
+        if (!endsWithAny(entryName, XML_SUFFIXES)) {
+            return applicable;
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).appliesTo(entryName)) {
+                applicable.add(i);
+            }
+        }
+        return applicable;
+    }
+
+    private void transformEntry(InputStream entryIn, OutputStream entryOut, List<Integer> applicable,
+                                Result result) throws IOException {
+        StageClock clock = new StageClock(result.readStats);
+        Reader reader = new InputStreamReader(entryIn, UTF_8);
+        Writer writer = new OutputStreamWriter(entryOut, UTF_8);
+
+        // Build the chain back to front: rules in order, then the writer
+        XmlFilter head = new WriterSink(writer);
+        RuleStats downstreamStage = result.writeStats;
+        for (int i = applicable.size() - 1; i >= 0; i--) {
+            int ruleIndex = applicable.get(i);
+            RuleStats stage = result.ruleStats.get(ruleIndex);
+            head = new StageBoundary(head, clock, stage, downstreamStage);
+            head = rules.get(ruleIndex).newFilter(head, stage);
+            downstreamStage = stage;
+        }
+        head = new StageBoundary(head, clock, result.readStats, downstreamStage);
+
+        XmlTokenizer tokenizer = new XmlTokenizer(reader);
+        XmlToken token = new XmlToken();
+        while (tokenizer.next(token)) {
+            head.onToken(token);
+        }
+        head.finish();
+        clock.enter(result.readStats);
+        result.tokenCount += tokenizer.getTokenCount();
+    }
+
+    private static void copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+    }
+
+    static boolean endsWithAny(String name, String[] suffixes) {
+        if (suffixes == null || suffixes.length == 0) {
+            return true;
+        }
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static InputStream unclosable(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static OutputStream unclosable(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
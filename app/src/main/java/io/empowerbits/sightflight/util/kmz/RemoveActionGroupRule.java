@@ -0,0 +1,77 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * RemoveActionGroupRule - Drops action groups that contain any of the given actions
+ *
+ * A wpml:actionGroup is held back until its end tag; if one of its
+ * wpml:actionActuatorFunc values is in the set, the whole group is dropped, otherwise
+ * it is passed on unchanged.
+ */
+public class RemoveActionGroupRule implements KmzRule {
+
+    private static final String ACTION_GROUP = "wpml:actionGroup";
+    private static final String ACTUATOR_FUNC = "wpml:actionActuatorFunc";
+
+    private final String name;
+    private final Set<String> actuatorFuncs;
+    private final String[] entrySuffixes;
+
+    /**
+     * @param name Name for logs, such as "remove gimbal actions"
+     * @param actuatorFuncs Action names that make a group unsupported, such as "gimbalRotate"
+     * @param entrySuffixes Apply only to entries ending with one of these, or to every
+     *                      entry when none is given
+     */
+    public RemoveActionGroupRule(String name, String[] actuatorFuncs, String... entrySuffixes) {
+        this.name = name;
+        this.actuatorFuncs = new HashSet<>(Arrays.asList(actuatorFuncs));
+        this.entrySuffixes = entrySuffixes;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean appliesTo(String entryName) {
+        return KmzTransformer.endsWithAny(entryName, entrySuffixes);
+    }
+
+    @Override
+    public XmlFilter newFilter(XmlFilter downstream, KmzTransformer.RuleStats changes) {
+        return new ElementCaptureFilter(downstream, ACTION_GROUP, true) {
+            private boolean inActuatorFunc;
+            private boolean unsupported;
+
+            @Override
+            protected void onCaptureStart(XmlToken startTag) {
+                inActuatorFunc = false;
+                unsupported = false;
+            }
+
+            @Override
+            protected void onCapturedToken(XmlToken token) {
+                if (token.isStartTag(ACTUATOR_FUNC)) {
+                    inActuatorFunc = !token.isSelfClosing();
+                } else if (token.isEndTag(ACTUATOR_FUNC)) {
+                    inActuatorFunc = false;
+                } else if (inActuatorFunc && token.getType() == XmlToken.TEXT && !unsupported) {
+                    unsupported = actuatorFuncs.contains(token.getRaw().toString().trim());
+                }
+            }
+
+            @Override
+            protected boolean dropCaptured() {
+                if (unsupported) {
+                    changes.countChange();
+                }
+                return unsupported;
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package io.empowerbits.sightflight.util.kmz;
+
+/**
+ * RemoveElementRule - Drops every occurrence of an element together with its content
+ *
+ * The indentation in front of a removed element is dropped with it, so removing an
+ * element that sits on its own line removes the whole line.
+ */
+public class RemoveElementRule implements KmzRule {
+
+    private final String elementName;
+    private final String[] entrySuffixes;
+
+    /**
+     * @param elementName Qualified element name, such as "wpml:efficiencyFlightModeEnable"
+     * @param entrySuffixes Apply only to entries ending with one of these, or to every
+     *                      entry when none is given
+     */
+    public RemoveElementRule(String elementName, String... entrySuffixes) {
+        this.elementName = elementName;
+        this.entrySuffixes = entrySuffixes;
+    }
+
+    @Override
+    public String getName() {
+        return "remove " + elementName;
+    }
+
+    @Override
+    public boolean appliesTo(String entryName) {
+        return KmzTransformer.endsWithAny(entryName, entrySuffixes);
+    }
+
+    @Override
+    public XmlFilter newFilter(XmlFilter downstream, KmzTransformer.RuleStats changes) {
+        return new ElementCaptureFilter(downstream, elementName, false) {
+            @Override
+            protected void onCaptureStart(XmlToken startTag) {
+                changes.countChange();
+            }
+
+            @Override
+            protected void onCapturedToken(XmlToken token) {
+            }
+
+            @Override
+            protected boolean dropCaptured() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.IOException;
+
+/**
+ * ReplaceAttributeValueRule - Rewrites one attribute value wherever it appears in a start tag
+ *
+ * Matches the exact attribute text, name="value", so other attributes and values
+ * are left alone.
+ */
+public class ReplaceAttributeValueRule implements KmzRule {
+
+    private final String name;
+    private final String target;
+    private final String replacement;
+    private final String[] entrySuffixes;
+
+    /**
+     * @param name Name for logs, such as "wpml namespace 1.0.2"
+     * @param attribute Attribute name, such as "xmlns:wpml"
+     * @param entrySuffixes Apply only to entries ending with one of these, or to every
+     *                      entry when none is given
+     */
+    public ReplaceAttributeValueRule(String name, String attribute, String fromValue, String toValue,
+                                     String... entrySuffixes) {
+        this.name = name;
+        this.target = attribute + "=\"" + fromValue + "\"";
+        this.replacement = attribute + "=\"" + toValue + "\"";
+        this.entrySuffixes = entrySuffixes;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean appliesTo(String entryName) {
+        return KmzTransformer.endsWithAny(entryName, entrySuffixes);
+    }
+
+    @Override
+    public XmlFilter newFilter(XmlFilter downstream, KmzTransformer.RuleStats changes) {
+        return new XmlFilter(downstream) {
+            @Override
+            public void onToken(XmlToken token) throws IOException {
+                if (token.getType() == XmlToken.START_TAG && token.raw.length() > target.length()
+                        && token.replaceInRaw(target, replacement)) {
+                    changes.countChange();
+                }
+                downstream.onToken(token);
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.IOException;
+
+/**
+ * ReplaceElementTextRule - Sets the character data of every occurrence of a simple element
+ *
+ * Meant for leaf elements holding one value, such as
+ * <wpml:efficiencyFlightModeEnable>0</wpml:efficiencyFlightModeEnable>; elements that
+ * already hold the value are left untouched and not counted as changes.
+ */
+public class ReplaceElementTextRule implements KmzRule {
+
+    private final String elementName;
+    private final String text;
+    private final String[] entrySuffixes;
+
+    /**
+     * @param elementName Qualified element name, such as "wpml:efficiencyFlightModeEnable"
+     * @param text New content, already escaped for XML
+     * @param entrySuffixes Apply only to entries ending with one of these, or to every
+     *                      entry when none is given
+     */
+    public ReplaceElementTextRule(String elementName, String text, String... entrySuffixes) {
+        this.elementName = elementName;
+        this.text = text;
+        this.entrySuffixes = entrySuffixes;
+    }
+
+    @Override
+    public String getName() {
+        return "set " + elementName + " to " + text;
+    }
+
+    @Override
+    public boolean appliesTo(String entryName) {
+        return KmzTransformer.endsWithAny(entryName, entrySuffixes);
+    }
+
+    @Override
+    public XmlFilter newFilter(XmlFilter downstream, KmzTransformer.RuleStats changes) {
+        return new XmlFilter(downstream) {
+            private boolean inside;
+
+            @Override
+            public void onToken(XmlToken token) throws IOException {
+                if (token.isStartTag(elementName) && !token.isSelfClosing()) {
+                    inside = true;
+                } else if (token.isEndTag(elementName)) {
+                    inside = false;
+                } else if (inside && token.getType() == XmlToken.TEXT && !token.textEquals(text)) {
+                    token.clear(XmlToken.TEXT);
+                    token.raw.append(text);
+                    changes.countChange();
+                }
+                downstream.onToken(token);
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.IOException;
+
+/**
+ * XmlFilter - One stage of the token pipeline a KMZ entry flows through
+ *
+ * A filter receives every token of the entry in document order and passes it on,
+ * changed or not, to its downstream stage, or drops it. Filters may hold tokens back
+ * (copies) and release them later, for example to drop a whole element once its
+ * content is known. finish() is called after the last token.
+ */
+public abstract class XmlFilter {
+
+    protected final XmlFilter downstream;
+
+    protected XmlFilter(XmlFilter downstream) {
+        this.downstream = downstream;
+    }
+
+    public abstract void onToken(XmlToken token) throws IOException;
+
+    /**
+     * End of the entry, release anything still held back
+     */
+    public void finish() throws IOException {
+        if (downstream != null) {
+            downstream.finish();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.empowerbits.sightflight.util.kmz;
+
+/**
+ * XmlToken - One lexical piece of an XML document, kept as its exact source text
+ *
+ * Tokens are start tags, end tags, character data between tags, and everything else
+ * (declaration, comments, CDATA, doctype). Writing the raw text of every token back
+ * reproduces the input byte for byte, so a filter changes only what it touches.
+ *
+ * XmlTokenizer reuses one instance for the whole document; a filter that needs to keep
+ * a token past its onToken() call takes a copy().
+ */
+public final class XmlToken {
+
+    public static final int START_TAG = 1;
+    public static final int END_TAG = 2;
+    public static final int TEXT = 3;
+    public static final int OTHER = 4;
+
+    int type;
+    boolean selfClosing;
+    final StringBuilder raw;
+    final StringBuilder name;
+
+    public XmlToken() {
+        this(256);
+    }
+
+    private XmlToken(int capacity) {
+        raw = new StringBuilder(capacity);
+        name = new StringBuilder(32);
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Exact source text of the token, including the angle brackets of tags
+     */
+    public CharSequence getRaw() {
+        return raw;
+    }
+
+    /**
+     * Qualified element name of a start or end tag, such as "wpml:actionGroup"
+     */
+    public CharSequence getName() {
+        return name;
+    }
+
+    /**
+     * A start tag written as {@code <name/>}, which has no matching end tag
+     */
+    public boolean isSelfClosing() {
+        return selfClosing;
+    }
+
+    public boolean isStartTag(String elementName) {
+        return type == START_TAG && nameEquals(elementName);
+    }
+
+    public boolean isEndTag(String elementName) {
+        return type == END_TAG && nameEquals(elementName);
+    }
+
+    /**
+     * Character data made only of whitespace, the indentation between tags
+     */
+    public boolean isWhitespace() {
+        if (type != TEXT) {
+            return false;
+        }
+        for (int i = 0; i < raw.length(); i++) {
+            if (!Character.isWhitespace(raw.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether character data equals the given text once surrounding whitespace is ignored
+     */
+    public boolean textEquals(String text) {
+        if (type != TEXT) {
+            return false;
+        }
+        int start = 0;
+        int end = raw.length();
+        while (start < end && Character.isWhitespace(raw.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (raw.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace the first occurrence of target in the raw text
+     * @return true if target was found
+     */
+    public boolean replaceInRaw(String target, String replacement) {
+        int index = raw.indexOf(target);
+        if (index < 0) {
+            return false;
+        }
+        raw.replace(index, index + target.length(), replacement);
+        return true;
+    }
+
+    public XmlToken copy() {
+        XmlToken copy = new XmlToken(raw.length());
+        copy.type = type;
+        copy.selfClosing = selfClosing;
+        copy.raw.append(raw);
+        copy.name.append(name);
+        return copy;
+    }
+
+    private boolean nameEquals(String elementName) {
+        if (name.length() != elementName.length()) {
+            return false;
+        }
+        for (int i = 0; i < elementName.length(); i++) {
+            if (name.charAt(i) != elementName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void clear(int type) {
+        this.type = type;
+        selfClosing = false;
+        raw.setLength(0);
+        name.setLength(0);
+    }
+
+    @Override
+    public String toString() {
+        return raw.toString();
+    }
+}
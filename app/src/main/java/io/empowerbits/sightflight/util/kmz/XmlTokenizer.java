@@ -0,0 +1,192 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * XmlTokenizer - Streaming, lossless splitter of XML text into XmlTokens
+ *
+ * Reads through a fixed character buffer and fills one reused token per call, so a
+ * document of any size is tokenized in constant memory without allocating per token.
+ * This is not a validating parser: it only finds tag boundaries (honoring quoted
+ * attribute values, comments, CDATA and processing instructions), which is all the
+ * KMZ rules need, and it never alters the text.
+ */
+public final class XmlTokenizer {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long tokenCount;
+
+    public XmlTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next token into the given instance
+     * @return false at the end of the input
+     */
+    public boolean next(XmlToken token) throws IOException {
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        tokenCount++;
+        if (c != '<') {
+            token.clear(XmlToken.TEXT);
+            token.raw.append((char) c);
+            readText(token);
+            return true;
+        }
+
+        int second = read();
+        if (second < 0) {
+            throw new IOException("Unexpected end of XML after '<'");
+        }
+        if (second == '/') {
+            token.clear(XmlToken.END_TAG);
+            token.raw.append("</");
+            readTag(token);
+        } else if (second == '?') {
+            token.clear(XmlToken.OTHER);
+            token.raw.append("<?");
+            readUntil(token, "?>");
+        } else if (second == '!') {
+            token.clear(XmlToken.OTHER);
+            token.raw.append("<!");
+            int third = read();
+            if (third < 0) {
+                throw new IOException("Unexpected end of XML after '<!'");
+            }
+            token.raw.append((char) third);
+            if (third == '-') {
+                readUntil(token, "-->");
+            } else if (third == '[') {
+                readUntil(token, "]]>");
+            } else {
+                readUntil(token, ">");
+            }
+        } else {
+            token.clear(XmlToken.START_TAG);
+            token.raw.append('<');
+            unread();
+            readTag(token);
+            int length = token.raw.length();
+            token.selfClosing = length >= 2 && token.raw.charAt(length - 2) == '/';
+        }
+        return true;
+    }
+
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    private void readText(XmlToken token) throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return;
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '<') {
+                position++;
+            }
+            token.raw.append(buffer, start, position - start);
+            if (position < limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Name up to the first whitespace, '/' or '>', then the rest of the tag up to its
+     * closing '>' outside quotes
+     */
+    private void readTag(XmlToken token) throws IOException {
+        boolean inName = true;
+        char quote = 0;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unexpected end of XML in tag " + token.name);
+            }
+            char ch = (char) c;
+            token.raw.append(ch);
+            if (quote != 0) {
+                if (ch == quote) {
+                    quote = 0;
+                }
+            } else if (ch == '>') {
+                return;
+            } else if (ch == '"' || ch == '\'') {
+                quote = ch;
+                inName = false;
+            } else if (inName) {
+                if (ch == '/' || Character.isWhitespace(ch)) {
+                    inName = false;
+                } else {
+                    token.name.append(ch);
+                }
+            }
+        }
+    }
+
+    private void readUntil(XmlToken token, String terminator) throws IOException {
+        char last = terminator.charAt(terminator.length() - 1);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unexpected end of XML, expected " + terminator);
+            }
+            token.raw.append((char) c);
+            if (c == last && endsWith(token.raw, terminator)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean endsWith(StringBuilder text, String suffix) {
+        int offset = text.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (text.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Step back over the character just read, always still in the buffer
+     */
+    private void unread() {
+        position--;
+    }
+
+    private boolean fill() throws IOException {
+        // Keep the last character so unread() works across a refill
+        if (limit > 0) {
+            buffer[0] = buffer[limit - 1];
+            position = 1;
+            limit = 1;
+        }
+        int count = reader.read(buffer, limit, buffer.length - limit);
+        if (count <= 0) {
+            return false;
+        }
+        limit += count;
+        return true;
+    }
+}
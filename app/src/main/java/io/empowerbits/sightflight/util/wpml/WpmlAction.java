@@ -0,0 +1,97 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WpmlAction - One wpml:action of a waypoint, as its actuator function and parameters
+ *
+ * Parameters keep their insertion order, which is the order they are written in
+ * wpml:actionActuatorFuncParam. Values are the literal WPML text.
+ */
+public final class WpmlAction {
+
+    public static final String TAKE_PHOTO = "takePhoto";
+    public static final String START_RECORD = "startRecord";
+    public static final String STOP_RECORD = "stopRecord";
+    public static final String GIMBAL_ROTATE = "gimbalRotate";
+    public static final String GIMBAL_EVENLY_ROTATE = "gimbalEvenlyRotate";
+    public static final String HOVER = "hover";
+    public static final String ZOOM = "zoom";
+
+    private final String actuatorFunc;
+    private final Map<String, String> params;
+
+    private WpmlAction(String actuatorFunc, Map<String, String> params) {
+        this.actuatorFunc = actuatorFunc;
+        this.params = Collections.unmodifiableMap(params);
+    }
+
+    public String getActuatorFunc() {
+        return actuatorFunc;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    /**
+     * Same as KMZTestUtil.transTakePhoto: main camera, wide lens
+     */
+    public static WpmlAction takePhoto(String fileSuffix) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("fileSuffix", fileSuffix);
+        params.put("payloadPositionIndex", "0");
+        params.put("payloadLensIndex", "wide");
+        params.put("useGlobalPayloadLensIndex", "1");
+        return new WpmlAction(TAKE_PHOTO, params);
+    }
+
+    public static WpmlAction startRecord(String fileSuffix) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("fileSuffix", fileSuffix);
+        params.put("payloadPositionIndex", "0");
+        params.put("useGlobalPayloadLensIndex", "1");
+        return new WpmlAction(START_RECORD, params);
+    }
+
+    public static WpmlAction stopRecord() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("payloadPositionIndex", "0");
+        return new WpmlAction(STOP_RECORD, params);
+    }
+
+    /**
+     * Absolute gimbal pitch, as KMZTestUtil.transGimbalPitch
+     */
+    public static WpmlAction gimbalPitch(double pitch) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("gimbalHeadingYawBase", "aircraft");
+        params.put("gimbalRotateMode", "absoluteAngle");
+        params.put("gimbalPitchRotateEnable", "1");
+        params.put("gimbalPitchRotateAngle", WpmlWriter.formatNumber(pitch));
+        params.put("gimbalRollRotateEnable", "0");
+        params.put("gimbalRollRotateAngle", "0");
+        params.put("gimbalYawRotateEnable", "0");
+        params.put("gimbalYawRotateAngle", "0");
+        params.put("gimbalRotateTimeEnable", "0");
+        params.put("gimbalRotateTime", "0");
+        params.put("payloadPositionIndex", "0");
+        return new WpmlAction(GIMBAL_ROTATE, params);
+    }
+
+    public static WpmlAction hover(double seconds) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("hoverTime", WpmlWriter.formatNumber(seconds));
+        return new WpmlAction(HOVER, params);
+    }
+
+    public static WpmlAction zoom(double focalLength) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("focalLength", WpmlWriter.formatNumber(focalLength));
+        params.put("isUseFocalFactor", "1");
+        params.put("payloadPositionIndex", "0");
+        return new WpmlAction(ZOOM, params);
+    }
+}
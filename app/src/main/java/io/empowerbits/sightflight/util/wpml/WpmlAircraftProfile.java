@@ -0,0 +1,190 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * WpmlAircraftProfile - What the WPML written for one aircraft must look like
+ *
+ * Carries the drone and payload enum values of wpml:missionConfig, the WPMZ namespace
+ * version the firmware accepts, whether it understands efficiencyFlightModeEnable and
+ * wants it on, how it turns at waypoints, and which action actuator functions it can
+ * execute. WpmlWriter follows the profile directly, so the output never needs a
+ * KmzCleaner pass; KmzCleaner.forProfile derives the rules that bring WPMZManager
+ * output to the same state. The profile's WpmlMissionLimits bound what
+ * WpmlMissionValidator accepts while planning. WpmlAircraftProfiles maps connected
+ * products to profiles.
+ */
+public final class WpmlAircraftProfile {
+
+    private static final String NAMESPACE_PREFIX = "http://www.dji.com/wpmz/";
+
+    /** Stop at every waypoint, the only turn Mini 4 Pro missions are known to fly */
+    public static final String TURN_STOP = "toPointAndStopWithContinuityCurvature";
+    /** Fly through every waypoint on a curve, without stopping */
+    public static final String TURN_PASS = "toPointAndPassWithContinuityCurvature";
+    /** Start turning before the waypoint, within the damping distance, without stopping */
+    public static final String TURN_COORDINATED = "coordinateTurn";
+    private static final double MIN_TURN_DAMPING_DISTANCE = 0.2;
+
+    /**
+     * Mini 4 Pro: namespace 1.0.2, no efficiency flight mode, no gimbal actions and a
+     * stop at every waypoint; the enums are those KMZTestUtil sets (unknown drone,
+     * generic camera)
+     */
+    public static final WpmlAircraftProfile MINI_4_PRO = new WpmlAircraftProfile(
+            "Mini 4 Pro", 65535, 0, 65534, "1.0.2", false, false, TURN_STOP, 0,
+            WpmlMissionLimits.MINI_4_PRO,
+            WpmlAction.TAKE_PHOTO, WpmlAction.START_RECORD, WpmlAction.STOP_RECORD,
+            WpmlAction.HOVER, WpmlAction.ZOOM);
+
+    /**
+     * What WPMZManager writes for the same mission before cleaning, for comparisons
+     */
+    public static final WpmlAircraftProfile SDK_DEFAULT = new WpmlAircraftProfile(
+            "SDK default", 65535, 0, 65534, "1.0.6", true,
+            WpmlAction.TAKE_PHOTO, WpmlAction.START_RECORD, WpmlAction.STOP_RECORD,
+            WpmlAction.HOVER, WpmlAction.ZOOM, WpmlAction.GIMBAL_ROTATE,
+            WpmlAction.GIMBAL_EVENLY_ROTATE);
+
+    private final String name;
+    private final int droneEnumValue;
+    private final int droneSubEnumValue;
+    private final int payloadEnumValue;
+    private final String wpmlVersion;
+    private final boolean efficiencyFlightModeSupported;
+    private final boolean efficiencyFlightModeEnabled;
+    private final String turnMode;
+    private final double turnDampingDistance;
+    private final Set<String> supportedActions;
+    private final WpmlMissionLimits limits;
+
+    public WpmlAircraftProfile(String name, int droneEnumValue, int droneSubEnumValue, int payloadEnumValue,
+                               String wpmlVersion, boolean efficiencyFlightModeSupported,
+                               String... supportedActions) {
+        this(name, droneEnumValue, droneSubEnumValue, payloadEnumValue, wpmlVersion,
+                efficiencyFlightModeSupported, false, TURN_STOP, 0, WpmlMissionLimits.WPML_DEFAULT,
+                supportedActions);
+    }
+
+    /**
+     * @param efficiencyFlightModeEnabled Write efficiencyFlightModeEnable as 1; needs
+     *                                    efficiencyFlightModeSupported
+     * @param turnMode TURN_STOP, TURN_PASS or TURN_COORDINATED, for every waypoint
+     *                 between the first and the last, which always stop
+     * @param turnDampingDistance Meters before a waypoint a coordinated turn may begin
+     */
+    public WpmlAircraftProfile(String name, int droneEnumValue, int droneSubEnumValue, int payloadEnumValue,
+                               String wpmlVersion, boolean efficiencyFlightModeSupported,
+                               boolean efficiencyFlightModeEnabled, String turnMode, double turnDampingDistance,
+                               WpmlMissionLimits limits, String... supportedActions) {
+        if (efficiencyFlightModeEnabled && !efficiencyFlightModeSupported) {
+            throw new IllegalArgumentException(name + ": efficiency flight mode enabled but not supported");
+        }
+        this.name = name;
+        this.droneEnumValue = droneEnumValue;
+        this.droneSubEnumValue = droneSubEnumValue;
+        this.payloadEnumValue = payloadEnumValue;
+        this.wpmlVersion = wpmlVersion;
+        this.efficiencyFlightModeSupported = efficiencyFlightModeSupported;
+        this.efficiencyFlightModeEnabled = efficiencyFlightModeEnabled;
+        this.turnMode = turnMode;
+        this.turnDampingDistance = turnDampingDistance;
+        this.supportedActions = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(supportedActions)));
+        this.limits = limits;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDroneEnumValue() {
+        return droneEnumValue;
+    }
+
+    public int getDroneSubEnumValue() {
+        return droneSubEnumValue;
+    }
+
+    public int getPayloadEnumValue() {
+        return payloadEnumValue;
+    }
+
+    public String getWpmlVersion() {
+        return wpmlVersion;
+    }
+
+    public String getWpmlNamespace() {
+        return NAMESPACE_PREFIX + wpmlVersion;
+    }
+
+    public boolean isEfficiencyFlightModeSupported() {
+        return efficiencyFlightModeSupported;
+    }
+
+    public boolean isEfficiencyFlightModeEnabled() {
+        return efficiencyFlightModeEnabled;
+    }
+
+    public String getTurnMode() {
+        return turnMode;
+    }
+
+    /**
+     * Turn mode of one waypoint, given the legs into and out of it in meters: the first
+     * and the last waypoint stop, and so does a coordinated turn with no room to damp
+     */
+    public String getTurnMode(int index, int waypointCount, double legIn, double legOut) {
+        if (index == 0 || index == waypointCount - 1) {
+            return TURN_STOP;
+        }
+        if (TURN_COORDINATED.equals(turnMode) && Math.min(legIn, legOut) / 2 < MIN_TURN_DAMPING_DISTANCE) {
+            return TURN_STOP;
+        }
+        return turnMode;
+    }
+
+    /**
+     * Damping distance of one waypoint: a coordinated turn may start at most half way
+     * along the shorter leg; 0 for every other turn mode
+     */
+    public double getTurnDampingDistance(int index, int waypointCount, double legIn, double legOut) {
+        if (!TURN_COORDINATED.equals(getTurnMode(index, waypointCount, legIn, legOut))) {
+            return 0;
+        }
+        double damping = Math.min(turnDampingDistance, Math.min(legIn, legOut) / 2);
+        return Math.floor(damping * 10) / 10;
+    }
+
+    public Set<String> getSupportedActions() {
+        return supportedActions;
+    }
+
+    public boolean supportsAction(String actuatorFunc) {
+        return supportedActions.contains(actuatorFunc);
+    }
+
+    public WpmlMissionLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Every value that shapes the written KMZ, for cache keys; two profiles with the same
+     * signature write the same bytes
+     */
+    public String getSignature() {
+        return String.format(Locale.US, "%s|%d|%d|%d|%s|%b|%b|%s|%s|%s", name, droneEnumValue,
+                droneSubEnumValue, payloadEnumValue, wpmlVersion, efficiencyFlightModeSupported,
+                efficiencyFlightModeEnabled, turnMode, WpmlWriter.formatNumber(turnDampingDistance),
+                new TreeSet<>(supportedActions));
+    }
+
+    @Override
+    public String toString() {
+        return name + " (wpmz " + wpmlVersion + ")";
+    }
+}
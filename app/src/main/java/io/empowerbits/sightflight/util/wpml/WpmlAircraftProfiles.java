@@ -0,0 +1,64 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WpmlAircraftProfiles - Which WpmlAircraftProfile each connected product flies
+ *
+ * Keyed by ProductType.name() so the table stays free of SDK classes and can be read
+ * by the benchmarks and the batch tools. The enterprise enums follow the public WPML
+ * specification; their aircraft fly coordinated turns with efficiency flight mode on.
+ * Every product without an entry, UNKNOWN included, gets MINI_4_PRO, the profile all
+ * missions were written for before the table existed.
+ */
+public final class WpmlAircraftProfiles {
+
+    /** Damping distance of the enterprise profiles, meters */
+    private static final double ENTERPRISE_TURN_DAMPING_DISTANCE = 2;
+
+    public static final WpmlAircraftProfile MAVIC_3_ENTERPRISE = enterprise("Mavic 3 Enterprise", 77, 66);
+    public static final WpmlAircraftProfile M30 = enterprise("M30", 67, 52);
+    public static final WpmlAircraftProfile M300_RTK = enterprise("M300 RTK", 60, 65534);
+    public static final WpmlAircraftProfile M350_RTK = enterprise("M350 RTK", 89, 65534);
+
+    private static final Map<String, WpmlAircraftProfile> BY_PRODUCT_TYPE;
+
+    static {
+        Map<String, WpmlAircraftProfile> profiles = new HashMap<>();
+        profiles.put("DJI_MINI_4_PRO", WpmlAircraftProfile.MINI_4_PRO);
+        profiles.put("DJI_MAVIC_3_ENTERPRISE_SERIES", MAVIC_3_ENTERPRISE);
+        profiles.put("M30_SERIES", M30);
+        profiles.put("M300_RTK", M300_RTK);
+        profiles.put("M350_RTK", M350_RTK);
+        BY_PRODUCT_TYPE = Collections.unmodifiableMap(profiles);
+    }
+
+    private WpmlAircraftProfiles() {
+    }
+
+    /**
+     * @param productTypeName ProductType.name() of the connected aircraft, may be null
+     */
+    public static WpmlAircraftProfile forProductType(String productTypeName) {
+        WpmlAircraftProfile profile = productTypeName != null ? BY_PRODUCT_TYPE.get(productTypeName) : null;
+        return profile != null ? profile : WpmlAircraftProfile.MINI_4_PRO;
+    }
+
+    /**
+     * Product type names with their own entry
+     */
+    public static Map<String, WpmlAircraftProfile> getProfiles() {
+        return BY_PRODUCT_TYPE;
+    }
+
+    private static WpmlAircraftProfile enterprise(String name, int droneEnumValue, int payloadEnumValue) {
+        return new WpmlAircraftProfile(name, droneEnumValue, 0, payloadEnumValue, "1.0.6", true, true,
+                WpmlAircraftProfile.TURN_COORDINATED, ENTERPRISE_TURN_DAMPING_DISTANCE,
+                WpmlMissionLimits.WPML_DEFAULT,
+                WpmlAction.TAKE_PHOTO, WpmlAction.START_RECORD, WpmlAction.STOP_RECORD,
+                WpmlAction.HOVER, WpmlAction.ZOOM, WpmlAction.GIMBAL_ROTATE,
+                WpmlAction.GIMBAL_EVENLY_ROTATE);
+    }
+}
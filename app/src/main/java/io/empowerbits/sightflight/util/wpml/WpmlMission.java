@@ -0,0 +1,92 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WpmlMission - Everything WpmlWriter needs to write a waypoint mission
+ *
+ * Plain Java with no SDK types, so missions can be written on the JVM as well as on
+ * the device. Enumerated settings hold their literal WPML values (see the constants);
+ * defaults are those of KMZTestUtil.
+ */
+public class WpmlMission {
+
+    public static final String FLY_TO_WAYLINE_SAFELY = "safely";
+    public static final String FLY_TO_WAYLINE_POINT_TO_POINT = "pointToPoint";
+
+    public static final String FINISH_NO_ACTION = "noAction";
+    public static final String FINISH_GO_HOME = "goHome";
+    public static final String FINISH_AUTO_LAND = "autoLand";
+    public static final String FINISH_GOTO_FIRST_WAYPOINT = "gotoFirstWaypoint";
+
+    public static final String RC_LOST_EXECUTE_ACTION = "executeLostAction";
+    public static final String RC_LOST_GO_CONTINUE = "goContinue";
+
+    public static final String RC_LOST_ACTION_GO_BACK = "goBack";
+    public static final String RC_LOST_ACTION_LANDING = "landing";
+    public static final String RC_LOST_ACTION_HOVER = "hover";
+
+    public static final String HEIGHT_MODE_RELATIVE_TO_START_POINT = "relativeToStartPoint";
+    public static final String HEIGHT_MODE_EGM96 = "EGM96";
+
+    /**
+     * One wpml Placemark
+     */
+    public static class Waypoint {
+        public double latitude;
+        public double longitude;
+        public double height;
+        public double speed;
+        public double gimbalPitchAngle;
+        public double headingAngle;
+        public final List<WpmlAction> actions = new ArrayList<>();
+
+        public Waypoint(double latitude, double longitude, double height, double speed, double gimbalPitchAngle) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.height = height;
+            this.speed = speed;
+            this.gimbalPitchAngle = gimbalPitchAngle;
+        }
+    }
+
+    public String author = "EagleEye";
+    public long createTime = System.currentTimeMillis();
+    public long updateTime = createTime;
+
+    public String flyToWaylineMode = FLY_TO_WAYLINE_SAFELY;
+    public String finishAction = FINISH_GO_HOME;
+    public String exitOnRCLost = RC_LOST_EXECUTE_ACTION;
+    public String executeRCLostAction = RC_LOST_ACTION_GO_BACK;
+    public double takeOffSecurityHeight = 20d;
+    public double globalTransitionalSpeed = 10d;
+
+    public String heightMode = HEIGHT_MODE_RELATIVE_TO_START_POINT;
+    public double autoFlightSpeed = 5d;
+    public double globalHeight = 40d;
+
+    /**
+     * Point every waypoint heads toward; headings are free when there is none
+     */
+    public boolean hasPoi;
+    public double poiLatitude;
+    public double poiLongitude;
+    public double poiHeight;
+
+    public final List<Waypoint> waypoints = new ArrayList<>();
+
+    public Waypoint addWaypoint(double latitude, double longitude, double height, double speed,
+                                double gimbalPitchAngle) {
+        Waypoint waypoint = new Waypoint(latitude, longitude, height, speed, gimbalPitchAngle);
+        waypoints.add(waypoint);
+        return waypoint;
+    }
+
+    public void setPoi(double latitude, double longitude, double height) {
+        hasPoi = true;
+        poiLatitude = latitude;
+        poiLongitude = longitude;
+        poiHeight = height;
+    }
+}
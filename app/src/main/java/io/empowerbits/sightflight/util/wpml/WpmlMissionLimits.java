@@ -0,0 +1,91 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.Locale;
+
+/**
+ * WpmlMissionLimits - Numeric bounds a waypoint mission must respect on one aircraft
+ *
+ * Speeds are in m/s, heights and spacing in meters, gimbal pitch in degrees with
+ * negative values looking down. WpmlMissionValidator checks missions against them
+ * while they are planned, before the SDK's own checkValidation sees the KMZ.
+ */
+public final class WpmlMissionLimits {
+
+    /**
+     * What the WPML format itself allows, for aircraft without a tighter profile
+     */
+    public static final WpmlMissionLimits WPML_DEFAULT = new WpmlMissionLimits(
+            65535, 1, 15, -1500, 1500, 0.1, -120, 45);
+
+    /**
+     * Mini 4 Pro: 200 waypoints per mission, speeds up to 15 m/s, 500 m altitude
+     * limit, waypoints at least 0.5 m apart and -90 to 60 degrees of gimbal pitch
+     */
+    public static final WpmlMissionLimits MINI_4_PRO = new WpmlMissionLimits(
+            200, 1, 15, 1, 500, 0.5, -90, 60);
+
+    private final int maxWaypoints;
+    private final double minSpeed;
+    private final double maxSpeed;
+    private final double minHeight;
+    private final double maxHeight;
+    private final double minSpacing;
+    private final double minGimbalPitch;
+    private final double maxGimbalPitch;
+
+    public WpmlMissionLimits(int maxWaypoints, double minSpeed, double maxSpeed, double minHeight,
+                             double maxHeight, double minSpacing, double minGimbalPitch,
+                             double maxGimbalPitch) {
+        this.maxWaypoints = maxWaypoints;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.minSpacing = minSpacing;
+        this.minGimbalPitch = minGimbalPitch;
+        this.maxGimbalPitch = maxGimbalPitch;
+    }
+
+    public int getMaxWaypoints() {
+        return maxWaypoints;
+    }
+
+    public double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public double getMinHeight() {
+        return minHeight;
+    }
+
+    public double getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Smallest straight-line distance between consecutive waypoints, heights included
+     */
+    public double getMinSpacing() {
+        return minSpacing;
+    }
+
+    public double getMinGimbalPitch() {
+        return minGimbalPitch;
+    }
+
+    public double getMaxGimbalPitch() {
+        return maxGimbalPitch;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "max %d waypoints, speed %.1f-%.1f m/s, height %.1f-%.1f m, spacing %.1f m, pitch %.0f-%.0f",
+                maxWaypoints, minSpeed, maxSpeed, minHeight, maxHeight, minSpacing, minGimbalPitch,
+                maxGimbalPitch);
+    }
+}
@@ -0,0 +1,521 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * WpmlMissionValidator - Offline, incremental checks of a mission while it is planned
+ *
+ * The SDK only validates a generated KMZ; this engine checks the WpmlMission model the
+ * KMZ would be written from, against the aircraft profile and its WpmlMissionLimits,
+ * so problems show while the user edits. Rules come in three kinds:
+ * - mission rules look at mission settings, the POI and the waypoint count
+ * - waypoint rules look at one waypoint
+ * - leg rules look at two consecutive waypoints
+ *
+ * Findings are kept per waypoint and per leg. Replacing one waypoint re-runs the
+ * waypoint rules for it and the leg rules for its two legs, nothing else, so a
+ * marker drag costs the same on a 10 and a 10000 waypoint mission. Inserting and
+ * removing also re-runs the mission rules; changing the POI or the settings re-runs
+ * everything. Not thread-safe, use it from the thread that edits the mission.
+ */
+public class WpmlMissionValidator {
+
+    public enum Severity {
+        /** checkValidation or the aircraft would reject the mission */
+        ERROR,
+        /** The mission flies, but probably not as intended */
+        WARNING
+    }
+
+    /**
+     * One finding; waypointIndex is -1 for the mission as a whole, and for a leg it is
+     * the index of the waypoint the leg ends at. Messages do not repeat the index, which
+     * changes when waypoints are inserted or removed before it.
+     */
+    public static final class Issue {
+        private final String rule;
+        private final Severity severity;
+        private final int waypointIndex;
+        private final String message;
+
+        public Issue(String rule, Severity severity, int waypointIndex, String message) {
+            this.rule = rule;
+            this.severity = severity;
+            this.waypointIndex = waypointIndex;
+            this.message = message;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public Severity getSeverity() {
+            return severity;
+        }
+
+        public int getWaypointIndex() {
+            return waypointIndex;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        Issue atIndex(int index) {
+            return index == waypointIndex ? this : new Issue(rule, severity, index, message);
+        }
+
+        @Override
+        public String toString() {
+            return severity + " " + rule + (waypointIndex >= 0 ? " @" + (waypointIndex + 1) : "") + ": " + message;
+        }
+    }
+
+    public interface MissionRule {
+        void check(WpmlMissionValidator validator, WpmlMission mission, List<Issue> issues);
+    }
+
+    public interface WaypointRule {
+        void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint, List<Issue> issues);
+    }
+
+    public interface LegRule {
+        void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint from,
+                   WpmlMission.Waypoint to, List<Issue> issues);
+    }
+
+    private final WpmlAircraftProfile profile;
+    private final WpmlMissionLimits limits;
+    private final List<MissionRule> missionRules = new ArrayList<>();
+    private final List<WaypointRule> waypointRules = new ArrayList<>();
+    private final List<LegRule> legRules = new ArrayList<>();
+
+    private WpmlMission mission = new WpmlMission();
+    private List<Issue> missionIssues = Collections.emptyList();
+    // Parallel to mission.waypoints; legIssues.get(i) is the leg from i - 1 to i
+    private final List<List<Issue>> waypointIssues = new ArrayList<>();
+    private final List<List<Issue>> legIssues = new ArrayList<>();
+    private int errorCount;
+    private int warningCount;
+
+    /**
+     * Validator with the built-in rules for this aircraft
+     */
+    public WpmlMissionValidator(WpmlAircraftProfile profile) {
+        this.profile = profile;
+        this.limits = profile.getLimits();
+        missionRules.add(WAYPOINT_COUNT);
+        missionRules.add(MISSION_SPEEDS);
+        missionRules.add(POI);
+        waypointRules.add(COORDINATES);
+        waypointRules.add(HEIGHT);
+        waypointRules.add(SPEED);
+        waypointRules.add(GIMBAL_PITCH);
+        waypointRules.add(ACTIONS);
+        waypointRules.add(POI_OVERHEAD);
+        legRules.add(SPACING);
+    }
+
+    public WpmlAircraftProfile getProfile() {
+        return profile;
+    }
+
+    public WpmlMissionLimits getLimits() {
+        return limits;
+    }
+
+    public void addRule(MissionRule rule) {
+        missionRules.add(rule);
+        checkAll();
+    }
+
+    public void addRule(WaypointRule rule) {
+        waypointRules.add(rule);
+        checkAll();
+    }
+
+    public void addRule(LegRule rule) {
+        legRules.add(rule);
+        checkAll();
+    }
+
+    /**
+     * Validate this mission from scratch; the validator keeps it and edits its waypoint
+     * list from then on, so make further changes through the validator
+     */
+    public void setMission(WpmlMission mission) {
+        this.mission = mission;
+        checkAll();
+    }
+
+    public WpmlMission getMission() {
+        return mission;
+    }
+
+    /**
+     * Re-run every rule after a change to the mission settings or the POI
+     */
+    public void onMissionSettingsChanged() {
+        checkAll();
+    }
+
+    public void setPoi(double latitude, double longitude, double height) {
+        mission.setPoi(latitude, longitude, height);
+        checkAll();
+    }
+
+    public void clearPoi() {
+        mission.hasPoi = false;
+        checkAll();
+    }
+
+    public int getWaypointCount() {
+        return mission.waypoints.size();
+    }
+
+    public void addWaypoint(WpmlMission.Waypoint waypoint) {
+        insertWaypoint(mission.waypoints.size(), waypoint);
+    }
+
+    public void insertWaypoint(int index, WpmlMission.Waypoint waypoint) {
+        mission.waypoints.add(index, waypoint);
+        waypointIssues.add(index, Collections.<Issue>emptyList());
+        legIssues.add(index, Collections.<Issue>emptyList());
+        reindexFrom(index + 1);
+        checkWaypoint(index);
+        checkLeg(index);
+        checkLeg(index + 1);
+        checkMission();
+    }
+
+    /**
+     * Replace one waypoint, as on every frame of a marker drag
+     */
+    public void setWaypoint(int index, WpmlMission.Waypoint waypoint) {
+        mission.waypoints.set(index, waypoint);
+        checkWaypoint(index);
+        checkLeg(index);
+        checkLeg(index + 1);
+    }
+
+    public void removeWaypoint(int index) {
+        mission.waypoints.remove(index);
+        replace(waypointIssues, index, Collections.<Issue>emptyList());
+        replace(legIssues, index, Collections.<Issue>emptyList());
+        waypointIssues.remove(index);
+        legIssues.remove(index);
+        reindexFrom(index);
+        checkLeg(index);
+        checkMission();
+    }
+
+    public void clearWaypoints() {
+        mission.waypoints.clear();
+        checkAll();
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public int getWarningCount() {
+        return warningCount;
+    }
+
+    /**
+     * Every finding, mission ones first, then by waypoint
+     */
+    public List<Issue> getIssues() {
+        List<Issue> issues = new ArrayList<>(missionIssues);
+        for (int i = 0; i < waypointIssues.size(); i++) {
+            issues.addAll(legIssues.get(i));
+            issues.addAll(waypointIssues.get(i));
+        }
+        return issues;
+    }
+
+    /**
+     * Findings of one waypoint and of the legs into and out of it
+     */
+    public List<Issue> getWaypointIssues(int index) {
+        List<Issue> issues = new ArrayList<>(legIssues.get(index));
+        issues.addAll(waypointIssues.get(index));
+        if (index + 1 < legIssues.size()) {
+            issues.addAll(legIssues.get(index + 1));
+        }
+        return issues;
+    }
+
+    public List<Issue> getMissionIssues() {
+        return Collections.unmodifiableList(missionIssues);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d waypoints, %d errors, %d warnings (%s)",
+                mission.waypoints.size(), errorCount, warningCount, profile);
+    }
+
+    private void checkAll() {
+        for (List<Issue> issues : waypointIssues) {
+            count(issues, -1);
+        }
+        for (List<Issue> issues : legIssues) {
+            count(issues, -1);
+        }
+        waypointIssues.clear();
+        legIssues.clear();
+        for (int i = 0; i < mission.waypoints.size(); i++) {
+            waypointIssues.add(Collections.<Issue>emptyList());
+            legIssues.add(Collections.<Issue>emptyList());
+        }
+        for (int i = 0; i < mission.waypoints.size(); i++) {
+            checkWaypoint(i);
+            checkLeg(i);
+        }
+        checkMission();
+    }
+
+    private void checkMission() {
+        List<Issue> issues = new ArrayList<>(0);
+        for (MissionRule rule : missionRules) {
+            rule.check(this, mission, issues);
+        }
+        count(missionIssues, -1);
+        missionIssues = issues;
+        count(missionIssues, 1);
+    }
+
+    private void checkWaypoint(int index) {
+        List<Issue> issues = new ArrayList<>(0);
+        WpmlMission.Waypoint waypoint = mission.waypoints.get(index);
+        for (WaypointRule rule : waypointRules) {
+            rule.check(this, index, waypoint, issues);
+        }
+        replace(waypointIssues, index, issues);
+    }
+
+    /**
+     * Leg ending at index; nothing to check for the first waypoint or past the last
+     */
+    private void checkLeg(int index) {
+        if (index <= 0 || index >= mission.waypoints.size()) {
+            if (index >= 0 && index < legIssues.size()) {
+                replace(legIssues, index, Collections.<Issue>emptyList());
+            }
+            return;
+        }
+        List<Issue> issues = new ArrayList<>(0);
+        WpmlMission.Waypoint from = mission.waypoints.get(index - 1);
+        WpmlMission.Waypoint to = mission.waypoints.get(index);
+        for (LegRule rule : legRules) {
+            rule.check(this, index, from, to, issues);
+        }
+        replace(legIssues, index, issues);
+    }
+
+    private void replace(List<List<Issue>> slots, int index, List<Issue> issues) {
+        count(slots.get(index), -1);
+        slots.set(index, issues);
+        count(issues, 1);
+    }
+
+    private void count(List<Issue> issues, int sign) {
+        for (Issue issue : issues) {
+            if (issue.getSeverity() == Severity.ERROR) {
+                errorCount += sign;
+            } else {
+                warningCount += sign;
+            }
+        }
+    }
+
+    /**
+     * Renumber the stored findings of waypoints that moved in the list
+     */
+    private void reindexFrom(int index) {
+        for (int i = index; i < waypointIssues.size(); i++) {
+            reindex(waypointIssues, i);
+            reindex(legIssues, i);
+        }
+    }
+
+    private static void reindex(List<List<Issue>> slots, int index) {
+        List<Issue> issues = slots.get(index);
+        if (issues.isEmpty() || issues.get(0).getWaypointIndex() == index) {
+            return;
+        }
+        List<Issue> moved = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            moved.add(issue.atIndex(index));
+        }
+        slots.set(index, moved);
+    }
+
+    private static boolean outside(double value, double min, double max) {
+        return Double.isNaN(value) || value < min || value > max;
+    }
+
+    private static boolean validCoordinates(double latitude, double longitude) {
+        return !outside(latitude, -90, 90) && !outside(longitude, -180, 180)
+                && !(latitude == 0 && longitude == 0);
+    }
+
+    // ==================== Built-in rules ====================
+
+    public static final MissionRule WAYPOINT_COUNT = new MissionRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, WpmlMission mission, List<Issue> issues) {
+            int count = mission.waypoints.size();
+            int max = validator.limits.getMaxWaypoints();
+            if (count < 2) {
+                issues.add(new Issue("waypoint-count", Severity.ERROR, -1,
+                        "A mission needs at least 2 waypoints, it has " + count));
+            } else if (count > max) {
+                issues.add(new Issue("waypoint-count", Severity.ERROR, -1, String.format(Locale.US,
+                        "%d waypoints, %s takes at most %d", count, validator.profile.getName(), max)));
+            }
+        }
+    };
+
+    public static final MissionRule MISSION_SPEEDS = new MissionRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, WpmlMission mission, List<Issue> issues) {
+            WpmlMissionLimits limits = validator.limits;
+            if (outside(mission.autoFlightSpeed, limits.getMinSpeed(), limits.getMaxSpeed())) {
+                issues.add(new Issue("mission-speed", Severity.ERROR, -1, String.format(Locale.US,
+                        "Flight speed %.1f m/s outside %.1f-%.1f m/s", mission.autoFlightSpeed,
+                        limits.getMinSpeed(), limits.getMaxSpeed())));
+            }
+            if (outside(mission.globalTransitionalSpeed, limits.getMinSpeed(), limits.getMaxSpeed())) {
+                issues.add(new Issue("mission-speed", Severity.ERROR, -1, String.format(Locale.US,
+                        "Transitional speed %.1f m/s outside %.1f-%.1f m/s", mission.globalTransitionalSpeed,
+                        limits.getMinSpeed(), limits.getMaxSpeed())));
+            }
+        }
+    };
+
+    public static final MissionRule POI = new MissionRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, WpmlMission mission, List<Issue> issues) {
+            if (!mission.hasPoi) {
+                return;
+            }
+            if (!validCoordinates(mission.poiLatitude, mission.poiLongitude)) {
+                issues.add(new Issue("poi", Severity.ERROR, -1, String.format(Locale.US,
+                        "POI location %.6f, %.6f is not a valid coordinate", mission.poiLatitude,
+                        mission.poiLongitude)));
+            }
+            if (outside(mission.poiHeight, 0, validator.limits.getMaxHeight())) {
+                issues.add(new Issue("poi", Severity.ERROR, -1, String.format(Locale.US,
+                        "POI height %.1f m outside 0-%.1f m", mission.poiHeight, validator.limits.getMaxHeight())));
+            }
+        }
+    };
+
+    public static final WaypointRule COORDINATES = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            if (!validCoordinates(waypoint.latitude, waypoint.longitude)) {
+                issues.add(new Issue("coordinates", Severity.ERROR, index, String.format(Locale.US,
+                        "Location %.6f, %.6f is not a valid coordinate", waypoint.latitude, waypoint.longitude)));
+            }
+        }
+    };
+
+    public static final WaypointRule HEIGHT = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            WpmlMissionLimits limits = validator.limits;
+            if (outside(waypoint.height, limits.getMinHeight(), limits.getMaxHeight())) {
+                issues.add(new Issue("height", Severity.ERROR, index, String.format(Locale.US,
+                        "Height %.1f m outside %.1f-%.1f m", waypoint.height, limits.getMinHeight(),
+                        limits.getMaxHeight())));
+            }
+        }
+    };
+
+    /**
+     * Zero means the waypoint flies at the mission's speed, which MISSION_SPEEDS checks
+     */
+    public static final WaypointRule SPEED = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            WpmlMissionLimits limits = validator.limits;
+            if (waypoint.speed != 0 && outside(waypoint.speed, limits.getMinSpeed(), limits.getMaxSpeed())) {
+                issues.add(new Issue("speed", Severity.ERROR, index, String.format(Locale.US,
+                        "Speed %.1f m/s outside %.1f-%.1f m/s", waypoint.speed, limits.getMinSpeed(),
+                        limits.getMaxSpeed())));
+            }
+        }
+    };
+
+    public static final WaypointRule GIMBAL_PITCH = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            WpmlMissionLimits limits = validator.limits;
+            if (outside(waypoint.gimbalPitchAngle, limits.getMinGimbalPitch(), limits.getMaxGimbalPitch())) {
+                issues.add(new Issue("gimbal-pitch", Severity.ERROR, index, String.format(Locale.US,
+                        "Gimbal pitch %.1f outside %.0f to %.0f degrees", waypoint.gimbalPitchAngle,
+                        limits.getMinGimbalPitch(), limits.getMaxGimbalPitch())));
+            }
+        }
+    };
+
+    public static final WaypointRule ACTIONS = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            for (WpmlAction action : waypoint.actions) {
+                if (!validator.profile.supportsAction(action.getActuatorFunc())) {
+                    issues.add(new Issue("action", Severity.ERROR, index,
+                            validator.profile.getName() + " cannot execute " + action.getActuatorFunc()));
+                }
+            }
+        }
+    };
+
+    /**
+     * A waypoint right above the POI has no heading toward it
+     */
+    public static final WaypointRule POI_OVERHEAD = new WaypointRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                          List<Issue> issues) {
+            WpmlMission mission = validator.mission;
+            if (mission.hasPoi && Geodesy.haversine(waypoint.latitude, waypoint.longitude,
+                    mission.poiLatitude, mission.poiLongitude) < validator.limits.getMinSpacing()) {
+                issues.add(new Issue("poi-overhead", Severity.WARNING, index,
+                        "Waypoint is above the POI, its heading is undefined"));
+            }
+        }
+    };
+
+    public static final LegRule SPACING = new LegRule() {
+        @Override
+        public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint from,
+                          WpmlMission.Waypoint to, List<Issue> issues) {
+            // Straight-line distance: waypoints stacked above each other are apart by their heights
+            double horizontal = Geodesy.haversine(from.latitude, from.longitude, to.latitude, to.longitude);
+            double distance = Math.hypot(horizontal, to.height - from.height);
+            if (distance < validator.limits.getMinSpacing()) {
+                issues.add(new Issue("spacing", Severity.ERROR, index, String.format(Locale.US,
+                        "%.2f m from the previous waypoint, at least %.1f m needed", distance,
+                        validator.limits.getMinSpacing())));
+            }
+        }
+    };
+}
@@ -0,0 +1,407 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * WpmlWriter - Writes template.kml and waylines.wpml of a WpmlMission straight into a KMZ
+ *
+ * An alternative to building SDK objects with KMZTestUtil and serialising them with
+ * WPMZManager.generateKMZFile: the XML is streamed element by element into the zip
+ * with no document model, and it follows a WpmlAircraftProfile (namespace version,
+ * efficiency flight mode, turn mode, supported actions), so it needs no KmzCleaner pass.
+ * Plain Java, usable on the JVM for batch jobs.
+ *
+ * Layout and values follow what WPMZManager writes for the missions KMZTestUtil
+ * builds; WpmlAircraftProfile.SDK_DEFAULT reproduces the uncleaned SDK output.
+ */
+public final class WpmlWriter {
+
+    public static final String TEMPLATE_ENTRY = "wpmz/template.kml";
+    public static final String WAYLINES_ENTRY = "wpmz/waylines.wpml";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int WRITER_BUFFER_SIZE = 16 * 1024;
+    private static final String KML_NAMESPACE = "http://www.opengis.net/kml/2.2";
+
+    private final WpmlAircraftProfile profile;
+
+    public WpmlWriter(WpmlAircraftProfile profile) {
+        this.profile = profile;
+    }
+
+    public WpmlAircraftProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Write the complete KMZ archive to out, which is flushed but not closed
+     */
+    public void writeKmz(WpmlMission mission, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip, UTF_8), WRITER_BUFFER_SIZE);
+            zip.putNextEntry(new ZipEntry(TEMPLATE_ENTRY));
+            writeTemplate(mission, writer);
+            writer.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry(WAYLINES_ENTRY));
+            writeWaylines(mission, writer);
+            writer.flush();
+            zip.closeEntry();
+        } finally {
+            zip.close();
+        }
+    }
+
+    public void writeTemplate(WpmlMission mission, Writer writer) throws IOException {
+        XmlOut out = new XmlOut(writer);
+        openDocument(out, mission, true);
+
+        out.open("Folder");
+        out.element("wpml:templateType", "waypoint");
+        out.element("wpml:templateId", 0);
+        out.open("wpml:waylineCoordinateSysParam");
+        out.element("wpml:coordinateMode", "WGS84");
+        out.element("wpml:heightMode", mission.heightMode);
+        out.element("wpml:positioningType", "GPS");
+        out.close("wpml:waylineCoordinateSysParam");
+        out.element("wpml:autoFlightSpeed", mission.autoFlightSpeed);
+        out.element("wpml:globalHeight", mission.globalHeight);
+        out.element("wpml:caliFlightEnable", 0);
+        out.element("wpml:gimbalPitchMode", "usePointSetting");
+        out.open("wpml:globalWaypointHeadingParam");
+        out.element("wpml:waypointHeadingMode", headingMode(mission));
+        if (mission.hasPoi) {
+            out.element("wpml:waypointPoiPoint", poiPoint(mission));
+        }
+        out.close("wpml:globalWaypointHeadingParam");
+        out.element("wpml:globalWaypointTurnMode", profile.getTurnMode());
+        out.element("wpml:globalUseStraightLine", 0);
+        if (profile.isEfficiencyFlightModeSupported()) {
+            out.element("wpml:efficiencyFlightModeEnable", profile.isEfficiencyFlightModeEnabled() ? 1 : 0);
+        }
+
+        int actionGroupId = 0;
+        for (int i = 0; i < mission.waypoints.size(); i++) {
+            WpmlMission.Waypoint waypoint = mission.waypoints.get(i);
+            out.open("Placemark");
+            writePoint(out, waypoint);
+            out.element("wpml:index", i);
+            out.element("wpml:ellipsoidHeight", waypoint.height);
+            out.element("wpml:height", waypoint.height);
+            out.element("wpml:useGlobalHeight", 0);
+            out.element("wpml:useGlobalSpeed", 0);
+            out.element("wpml:waypointSpeed", waypoint.speed);
+            out.element("wpml:useGlobalHeadingParam", 0);
+            writeHeadingParam(out, mission, waypoint);
+            out.element("wpml:useGlobalTurnParam", 0);
+            writeTurnParam(out, mission, i);
+            out.element("wpml:useStraightLine", 1);
+            out.element("wpml:gimbalPitchAngle", waypoint.gimbalPitchAngle);
+            if (writeActionGroup(out, waypoint, i, actionGroupId)) {
+                actionGroupId++;
+            }
+            out.close("Placemark");
+        }
+        out.close("Folder");
+        closeDocument(out);
+    }
+
+    public void writeWaylines(WpmlMission mission, Writer writer) throws IOException {
+        XmlOut out = new XmlOut(writer);
+        openDocument(out, mission, false);
+
+        out.open("Folder");
+        out.element("wpml:templateId", 0);
+        out.element("wpml:executeHeightMode", WpmlMission.HEIGHT_MODE_RELATIVE_TO_START_POINT.equals(mission.heightMode)
+                ? WpmlMission.HEIGHT_MODE_RELATIVE_TO_START_POINT : "WGS84");
+        out.element("wpml:waylineId", 0);
+        double[] distanceAndDuration = distanceAndDuration(mission);
+        out.element("wpml:distance", distanceAndDuration[0]);
+        out.element("wpml:duration", distanceAndDuration[1]);
+        out.element("wpml:autoFlightSpeed", mission.autoFlightSpeed);
+        if (profile.isEfficiencyFlightModeSupported()) {
+            out.element("wpml:efficiencyFlightModeEnable", profile.isEfficiencyFlightModeEnabled() ? 1 : 0);
+        }
+
+        int actionGroupId = 0;
+        for (int i = 0; i < mission.waypoints.size(); i++) {
+            WpmlMission.Waypoint waypoint = mission.waypoints.get(i);
+            out.open("Placemark");
+            writePoint(out, waypoint);
+            out.element("wpml:index", i);
+            out.element("wpml:executeHeight", waypoint.height);
+            out.element("wpml:waypointSpeed", waypoint.speed);
+            writeHeadingParam(out, mission, waypoint);
+            writeTurnParam(out, mission, i);
+            out.element("wpml:useStraightLine", 1);
+            if (writeActionGroup(out, waypoint, i, actionGroupId)) {
+                actionGroupId++;
+            }
+            out.open("wpml:waypointGimbalHeadingParam");
+            out.element("wpml:waypointGimbalPitchAngle", waypoint.gimbalPitchAngle);
+            out.element("wpml:waypointGimbalYawAngle", 0);
+            out.close("wpml:waypointGimbalHeadingParam");
+            out.close("Placemark");
+        }
+        out.close("Folder");
+        closeDocument(out);
+    }
+
+    private void openDocument(XmlOut out, WpmlMission mission, boolean template) throws IOException {
+        out.raw("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.raw("<kml xmlns=\"" + KML_NAMESPACE + "\" xmlns:wpml=\"" + profile.getWpmlNamespace() + "\">\n");
+        out.depth = 1;
+        out.open("Document");
+        if (template) {
+            out.element("wpml:author", mission.author);
+            out.element("wpml:createTime", mission.createTime);
+            out.element("wpml:updateTime", mission.updateTime);
+        }
+
+        out.open("wpml:missionConfig");
+        out.element("wpml:flyToWaylineMode", mission.flyToWaylineMode);
+        out.element("wpml:finishAction", mission.finishAction);
+        out.element("wpml:exitOnRCLost", mission.exitOnRCLost);
+        out.element("wpml:executeRCLostAction", mission.executeRCLostAction);
+        out.element("wpml:takeOffSecurityHeight", mission.takeOffSecurityHeight);
+        out.element("wpml:globalTransitionalSpeed", mission.globalTransitionalSpeed);
+        out.open("wpml:droneInfo");
+        out.element("wpml:droneEnumValue", profile.getDroneEnumValue());
+        out.element("wpml:droneSubEnumValue", profile.getDroneSubEnumValue());
+        out.close("wpml:droneInfo");
+        out.open("wpml:payloadInfo");
+        out.element("wpml:payloadEnumValue", profile.getPayloadEnumValue());
+        out.element("wpml:payloadPositionIndex", 0);
+        out.close("wpml:payloadInfo");
+        out.close("wpml:missionConfig");
+    }
+
+    private static void closeDocument(XmlOut out) throws IOException {
+        out.close("Document");
+        out.raw("</kml>\n");
+    }
+
+    private static void writePoint(XmlOut out, WpmlMission.Waypoint waypoint) throws IOException {
+        out.open("Point");
+        out.element("coordinates", formatNumber(waypoint.longitude) + "," + formatNumber(waypoint.latitude));
+        out.close("Point");
+    }
+
+    private static void writeHeadingParam(XmlOut out, WpmlMission mission, WpmlMission.Waypoint waypoint)
+            throws IOException {
+        out.open("wpml:waypointHeadingParam");
+        out.element("wpml:waypointHeadingMode", headingMode(mission));
+        out.element("wpml:waypointHeadingAngle", waypoint.headingAngle);
+        if (mission.hasPoi) {
+            out.element("wpml:waypointPoiPoint", poiPoint(mission));
+        }
+        out.element("wpml:waypointHeadingAngleEnable", 1);
+        out.element("wpml:waypointHeadingPathMode", "followBadArc");
+        out.close("wpml:waypointHeadingParam");
+    }
+
+    private void writeTurnParam(XmlOut out, WpmlMission mission, int index) throws IOException {
+        List<WpmlMission.Waypoint> waypoints = mission.waypoints;
+        int count = waypoints.size();
+        double legIn = index > 0 ? distance(waypoints.get(index - 1), waypoints.get(index)) : 0;
+        double legOut = index < count - 1 ? distance(waypoints.get(index), waypoints.get(index + 1)) : 0;
+        out.open("wpml:waypointTurnParam");
+        out.element("wpml:waypointTurnMode", profile.getTurnMode(index, count, legIn, legOut));
+        out.element("wpml:waypointTurnDampingDist", profile.getTurnDampingDistance(index, count, legIn, legOut));
+        out.close("wpml:waypointTurnParam");
+    }
+
+    private static double distance(WpmlMission.Waypoint from, WpmlMission.Waypoint to) {
+        return Geodesy.haversine(from.latitude, from.longitude, to.latitude, to.longitude);
+    }
+
+    /**
+     * One action group holding the waypoint's supported actions, in sequence
+     * @return false when none of its actions is supported and nothing was written
+     */
+    private boolean writeActionGroup(XmlOut out, WpmlMission.Waypoint waypoint, int index, int groupId)
+            throws IOException {
+        List<WpmlAction> actions = new ArrayList<>(waypoint.actions.size());
+        for (WpmlAction action : waypoint.actions) {
+            if (profile.supportsAction(action.getActuatorFunc())) {
+                actions.add(action);
+            }
+        }
+        if (actions.isEmpty()) {
+            return false;
+        }
+
+        out.open("wpml:actionGroup");
+        out.element("wpml:actionGroupId", groupId);
+        out.element("wpml:actionGroupStartIndex", index);
+        out.element("wpml:actionGroupEndIndex", index);
+        out.element("wpml:actionGroupMode", "sequence");
+        out.open("wpml:actionTrigger");
+        out.element("wpml:actionTriggerType", "reachPoint");
+        out.close("wpml:actionTrigger");
+        for (int i = 0; i < actions.size(); i++) {
+            WpmlAction action = actions.get(i);
+            out.open("wpml:action");
+            out.element("wpml:actionId", i);
+            out.element("wpml:actionActuatorFunc", action.getActuatorFunc());
+            out.open("wpml:actionActuatorFuncParam");
+            for (Map.Entry<String, String> param : action.getParams().entrySet()) {
+                out.element("wpml:" + param.getKey(), param.getValue());
+            }
+            out.close("wpml:actionActuatorFuncParam");
+            out.close("wpml:action");
+        }
+        out.close("wpml:actionGroup");
+        return true;
+    }
+
+    private static String headingMode(WpmlMission mission) {
+        return mission.hasPoi ? "towardPOI" : "followWayline";
+    }
+
+    private static String poiPoint(WpmlMission mission) {
+        return formatNumber(mission.poiLatitude) + "," + formatNumber(mission.poiLongitude) + ","
+                + formatNumber(mission.poiHeight);
+    }
+
+    /**
+     * Length of the route in meters and its flight time in seconds at the waypoint speeds
+     */
+    public static double[] distanceAndDuration(WpmlMission mission) {
+        double distance = 0;
+        double duration = 0;
+        for (int i = 1; i < mission.waypoints.size(); i++) {
+            WpmlMission.Waypoint from = mission.waypoints.get(i - 1);
+            WpmlMission.Waypoint to = mission.waypoints.get(i);
+            double leg = distance(from, to);
+            double speed = to.speed > 0 ? to.speed : mission.autoFlightSpeed;
+            distance += leg;
+            duration += speed > 0 ? leg / speed : 0;
+        }
+        return new double[]{Math.round(distance * 100) / 100.0, Math.round(duration * 100) / 100.0};
+    }
+
+    /**
+     * Shortest text that reads back as the same double, without exponent and without
+     * a trailing ".0" on whole numbers
+     */
+    static String formatNumber(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Cannot write " + value + " to WPML");
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        String text = Double.toString(value);
+        return text.indexOf('E') < 0 ? text : BigDecimal.valueOf(value).toPlainString();
+    }
+
+    /**
+     * Indented element output with cached indents
+     */
+    private static final class XmlOut {
+        private static final String[] INDENTS = new String[16];
+
+        static {
+            StringBuilder indent = new StringBuilder();
+            for (int i = 0; i < INDENTS.length; i++) {
+                INDENTS[i] = indent.toString();
+                indent.append("  ");
+            }
+        }
+
+        private final Writer writer;
+        int depth;
+
+        XmlOut(Writer writer) {
+            this.writer = writer;
+        }
+
+        void raw(String text) throws IOException {
+            writer.write(text);
+        }
+
+        void open(String tag) throws IOException {
+            writer.write(INDENTS[depth++]);
+            writer.write('<');
+            writer.write(tag);
+            writer.write(">\n");
+        }
+
+        void close(String tag) throws IOException {
+            writer.write(INDENTS[--depth]);
+            writer.write("</");
+            writer.write(tag);
+            writer.write(">\n");
+        }
+
+        void element(String tag, String text) throws IOException {
+            writer.write(INDENTS[depth]);
+            writer.write('<');
+            writer.write(tag);
+            writer.write('>');
+            escape(text);
+            writer.write("</");
+            writer.write(tag);
+            writer.write(">\n");
+        }
+
+        void element(String tag, double value) throws IOException {
+            element(tag, formatNumber(value));
+        }
+
+        void element(String tag, long value) throws IOException {
+            element(tag, Long.toString(value));
+        }
+
+        private void escape(String text) throws IOException {
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                String entity;
+                switch (text.charAt(i)) {
+                    case '<':
+                        entity = "&lt;";
+                        break;
+                    case '>':
+                        entity = "&gt;";
+                        break;
+                    case '&':
+                        entity = "&amp;";
+                        break;
+                    default:
+                        continue;
+                }
+                writer.write(text, start, i - start);
+                writer.write(entity);
+                start = i + 1;
+            }
+            writer.write(text, start, text.length() - start);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MissionJournalAnalysisTest - Upload timings by when the upload began
+ */
+public class MissionJournalAnalysisTest {
+
+    private static final List<WaypointSetting> NO_WAYPOINTS = Collections.emptyList();
+
+    @Test
+    public void uploadAfterConfirmationIsTimedWhole() {
+        List<MissionJournal.Event> events = new ArrayList<>();
+        events.add(event(MissionJournalFormat.EVENT_START_REQUESTED, 3, 0));
+        events.add(event(MissionJournalFormat.EVENT_UPLOAD_STARTED, 4096, 200));
+        events.add(event(MissionJournalFormat.EVENT_UPLOADED, 0, 2700));
+
+        MissionJournalAnalysis analysis = MissionJournalAnalysis.analyze(events, NO_WAYPOINTS, 5);
+        assertEquals(2500, analysis.getUploadMillis());
+        assertEquals(-1, analysis.getUploadRemainderMillis());
+        assertFalse(analysis.isPreUploaded());
+    }
+
+    @Test
+    public void uploadRunningAtConfirmationIsReportedApart() {
+        List<MissionJournal.Event> events = new ArrayList<>();
+        events.add(event(MissionJournalFormat.EVENT_START_REQUESTED, 3, 0));
+        events.add(event(MissionJournalFormat.EVENT_UPLOAD_IN_PROGRESS, 4096, 10));
+        events.add(event(MissionJournalFormat.EVENT_UPLOADED, 0, 810));
+
+        MissionJournalAnalysis analysis = MissionJournalAnalysis.analyze(events, NO_WAYPOINTS, 5);
+        assertEquals(-1, analysis.getUploadMillis());
+        assertEquals(800, analysis.getUploadRemainderMillis());
+        assertTrue(analysis.toString().contains("Upload -, rest of an earlier upload 0.80 s"));
+    }
+
+    @Test
+    public void uploadFinishedBeforeConfirmationTakesNoTime() {
+        List<MissionJournal.Event> events = new ArrayList<>();
+        events.add(event(MissionJournalFormat.EVENT_START_REQUESTED, 3, 0));
+        events.add(event(MissionJournalFormat.EVENT_UPLOADED, 1, 10));
+
+        MissionJournalAnalysis analysis = MissionJournalAnalysis.analyze(events, NO_WAYPOINTS, 5);
+        assertEquals(-1, analysis.getUploadMillis());
+        assertEquals(-1, analysis.getUploadRemainderMillis());
+        assertTrue(analysis.isPreUploaded());
+    }
+
+    private static MissionJournal.Event event(int type, int value, long timeMillis) {
+        return new MissionJournal.Event(type, MissionJournalFormat.SOURCE_APP, value, timeMillis * 1000, null);
+    }
+}
@@ -0,0 +1,148 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * MissionJournalTest - Journals written by MissionJournal read back by MissionJournalReader
+ */
+public class MissionJournalTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> errors = new ArrayList<>();
+    private final MissionJournal.ErrorHandler errorHandler = (message, e) -> errors.add(message);
+
+    @Test
+    public void everyEventRoundTrips() throws IOException {
+        File file = new File(folder.getRoot(), "flight_1" + MissionJournalFormat.FILE_EXTENSION);
+        MissionJournal journal = new MissionJournal(file, DIRECT, errorHandler);
+        journal.record(MissionJournalFormat.EVENT_START_REQUESTED, MissionJournalFormat.SOURCE_APP, 12);
+        journal.record(MissionJournalFormat.EVENT_UPLOAD_STARTED, MissionJournalFormat.SOURCE_APP, 48_213);
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT, "EXECUTING");
+        journal.record(MissionJournalFormat.EVENT_WAYPOINT, MissionJournalFormat.SOURCE_AIRCRAFT, 3);
+        journal.record(MissionJournalFormat.EVENT_PAUSE_REQUESTED, MissionJournalFormat.SOURCE_RC_BUTTON, 0);
+        journal.record(MissionJournalFormat.EVENT_PAUSE_FAILED, MissionJournalFormat.SOURCE_JOYSTICK,
+                "Timeout: no reply from the aircraft after 3 s, état inconnu");
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT, "EXECUTING");
+        journal.record(MissionJournalFormat.EVENT_RESUME_FAILED, MissionJournalFormat.SOURCE_APP, "");
+        journal.record(MissionJournalFormat.EVENT_STOPPED, MissionJournalFormat.SOURCE_APP, -1);
+        journal.close();
+
+        MissionJournalReader.Journal read = MissionJournalReader.read(file);
+        assertEquals(journal.getStartEpochMillis(), read.startEpochMillis);
+        assertEvents(journal.getEvents(), read.events);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void recordsFillWholeSixteenByteSlots() throws IOException {
+        File file = new File(folder.getRoot(), "slots" + MissionJournalFormat.FILE_EXTENSION);
+        MissionJournal journal = new MissionJournal(file, DIRECT, errorHandler);
+        journal.record(MissionJournalFormat.EVENT_WAYPOINT, MissionJournalFormat.SOURCE_AIRCRAFT, 1);
+        // 16 bytes of text: a definition record, one record of bytes, then the event
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT, "0123456789abcdef");
+        // 17 bytes take two records of bytes
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT, "0123456789abcdefg");
+        // A string already defined is only referenced
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT, "0123456789abcdef");
+        journal.close();
+
+        int records = 1 + 3 + 4 + 1;
+        assertEquals(MissionJournalFormat.HEADER_SIZE + records * MissionJournalFormat.RECORD_SIZE, file.length());
+        assertEvents(journal.getEvents(), MissionJournalReader.read(file).events);
+    }
+
+    @Test
+    public void recordCutShortAtTheEndIsIgnored() throws IOException {
+        File file = new File(folder.getRoot(), "cut" + MissionJournalFormat.FILE_EXTENSION);
+        MissionJournal journal = new MissionJournal(file, DIRECT, errorHandler);
+        journal.record(MissionJournalFormat.EVENT_WAYPOINT, MissionJournalFormat.SOURCE_AIRCRAFT, 1);
+        journal.record(MissionJournalFormat.EVENT_WAYPOINT, MissionJournalFormat.SOURCE_AIRCRAFT, 2);
+        journal.record(MissionJournalFormat.EVENT_STATE, MissionJournalFormat.SOURCE_AIRCRAFT,
+                "A state name longer than one record");
+        journal.close();
+        List<MissionJournal.Event> written = journal.getEvents();
+
+        long fullLength = file.length();
+        // Inside the string definition, then inside the last plain record
+        truncate(file, fullLength - 2 * MissionJournalFormat.RECORD_SIZE);
+        assertEvents(written.subList(0, 2), MissionJournalReader.read(file).events);
+        truncate(file, MissionJournalFormat.HEADER_SIZE + MissionJournalFormat.RECORD_SIZE + 5);
+        assertEvents(written.subList(0, 1), MissionJournalReader.read(file).events);
+    }
+
+    @Test
+    public void eventsAfterCloseAreDropped() throws IOException {
+        File file = new File(folder.getRoot(), "closed" + MissionJournalFormat.FILE_EXTENSION);
+        MissionJournal journal = new MissionJournal(file, DIRECT, errorHandler);
+        journal.record(MissionJournalFormat.EVENT_STARTED, MissionJournalFormat.SOURCE_AIRCRAFT, 0);
+        journal.close();
+        journal.record(MissionJournalFormat.EVENT_STOPPED, MissionJournalFormat.SOURCE_APP, 0);
+
+        assertEquals(1, journal.getEvents().size());
+        assertEquals(1, MissionJournalReader.read(file).events.size());
+    }
+
+    @Test
+    public void writeFailureStopsTheJournalOnce() throws IOException {
+        File notADirectory = folder.newFile("file");
+        MissionJournal journal = new MissionJournal(new File(notADirectory, "journal.eemj"), DIRECT, errorHandler);
+        journal.record(MissionJournalFormat.EVENT_STARTED, MissionJournalFormat.SOURCE_AIRCRAFT, 0);
+        journal.record(MissionJournalFormat.EVENT_STOPPED, MissionJournalFormat.SOURCE_APP, 0);
+        journal.close();
+
+        assertEquals(1, errors.size());
+        // Still kept in memory for the analysis
+        assertEquals(2, journal.getEvents().size());
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws IOException {
+        File file = folder.newFile("other.eemj");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[MissionJournalFormat.HEADER_SIZE + MissionJournalFormat.RECORD_SIZE]);
+        }
+        try {
+            MissionJournalReader.read(file);
+            fail("Read a file without the journal magic");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+
+    private static void assertEvents(List<MissionJournal.Event> expected, List<MissionJournal.Event> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            MissionJournal.Event want = expected.get(i);
+            MissionJournal.Event got = actual.get(i);
+            String where = "event " + i + " " + want;
+            assertEquals(where, want.type, got.type);
+            assertEquals(where, want.source, got.source);
+            assertEquals(where, want.value, got.value);
+            assertEquals(where, want.timeMicros, got.timeMicros);
+            assertEquals(where, want.text, got.text);
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+}
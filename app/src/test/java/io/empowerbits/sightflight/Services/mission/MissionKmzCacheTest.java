@@ -0,0 +1,213 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.MissionSetting;
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MissionKmzCacheTest - Cache keys, least recently used eviction and reloading from disk
+ */
+public class MissionKmzCacheTest {
+
+    private static final String GENERATOR = "WPMZManager";
+    private static final int KMZ_BYTES = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // ==================== key ====================
+
+    @Test
+    public void equalMissionsShareAKey() {
+        String key = MissionKmzCache.key(new MissionSetting(), waypoints(3), GENERATOR);
+        assertEquals(key, MissionKmzCache.key(new MissionSetting(), waypoints(3), GENERATOR));
+        assertEquals(16, key.length());
+    }
+
+    @Test
+    public void everyHashedInputChangesTheKey() {
+        String key = MissionKmzCache.key(new MissionSetting(), waypoints(3), GENERATOR);
+
+        assertNotEquals(key, MissionKmzCache.key(new MissionSetting(), waypoints(3), "Mini 4 Pro"));
+        assertNotEquals(key, MissionKmzCache.key(new MissionSetting(), waypoints(4), GENERATOR));
+
+        MissionSetting faster = new MissionSetting();
+        faster.autoFlighSpeed += 1;
+        assertNotEquals(key, MissionKmzCache.key(faster, waypoints(3), GENERATOR));
+
+        List<WaypointSetting> moved = waypoints(3);
+        moved.get(1).latitude += 1e-7;
+        assertNotEquals(key, MissionKmzCache.key(new MissionSetting(), moved, GENERATOR));
+
+        List<WaypointSetting> slower = waypoints(3);
+        slower.get(2).waypointSpeed = 4.0;
+        assertNotEquals(key, MissionKmzCache.key(new MissionSetting(), slower, GENERATOR));
+
+        List<WaypointSetting> tilted = waypoints(3);
+        tilted.get(0).gimbalPitchAngle = -45.0;
+        assertNotEquals(key, MissionKmzCache.key(new MissionSetting(), tilted, GENERATOR));
+    }
+
+    @Test
+    public void missingValueDiffersFromZero() {
+        List<WaypointSetting> missing = waypoints(2);
+        missing.get(0).waypointSpeed = null;
+        List<WaypointSetting> zero = waypoints(2);
+        zero.get(0).waypointSpeed = 0.0;
+        assertNotEquals(MissionKmzCache.key(new MissionSetting(), missing, GENERATOR),
+                MissionKmzCache.key(new MissionSetting(), zero, GENERATOR));
+    }
+
+    @Test
+    public void displayOnlyFieldsDoNotChangeTheKey() {
+        MissionSetting renamed = new MissionSetting();
+        renamed.missionName = "Renamed";
+        List<WaypointSetting> relabelled = waypoints(3);
+        relabelled.get(0).name = "Start";
+        assertEquals(MissionKmzCache.key(new MissionSetting(), waypoints(3), GENERATOR),
+                MissionKmzCache.key(renamed, relabelled, GENERATOR));
+    }
+
+    // ==================== put and get ====================
+
+    @Test
+    public void putMovesTheFileIntoTheCache() throws IOException {
+        MissionKmzCache cache = new MissionKmzCache(folder.newFolder("cache"), MissionKmzCache.DEFAULT_MAX_BYTES);
+        File kmz = kmz("generated.kmz");
+
+        MissionKmzCache.Entry entry = cache.put("abc", "project", kmz, null);
+        assertNotNull(entry);
+        assertFalse(kmz.exists());
+        assertEquals(new File(cache.getDirectory(), "project_abc.kmz"), entry.getFile());
+        assertTrue(cache.owns(entry.getFile()));
+        assertEquals(KMZ_BYTES, cache.getTotalBytes());
+
+        assertEquals(entry.getFile(), cache.get("abc").getFile());
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    public void putReplacesAnEntryOfTheSameKey() throws IOException {
+        MissionKmzCache cache = new MissionKmzCache(folder.newFolder("cache"), MissionKmzCache.DEFAULT_MAX_BYTES);
+        File first = cache.put("abc", "old", kmz("a.kmz"), null).getFile();
+        cache.put("abc", "new", kmz("b.kmz"), null);
+
+        assertFalse(first.exists());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(KMZ_BYTES, cache.getTotalBytes());
+    }
+
+    @Test
+    public void entryChangedOnDiskIsDropped() throws IOException {
+        MissionKmzCache cache = new MissionKmzCache(folder.newFolder("cache"), MissionKmzCache.DEFAULT_MAX_BYTES);
+        File file = cache.put("abc", "project", kmz("a.kmz"), null).getFile();
+        write(file, KMZ_BYTES / 2);
+
+        assertNull(cache.get("abc"));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    // ==================== eviction ====================
+
+    @Test
+    public void leastRecentlyUsedIsEvictedFirst() throws IOException {
+        MissionKmzCache cache = new MissionKmzCache(folder.newFolder("cache"), 2 * KMZ_BYTES);
+        File a = cache.put("a", "p", kmz("a.kmz"), null).getFile();
+        File b = cache.put("b", "p", kmz("b.kmz"), null).getFile();
+        // Using a makes b the least recently used
+        assertNotNull(cache.get("a"));
+        cache.put("c", "p", kmz("c.kmz"), null);
+
+        assertTrue(a.exists());
+        assertFalse(b.exists());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2 * KMZ_BYTES, cache.getTotalBytes());
+    }
+
+    @Test
+    public void newestEntryIsKeptEvenOverTheLimit() throws IOException {
+        MissionKmzCache cache = new MissionKmzCache(folder.newFolder("cache"), KMZ_BYTES / 2);
+        cache.put("a", "p", kmz("a.kmz"), null);
+        cache.put("b", "p", kmz("b.kmz"), null);
+
+        assertEquals(1, cache.getEntryCount());
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void entriesSurviveARestartInTheirUseOrder() throws IOException {
+        File directory = folder.newFolder("cache");
+        MissionKmzCache cache = new MissionKmzCache(directory, 3 * KMZ_BYTES);
+        File a = cache.put("a", "p", kmz("a.kmz"), null).getFile();
+        File b = cache.put("b", "p", kmz("b.kmz"), null).getFile();
+        a.setLastModified(1_000_000L);
+        b.setLastModified(2_000_000L);
+
+        // A smaller limit on restart evicts the entry used longest ago
+        MissionKmzCache restarted = new MissionKmzCache(directory, KMZ_BYTES);
+        assertEquals(1, restarted.getEntryCount());
+        assertNull(restarted.get("a"));
+        MissionKmzCache.Entry entry = restarted.get("b");
+        assertNotNull(entry);
+        assertEquals("b", entry.getKey());
+        assertNull(entry.getCheck());
+    }
+
+    @Test
+    public void foreignFilesAreIgnoredOnLoad() throws IOException {
+        File directory = folder.newFolder("cache");
+        write(new File(directory, "notes.txt"), KMZ_BYTES);
+        write(new File(directory, "empty_abc.kmz"), 0);
+
+        MissionKmzCache cache = new MissionKmzCache(directory, MissionKmzCache.DEFAULT_MAX_BYTES);
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    private File kmz(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        write(file, KMZ_BYTES);
+        return file;
+    }
+
+    private static void write(File file, int bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[bytes]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static List<WaypointSetting> waypoints(int count) {
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            WaypointSetting waypoint = new WaypointSetting();
+            waypoint.name = "Waypoint " + (i + 1);
+            waypoint.latitude = 47.397 + i * 1e-4;
+            waypoint.longitude = 8.545;
+            waypoint.altitude = 30.0;
+            waypoint.gimbalPitchAngle = -30.0;
+            waypoints.add(waypoint);
+        }
+        return waypoints;
+    }
+}
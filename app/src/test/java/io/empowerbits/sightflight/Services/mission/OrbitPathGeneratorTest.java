@@ -0,0 +1,181 @@
+package io.empowerbits.sightflight.Services.mission;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrbitPathGeneratorTest - The geometry of generated orbits, over random POIs
+ *
+ * Every sample picks a POI up to MAX_LATITUDE, a POI height, and orbit dimensions within
+ * what a mission flies; distances and bearings are measured back with Geodesy.
+ */
+public class OrbitPathGeneratorTest {
+
+    private static final int SAMPLES = 2_000;
+    private static final double MAX_LATITUDE = 75.0;
+    /** Degrees; ProjectMissionPlanner.pitchTowardPoi works in float */
+    private static final double PITCH_TOLERANCE = 1e-4;
+
+    /**
+     * A POI and the generator and planner aiming at it
+     */
+    private static final class Poi {
+        double lat;
+        double lon;
+        double height;
+        OrbitPathGenerator generator;
+        ProjectMissionPlanner planner;
+
+        void next(Random random) {
+            lat = (random.nextDouble() * 2 - 1) * MAX_LATITUDE;
+            lon = random.nextDouble() * 360 - 180;
+            height = random.nextDouble() * 20;
+            generator = new OrbitPathGenerator(lat, lon, height);
+            planner = new ProjectMissionPlanner(lat, lon, height, 0, 0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "POI %.7f,%.7f height %.2f", lat, lon, height);
+        }
+    }
+
+    @Test
+    public void ringPointsLieOnTheRadiusEvenlySpaced() {
+        Random random = new Random(50);
+        Poi poi = new Poi();
+        for (int i = 0; i < SAMPLES; i++) {
+            poi.next(random);
+            double radius = 1 + random.nextDouble() * 500;
+            int count = 3 + random.nextInt(30);
+            double altitude = 10 + random.nextDouble() * 100;
+            double startBearing = random.nextDouble() * 360;
+            OrbitPathGenerator.OrbitPath path = poi.generator.ring(radius, count, altitude, startBearing);
+
+            String where = poi + " radius " + radius;
+            assertEquals(where, count, path.size());
+            for (int p = 0; p < count; p++) {
+                double distance = Geodesy.haversine(poi.lat, poi.lon, path.latitudes[p], path.longitudes[p]);
+                assertEquals(where, radius, distance, 1e-6 * radius);
+                double bearing = Geodesy.bearing(poi.lat, poi.lon, path.latitudes[p], path.longitudes[p]);
+                assertEquals(where, 0, bearingError(startBearing + p * 360.0 / count, bearing), 1e-6);
+                assertEquals(where, altitude, path.altitudes[p], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void stackedRingsFillTheSpanUpToTheHighestAltitude() {
+        Random random = new Random(51);
+        Poi poi = new Poi();
+        for (int i = 0; i < SAMPLES; i++) {
+            poi.next(random);
+            double lowest = 5 + random.nextDouble() * 30;
+            double spacing = 1 + random.nextDouble() * 10;
+            // Every fourth span is a whole number of spacings
+            double highest = i % 4 == 0
+                    ? lowest + random.nextInt(8) * spacing
+                    : lowest + random.nextDouble() * 60;
+            int pointsPerRing = 3 + random.nextInt(12);
+            OrbitPathGenerator.OrbitPath path = poi.generator.rings(50, lowest, highest, spacing, pointsPerRing, 0);
+
+            String where = poi + " rings " + lowest + ".." + highest + " every " + spacing;
+            int rings = path.size() / pointsPerRing;
+            assertEquals(where, rings * pointsPerRing, path.size());
+            assertEquals(where, (int) Math.ceil((highest - lowest) / spacing - 1e-9) + 1, rings);
+            for (int ring = 0; ring < rings; ring++) {
+                double expected = Math.min(highest, lowest + ring * spacing);
+                for (int p = 0; p < pointsPerRing; p++) {
+                    int index = ring * pointsPerRing + p;
+                    assertEquals(where, expected, path.altitudes[index], 0.0);
+                    // Each ring repeats the first one's positions, a straight climb between them
+                    assertEquals(where, path.latitudes[p], path.latitudes[index], 0.0);
+                    assertEquals(where, path.longitudes[p], path.longitudes[index], 0.0);
+                }
+            }
+            // The top ring is at highest, the one below it strictly lower
+            assertEquals(where, highest, path.altitudes[path.size() - 1], 1e-9);
+            if (rings > 1) {
+                double below = path.altitudes[(rings - 2) * pointsPerRing];
+                assertTrue(where + ": ring below the top at " + below, below < highest - 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void spiralIsContinuousFromStartToEnd() {
+        Random random = new Random(52);
+        Poi poi = new Poi();
+        for (int i = 0; i < SAMPLES; i++) {
+            poi.next(random);
+            double startRadius = 5 + random.nextDouble() * 200;
+            double endRadius = 5 + random.nextDouble() * 200;
+            double startAltitude = 10 + random.nextDouble() * 50;
+            double endAltitude = 10 + random.nextDouble() * 50;
+            double turns = 0.5 + random.nextDouble() * 4;
+            int count = 2 + random.nextInt(100);
+            double startBearing = random.nextDouble() * 360;
+            OrbitPathGenerator.OrbitPath path = poi.generator.spiral(startRadius, endRadius, startAltitude,
+                    endAltitude, turns, count, startBearing);
+
+            String where = poi + " spiral " + startRadius + ".." + endRadius + " over " + turns + " turns";
+            double steps = count - 1;
+            double bearingStep = 360.0 * turns / steps;
+            double previousRadius = 0;
+            for (int p = 0; p < count; p++) {
+                double radius = startRadius + p * (endRadius - startRadius) / steps;
+                double distance = Geodesy.haversine(poi.lat, poi.lon, path.latitudes[p], path.longitudes[p]);
+                assertEquals(where, radius, distance, 1e-6 * radius);
+                double bearing = Geodesy.bearing(poi.lat, poi.lon, path.latitudes[p], path.longitudes[p]);
+                assertEquals(where, 0, bearingError(startBearing + p * bearingStep, bearing), 1e-6);
+                assertEquals(where, startAltitude + p * (endAltitude - startAltitude) / steps,
+                        path.altitudes[p], 1e-9);
+
+                // No jumps: each step is the chord between two neighbouring radii
+                if (p > 0) {
+                    double step = Geodesy.haversine(path.latitudes[p - 1], path.longitudes[p - 1],
+                            path.latitudes[p], path.longitudes[p]);
+                    double chord = Math.sqrt(previousRadius * previousRadius + radius * radius
+                            - 2 * previousRadius * radius * Math.cos(Math.toRadians(bearingStep)));
+                    assertEquals(where + " step " + p, chord, step, 1e-4 * Math.max(1.0, chord));
+                }
+                previousRadius = radius;
+            }
+            assertEquals(where, endAltitude, path.altitudes[count - 1], 1e-9);
+        }
+    }
+
+    @Test
+    public void pitchMatchesThePlannersPitchTowardPoi() {
+        Random random = new Random(53);
+        Poi poi = new Poi();
+        for (int i = 0; i < SAMPLES; i++) {
+            poi.next(random);
+            // Starting at the POI covers the overhead points, which look straight down
+            OrbitPathGenerator.OrbitPath spiral = poi.generator.spiral(0, 10 + random.nextDouble() * 200,
+                    random.nextDouble() * 60, random.nextDouble() * 60, 3, 60, random.nextDouble() * 360);
+            OrbitPathGenerator.OrbitPath rings = poi.generator.rings(new double[]{3, 30, 120},
+                    new double[]{20, 35, 2}, 8, random.nextDouble() * 360);
+            assertPitches(poi, spiral);
+            assertPitches(poi, rings);
+        }
+    }
+
+    private static void assertPitches(Poi poi, OrbitPathGenerator.OrbitPath path) {
+        for (int p = 0; p < path.size(); p++) {
+            float expected = poi.planner.pitchTowardPoi(path.latitudes[p], path.longitudes[p], path.altitudes[p]);
+            assertEquals(poi + " point " + p, expected, path.gimbalPitches[p], PITCH_TOLERANCE);
+        }
+    }
+
+    private static double bearingError(double expected, double actual) {
+        return Math.abs(Geodesy.normalizeBearing(actual - expected + 180) - 180);
+    }
+}
@@ -0,0 +1,235 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * FlightRecordFormatTest - Records written by FlightRecorder read back by FlightRecordReader
+ */
+public class FlightRecordFormatTest {
+
+    private static final long MILLI = 1_000_000L;
+    private static final long HOUR = 3600_000L * MILLI;
+    private static final int ALL_RAW = (1 << TelemetryChannelId.FIRST_DERIVED) - 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void everyChannelRoundTrips() throws Exception {
+        File file = folder.newFile("flight" + FlightRecordFormat.FILE_EXTENSION);
+        FlightRecorder recorder = start(file);
+        long t = System.nanoTime();
+        TelemetrySnapshot snapshot = TelemetrySnapshot.EMPTY
+                .withFlightMode("GPS", t)
+                .withGpsSignalLevel(4, t)
+                .withSatelliteCount(17, t)
+                .withLinkSignalQuality(88, t)
+                .withBatteryPercentage(93, t)
+                .withAltitude(12.25, t)
+                .withVelocity(3.5, -0.75, t)
+                .withLocation(47.3977419, 8.5455938, 12.25, t)
+                .withHomeLocation(47.3977001, 8.5455002, t)
+                .withHeading(271.5, t);
+        recorder.record(ALL_RAW, snapshot);
+        stop(recorder);
+
+        FlightRecordReader reader = new FlightRecordReader(file);
+        try {
+            expect(reader, TelemetryChannelId.FLIGHT_MODE);
+            assertEquals("GPS", reader.getStringValue());
+            expect(reader, TelemetryChannelId.GPS_SIGNAL);
+            assertEquals(4, reader.getIntValue());
+            expect(reader, TelemetryChannelId.SATELLITE_COUNT);
+            assertEquals(17, reader.getIntValue());
+            expect(reader, TelemetryChannelId.LINK_SIGNAL);
+            assertEquals(88, reader.getIntValue());
+            expect(reader, TelemetryChannelId.BATTERY);
+            assertEquals(93, reader.getIntValue());
+            expect(reader, TelemetryChannelId.ALTITUDE);
+            assertEquals(12.25, reader.getDoubleValue(), 0.0);
+            expect(reader, TelemetryChannelId.HORIZONTAL_VELOCITY);
+            assertEquals(3.5, reader.getDoubleValue(), 0.0);
+            expect(reader, TelemetryChannelId.VERTICAL_VELOCITY);
+            assertEquals(-0.75, reader.getDoubleValue(), 0.0);
+            expect(reader, TelemetryChannelId.LOCATION);
+            assertEquals(47.3977419, reader.getLatitude(), 1e-9);
+            assertEquals(8.5455938, reader.getLongitude(), 1e-9);
+            assertEquals(12.25, reader.getAltitude(), 0.0);
+            expect(reader, TelemetryChannelId.HOME_LOCATION);
+            assertEquals(47.3977001, reader.getLatitude(), 1e-9);
+            assertEquals(8.5455002, reader.getLongitude(), 1e-9);
+            expect(reader, TelemetryChannelId.HEADING);
+            assertEquals(271.5, reader.getDoubleValue(), 0.0);
+            assertFalse(reader.next());
+        } finally {
+            reader.close();
+        }
+        // One record per raw channel and the definition of "GPS"
+        long records = TelemetryChannelId.FIRST_DERIVED + FlightRecordFormat.stringRecordCount(3);
+        assertEquals(FlightRecordFormat.HEADER_SIZE + records * FlightRecordFormat.RECORD_SIZE, file.length());
+    }
+
+    @Test
+    public void positionDeltasRestartAfterAGap() throws Exception {
+        File file = folder.newFile("gap" + FlightRecordFormat.FILE_EXTENSION);
+        FlightRecorder recorder = start(file);
+        int location = TelemetryChannelId.bit(TelemetryChannelId.LOCATION);
+        long t = System.nanoTime();
+        TelemetrySnapshot snapshot = TelemetrySnapshot.EMPTY.withLocation(-33.8567844, 151.2152967, 30, t);
+        recorder.record(location, snapshot);
+        recorder.record(location, snapshot.withLocation(-33.8568844, 151.2153967, 31, t + MILLI));
+        recorder.record(location, snapshot.withoutLocation(t + 2 * MILLI));
+        recorder.record(location, snapshot.withLocation(-33.8569844, 151.2154967, 32, t + 3 * MILLI));
+        stop(recorder);
+
+        FlightRecordReader reader = new FlightRecordReader(file);
+        try {
+            expect(reader, TelemetryChannelId.LOCATION);
+            assertEquals(-33.8567844, reader.getLatitude(), 1e-9);
+            expect(reader, TelemetryChannelId.LOCATION);
+            assertEquals(-33.8568844, reader.getLatitude(), 1e-9);
+            assertEquals(151.2153967, reader.getLongitude(), 1e-9);
+            expect(reader, TelemetryChannelId.LOCATION);
+            assertTrue(reader.isAbsent());
+            expect(reader, TelemetryChannelId.LOCATION);
+            assertFalse(reader.isAbsent());
+            assertEquals(-33.8569844, reader.getLatitude(), 1e-9);
+            assertEquals(151.2154967, reader.getLongitude(), 1e-9);
+            assertEquals(32, reader.getAltitude(), 0.0);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void timesSurviveDeltasBeyondAnInt() throws Exception {
+        File file = folder.newFile("long" + FlightRecordFormat.FILE_EXTENSION);
+        FlightRecorder recorder = start(file);
+        int battery = TelemetryChannelId.bit(TelemetryChannelId.BATTERY);
+        long t = System.nanoTime();
+        recorder.record(battery, TelemetrySnapshot.EMPTY.withBatteryPercentage(90, t));
+        recorder.record(battery, TelemetrySnapshot.EMPTY.withBatteryPercentage(89, t + 250 * MILLI));
+        // An hour in microseconds does not fit the int time delta, a time sync record is written
+        recorder.record(battery, TelemetrySnapshot.EMPTY.withBatteryPercentage(40, t + HOUR));
+        stop(recorder);
+
+        FlightRecordReader reader = new FlightRecordReader(file);
+        try {
+            expect(reader, TelemetryChannelId.BATTERY);
+            long first = reader.getTimeMicros();
+            expect(reader, TelemetryChannelId.BATTERY);
+            assertEquals(250_000L, reader.getTimeMicros() - first);
+            expect(reader, TelemetryChannelId.BATTERY);
+            assertEquals(40, reader.getIntValue());
+            assertEquals(HOUR / 1000L, reader.getTimeMicros() - first);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void stringsAreDefinedOnceAndSpanRecords() throws Exception {
+        File file = folder.newFile("strings" + FlightRecordFormat.FILE_EXTENSION);
+        FlightRecorder recorder = start(file);
+        int mode = TelemetryChannelId.bit(TelemetryChannelId.FLIGHT_MODE);
+        String longMode = "Waypoint mission executing, étape 3";
+        long t = System.nanoTime();
+        recorder.record(mode, TelemetrySnapshot.EMPTY.withFlightMode(longMode, t));
+        recorder.record(mode, TelemetrySnapshot.EMPTY.withFlightMode("GPS", t + MILLI));
+        recorder.record(mode, TelemetrySnapshot.EMPTY.withFlightMode(longMode, t + 2 * MILLI));
+        stop(recorder);
+
+        int longBytes = longMode.getBytes("UTF-8").length;
+        assertTrue(longBytes > FlightRecordFormat.RECORD_SIZE);
+        // Three mode records and two definitions, the second use of longMode refers back
+        long records = 3 + FlightRecordFormat.stringRecordCount(longBytes) + FlightRecordFormat.stringRecordCount(3);
+        assertEquals(FlightRecordFormat.HEADER_SIZE + records * FlightRecordFormat.RECORD_SIZE, file.length());
+
+        FlightRecordReader reader = new FlightRecordReader(file);
+        try {
+            expect(reader, TelemetryChannelId.FLIGHT_MODE);
+            assertEquals(longMode, reader.getStringValue());
+            expect(reader, TelemetryChannelId.FLIGHT_MODE);
+            assertEquals("GPS", reader.getStringValue());
+            expect(reader, TelemetryChannelId.FLIGHT_MODE);
+            assertEquals(longMode, reader.getStringValue());
+            assertFalse(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void restartingTruncatesTheFile() throws Exception {
+        File file = folder.newFile("restart" + FlightRecordFormat.FILE_EXTENSION);
+        int battery = TelemetryChannelId.bit(TelemetryChannelId.BATTERY);
+        FlightRecorder recorder = start(file);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(battery, TelemetrySnapshot.EMPTY.withBatteryPercentage(i, System.nanoTime()));
+        }
+        stop(recorder);
+        recorder = start(file);
+        recorder.record(battery, TelemetrySnapshot.EMPTY.withBatteryPercentage(50, System.nanoTime()));
+        stop(recorder);
+
+        assertEquals(FlightRecordFormat.HEADER_SIZE + FlightRecordFormat.RECORD_SIZE, file.length());
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws Exception {
+        File file = folder.newFile("other.bin");
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.write(new byte[FlightRecordFormat.HEADER_SIZE]);
+        } finally {
+            out.close();
+        }
+        try {
+            new FlightRecordReader(file).close();
+            fail("Read a file without the flight record magic");
+        } catch (IOException expected) {
+            // Not a flight record
+        }
+    }
+
+    @Test
+    public void fixedPointKeepsSevenDecimals() {
+        assertEquals(-1223456789L, FlightRecordFormat.toFixedPoint(-122.3456789));
+        assertEquals(-122.3456789, FlightRecordFormat.fromFixedPoint(-1223456789L), 0.0);
+        assertEquals(1, FlightRecordFormat.stringRecordCount(0));
+        assertEquals(2, FlightRecordFormat.stringRecordCount(FlightRecordFormat.RECORD_SIZE));
+        assertEquals(3, FlightRecordFormat.stringRecordCount(FlightRecordFormat.RECORD_SIZE + 1));
+    }
+
+    private static FlightRecorder start(File file) throws IOException {
+        FlightRecorder recorder = new FlightRecorder(file, new FlightRecorder.ErrorHandler() {
+            @Override
+            public void onRecorderError(String message, Exception e) {
+                throw new AssertionError(message, e);
+            }
+        });
+        recorder.start();
+        return recorder;
+    }
+
+    private static void stop(FlightRecorder recorder) throws InterruptedException {
+        recorder.stop();
+        assertTrue(recorder.awaitStopped(5000));
+    }
+
+    private static void expect(FlightRecordReader reader, int type) throws IOException {
+        assertTrue("Record missing, expected " + TelemetryChannelId.name(type), reader.next());
+        assertEquals(TelemetryChannelId.name(type), TelemetryChannelId.name(reader.getType()));
+    }
+}
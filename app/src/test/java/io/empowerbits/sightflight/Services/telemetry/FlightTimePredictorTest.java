@@ -0,0 +1,86 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FlightTimePredictorTest - Mission time remaining from the speeds written into the KMZ
+ */
+public class FlightTimePredictorTest {
+
+    private static final double DEFAULT_SPEED = 5.0;
+    private static final long NANOS = 1_000_000_000L;
+
+    @Test
+    public void legsAreTimedAtTheSpeedOfTheWaypointTheyLeadTo() {
+        double[] point = new double[2];
+        Geodesy.destination(0, 0, 0, 100, point);
+        double[] second = point.clone();
+        Geodesy.destination(second[0], second[1], 0, 100, point);
+
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        waypoints.add(waypoint(0, 0, 12.0));
+        waypoints.add(waypoint(second[0], second[1], 2.0));
+        waypoints.add(waypoint(point[0], point[1], null));
+
+        FlightTimePredictor predictor = new FlightTimePredictor();
+        predictor.setMission(waypoints, DEFAULT_SPEED, false);
+        predictor.update(snapshotAt(0, 0), 0, false, 0, 0);
+
+        // 100 m at the second waypoint's 2 m/s, 100 m at the default 5 m/s
+        assertEquals(70.0, predictor.getMissionTimeRemaining(), 0.0);
+    }
+
+    @Test
+    public void distanceToTheTargetIsFlownAtTheTargetsSpeed() {
+        double[] point = new double[2];
+        Geodesy.destination(0, 0, 0, 100, point);
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        waypoints.add(waypoint(0, 0, 12.0));
+        waypoints.add(waypoint(point[0], point[1], 4.0));
+
+        FlightTimePredictor predictor = new FlightTimePredictor();
+        predictor.setMission(waypoints, DEFAULT_SPEED, false);
+        predictor.setTargetWaypoint(1);
+        predictor.update(snapshotAt(0, 0), 0, false, 0, 0);
+
+        assertEquals(25.0, predictor.getMissionTimeRemaining(), 0.0);
+    }
+
+    @Test
+    public void nonPositiveSpeedsFallBackToTheDefault() {
+        double[] point = new double[2];
+        Geodesy.destination(0, 0, 90, 100, point);
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        waypoints.add(waypoint(0, 0, 0.0));
+        waypoints.add(waypoint(point[0], point[1], 0.0));
+
+        FlightTimePredictor predictor = new FlightTimePredictor();
+        predictor.setMission(waypoints, DEFAULT_SPEED, false);
+        predictor.update(snapshotAt(0, 0), 0, false, 0, 0);
+
+        assertEquals(20.0, predictor.getMissionTimeRemaining(), 0.0);
+    }
+
+    private static WaypointSetting waypoint(double latitude, double longitude, Double speed) {
+        WaypointSetting waypoint = new WaypointSetting();
+        waypoint.latitude = latitude;
+        waypoint.longitude = longitude;
+        waypoint.altitude = 0.0;
+        waypoint.waypointSpeed = speed;
+        return waypoint;
+    }
+
+    private static TelemetrySnapshot snapshotAt(double latitude, double longitude) {
+        return TelemetrySnapshot.EMPTY
+                .withBatteryPercentage(80, NANOS)
+                .withLocation(latitude, longitude, 0, NANOS);
+    }
+}
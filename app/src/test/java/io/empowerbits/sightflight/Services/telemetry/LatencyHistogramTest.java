@@ -0,0 +1,98 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LatencyHistogramTest - Bucket edges and percentiles against the exact values
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getPercentileNanos(50));
+        assertEquals(0L, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void linearBucketReportsTheNextMicrosecond() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000);
+        histogram.record(5_999);
+        histogram.record(9_000);
+
+        // Both samples of the 5 us bucket are below 6 us
+        assertEquals(6_000L, histogram.getPercentileNanos(50));
+        assertEquals(9_000L, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void edgesAtTheEndOfTheLinearRange() {
+        assertEquals(16_000L, percentileOfOne(15_999));
+        // 16 and 17 us share the first log bucket
+        assertEquals(18_000L, percentileOfOne(16_000));
+        assertEquals(18_000L, percentileOfOne(17_999));
+        assertEquals(20_000L, percentileOfOne(18_000));
+    }
+
+    @Test
+    public void edgesOfLogBuckets() {
+        // 1024 us and up: buckets 128 us wide
+        assertEquals(1_152_000L, percentileOfOne(1_024_000));
+        assertEquals(1_152_000L, percentileOfOne(1_151_999));
+        assertEquals(1_280_000L, percentileOfOne(1_152_000));
+        assertEquals(2_048_000L, percentileOfOne(2_047_999));
+    }
+
+    @Test
+    public void percentileIsNeverAboveTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_100_000);
+        assertEquals(1_100_000L, histogram.getPercentileNanos(99));
+        assertEquals(1_100_000L, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void negativeLatencyCountsAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5_000);
+        assertEquals(0L, histogram.getMaxNanos());
+        assertEquals(0L, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void percentilesAreWithinABucketOfTheExactValue() {
+        Random random = new Random(7);
+        long[] samples = new long[20_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples.length; i++) {
+            // Log-uniform from 1 us to about 1 s
+            samples[i] = (long) Math.exp(random.nextDouble() * Math.log(1e9)) + 1_000;
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        for (double percentile : new double[] {0, 1, 10, 50, 90, 99, 99.9, 100}) {
+            long rank = Math.max(1L, (long) Math.ceil(samples.length * percentile / 100.0));
+            long exact = samples[(int) rank - 1];
+            long reported = histogram.getPercentileNanos(percentile);
+            assertTrue(percentile + ": " + reported + " below " + exact, reported >= exact);
+            long bound = Math.max(exact + 1_000, (long) Math.ceil(exact * 1.125) + 1_000);
+            assertTrue(percentile + ": " + reported + " above " + bound, reported <= bound);
+        }
+    }
+
+    private static long percentileOfOne(long nanos) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(nanos);
+        // Below the maximum, so the reported value is the bucket edge
+        histogram.record(10_000_000_000L);
+        return histogram.getPercentileNanos(50);
+    }
+}
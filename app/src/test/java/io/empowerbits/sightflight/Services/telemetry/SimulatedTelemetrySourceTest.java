@@ -0,0 +1,196 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SimulatedTelemetrySourceTest - The simulated aircraft flies every leg at the commanded speed
+ */
+public class SimulatedTelemetrySourceTest {
+
+    private static final double TICK_RATE_HZ = 10.0;
+    private static final double STEP_SECONDS = 1.0 / TICK_RATE_HZ;
+    private static final double COORDINATE_TOLERANCE = 1e-9;
+
+    /**
+     * Every location fix with the velocity and heading delivered in the same tick
+     */
+    private static final class RecordingSink implements TelemetrySink {
+        final List<double[]> fixes = new ArrayList<>();
+        final List<String> flightModes = new ArrayList<>();
+        double horizontalVelocity;
+        double verticalVelocity;
+        double heading;
+
+        @Override
+        public void onFlightMode(String flightMode) {
+            flightModes.add(flightMode);
+        }
+
+        @Override
+        public void onGpsSignalLevel(int signalLevel) {
+        }
+
+        @Override
+        public void onSatelliteCount(int satelliteCount) {
+        }
+
+        @Override
+        public void onLinkSignalQuality(int signalQuality) {
+        }
+
+        @Override
+        public void onBatteryPercentage(int batteryPercentage) {
+        }
+
+        @Override
+        public void onAltitude(double altitude) {
+        }
+
+        @Override
+        public void onVelocity(double horizontalVelocity, double verticalVelocity) {
+            this.horizontalVelocity = horizontalVelocity;
+            this.verticalVelocity = verticalVelocity;
+        }
+
+        @Override
+        public void onLocation(double latitude, double longitude, double altitude) {
+            fixes.add(new double[]{latitude, longitude, altitude, horizontalVelocity, verticalVelocity, heading});
+        }
+
+        @Override
+        public void onLocationLost() {
+        }
+
+        @Override
+        public void onHomeLocation(double latitude, double longitude) {
+        }
+
+        @Override
+        public void onHomeLocationLost() {
+        }
+
+        @Override
+        public void onHeading(double heading) {
+            this.heading = heading;
+        }
+    }
+
+    @Test
+    public void everyWaypointIsReachedAtTheCommandedSpeed() {
+        for (double speed : new double[]{2.0, 5.0, 12.0}) {
+            List<WaypointSetting> waypoints = mission();
+            RecordingSink sink = new RecordingSink();
+            long ticks = new SimulatedTelemetrySource(waypoints, speed, TICK_RATE_HZ,
+                    SimulatedTelemetrySource.MAX_TIME_SCALE).simulate(sink);
+            assertEquals(ticks + 1, sink.fixes.size());
+
+            int arrival = arrivalAfter(sink, waypoints.get(0), 0);
+            for (int i = 1; i < waypoints.size(); i++) {
+                WaypointSetting from = waypoints.get(i - 1);
+                WaypointSetting to = waypoints.get(i);
+                String where = speed + " m/s, leg to waypoint " + i;
+                int next = arrivalAfter(sink, to, arrival + 1);
+
+                // Whole ticks at the commanded speed, the last one shortened at the waypoint
+                double length = length(from.latitude, from.longitude, from.altitude,
+                        to.latitude, to.longitude, to.altitude);
+                double seconds = (next - arrival) * STEP_SECONDS;
+                assertTrue(where + ": " + seconds + " s for " + length + " m",
+                        seconds >= length / speed - 1e-6 && seconds < length / speed + STEP_SECONDS);
+
+                for (int fix = arrival + 1; fix <= next; fix++) {
+                    double[] previous = sink.fixes.get(fix - 1);
+                    double[] current = sink.fixes.get(fix);
+                    assertEquals(where, speed, Math.hypot(current[3], current[4]), 1e-9);
+                    // NED: negative while climbing
+                    assertEquals(where, Math.signum(from.altitude - to.altitude), Math.signum(current[4]), 0.0);
+                    double moved = length(previous[0], previous[1], previous[2], current[0], current[1], current[2]);
+                    if (fix < next) {
+                        assertEquals(where + " fix " + fix, speed * STEP_SECONDS, moved, 1e-3 * speed * STEP_SECONDS);
+                    } else {
+                        assertTrue(where + " last fix", moved <= speed * STEP_SECONDS * (1 + 1e-3));
+                    }
+                }
+                double bearing = Geodesy.bearing(from.latitude, from.longitude, to.latitude, to.longitude);
+                double heading = sink.fixes.get(next)[5];
+                assertEquals(where, 0, Math.abs(Geodesy.normalizeBearing(heading - bearing + 180) - 180), 0.01);
+                arrival = next;
+            }
+            assertEquals(sink.fixes.size() - 1, arrival);
+        }
+    }
+
+    @Test
+    public void takeOffClimbsToTheFirstWaypointThenHovers() {
+        List<WaypointSetting> waypoints = mission();
+        RecordingSink sink = new RecordingSink();
+        new SimulatedTelemetrySource(waypoints, 5.0, TICK_RATE_HZ, SimulatedTelemetrySource.MAX_TIME_SCALE)
+                .simulate(sink);
+
+        int top = arrivalAfter(sink, waypoints.get(0), 0);
+        for (int fix = 1; fix <= top; fix++) {
+            double[] climbing = sink.fixes.get(fix);
+            assertEquals(waypoints.get(0).latitude, climbing[0], 0.0);
+            assertEquals(waypoints.get(0).longitude, climbing[1], 0.0);
+            assertEquals(0.0, climbing[3], 0.0);
+            assertTrue(climbing[4] < 0);
+        }
+        assertEquals(SimulatedTelemetrySource.FLIGHT_MODE_TAKE_OFF, sink.flightModes.get(0));
+        assertEquals(SimulatedTelemetrySource.FLIGHT_MODE_MISSION, sink.flightModes.get(1));
+        assertEquals(SimulatedTelemetrySource.FLIGHT_MODE_HOVER, sink.flightModes.get(2));
+        assertEquals(0.0, sink.horizontalVelocity, 0.0);
+        assertEquals(0.0, sink.verticalVelocity, 0.0);
+    }
+
+    /**
+     * First fix at or after from that is at the waypoint
+     */
+    private static int arrivalAfter(RecordingSink sink, WaypointSetting waypoint, int from) {
+        for (int fix = from; fix < sink.fixes.size(); fix++) {
+            double[] location = sink.fixes.get(fix);
+            if (Math.abs(location[0] - waypoint.latitude) < COORDINATE_TOLERANCE
+                    && Math.abs(location[1] - waypoint.longitude) < COORDINATE_TOLERANCE
+                    && Math.abs(location[2] - waypoint.altitude) < 1e-6) {
+                return fix;
+            }
+        }
+        throw new AssertionError("Waypoint " + waypoint.latitude + "," + waypoint.longitude + " never reached");
+    }
+
+    private static double length(double lat1, double lon1, double alt1, double lat2, double lon2, double alt2) {
+        return Math.hypot(Geodesy.haversine(lat1, lon1, lat2, lon2), alt2 - alt1);
+    }
+
+    /**
+     * Legs of 40 to 150 m that climb, descend and hold altitude
+     */
+    private static List<WaypointSetting> mission() {
+        double[] point = {31.5204, 74.3587};
+        List<WaypointSetting> waypoints = new ArrayList<>();
+        waypoints.add(waypoint(point, 30.0));
+        Geodesy.destination(point[0], point[1], 45, 120, point);
+        waypoints.add(waypoint(point, 45.0));
+        Geodesy.destination(point[0], point[1], 170, 40, point);
+        waypoints.add(waypoint(point, 45.0));
+        Geodesy.destination(point[0], point[1], 290, 150, point);
+        waypoints.add(waypoint(point, 20.0));
+        return waypoints;
+    }
+
+    private static WaypointSetting waypoint(double[] point, double altitude) {
+        WaypointSetting waypoint = new WaypointSetting();
+        waypoint.latitude = point[0];
+        waypoint.longitude = point[1];
+        waypoint.altitude = altitude;
+        return waypoint;
+    }
+}
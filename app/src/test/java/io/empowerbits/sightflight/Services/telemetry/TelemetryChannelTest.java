@@ -0,0 +1,222 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TelemetryChannelTest - Rate gates of rate-limited subscribers
+ */
+public class TelemetryChannelTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long T0 = 10 * SECOND;
+
+    /**
+     * Listener compared by identity, as subscribers are
+     */
+    private static final class Received {
+        final List<Double> values = new ArrayList<>();
+    }
+
+    private TelemetryChannel<Received> channel;
+    private Received received;
+
+    @Before
+    public void setUp() {
+        channel = new TelemetryChannel<>("test", null);
+        received = new Received();
+    }
+
+    // ==================== admit ====================
+
+    @Test
+    public void admitWithoutSubscribersQueuesNothing() {
+        assertFalse(channel.admit(TelemetryChannelId.ALTITUDE, altitude(1, T0), T0));
+    }
+
+    @Test
+    public void admitPassesUnlimitedAndFirstUpdates() {
+        channel.subscribe(received);
+        assertTrue(channel.admit(TelemetryChannelId.ALTITUDE, altitude(1, T0), T0));
+
+        channel.subscribe(received, TelemetryRate.maxRate(1));
+        // Nothing delivered to the gate yet
+        assertTrue(channel.admit(TelemetryChannelId.ALTITUDE, altitude(1, T0), T0));
+    }
+
+    @Test
+    public void admitHoldsUpdatesThatAreNotDueYet() {
+        channel.subscribe(received, TelemetryRate.maxRate(1));
+        publish(altitude(1, T0), T0, false);
+
+        long early = T0 + SECOND / 2;
+        assertFalse(channel.admit(TelemetryChannelId.ALTITUDE, altitude(2, early), early));
+        assertEquals(T0 + SECOND, channel.getNextDueNanos(TelemetryChannelId.ALTITUDE));
+
+        long due = T0 + SECOND;
+        assertTrue(channel.admit(TelemetryChannelId.ALTITUDE, altitude(3, due), due));
+    }
+
+    @Test
+    public void admitSkipsUpdatesBelowTheChangeThreshold() {
+        channel.subscribe(received, TelemetryRate.of(1, 0.5));
+        publish(altitude(1, T0), T0, false);
+
+        long later = T0 + 5 * SECOND;
+        assertFalse(channel.admit(TelemetryChannelId.ALTITUDE, altitude(1.2, later), later));
+        // Nothing was held either
+        assertEquals(TelemetryChannel.NOTHING_HELD, channel.getNextDueNanos(TelemetryChannelId.ALTITUDE));
+    }
+
+    // ==================== held updates ====================
+
+    @Test
+    public void heldUpdateIsFlushedOnceWhenDue() {
+        channel.subscribe(received, TelemetryRate.maxRate(2));
+        assertEquals(TelemetryChannel.NOTHING_HELD, publish(altitude(1, T0), T0, false));
+
+        long early = T0 + SECOND / 10;
+        assertEquals(T0 + SECOND / 2, publish(altitude(2, early), early, false));
+        assertEquals(1, received.values.size());
+
+        // A held-only pass before the due time keeps holding
+        long stillEarly = T0 + SECOND / 4;
+        assertEquals(T0 + SECOND / 2, publish(altitude(2, early), stillEarly, true));
+        assertEquals(1, received.values.size());
+
+        long due = T0 + SECOND / 2;
+        assertEquals(TelemetryChannel.NOTHING_HELD, publish(altitude(2, early), due, true));
+        assertEquals(2, received.values.size());
+        assertEquals(2.0, received.values.get(1), 0.0);
+
+        // Flushed, a second held-only pass delivers nothing
+        publish(altitude(2, early), due + 1, true);
+        assertEquals(2, received.values.size());
+    }
+
+    @Test
+    public void heldUpdateIsDroppedWhenTheValueReturns() {
+        channel.subscribe(received, TelemetryRate.of(2, 0.5));
+        publish(altitude(1, T0), T0, false);
+
+        long early = T0 + SECOND / 10;
+        publish(altitude(2, early), early, false);
+        assertEquals(T0 + SECOND / 2, channel.getNextDueNanos(TelemetryChannelId.ALTITUDE));
+
+        // Back within the threshold of what the subscriber last saw, nothing to flush
+        long due = T0 + SECOND / 2;
+        publish(altitude(1.1, due), due, true);
+        assertEquals(1, received.values.size());
+        assertEquals(TelemetryChannel.NOTHING_HELD, channel.getNextDueNanos(TelemetryChannelId.ALTITUDE));
+    }
+
+    @Test
+    public void heldOnlyPassSkipsUnlimitedSubscribers() {
+        Received unlimited = new Received();
+        channel.subscribe(unlimited);
+        channel.subscribe(received, TelemetryRate.maxRate(1));
+        publish(altitude(1, T0), T0, false);
+        publish(altitude(2, T0 + 1), T0 + 1, false);
+        publish(altitude(2, T0 + 1), T0 + SECOND, true);
+
+        assertEquals(2, unlimited.values.size());
+        assertEquals(2, received.values.size());
+    }
+
+    @Test
+    public void resubscribingResetsTheGate() {
+        channel.subscribe(received, TelemetryRate.maxRate(1));
+        publish(altitude(1, T0), T0, false);
+        channel.subscribe(received, TelemetryRate.maxRate(1));
+
+        publish(altitude(2, T0 + 1), T0 + 1, false);
+        assertEquals(2, received.values.size());
+    }
+
+    // ==================== change thresholds ====================
+
+    @Test
+    public void headingChangeWrapsAroundNorth() {
+        channel.subscribe(received, TelemetryRate.minChange(10));
+        publishHeading(355, T0);
+
+        // 8 degrees across north
+        publishHeading(3, T0 + SECOND);
+        assertEquals(1, received.values.size());
+
+        // 11 degrees across north
+        publishHeading(6, T0 + 2 * SECOND);
+        assertEquals(2, received.values.size());
+
+        // 350 degrees the long way round is 10 the short way
+        publishHeading(356, T0 + 3 * SECOND);
+        assertEquals(3, received.values.size());
+    }
+
+    @Test
+    public void locationChangeCountsPresenceAndDistance() {
+        channel.subscribe(received, TelemetryRate.minChange(5));
+        TelemetrySnapshot here = TelemetrySnapshot.EMPTY.withLocation(47.0, 8.0, 20, T0);
+        publishLocation(here, T0);
+
+        // About 1 m north
+        publishLocation(here.withLocation(47.00001, 8.0, 20, T0 + 1), T0 + 1);
+        assertEquals(1, received.values.size());
+
+        publishLocation(here.withoutLocation(T0 + 2), T0 + 2);
+        assertEquals(2, received.values.size());
+
+        publishLocation(here.withLocation(47.0, 8.0, 20, T0 + 3), T0 + 3);
+        assertEquals(3, received.values.size());
+
+        // About 11 m north
+        publishLocation(here.withLocation(47.0001, 8.0, 20, T0 + 4), T0 + 4);
+        assertEquals(4, received.values.size());
+
+        // Climbing counts as well
+        publishLocation(here.withLocation(47.0001, 8.0, 26, T0 + 5), T0 + 5);
+        assertEquals(5, received.values.size());
+    }
+
+    private long publish(final TelemetrySnapshot snapshot, long nowNanos, boolean heldOnly) {
+        return channel.publish(TelemetryChannelId.ALTITUDE, snapshot, nowNanos, heldOnly,
+                new TelemetryChannel.Delivery<Received>() {
+                    @Override
+                    public void deliver(Received listener) {
+                        listener.values.add(snapshot.altitude);
+                    }
+                });
+    }
+
+    private void publishHeading(double heading, long nowNanos) {
+        final TelemetrySnapshot snapshot = TelemetrySnapshot.EMPTY.withHeading(heading, nowNanos);
+        channel.publish(TelemetryChannelId.HEADING, snapshot, nowNanos, false,
+                new TelemetryChannel.Delivery<Received>() {
+                    @Override
+                    public void deliver(Received listener) {
+                        listener.values.add(snapshot.heading);
+                    }
+                });
+    }
+
+    private void publishLocation(final TelemetrySnapshot snapshot, long nowNanos) {
+        channel.publish(TelemetryChannelId.LOCATION, snapshot, nowNanos, false,
+                new TelemetryChannel.Delivery<Received>() {
+                    @Override
+                    public void deliver(Received listener) {
+                        listener.values.add(snapshot.latitude);
+                    }
+                });
+    }
+
+    private static TelemetrySnapshot altitude(double altitude, long timestampNanos) {
+        return TelemetrySnapshot.EMPTY.withAltitude(altitude, timestampNanos);
+    }
+}
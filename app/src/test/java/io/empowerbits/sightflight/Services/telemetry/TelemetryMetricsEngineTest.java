@@ -0,0 +1,136 @@
+package io.empowerbits.sightflight.Services.telemetry;
+
+import org.junit.Test;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TelemetryMetricsEngineTest - Derived metrics fed with known samples
+ */
+public class TelemetryMetricsEngineTest {
+
+    private static final long NANOS = 1_000_000_000L;
+    private static final int VELOCITY = TelemetryChannelId.bit(TelemetryChannelId.HORIZONTAL_VELOCITY)
+            | TelemetryChannelId.bit(TelemetryChannelId.VERTICAL_VELOCITY);
+    private static final int BATTERY = TelemetryChannelId.bit(TelemetryChannelId.BATTERY);
+    private static final int LOCATION = TelemetryChannelId.bit(TelemetryChannelId.LOCATION);
+    private static final int HOME = TelemetryChannelId.bit(TelemetryChannelId.HOME_LOCATION);
+
+    @Test
+    public void firstVelocitySampleIsTakenAsIs() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        engine.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(6.0, -2.0, NANOS));
+
+        // Vertical velocity is NED, positive down
+        assertEquals(2.0, engine.getClimbRate(), 0.0);
+        assertEquals(6.0, engine.getGroundSpeed(), 0.0);
+    }
+
+    @Test
+    public void smoothingFollowsTheTimeConstant() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        engine.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(0.0, 0.0, 0));
+        engine.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(10.0, -4.0, NANOS));
+
+        double alpha = 1.0 - Math.exp(-1.0 / TelemetryMetricsEngine.SMOOTHING_TIME_CONSTANT_SECONDS);
+        assertEquals(10.0 * alpha, engine.getGroundSpeed(), 1e-12);
+        assertEquals(4.0 * alpha, engine.getClimbRate(), 1e-12);
+    }
+
+    @Test
+    public void smoothingDoesNotDependOnTheSampleRate() {
+        TelemetryMetricsEngine slow = new TelemetryMetricsEngine();
+        TelemetryMetricsEngine fast = new TelemetryMetricsEngine();
+        slow.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(0.0, 0.0, 0));
+        fast.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(0.0, 0.0, 0));
+
+        for (int second = 1; second <= 3; second++) {
+            slow.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(8.0, 3.0, second * NANOS));
+        }
+        for (int tick = 1; tick <= 30; tick++) {
+            fast.update(VELOCITY, TelemetrySnapshot.EMPTY.withVelocity(8.0, 3.0, tick * NANOS / 10));
+        }
+
+        assertEquals(slow.getGroundSpeed(), fast.getGroundSpeed(), 1e-9);
+        assertEquals(slow.getClimbRate(), fast.getClimbRate(), 1e-9);
+        assertEquals(8.0 * (1.0 - Math.exp(-3.0)), slow.getGroundSpeed(), 1e-9);
+    }
+
+    @Test
+    public void drainRateCoversOnlyTheWindow() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        long time = 0;
+        int percent = 100;
+        engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(percent, time));
+
+        // 1% every 10 s, 6% per minute
+        for (int i = 0; i < 30; i++) {
+            time += 10 * NANOS;
+            engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(--percent, time));
+        }
+        assertEquals(6.0, engine.getBatteryDrainRate(), 1e-9);
+        assertEquals(TelemetryMetricsEngine.BATTERY_WINDOW_SECONDS, engine.getBatteryWindowSeconds(), 0.0);
+
+        // Then 1% every 20 s; once a whole window has passed, 3% per minute
+        for (int i = 0; i < 6; i++) {
+            time += 20 * NANOS;
+            engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(--percent, time));
+        }
+        assertEquals(3.0, engine.getBatteryDrainRate(), 1e-9);
+        assertEquals(TelemetryMetricsEngine.BATTERY_WINDOW_SECONDS, engine.getBatteryWindowSeconds(), 0.0);
+    }
+
+    @Test
+    public void chargeIncreaseRestartsTheDrainWindow() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(60, 0));
+        engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(58, 60 * NANOS));
+        assertEquals(2.0, engine.getBatteryDrainRate(), 1e-9);
+
+        engine.update(BATTERY, TelemetrySnapshot.EMPTY.withBatteryPercentage(95, 90 * NANOS));
+        assertEquals(0.0, engine.getBatteryDrainRate(), 0.0);
+        assertEquals(0.0, engine.getBatteryWindowSeconds(), 0.0);
+    }
+
+    @Test
+    public void distanceFlownSumsStepsAndSkipsJitterAndJumps() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        double[] point = {31.52, 74.35};
+        long time = 0;
+        engine.update(LOCATION, TelemetrySnapshot.EMPTY.withLocation(point[0], point[1], 0, time));
+
+        for (int i = 0; i < 5; i++) {
+            Geodesy.destination(point[0], point[1], 90, 10, point);
+            engine.update(LOCATION, TelemetrySnapshot.EMPTY.withLocation(point[0], point[1], 0, time += NANOS));
+
+            // Hovering jitter around the counted fix
+            double[] jitter = new double[2];
+            Geodesy.destination(point[0], point[1], 45 * i, 0.5, jitter);
+            engine.update(LOCATION, TelemetrySnapshot.EMPTY.withLocation(jitter[0], jitter[1], 0, time += NANOS));
+        }
+        assertEquals(50.0, engine.getDistanceFlown(), 1e-3);
+
+        // A position glitch moves the anchor without adding to the distance
+        Geodesy.destination(point[0], point[1], 0, 2000, point);
+        engine.update(LOCATION, TelemetrySnapshot.EMPTY.withLocation(point[0], point[1], 0, time += NANOS));
+        Geodesy.destination(point[0], point[1], 180, 20, point);
+        engine.update(LOCATION, TelemetrySnapshot.EMPTY.withLocation(point[0], point[1], 0, time += NANOS));
+        assertEquals(70.0, engine.getDistanceFlown(), 1e-3);
+    }
+
+    @Test
+    public void distanceToHomeUsesTheOverrideWhenSet() {
+        TelemetryMetricsEngine engine = new TelemetryMetricsEngine();
+        TelemetrySnapshot snapshot = TelemetrySnapshot.EMPTY
+                .withHomeLocation(31.52, 74.35, 0)
+                .withLocation(31.53, 74.36, 0, NANOS);
+        engine.update(LOCATION | HOME, snapshot);
+        assertEquals(Geodesy.haversine(31.52, 74.35, 31.53, 74.36), engine.getDistanceToHome(), 0.0);
+
+        engine.setHomeOverride(31.50, 74.30);
+        engine.update(LOCATION, snapshot);
+        assertEquals(Geodesy.haversine(31.50, 74.30, 31.53, 74.36), engine.getDistanceToHome(), 0.0);
+    }
+}
@@ -0,0 +1,141 @@
+package io.empowerbits.sightflight.util.geo;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GeodesyTest - The properties callers of Geodesy rely on, over random points
+ *
+ * Every sample goes from a random start point in the fast range along a random bearing
+ * and distance up to FAST_MAX_DISTANCE_METERS; samples that end beyond
+ * FAST_MAX_LATITUDE are skipped.
+ */
+public class GeodesyTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final int ARC_SAMPLES = 200;
+    private static final int ARC_POINTS = 1000;
+
+    /**
+     * A start point, the bearing and distance travelled, and where destination ends
+     */
+    private static final class Sample {
+        double lat;
+        double lon;
+        double bearing;
+        double distance;
+        final double[] end = new double[2];
+
+        boolean next(Random random) {
+            lat = (random.nextDouble() * 2 - 1) * Geodesy.FAST_MAX_LATITUDE;
+            lon = random.nextDouble() * 360 - 180;
+            bearing = random.nextDouble() * 360;
+            distance = 1 + random.nextDouble() * (Geodesy.FAST_MAX_DISTANCE_METERS - 1);
+            Geodesy.destination(lat, lon, bearing, distance, end);
+            return Math.abs(end[0]) <= Geodesy.FAST_MAX_LATITUDE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "from %.7f,%.7f at %.3f deg over %.3f m", lat, lon, bearing, distance);
+        }
+    }
+
+    @Test
+    public void haversineInvertsDestination() {
+        Random random = new Random(42);
+        Sample sample = new Sample();
+        for (int i = 0; i < SAMPLES; i++) {
+            if (!sample.next(random)) {
+                continue;
+            }
+            double haversine = Geodesy.haversine(sample.lat, sample.lon, sample.end[0], sample.end[1]);
+            assertEquals(sample.toString(), sample.distance, haversine, 1e-6 * sample.distance);
+        }
+    }
+
+    @Test
+    public void bearingInvertsDestination() {
+        Random random = new Random(43);
+        Sample sample = new Sample();
+        for (int i = 0; i < SAMPLES; i++) {
+            if (!sample.next(random)) {
+                continue;
+            }
+            double initial = Geodesy.bearing(sample.lat, sample.lon, sample.end[0], sample.end[1]);
+            double error = Math.abs(Geodesy.normalizeBearing(initial - sample.bearing + 180) - 180);
+            assertEquals(sample.toString(), 0, error, 1e-6);
+        }
+    }
+
+    @Test
+    public void equirectangularStaysWithinItsErrorBound() {
+        Random random = new Random(44);
+        Sample sample = new Sample();
+        for (int i = 0; i < SAMPLES; i++) {
+            if (!sample.next(random)) {
+                continue;
+            }
+            double haversine = Geodesy.haversine(sample.lat, sample.lon, sample.end[0], sample.end[1]);
+            double fast = Geodesy.equirectangular(sample.lat, sample.lon, sample.end[0], sample.end[1]);
+            assertTrue(sample + ": " + fast + " against " + haversine,
+                    Math.abs(fast - haversine) <= Geodesy.FAST_MAX_RELATIVE_ERROR * haversine);
+        }
+    }
+
+    @Test
+    public void batchMethodsEqualTheSinglePointOnes() {
+        Random random = new Random(45);
+        Sample sample = new Sample();
+        double[] pairLats = new double[2];
+        double[] pairLons = new double[2];
+        double[] legs = new double[1];
+        double[] pairBearings = new double[1];
+        double[] distances = new double[2];
+        for (int i = 0; i < SAMPLES; i++) {
+            if (!sample.next(random)) {
+                continue;
+            }
+            pairLats[0] = sample.lat;
+            pairLons[0] = sample.lon;
+            pairLats[1] = sample.end[0];
+            pairLons[1] = sample.end[1];
+            double haversine = Geodesy.haversine(sample.lat, sample.lon, sample.end[0], sample.end[1]);
+
+            Geodesy.legDistances(pairLats, pairLons, legs);
+            assertEquals(sample.toString(), haversine, legs[0], 0);
+            Geodesy.bearings(pairLats, pairLons, pairBearings);
+            assertEquals(sample.toString(), Geodesy.bearing(sample.lat, sample.lon, sample.end[0], sample.end[1]),
+                    pairBearings[0], 1e-9);
+            Geodesy.distancesFrom(sample.lat, sample.lon, pairLats, pairLons, distances);
+            assertEquals(sample.toString(), haversine, distances[1], 1e-9);
+        }
+    }
+
+    @Test
+    public void arcLandsOnTheDestinationPoints() {
+        Random random = new Random(46);
+        double[] point = new double[2];
+        double[] arcLats = new double[ARC_POINTS];
+        double[] arcLons = new double[ARC_POINTS];
+        for (int i = 0; i < ARC_SAMPLES; i++) {
+            double lat = (random.nextDouble() * 2 - 1) * Geodesy.FAST_MAX_LATITUDE;
+            double lon = random.nextDouble() * 360 - 180;
+            double startBearing = random.nextDouble() * 360;
+            double bearingStep = random.nextDouble() * 30 - 15;
+            double startDistance = random.nextDouble() * 1000;
+            double distanceStep = random.nextDouble() * 10;
+            Geodesy.arc(lat, lon, startBearing, bearingStep, startDistance, distanceStep, ARC_POINTS, arcLats, arcLons);
+            for (int j = 0; j < ARC_POINTS; j++) {
+                Geodesy.destination(lat, lon, startBearing + j * bearingStep, startDistance + j * distanceStep, point);
+                double error = Geodesy.haversine(point[0], point[1], arcLats[j], arcLons[j]);
+                assertEquals("arc " + i + " point " + j, 0, error, 1e-6);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.empowerbits.sightflight.util.kmz;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * KmzTransformerTest - The Mini 4 Pro rules against the line-based KmzCleaner they replaced
+ *
+ * The fixture in resources/kmz is a five waypoint mission in the form WPMZManager
+ * writes, produced with the WpmlWriter SDK_DEFAULT profile: WPML 1.0.6, efficiency
+ * flight mode, gimbal rotations in the action groups of the first, third and fifth
+ * waypoints. The old cleaner is kept here, line for line, as
+ * the reference the streaming rules must agree with.
+ */
+public class KmzTransformerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String TEMPLATE_ENTRY = "wpmz/template.kml";
+    private static final String WAYLINES_ENTRY = "wpmz/waylines.wpml";
+    private static final String PREVIEW_ENTRY = "wpmz/res/preview.jpg";
+
+    @Test
+    public void mini4ProRulesMatchTheLineBasedCleaner() throws IOException {
+        Map<String, byte[]> fixture = fixture();
+        Map<String, byte[]> cleaned = unzip(transform(new KmzTransformer(
+                AircraftProfileRules.forProfile(WpmlAircraftProfile.MINI_4_PRO)), zip(fixture)));
+
+        assertEquals(new ArrayList<>(fixture.keySet()), new ArrayList<>(cleaned.keySet()));
+        assertEquals(LegacyKmzCleaner.cleanTemplate(text(fixture, TEMPLATE_ENTRY)),
+                withoutFinalLineBreak(text(cleaned, TEMPLATE_ENTRY)));
+        assertEquals(LegacyKmzCleaner.cleanWaylines(text(fixture, WAYLINES_ENTRY)),
+                withoutFinalLineBreak(text(cleaned, WAYLINES_ENTRY)));
+        assertArrayEquals(fixture.get(PREVIEW_ENTRY), cleaned.get(PREVIEW_ENTRY));
+    }
+
+    @Test
+    public void fixtureExercisesEveryRule() throws IOException {
+        KmzTransformer transformer = new KmzTransformer(AircraftProfileRules.forProfile(WpmlAircraftProfile.MINI_4_PRO));
+        KmzTransformer.Result result = transformer.transform(new ByteArrayInputStream(zip(fixture())),
+                new ByteArrayOutputStream());
+
+        assertEquals(3, result.getRuleStats().size());
+        for (KmzTransformer.RuleStats stats : result.getRuleStats()) {
+            assertTrue(stats.getName(), stats.getChanges() > 0);
+        }
+        assertEquals(3, result.getEntryCount());
+        assertEquals(2, result.getXmlEntryCount());
+    }
+
+    @Test
+    public void everyRuleIsTimed() throws IOException {
+        KmzTransformer transformer = new KmzTransformer(AircraftProfileRules.forProfile(WpmlAircraftProfile.MINI_4_PRO));
+        KmzTransformer.Result result = transformer.transform(new ByteArrayInputStream(zip(fixture())),
+                new ByteArrayOutputStream());
+
+        long stages = result.getReadStats().getNanos() + result.getWriteStats().getNanos();
+        for (KmzTransformer.RuleStats stats : result.getRuleStats()) {
+            assertTrue(stats.getName(), stats.getNanos() > 0);
+            stages += stats.getNanos();
+        }
+        assertTrue(result.getReadStats().getNanos() > 0);
+        assertTrue(result.getWriteStats().getNanos() > 0);
+        // Stage times are measured inside the transform, they cannot add up to more
+        assertTrue(stages <= result.getTotalNanos());
+    }
+
+    @Test
+    public void sdkProfileLeavesTheFixtureUnchanged() throws IOException {
+        Map<String, byte[]> fixture = fixture();
+        Map<String, byte[]> cleaned = unzip(transform(new KmzTransformer(
+                AircraftProfileRules.forProfile(WpmlAircraftProfile.SDK_DEFAULT)), zip(fixture)));
+
+        for (String name : fixture.keySet()) {
+            assertArrayEquals(name, fixture.get(name), cleaned.get(name));
+        }
+    }
+
+    @Test
+    public void gimbalGroupsAreGoneAndOthersKept() throws IOException {
+        Map<String, byte[]> cleaned = unzip(transform(new KmzTransformer(
+                AircraftProfileRules.forProfile(WpmlAircraftProfile.MINI_4_PRO)), zip(fixture())));
+        String waylines = text(cleaned, WAYLINES_ENTRY);
+
+        assertFalse(waylines.contains("gimbalRotate"));
+        assertFalse(waylines.contains("efficiencyFlightModeEnable"));
+        assertFalse(waylines.contains("wpmz/1.0.6"));
+        assertTrue(waylines.contains("xmlns:wpml=\"http://www.dji.com/wpmz/1.0.2\""));
+        assertTrue(waylines.contains("<wpml:actionActuatorFunc>hover</wpml:actionActuatorFunc>"));
+        // The fourth waypoint's photo and hover, the second waypoint has no actions
+        assertEquals(1, count(waylines, "<wpml:actionGroup>"));
+    }
+
+    /**
+     * The rules KmzCleaner applied before KmzTransformer, on the text of one entry:
+     * read line by line, rewritten, joined with line breaks and without the final one
+     */
+    private static final class LegacyKmzCleaner {
+
+        static String cleanTemplate(String xml) {
+            return join(cleanLines(lines(xml)));
+        }
+
+        static String cleanWaylines(String xml) {
+            return join(removeGimbalActions(cleanLines(lines(xml))));
+        }
+
+        private static List<String> cleanLines(List<String> lines) {
+            List<String> cleanedLines = new ArrayList<>();
+            for (String currentLine : lines) {
+                if (currentLine.contains("efficiencyFlightModeEnable")) {
+                    continue;
+                }
+                if (currentLine.contains("xmlns:wpml=\"http://www.dji.com/wpmz/1.0.6\"")) {
+                    currentLine = currentLine.replace(
+                            "xmlns:wpml=\"http://www.dji.com/wpmz/1.0.6\"",
+                            "xmlns:wpml=\"http://www.dji.com/wpmz/1.0.2\"");
+                }
+                cleanedLines.add(currentLine);
+            }
+            return cleanedLines;
+        }
+
+        private static List<String> removeGimbalActions(List<String> lines) {
+            List<String> cleanedLines = new ArrayList<>();
+            boolean insideActionGroup = false;
+            boolean isGimbalActionGroup = false;
+            List<String> actionGroupBuffer = new ArrayList<>();
+            int actionGroupDepth = 0;
+
+            for (String currentLine : lines) {
+                if (currentLine.trim().equals("<wpml:actionGroup>")) {
+                    insideActionGroup = true;
+                    isGimbalActionGroup = false;
+                    actionGroupBuffer.clear();
+                    actionGroupBuffer.add(currentLine);
+                    actionGroupDepth = 1;
+                    continue;
+                }
+                if (insideActionGroup) {
+                    actionGroupBuffer.add(currentLine);
+                    if (currentLine.trim().equals("<wpml:actionGroup>")) {
+                        actionGroupDepth++;
+                    }
+                    if (currentLine.contains("<wpml:actionActuatorFunc>gimbalRotate</wpml:actionActuatorFunc>")
+                            || currentLine.contains("<wpml:actionActuatorFunc>gimbalEvenlyRotate</wpml:actionActuatorFunc>")) {
+                        isGimbalActionGroup = true;
+                    }
+                    if (currentLine.trim().equals("</wpml:actionGroup>")) {
+                        actionGroupDepth--;
+                        if (actionGroupDepth == 0) {
+                            if (!isGimbalActionGroup) {
+                                cleanedLines.addAll(actionGroupBuffer);
+                            }
+                            insideActionGroup = false;
+                            actionGroupBuffer.clear();
+                        }
+                    }
+                    continue;
+                }
+                cleanedLines.add(currentLine);
+            }
+            return cleanedLines;
+        }
+
+        private static List<String> lines(String text) {
+            List<String> lines = new ArrayList<>(Arrays.asList(text.split("\r?\n", -1)));
+            // BufferedReader.readLine reports no empty line after a final line break
+            if (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+                lines.remove(lines.size() - 1);
+            }
+            return lines;
+        }
+
+        private static String join(List<String> lines) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < lines.size(); i++) {
+                text.append(lines.get(i));
+                if (i < lines.size() - 1) {
+                    text.append('\n');
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * The one difference to the old cleaner: it did not write the final line break back
+     */
+    private static String withoutFinalLineBreak(String text) {
+        return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Map<String, byte[]> fixture() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put(TEMPLATE_ENTRY, resource("/kmz/" + TEMPLATE_ENTRY));
+        entries.put(WAYLINES_ENTRY, resource("/kmz/" + WAYLINES_ENTRY));
+        // Not XML, copied as it is
+        byte[] preview = new byte[2048];
+        for (int i = 0; i < preview.length; i++) {
+            preview[i] = (byte) (i * 31);
+        }
+        entries.put(PREVIEW_ENTRY, preview);
+        return entries;
+    }
+
+    private static byte[] resource(String path) throws IOException {
+        InputStream in = KmzTransformerTest.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IOException("Missing test resource " + path);
+        }
+        try {
+            return readAll(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] transform(KmzTransformer transformer, byte[] kmz) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformer.transform(new ByteArrayInputStream(kmz), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(bytes);
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            zip.putNextEntry(new ZipEntry(entry.getKey()));
+            zip.write(entry.getValue());
+            zip.closeEntry();
+        }
+        zip.close();
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, byte[]> unzip(byte[] kmz) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(kmz));
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), readAll(zip));
+            }
+        } finally {
+            zip.close();
+        }
+        return entries;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static String text(Map<String, byte[]> entries, String name) {
+        return new String(entries.get(name), UTF_8);
+    }
+}
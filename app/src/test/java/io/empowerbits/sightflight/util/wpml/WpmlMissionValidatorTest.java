@@ -0,0 +1,173 @@
+package io.empowerbits.sightflight.util.wpml;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * WpmlMissionValidatorTest - Incremental re-checks agree with validating from scratch
+ */
+public class WpmlMissionValidatorTest {
+
+    private static final double LATITUDE = 47.397;
+    private static final double LONGITUDE = 8.545;
+    /** About 11 m, well above the Mini 4 Pro spacing limit */
+    private static final double STEP_DEGREES = 1e-4;
+
+    private WpmlMissionValidator validator;
+    private int waypointChecks;
+    private int legChecks;
+
+    @Before
+    public void setUp() {
+        validator = new WpmlMissionValidator(WpmlAircraftProfile.MINI_4_PRO);
+        validator.addRule(new WpmlMissionValidator.WaypointRule() {
+            @Override
+            public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint waypoint,
+                              List<WpmlMissionValidator.Issue> issues) {
+                waypointChecks++;
+            }
+        });
+        validator.addRule(new WpmlMissionValidator.LegRule() {
+            @Override
+            public void check(WpmlMissionValidator validator, int index, WpmlMission.Waypoint from,
+                              WpmlMission.Waypoint to, List<WpmlMissionValidator.Issue> issues) {
+                legChecks++;
+            }
+        });
+        validator.setMission(line(50));
+    }
+
+    @Test
+    public void validMissionHasNoIssues() {
+        assertTrue(validator.toString(), validator.isValid());
+        assertEquals(0, validator.getWarningCount());
+        assertEquals(0, validator.getIssues().size());
+    }
+
+    @Test
+    public void replacingAWaypointChecksOnlyItAndItsLegs() {
+        waypointChecks = 0;
+        legChecks = 0;
+        validator.setWaypoint(20, waypoint(20, 40));
+
+        assertEquals(1, waypointChecks);
+        assertEquals(2, legChecks);
+    }
+
+    @Test
+    public void dragOntoANeighbourAndBack() {
+        WpmlMission.Waypoint original = validator.getMission().waypoints.get(10);
+        WpmlMission.Waypoint previous = validator.getMission().waypoints.get(9);
+
+        validator.setWaypoint(10, new WpmlMission.Waypoint(previous.latitude, previous.longitude,
+                previous.height, 0, -30));
+        assertEquals(1, validator.getErrorCount());
+        WpmlMissionValidator.Issue issue = validator.getIssues().get(0);
+        assertEquals("spacing", issue.getRule());
+        assertEquals(10, issue.getWaypointIndex());
+        assertEquals(1, validator.getWaypointIssues(10).size());
+        assertEquals(1, validator.getWaypointIssues(9).size());
+        assertEquals(0, validator.getWaypointIssues(11).size());
+
+        validator.setWaypoint(10, original);
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void findingsFollowTheirWaypointWhenOthersAreInsertedOrRemoved() {
+        validator.setWaypoint(30, waypoint(30, 900));
+        assertEquals(30, validator.getIssues().get(0).getWaypointIndex());
+
+        validator.insertWaypoint(5, waypoint(4.5, 40));
+        assertEquals(31, validator.getIssues().get(0).getWaypointIndex());
+
+        validator.removeWaypoint(0);
+        validator.removeWaypoint(0);
+        assertEquals(29, validator.getIssues().get(0).getWaypointIndex());
+        assertEquals("height", validator.getIssues().get(0).getRule());
+    }
+
+    @Test
+    public void missionRulesRunAgainOnInsertAndRemove() {
+        WpmlMissionValidator small = new WpmlMissionValidator(WpmlAircraftProfile.MINI_4_PRO);
+        small.setMission(line(1));
+        assertEquals("waypoint-count", small.getMissionIssues().get(0).getRule());
+
+        small.addWaypoint(waypoint(1, 40));
+        assertTrue(small.isValid());
+
+        small.removeWaypoint(1);
+        assertEquals(1, small.getErrorCount());
+    }
+
+    @Test
+    public void randomEditsMatchAFullCheck() {
+        Random random = new Random(11);
+        for (int edit = 0; edit < 2000; edit++) {
+            int count = validator.getWaypointCount();
+            int operation = random.nextInt(4);
+            if (operation == 0 && count > 0) {
+                validator.removeWaypoint(random.nextInt(count));
+            } else if (operation == 1) {
+                validator.insertWaypoint(random.nextInt(count + 1), randomWaypoint(random));
+            } else if (count > 0) {
+                validator.setWaypoint(random.nextInt(count), randomWaypoint(random));
+            }
+            if (edit % 100 == 0) {
+                assertMatchesFullCheck();
+            }
+        }
+        assertMatchesFullCheck();
+    }
+
+    @Test
+    public void poiChangesRecheckEveryWaypoint() {
+        WpmlMission.Waypoint target = validator.getMission().waypoints.get(7);
+        validator.setPoi(target.latitude, target.longitude, 10);
+        assertEquals(1, validator.getWarningCount());
+        assertEquals("poi-overhead", validator.getWaypointIssues(7).get(0).getRule());
+
+        validator.clearPoi();
+        assertEquals(0, validator.getWarningCount());
+    }
+
+    private void assertMatchesFullCheck() {
+        WpmlMission copy = new WpmlMission();
+        copy.waypoints.addAll(validator.getMission().waypoints);
+        WpmlMissionValidator full = new WpmlMissionValidator(WpmlAircraftProfile.MINI_4_PRO);
+        full.setMission(copy);
+
+        assertEquals(full.getIssues().toString(), validator.getIssues().toString());
+        assertEquals(full.getErrorCount(), validator.getErrorCount());
+        assertEquals(full.getWarningCount(), validator.getWarningCount());
+    }
+
+    /**
+     * Mostly valid, sometimes too close to another waypoint, too high or too fast
+     */
+    private static WpmlMission.Waypoint randomWaypoint(Random random) {
+        double position = random.nextInt(60) + (random.nextInt(4) == 0 ? 0.01 : 0);
+        double height = random.nextInt(20) == 0 ? 600 : 40;
+        WpmlMission.Waypoint waypoint = waypoint(position, height);
+        waypoint.speed = random.nextInt(20) == 0 ? 20 : 0;
+        return waypoint;
+    }
+
+    private static WpmlMission line(int count) {
+        WpmlMission mission = new WpmlMission();
+        for (int i = 0; i < count; i++) {
+            mission.waypoints.add(waypoint(i, 40));
+        }
+        return mission;
+    }
+
+    private static WpmlMission.Waypoint waypoint(double position, double height) {
+        return new WpmlMission.Waypoint(LATITUDE + position * STEP_DEGREES, LONGITUDE, height, 0, -30);
+    }
+}
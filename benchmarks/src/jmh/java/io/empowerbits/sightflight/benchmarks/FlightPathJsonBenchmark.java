@@ -0,0 +1,81 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.models.FlightAddress;
+
+/**
+ * FlightPathJsonBenchmark - Parsing Project.flight_path into FlightAddress points
+ *
+ * projectGetWaypointList repeats what Project.getWaypointList does (models.Project itself
+ * logs through android.util.Log): unquote, unescape, then a new Gson and a TypeToken
+ * per call. sharedGson keeps everything but the per-call Gson, tree is the JsonParser
+ * route the mission compiler's ExportedProject takes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class FlightPathJsonBenchmark {
+
+    private static final Type FLIGHT_ADDRESS_LIST = new TypeToken<List<FlightAddress>>(){}.getType();
+
+    @Param({"10", "100", "1000", "10000"})
+    public int waypointCount;
+
+    private final Gson gson = new Gson();
+    private String flightPath;
+
+    @Setup
+    public void setUp() {
+        // Stored as Project.flight_path: the array serialized into a JSON string
+        flightPath = gson.toJson(MissionFixtures.flightPathJson(waypointCount));
+    }
+
+    @Benchmark
+    public List<FlightAddress> projectGetWaypointList() {
+        String pathStr = unquote(flightPath);
+        Gson gson = new Gson();
+        Type listType = new TypeToken<List<FlightAddress>>(){}.getType();
+        return gson.fromJson(pathStr, listType);
+    }
+
+    @Benchmark
+    public List<FlightAddress> sharedGson() {
+        return gson.fromJson(unquote(flightPath), FLIGHT_ADDRESS_LIST);
+    }
+
+    @Benchmark
+    public List<FlightAddress> tree() {
+        JsonElement path = JsonParser.parseString(JsonParser.parseString(flightPath).getAsString());
+        List<FlightAddress> points = new ArrayList<>(path.getAsJsonArray().size());
+        for (JsonElement point : path.getAsJsonArray()) {
+            points.add(gson.fromJson(point, FlightAddress.class));
+        }
+        return points;
+    }
+
+    private static String unquote(String flightPath) {
+        String pathStr = flightPath.trim();
+        if (pathStr.startsWith("\"") && pathStr.endsWith("\"")) {
+            pathStr = pathStr.substring(1, pathStr.length() - 1);
+        }
+        return pathStr.replace("\\\"", "\"");
+    }
+}
@@ -0,0 +1,68 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.Services.telemetry.FlightRecorder;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshotStore;
+
+/**
+ * FlightRecorderBenchmark - Cost of FlightRecorder.record() on the SDK callback thread
+ *
+ * Each operation publishes one location update and hands it to the recorder, the same
+ * work TelemetryService does per callback. The gc profiler's alloc.rate.norm minus the
+ * snapshot itself is what recording adds to the callback path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class FlightRecorderBenchmark {
+
+    private static final int LOCATION_MASK = TelemetryChannelId.bit(TelemetryChannelId.LOCATION);
+
+    private final TelemetrySnapshotStore store = new TelemetrySnapshotStore();
+    private FlightRecorder recorder;
+    private File file;
+    private double sample;
+
+    @Setup(Level.Iteration)
+    public void startRecorder() throws IOException {
+        file = File.createTempFile("flight-recorder-bench", ".eefr");
+        recorder = new FlightRecorder(file, 1 << 16, null);
+        recorder.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopRecorder() throws InterruptedException {
+        recorder.stop();
+        recorder.awaitStopped(10_000);
+        file.delete();
+    }
+
+    @Benchmark
+    public TelemetrySnapshot publishOnly() {
+        sample += 1e-6;
+        return store.updateLocation(31.5 + sample, 74.3 - sample, 40.0);
+    }
+
+    @Benchmark
+    public TelemetrySnapshot publishAndRecord() {
+        sample += 1e-6;
+        TelemetrySnapshot snapshot = store.updateLocation(31.5 + sample, 74.3 - sample, 40.0);
+        recorder.record(LOCATION_MASK, snapshot);
+        return snapshot;
+    }
+}
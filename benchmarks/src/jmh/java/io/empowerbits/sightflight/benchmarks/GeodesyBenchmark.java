@@ -0,0 +1,113 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.util.geo.Geodesy;
+
+/**
+ * GeodesyBenchmark - Path and fan-out distances, bearings and circles of Geodesy
+ *
+ * haversinePath is the per-pair loop the callers ran before, legDistances the batch
+ * form of the same sum, equirectangularPath the fast mode over the same legs.
+ * distancesFrom and fastDistancesFrom are the NFZ shape, one point against many.
+ * GeodesyTest checks that the forms agree with each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GeodesyBenchmark {
+
+    @Param({"16", "1000", "100000"})
+    public int pointCount;
+
+    private double[] lats;
+    private double[] lons;
+    private double[] out;
+    private double[] outLats;
+    private double[] outLons;
+
+    @Setup
+    public void setUp() {
+        // A flight path of short legs around the fixture POI
+        Random random = new Random(7);
+        lats = new double[pointCount];
+        lons = new double[pointCount];
+        double[] point = new double[2];
+        lats[0] = MissionFixtures.POI_LATITUDE;
+        lons[0] = MissionFixtures.POI_LONGITUDE;
+        for (int i = 1; i < pointCount; i++) {
+            Geodesy.destination(lats[i - 1], lons[i - 1], random.nextDouble() * 360, 5 + random.nextDouble() * 50,
+                    point);
+            lats[i] = point[0];
+            lons[i] = point[1];
+        }
+        out = new double[pointCount];
+        outLats = new double[pointCount];
+        outLons = new double[pointCount];
+    }
+
+    @Benchmark
+    public double haversinePath() {
+        double total = 0;
+        for (int i = 1; i < pointCount; i++) {
+            total += Geodesy.haversine(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double legDistances() {
+        return Geodesy.legDistances(lats, lons, out);
+    }
+
+    @Benchmark
+    public double equirectangularPath() {
+        double total = 0;
+        for (int i = 1; i < pointCount; i++) {
+            total += Geodesy.equirectangular(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double[] distancesFrom() {
+        Geodesy.distancesFrom(MissionFixtures.POI_LATITUDE, MissionFixtures.POI_LONGITUDE, lats, lons, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] fastDistancesFrom() {
+        Geodesy.fastDistancesFrom(MissionFixtures.POI_LATITUDE, MissionFixtures.POI_LONGITUDE, lats, lons, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] bearings() {
+        Geodesy.bearings(lats, lons, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] spiral() {
+        Geodesy.arc(MissionFixtures.POI_LATITUDE, MissionFixtures.POI_LONGITUDE, 0, 7.5, 20, 0.05, pointCount,
+                outLats, outLons);
+        return outLats;
+    }
+
+    @Benchmark
+    public double[] circle() {
+        Geodesy.circle(MissionFixtures.POI_LATITUDE, MissionFixtures.POI_LONGITUDE, 30, pointCount, 0,
+                outLats, outLons);
+        return outLats;
+    }
+}
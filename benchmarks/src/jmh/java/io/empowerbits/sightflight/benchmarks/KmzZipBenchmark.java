@@ -0,0 +1,85 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+
+/**
+ * KmzZipBenchmark - Raw zip and unzip of a mission KMZ, without any XML work
+ *
+ * The floor under every KMZ pass: KmzTransformer and the SDK both inflate and deflate
+ * each entry once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class KmzZipBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int waypointCount;
+
+    private byte[] kmz;
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> contents = new ArrayList<>();
+    private ByteArrayOutputStream out;
+    private final byte[] buffer = new byte[16 * 1024];
+
+    @Setup
+    public void setUp() throws IOException {
+        kmz = MissionFixtures.kmz(WpmlAircraftProfile.MINI_4_PRO, MissionFixtures.mission(waypointCount));
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(kmz))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                    content.write(buffer, 0, n);
+                }
+                names.add(entry.getName());
+                contents.add(content.toByteArray());
+            }
+        }
+        out = new ByteArrayOutputStream(kmz.length * 2);
+    }
+
+    @Benchmark
+    public int zip() throws IOException {
+        out.reset();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < names.size(); i++) {
+                zip.putNextEntry(new ZipEntry(names.get(i)));
+                zip.write(contents.get(i));
+                zip.closeEntry();
+            }
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public long unzip() throws IOException {
+        long total = 0;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(kmz))) {
+            while (in.getNextEntry() != null) {
+                for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                    total += n;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,83 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+import io.empowerbits.sightflight.util.wpml.WpmlWriter;
+
+/**
+ * MissionFixtures - Deterministic projects and missions for the mission pipeline benchmarks
+ *
+ * Flight paths are rings around a house in Lahore, a new ring every 16 points, the same
+ * shape ProjectWaypointActivity saves in Project.flight_path.
+ */
+final class MissionFixtures {
+
+    static final double POI_LATITUDE = 31.5204;
+    static final double POI_LONGITUDE = 74.3587;
+    static final int HEIGHT_OF_HOUSE = 25;
+    static final int MAX_HEIGHT = 40;
+
+    private static final int POINTS_PER_RING = 16;
+    private static final double FIRST_RING_RADIUS_METERS = 20;
+    private static final double RING_SPACING_METERS = 5;
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private MissionFixtures() {
+    }
+
+    static ProjectMissionPlanner planner() {
+        return new ProjectMissionPlanner(POI_LATITUDE, POI_LONGITUDE, ProjectMissionPlanner.DEFAULT_POI_HEIGHT,
+                HEIGHT_OF_HOUSE, MAX_HEIGHT);
+    }
+
+    static List<FlightAddress> flightPath(int pointCount) {
+        List<FlightAddress> path = new ArrayList<>(pointCount);
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(POI_LATITUDE));
+        for (int i = 0; i < pointCount; i++) {
+            double radius = FIRST_RING_RADIUS_METERS + (i / POINTS_PER_RING) * RING_SPACING_METERS;
+            double angle = 2 * Math.PI * (i % POINTS_PER_RING) / POINTS_PER_RING;
+            path.add(new FlightAddress(POI_LATITUDE + radius * Math.cos(angle) / METERS_PER_DEGREE,
+                    POI_LONGITUDE + radius * Math.sin(angle) / metersPerDegreeLongitude));
+        }
+        return path;
+    }
+
+    /**
+     * A planned mission with exactly waypointCount waypoints, the four shots above the
+     * house included
+     */
+    static WpmlMission mission(int waypointCount) {
+        ProjectMissionPlanner planner = planner();
+        return planner.toWpmlMission(planner.plan(flightPath(Math.max(1, waypointCount - 4)), 0,
+                ProjectMissionPlanner.DEFAULT_INSPECTION_WAYPOINTS));
+    }
+
+    static byte[] kmz(WpmlAircraftProfile profile, WpmlMission mission) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + mission.waypoints.size() * 512);
+        new WpmlWriter(profile).writeKmz(mission, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Project.flight_path as the API returns it: a JSON array serialized into a string
+     */
+    static String flightPathJson(int pointCount) {
+        StringBuilder json = new StringBuilder(pointCount * 48).append('[');
+        List<FlightAddress> path = flightPath(pointCount);
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.US, "{\"lat\":%.9f,\"lng\":%.9f}", path.get(i).lat, path.get(i).lng));
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,66 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+import io.empowerbits.sightflight.util.wpml.WpmlMissionValidator;
+
+/**
+ * MissionPlanningBenchmark - Building the waypoint models of one project
+ *
+ * plan is what setUpCurrentProject computes per project (WaypointSetting per point,
+ * gimbal pitch toward the POI), toWpmlMission the conversion every build and every
+ * validator sync does, validate a full WpmlMissionValidator pass over the result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MissionPlanningBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int waypointCount;
+
+    private ProjectMissionPlanner planner;
+    private List<FlightAddress> flightPath;
+    private List<WaypointSetting> waypoints;
+    private WpmlMission mission;
+
+    @Setup
+    public void setUp() {
+        planner = MissionFixtures.planner();
+        flightPath = MissionFixtures.flightPath(Math.max(1, waypointCount - 4));
+        waypoints = plan();
+        mission = toWpmlMission();
+    }
+
+    @Benchmark
+    public List<WaypointSetting> plan() {
+        return planner.plan(flightPath, 0, ProjectMissionPlanner.DEFAULT_INSPECTION_WAYPOINTS);
+    }
+
+    @Benchmark
+    public WpmlMission toWpmlMission() {
+        return planner.toWpmlMission(waypoints);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        WpmlMissionValidator validator = new WpmlMissionValidator(WpmlAircraftProfile.MINI_4_PRO);
+        validator.setMission(mission);
+        return validator.isValid();
+    }
+}
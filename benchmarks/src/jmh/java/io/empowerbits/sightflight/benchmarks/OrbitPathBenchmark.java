@@ -0,0 +1,81 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.Services.mission.OrbitPathGenerator;
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
+
+/**
+ * OrbitPathBenchmark - Generating orbit paths around the fixture POI
+ *
+ * ring is what ProjectWaypointActivity regenerates on every count or radius edit,
+ * facadeScan stacked rings of the same radius every few meters up a building, taperedScan
+ * rings whose radius changes per altitude, spiral one continuous climb over the same
+ * span. All include the gimbal pitch pass. The target is well under a millisecond for
+ * the facade scans so paths can be regenerated while the pilot edits them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class OrbitPathBenchmark {
+
+    private static final double RADIUS_METERS = 30;
+    private static final double LOWEST_ALTITUDE = 5;
+    private static final double HIGHEST_ALTITUDE = 50;
+
+    /** Points per ring, the ProjectWaypointActivity range is 70 to 85 */
+    @Param({"16", "85", "360"})
+    public int pointsPerRing;
+
+    @Param({"1", "10", "40"})
+    public int ringCount;
+
+    private OrbitPathGenerator generator;
+    private double spacing;
+    private double[] taperedRadii;
+    private double[] taperedAltitudes;
+
+    @Setup
+    public void setUp() {
+        generator = new OrbitPathGenerator(MissionFixtures.POI_LATITUDE, MissionFixtures.POI_LONGITUDE,
+                ProjectMissionPlanner.DEFAULT_POI_HEIGHT);
+        spacing = ringCount > 1 ? (HIGHEST_ALTITUDE - LOWEST_ALTITUDE) / (ringCount - 1) : 1;
+        taperedRadii = new double[ringCount];
+        taperedAltitudes = new double[ringCount];
+        for (int i = 0; i < ringCount; i++) {
+            taperedRadii[i] = RADIUS_METERS - i * 0.25;
+            taperedAltitudes[i] = LOWEST_ALTITUDE + i * spacing;
+        }
+    }
+
+    @Benchmark
+    public OrbitPathGenerator.OrbitPath ring() {
+        return generator.ring(RADIUS_METERS, pointsPerRing, LOWEST_ALTITUDE, 0);
+    }
+
+    @Benchmark
+    public OrbitPathGenerator.OrbitPath facadeScan() {
+        double highest = ringCount > 1 ? HIGHEST_ALTITUDE : LOWEST_ALTITUDE;
+        return generator.rings(RADIUS_METERS, LOWEST_ALTITUDE, highest, spacing, pointsPerRing, 0);
+    }
+
+    @Benchmark
+    public OrbitPathGenerator.OrbitPath taperedScan() {
+        return generator.rings(taperedRadii, taperedAltitudes, pointsPerRing, 0);
+    }
+
+    @Benchmark
+    public OrbitPathGenerator.OrbitPath spiral() {
+        return generator.spiral(RADIUS_METERS, RADIUS_METERS, LOWEST_ALTITUDE, HIGHEST_ALTITUDE, ringCount,
+                pointsPerRing * ringCount, 0);
+    }
+}
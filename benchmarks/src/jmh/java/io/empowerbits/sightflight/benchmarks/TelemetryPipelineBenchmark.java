@@ -0,0 +1,202 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.Services.telemetry.FlightRecorder;
+import io.empowerbits.sightflight.Services.telemetry.SimulatedTelemetrySource;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryChannelId;
+import io.empowerbits.sightflight.Services.telemetry.TelemetryMetricsEngine;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySink;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshotStore;
+import io.empowerbits.sightflight.models.WaypointSetting;
+
+/**
+ * TelemetryPipelineBenchmark - Whole simulated missions through the telemetry pipeline
+ *
+ * A SimulatedTelemetrySource flies a circular orbit of waypoints into a sink that does what
+ * TelemetryService's sink does on the callback thread: publish the snapshot, hand it to
+ * the FlightRecorder when recording and fold it into the derived metrics. One operation
+ * is one full mission; the ticks secondary result is the cost per simulated update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TelemetryPipelineBenchmark {
+
+    @Param({"10", "100"})
+    public int waypointCount;
+
+    private List<WaypointSetting> waypoints;
+    private StoreSink sink;
+    private FlightRecorder recorder;
+    private File file;
+
+    /**
+     * Ticks delivered, reported per tick the way the score is reported per mission
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Ticks {
+        public long ticks;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            ticks = 0;
+        }
+    }
+
+    /**
+     * Mirror of TelemetryService's sink without the Android frame dispatch
+     */
+    static final class StoreSink implements TelemetrySink {
+        final TelemetrySnapshotStore store = new TelemetrySnapshotStore();
+        FlightRecorder recorder;
+        TelemetryMetricsEngine metrics;
+
+        private void record(int channelId, TelemetrySnapshot snapshot) {
+            if (recorder != null) {
+                recorder.record(TelemetryChannelId.bit(channelId), snapshot);
+            }
+            if (metrics != null) {
+                int changed = metrics.update(TelemetryChannelId.bit(channelId), snapshot);
+                if (changed != 0) {
+                    store.updateMetrics(changed, metrics);
+                }
+            }
+        }
+
+        @Override
+        public void onFlightMode(String flightMode) {
+            record(TelemetryChannelId.FLIGHT_MODE, store.updateFlightMode(flightMode));
+        }
+
+        @Override
+        public void onGpsSignalLevel(int signalLevel) {
+            record(TelemetryChannelId.GPS_SIGNAL, store.updateGpsSignalLevel(signalLevel));
+        }
+
+        @Override
+        public void onSatelliteCount(int satelliteCount) {
+            record(TelemetryChannelId.SATELLITE_COUNT, store.updateSatelliteCount(satelliteCount));
+        }
+
+        @Override
+        public void onLinkSignalQuality(int signalQuality) {
+            record(TelemetryChannelId.LINK_SIGNAL, store.updateLinkSignalQuality(signalQuality));
+        }
+
+        @Override
+        public void onBatteryPercentage(int batteryPercentage) {
+            record(TelemetryChannelId.BATTERY, store.updateBatteryPercentage(batteryPercentage));
+        }
+
+        @Override
+        public void onAltitude(double altitude) {
+            record(TelemetryChannelId.ALTITUDE, store.updateAltitude(altitude));
+        }
+
+        @Override
+        public void onVelocity(double horizontalVelocity, double verticalVelocity) {
+            TelemetrySnapshot snapshot = store.updateVelocity(horizontalVelocity, verticalVelocity);
+            record(TelemetryChannelId.HORIZONTAL_VELOCITY, snapshot);
+            record(TelemetryChannelId.VERTICAL_VELOCITY, snapshot);
+        }
+
+        @Override
+        public void onLocation(double latitude, double longitude, double altitude) {
+            record(TelemetryChannelId.LOCATION, store.updateLocation(latitude, longitude, altitude));
+        }
+
+        @Override
+        public void onLocationLost() {
+            record(TelemetryChannelId.LOCATION, store.clearLocation());
+        }
+
+        @Override
+        public void onHomeLocation(double latitude, double longitude) {
+            record(TelemetryChannelId.HOME_LOCATION, store.updateHomeLocation(latitude, longitude));
+        }
+
+        @Override
+        public void onHomeLocationLost() {
+            record(TelemetryChannelId.HOME_LOCATION, store.clearHomeLocation());
+        }
+
+        @Override
+        public void onHeading(double heading) {
+            record(TelemetryChannelId.HEADING, store.updateHeading(heading));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createMission() {
+        waypoints = new ArrayList<>(waypointCount);
+        for (int i = 0; i < waypointCount; i++) {
+            double angle = 2 * Math.PI * i / waypointCount;
+            WaypointSetting waypoint = new WaypointSetting();
+            waypoint.latitude = 31.5 + 0.001 * Math.cos(angle);
+            waypoint.longitude = 74.3 + 0.001 * Math.sin(angle);
+            waypoint.altitude = 40.0;
+            waypoints.add(waypoint);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startRecorder() throws IOException {
+        sink = new StoreSink();
+        file = File.createTempFile("telemetry-pipeline-bench", ".eefr");
+        recorder = new FlightRecorder(file, 1 << 16, null);
+        recorder.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopRecorder() throws InterruptedException {
+        recorder.stop();
+        recorder.awaitStopped(10_000);
+        file.delete();
+    }
+
+    @Benchmark
+    public long missionIntoStore(Ticks ticks) {
+        sink.recorder = null;
+        sink.metrics = null;
+        return fly(ticks);
+    }
+
+    @Benchmark
+    public long missionIntoStoreAndRecorder(Ticks ticks) {
+        sink.recorder = recorder;
+        sink.metrics = null;
+        return fly(ticks);
+    }
+
+    @Benchmark
+    public long missionIntoStoreAndMetrics(Ticks ticks) {
+        sink.recorder = null;
+        sink.metrics = new TelemetryMetricsEngine();
+        return fly(ticks);
+    }
+
+    private long fly(Ticks ticks) {
+        long delivered = new SimulatedTelemetrySource(waypoints, 8.0).simulate(sink);
+        ticks.ticks += delivered;
+        return delivered;
+    }
+}
@@ -0,0 +1,129 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshot;
+import io.empowerbits.sightflight.Services.telemetry.TelemetrySnapshotStore;
+
+/**
+ * TelemetrySnapshotBenchmark - Boxed volatile getters vs the atomic TelemetrySnapshot
+ *
+ * The boxed side reproduces the state TelemetryService kept before the snapshot store:
+ * one volatile Double/Integer/location object per channel. Run with the gc profiler
+ * (the default for this module) to compare allocation per operation as well as time.
+ *
+ * The grouped benchmarks run an SDK-like writer against a UI-like reader on two threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Group)
+public class TelemetrySnapshotBenchmark {
+
+    /**
+     * Former TelemetryService fields, one boxed volatile per channel
+     */
+    static final class BoxedVolatileTelemetry {
+        volatile Integer currentBatteryPercentage = 0;
+        volatile Double currentAltitude = 0.0;
+        volatile Double currentHorizontalVelocity = 0.0;
+        volatile Double currentVerticalVelocity = 0.0;
+        // Stands in for the DJI LocationCoordinate3D object (one allocation per sample)
+        volatile double[] currentLocation = null;
+    }
+
+    private final BoxedVolatileTelemetry boxed = new BoxedVolatileTelemetry();
+    private final TelemetrySnapshotStore store = new TelemetrySnapshotStore();
+    private double sample;
+
+    private double nextSample() {
+        sample += 0.25;
+        return sample;
+    }
+
+    // Single-threaded write of one velocity sample (two channels)
+
+    @Benchmark
+    @Group("writeVelocityBoxed")
+    public void writeVelocityBoxed() {
+        double value = nextSample();
+        boxed.currentHorizontalVelocity = value;
+        boxed.currentVerticalVelocity = -value;
+    }
+
+    @Benchmark
+    @Group("writeVelocitySnapshot")
+    public TelemetrySnapshot writeVelocitySnapshot() {
+        double value = nextSample();
+        return store.updateVelocity(value, -value);
+    }
+
+    // Single-threaded read of the values a display refresh needs
+
+    @Benchmark
+    @Group("readBoxed")
+    public void readBoxed(Blackhole blackhole) {
+        blackhole.consume(boxed.currentAltitude.doubleValue());
+        blackhole.consume(boxed.currentHorizontalVelocity.doubleValue());
+        blackhole.consume(boxed.currentVerticalVelocity.doubleValue());
+        blackhole.consume(boxed.currentBatteryPercentage.intValue());
+        blackhole.consume(boxed.currentLocation);
+    }
+
+    @Benchmark
+    @Group("readSnapshot")
+    public void readSnapshot(Blackhole blackhole) {
+        TelemetrySnapshot snapshot = store.get();
+        blackhole.consume(snapshot.altitude);
+        blackhole.consume(snapshot.horizontalVelocity);
+        blackhole.consume(snapshot.verticalVelocity);
+        blackhole.consume(snapshot.batteryPercentage);
+        blackhole.consume(snapshot.latitude);
+    }
+
+    // Writer and reader on separate threads
+
+    @Benchmark
+    @Group("contendedBoxed")
+    @GroupThreads(1)
+    public void contendedBoxedWriter() {
+        double value = nextSample();
+        boxed.currentAltitude = value;
+        boxed.currentLocation = new double[]{value, value, value};
+    }
+
+    @Benchmark
+    @Group("contendedBoxed")
+    @GroupThreads(1)
+    public void contendedBoxedReader(Blackhole blackhole) {
+        blackhole.consume(boxed.currentAltitude.doubleValue());
+        blackhole.consume(boxed.currentLocation);
+    }
+
+    @Benchmark
+    @Group("contendedSnapshot")
+    @GroupThreads(1)
+    public void contendedSnapshotWriter() {
+        double value = nextSample();
+        store.updateAltitude(value);
+        store.updateLocation(value, value, value);
+    }
+
+    @Benchmark
+    @Group("contendedSnapshot")
+    @GroupThreads(1)
+    public void contendedSnapshotReader(Blackhole blackhole) {
+        TelemetrySnapshot snapshot = store.get();
+        blackhole.consume(snapshot.altitude);
+        blackhole.consume(snapshot.latitude);
+    }
+}
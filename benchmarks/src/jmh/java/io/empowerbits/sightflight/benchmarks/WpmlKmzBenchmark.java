@@ -0,0 +1,68 @@
+package io.empowerbits.sightflight.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.empowerbits.sightflight.util.kmz.AircraftProfileRules;
+import io.empowerbits.sightflight.util.kmz.KmzTransformer;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+
+/**
+ * WpmlKmzBenchmark - The two ways MissionKmzBuilder gets from a mission to a final KMZ
+ *
+ * writeNative is WpmlWriter writing the Mini 4 Pro KMZ directly. clean is the second
+ * half of the WPMZManager path: the SDK_DEFAULT archive (what WPMZManager writes, here
+ * produced by WpmlWriter since WPMZManager needs the device) streamed through the Mini
+ * 4 Pro KmzCleaner rules. writeSdkDefault is the stand-in for the generate stage, for
+ * scale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class WpmlKmzBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int waypointCount;
+
+    private WpmlMission mission;
+    private byte[] sdkKmz;
+    private KmzTransformer cleaner;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() throws IOException {
+        mission = MissionFixtures.mission(waypointCount);
+        sdkKmz = MissionFixtures.kmz(WpmlAircraftProfile.SDK_DEFAULT, mission);
+        cleaner = new KmzTransformer(AircraftProfileRules.forProfile(WpmlAircraftProfile.MINI_4_PRO));
+        out = new ByteArrayOutputStream(sdkKmz.length * 2);
+    }
+
+    @Benchmark
+    public byte[] writeNative() throws IOException {
+        return MissionFixtures.kmz(WpmlAircraftProfile.MINI_4_PRO, mission);
+    }
+
+    @Benchmark
+    public byte[] writeSdkDefault() throws IOException {
+        return MissionFixtures.kmz(WpmlAircraftProfile.SDK_DEFAULT, mission);
+    }
+
+    @Benchmark
+    public int clean() throws IOException {
+        out.reset();
+        cleaner.transform(new ByteArrayInputStream(sdkKmz), out);
+        return out.size();
+    }
+}
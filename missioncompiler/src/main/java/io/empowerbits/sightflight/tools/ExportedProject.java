@@ -0,0 +1,145 @@
+package io.empowerbits.sightflight.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.FlightAddress;
+
+/**
+ * ExportedProject - The part of a models.Project JSON export a mission is planned from
+ *
+ * Field names match models.Project, which cannot be loaded here (it logs through
+ * android.util.Log). The API stores flight_path, obstacle_boundary and flight_setting as
+ * JSON inside strings, sometimes quoted twice; exports holding them as plain JSON are
+ * read as well.
+ */
+class ExportedProject {
+
+    int id;
+    String uuid;
+    String name;
+    String latitude;
+    String longitude;
+    int height_of_house;
+    int must_height;
+    boolean is_grid;
+    JsonElement flight_path;
+    JsonElement obstacle_boundary;
+    JsonElement flight_setting;
+
+    /**
+     * Name used for the KMZ file and in the manifest
+     */
+    String getLabel() {
+        if (id != 0) {
+            return "project_" + id;
+        }
+        return uuid != null && !uuid.isEmpty() ? "project_" + uuid : "project";
+    }
+
+    /**
+     * Latitude and longitude of the POI, null when either is missing, not a number or
+     * out of range
+     */
+    double[] getLocation() {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        try {
+            double lat = Double.parseDouble(latitude);
+            double lng = Double.parseDouble(longitude);
+            // NaN fails both checks
+            return Math.abs(lat) <= 90 && Math.abs(lng) <= 180 ? new double[]{lat, lng} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    List<FlightAddress> getWaypointList(Gson gson) {
+        List<FlightAddress> waypoints = new ArrayList<>();
+        JsonElement path = unwrap(flight_path);
+        if (path != null && path.isJsonArray()) {
+            for (JsonElement point : path.getAsJsonArray()) {
+                waypoints.add(gson.fromJson(point, FlightAddress.class));
+            }
+        }
+        return waypoints;
+    }
+
+    /**
+     * Highest of must_height and the obstacle heights, feet
+     */
+    double getMaxHeight() {
+        double maxHeight = must_height;
+        JsonElement obstacles = unwrap(obstacle_boundary);
+        if (obstacles != null && obstacles.isJsonArray()) {
+            for (JsonElement obstacle : obstacles.getAsJsonArray()) {
+                JsonElement height = obstacle.isJsonObject() ? obstacle.getAsJsonObject().get("height") : null;
+                if (height != null && height.isJsonPrimitive()) {
+                    maxHeight = Math.max(maxHeight, height.getAsDouble());
+                }
+            }
+        }
+        return maxHeight;
+    }
+
+    /**
+     * A flight_setting value, or fallback when it is missing
+     */
+    int getFlightSetting(String key, int fallback) {
+        JsonElement settings = unwrap(flight_setting);
+        if (settings == null || !settings.isJsonObject()) {
+            return fallback;
+        }
+        JsonElement value = settings.getAsJsonObject().get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsInt() : fallback;
+    }
+
+    /**
+     * Parse string values until they are JSON, which undoes the double quoting
+     * Project.getWaypointList strips by hand
+     */
+    private static JsonElement unwrap(JsonElement element) {
+        while (element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            String text = element.getAsString().trim();
+            if (text.isEmpty() || text.equals("null")) {
+                return null;
+            }
+            JsonElement parsed = JsonParser.parseString(text);
+            if (parsed.isJsonPrimitive() && text.equals(parsed.getAsString())) {
+                // Plain text, not JSON
+                return null;
+            }
+            element = parsed;
+        }
+        return element == null || element.isJsonNull() ? null : element;
+    }
+
+    /**
+     * Projects in a file holding one project, an array of them, or an API response
+     * with the array under "data"
+     */
+    static List<ExportedProject> listFrom(Gson gson, JsonElement root) {
+        List<ExportedProject> projects = new ArrayList<>();
+        if (root.isJsonObject()) {
+            JsonObject object = root.getAsJsonObject();
+            JsonElement data = object.get("data");
+            if (data != null && data.isJsonArray()) {
+                return listFrom(gson, data);
+            }
+            projects.add(gson.fromJson(object, ExportedProject.class));
+        } else if (root.isJsonArray()) {
+            JsonArray array = root.getAsJsonArray();
+            for (JsonElement element : array) {
+                projects.add(gson.fromJson(element, ExportedProject.class));
+            }
+        }
+        return projects;
+    }
+}
@@ -0,0 +1,357 @@
+package io.empowerbits.sightflight.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import io.empowerbits.sightflight.Services.mission.ProjectMissionPlanner;
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.models.WaypointSetting;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfiles;
+import io.empowerbits.sightflight.util.wpml.WpmlMission;
+import io.empowerbits.sightflight.util.wpml.WpmlMissionValidator;
+import io.empowerbits.sightflight.util.wpml.WpmlWriter;
+
+/**
+ * MissionCompiler - Compile saved projects into upload-ready KMZ files, off the device
+ *
+ * Usage: MissionCompiler [--out DIR] [--product PRODUCT_TYPE] [--threads N] INPUT...
+ *
+ * Every INPUT is a models.Project JSON export (one project, an array, or an API response
+ * with "data"), or a directory of them. Each project is planned as WaypointActivity
+ * lays it out (ProjectMissionPlanner), checked against the aircraft's limits
+ * (WpmlMissionValidator) and written with WpmlWriter, which produces what
+ * WPMZManager plus KmzCleaner produce on the device. Projects compile in parallel on a
+ * ForkJoinPool, each straight to its file; manifest.json in the output directory lists
+ * every mission with its stats, failures included.
+ *
+ * Exit status: 0 when every project compiled, 1 when any failed, 2 on bad usage.
+ */
+public final class MissionCompiler {
+
+    static final String MANIFEST_FILE = "manifest.json";
+    private static final String KMZ_EXTENSION = ".kmz";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    static final String STATUS_OK = "ok";
+    static final String STATUS_INVALID = "invalid";
+    static final String STATUS_SKIPPED = "skipped";
+    static final String STATUS_FAILED = "failed";
+
+    /**
+     * One manifest entry; serialized by Gson, so the field names are the JSON keys
+     */
+    static final class MissionEntry {
+        String source;
+        int projectId;
+        String uuid;
+        String name;
+        String status;
+        String error;
+        String file;
+        long bytes;
+        String sha256;
+        int waypoints;
+        double distanceMeters;
+        double durationSeconds;
+        int errors;
+        int warnings;
+        List<String> issues;
+        double compileMillis;
+    }
+
+    static final class Manifest {
+        long generatedAt;
+        String profile;
+        int threads;
+        int projects;
+        int compiled;
+        int invalid;
+        int skipped;
+        int failed;
+        double wallMillis;
+        List<MissionEntry> missions;
+    }
+
+    private final File outputDir;
+    private final WpmlAircraftProfile profile;
+    private final Gson gson = new Gson();
+
+    public MissionCompiler(File outputDir, WpmlAircraftProfile profile) {
+        this.outputDir = outputDir;
+        this.profile = profile;
+    }
+
+    public static void main(String[] args) {
+        File outputDir = new File("missions");
+        String product = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<File> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--out":
+                        outputDir = new File(args[++i]);
+                        break;
+                    case "--product":
+                        product = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--help":
+                        usage();
+                        return;
+                    default:
+                        inputs.add(new File(args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            usage();
+            System.exit(2);
+        }
+        if (inputs.isEmpty() || threads < 1) {
+            usage();
+            System.exit(2);
+        }
+
+        try {
+            MissionCompiler compiler = new MissionCompiler(outputDir,
+                    WpmlAircraftProfiles.forProductType(product));
+            Manifest manifest = compiler.compile(inputs, threads);
+            System.out.println(String.format(Locale.US,
+                    "%d projects for %s: %d compiled, %d invalid, %d skipped, %d failed in %.0f ms -> %s",
+                    manifest.projects, manifest.profile, manifest.compiled, manifest.invalid,
+                    manifest.skipped, manifest.failed, manifest.wallMillis,
+                    new File(outputDir, MANIFEST_FILE).getPath()));
+            System.exit(manifest.failed > 0 ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println("MissionCompiler: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: MissionCompiler [--out DIR] [--product PRODUCT_TYPE] [--threads N] INPUT...");
+        System.err.println("  INPUT           project JSON export, or a directory of them");
+        System.err.println("  --out DIR       where KMZ files and " + MANIFEST_FILE + " go (default: missions)");
+        System.err.println("  --product TYPE  ProductType name of the aircraft, e.g. DJI_MINI_4_PRO (default)");
+        System.err.println("  --threads N     fork-join parallelism (default: available processors)");
+    }
+
+    /**
+     * Compile every project in the inputs and write the manifest
+     */
+    public Manifest compile(List<File> inputs, int threads) throws IOException {
+        long start = System.nanoTime();
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+
+        List<String> sources = new ArrayList<>();
+        List<ExportedProject> projects = new ArrayList<>();
+        for (File file : listInputs(inputs)) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                for (ExportedProject project : ExportedProject.listFrom(gson, JsonParser.parseReader(reader))) {
+                    sources.add(file.getPath());
+                    projects.add(project);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Cannot read " + file + ": " + e.getMessage(), e);
+            }
+        }
+
+        MissionEntry[] entries = new MissionEntry[projects.size()];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new CompileTask(projects, sources, entries, 0, entries.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.generatedAt = System.currentTimeMillis();
+        manifest.profile = profile.toString();
+        manifest.threads = threads;
+        manifest.projects = entries.length;
+        manifest.missions = Arrays.asList(entries);
+        for (MissionEntry entry : entries) {
+            switch (entry.status) {
+                case STATUS_OK:
+                    manifest.compiled++;
+                    break;
+                case STATUS_INVALID:
+                    manifest.invalid++;
+                    break;
+                case STATUS_SKIPPED:
+                    manifest.skipped++;
+                    break;
+                default:
+                    manifest.failed++;
+            }
+        }
+        manifest.wallMillis = millisSince(start);
+
+        Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(new File(outputDir, MANIFEST_FILE).toPath(),
+                StandardCharsets.UTF_8)) {
+            prettyGson.toJson(manifest, writer);
+        }
+        return manifest;
+    }
+
+    private static List<File> listInputs(List<File> inputs) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (File input : inputs) {
+            if (input.isDirectory()) {
+                File[] children = input.listFiles((dir, name) -> name.endsWith(".json"));
+                if (children != null) {
+                    Arrays.sort(children);
+                    files.addAll(Arrays.asList(children));
+                }
+            } else if (input.isFile()) {
+                files.add(input);
+            } else {
+                throw new IOException("No such input: " + input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Splits the project range in halves down to single projects
+     */
+    private final class CompileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ExportedProject> projects;
+        private final List<String> sources;
+        private final MissionEntry[] entries;
+        private final int from;
+        private final int to;
+
+        CompileTask(List<ExportedProject> projects, List<String> sources, MissionEntry[] entries,
+                    int from, int to) {
+            this.projects = projects;
+            this.sources = sources;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    entries[i] = compileProject(sources.get(i), projects.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CompileTask(projects, sources, entries, from, middle),
+                    new CompileTask(projects, sources, entries, middle, to));
+        }
+    }
+
+    /**
+     * Plan, check and write one project; never throws, failures end up in the entry
+     */
+    MissionEntry compileProject(String source, ExportedProject project) {
+        long start = System.nanoTime();
+        MissionEntry entry = new MissionEntry();
+        entry.source = source;
+        entry.projectId = project.id;
+        entry.uuid = project.uuid;
+        entry.name = project.name;
+        try {
+            if (project.is_grid) {
+                entry.status = STATUS_SKIPPED;
+                entry.error = "Grid flight paths are not implemented";
+                return entry;
+            }
+            List<FlightAddress> flightPath = project.getWaypointList(gson);
+            if (flightPath.isEmpty()) {
+                entry.status = STATUS_SKIPPED;
+                entry.error = "Project has no flight path";
+                return entry;
+            }
+
+            double[] location = project.getLocation();
+            if (location == null) {
+                entry.status = STATUS_SKIPPED;
+                entry.error = "Project has no valid location: " + project.latitude + ", " + project.longitude;
+                return entry;
+            }
+
+            ProjectMissionPlanner planner = new ProjectMissionPlanner(location[0], location[1],
+                    ProjectMissionPlanner.DEFAULT_POI_HEIGHT, project.height_of_house, project.getMaxHeight());
+            List<WaypointSetting> waypoints = planner.plan(flightPath,
+                    project.getFlightSetting("noOfWaypoints", 0),
+                    project.getFlightSetting("noOfInspectionWaypoints",
+                            ProjectMissionPlanner.DEFAULT_INSPECTION_WAYPOINTS));
+            WpmlMission mission = planner.toWpmlMission(waypoints);
+            entry.waypoints = mission.waypoints.size();
+            double[] distanceAndDuration = WpmlWriter.distanceAndDuration(mission);
+            entry.distanceMeters = distanceAndDuration[0];
+            entry.durationSeconds = distanceAndDuration[1];
+
+            WpmlMissionValidator validator = new WpmlMissionValidator(profile);
+            validator.setMission(mission);
+            entry.errors = validator.getErrorCount();
+            entry.warnings = validator.getWarningCount();
+            entry.issues = new ArrayList<>();
+            for (WpmlMissionValidator.Issue issue : validator.getIssues()) {
+                entry.issues.add(issue.toString());
+            }
+
+            File kmzFile = new File(outputDir, project.getLabel() + KMZ_EXTENSION);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(kmzFile), WRITE_BUFFER_SIZE), digest)) {
+                new WpmlWriter(profile).writeKmz(mission, out);
+            }
+            entry.file = kmzFile.getName();
+            entry.bytes = kmzFile.length();
+            entry.sha256 = toHex(digest.digest());
+            entry.status = validator.isValid() ? STATUS_OK : STATUS_INVALID;
+        } catch (IOException | RuntimeException | NoSuchAlgorithmException e) {
+            entry.status = STATUS_FAILED;
+            entry.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            entry.compileMillis = millisSince(start);
+        }
+        return entry;
+    }
+
+    private static double millisSince(long startNanos) {
+        return Math.round((System.nanoTime() - startNanos) / 10_000.0) / 100.0;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,190 @@
+package io.empowerbits.sightflight.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+
+import io.empowerbits.sightflight.models.FlightAddress;
+import io.empowerbits.sightflight.util.geo.Geodesy;
+import io.empowerbits.sightflight.util.wpml.WpmlAircraftProfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MissionCompilerTest - A small export compiled end to end, and the export quirks it reads
+ */
+public class MissionCompilerTest {
+
+    private static final double POI_LATITUDE = 30.5386845;
+    private static final double POI_LONGITUDE = -89.0844731;
+
+    private final Gson gson = new Gson();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compilesTheValidProjectAndSkipsTheOthers() throws Exception {
+        JsonArray export = new JsonArray();
+        export.add(project(1, Double.toString(POI_LATITUDE), false));
+        export.add(project(2, Double.toString(POI_LATITUDE), true));
+        export.add(project(3, "not a latitude", false));
+        File input = folder.newFile("projects.json");
+        Files.write(input.toPath(), gson.toJson(export).getBytes(StandardCharsets.UTF_8));
+        File outputDir = new File(folder.getRoot(), "missions");
+
+        MissionCompiler.Manifest manifest = new MissionCompiler(outputDir, WpmlAircraftProfile.MINI_4_PRO)
+                .compile(Collections.singletonList(input), 2);
+
+        assertEquals(3, manifest.projects);
+        assertEquals(1, manifest.compiled);
+        assertEquals(0, manifest.invalid);
+        assertEquals(2, manifest.skipped);
+        assertEquals(0, manifest.failed);
+
+        MissionCompiler.MissionEntry compiled = manifest.missions.get(0);
+        assertEquals(MissionCompiler.STATUS_OK, compiled.status);
+        assertEquals(0, compiled.errors);
+        assertTrue(compiled.waypoints > 0);
+        File kmz = new File(outputDir, compiled.file);
+        byte[] bytes = Files.readAllBytes(kmz.toPath());
+        assertEquals(bytes.length, compiled.bytes);
+        assertEquals(sha256(bytes), compiled.sha256);
+
+        MissionCompiler.MissionEntry grid = manifest.missions.get(1);
+        assertEquals(MissionCompiler.STATUS_SKIPPED, grid.status);
+        assertNull(grid.file);
+        MissionCompiler.MissionEntry badLocation = manifest.missions.get(2);
+        assertEquals(MissionCompiler.STATUS_SKIPPED, badLocation.status);
+        assertTrue(badLocation.error, badLocation.error.contains("not a latitude"));
+        assertEquals(1, outputDir.list((dir, name) -> name.endsWith(".kmz")).length);
+
+        // The manifest on disk is the one returned
+        MissionCompiler.Manifest written;
+        try (Reader reader = Files.newBufferedReader(new File(outputDir, MissionCompiler.MANIFEST_FILE).toPath(),
+                StandardCharsets.UTF_8)) {
+            written = gson.fromJson(reader, MissionCompiler.Manifest.class);
+        }
+        assertEquals(1, written.compiled);
+        assertEquals(2, written.skipped);
+        assertEquals(compiled.sha256, written.missions.get(0).sha256);
+    }
+
+    @Test
+    public void quotedAndPlainJsonReadTheSame() {
+        JsonArray path = flightPath();
+        String once = gson.toJson(path);
+        String twice = gson.toJson(once);
+
+        List<FlightAddress> plain = parse(path).getWaypointList(gson);
+        List<FlightAddress> quotedOnce = parse(JsonParser.parseString(twice)).getWaypointList(gson);
+        List<FlightAddress> quotedTwice = parse(JsonParser.parseString(gson.toJson(twice))).getWaypointList(gson);
+
+        assertEquals(path.size(), plain.size());
+        assertEquals(plain.size(), quotedOnce.size());
+        assertEquals(plain.size(), quotedTwice.size());
+        for (int i = 0; i < plain.size(); i++) {
+            assertEquals(plain.get(i).lat, quotedTwice.get(i).lat, 0.0);
+            assertEquals(plain.get(i).lng, quotedTwice.get(i).lng, 0.0);
+        }
+    }
+
+    @Test
+    public void settingsAndObstaclesAreReadFromStrings() {
+        ExportedProject project = ExportedProject.listFrom(gson, project(7, "30.5", false)).get(0);
+        assertEquals(8, project.getFlightSetting("noOfWaypoints", 0));
+        assertEquals(3, project.getFlightSetting("missing", 3));
+        assertEquals(50.0, project.getMaxHeight(), 0.0);
+        assertEquals("project_7", project.getLabel());
+    }
+
+    @Test
+    public void apiResponsesListTheirData() {
+        JsonArray data = new JsonArray();
+        data.add(project(1, "30.5", false));
+        data.add(project(2, "30.5", false));
+        JsonObject response = new JsonObject();
+        response.add("data", data);
+
+        List<ExportedProject> projects = ExportedProject.listFrom(gson, response);
+        assertEquals(2, projects.size());
+        assertEquals(2, projects.get(1).id);
+    }
+
+    @Test
+    public void locationsOutOfRangeAreRejected() {
+        assertEquals(30.5, ExportedProject.listFrom(gson, project(1, "30.5", false)).get(0).getLocation()[0], 0.0);
+        assertNull(ExportedProject.listFrom(gson, project(1, "91", false)).get(0).getLocation());
+        assertNull(ExportedProject.listFrom(gson, project(1, "NaN", false)).get(0).getLocation());
+        assertNull(ExportedProject.listFrom(gson, project(1, "", false)).get(0).getLocation());
+    }
+
+    /**
+     * A project as the API exports it: flight_path quoted twice, obstacle_boundary and
+     * flight_setting quoted once
+     */
+    private JsonObject project(int id, String latitude, boolean grid) {
+        JsonObject project = new JsonObject();
+        project.addProperty("id", id);
+        project.addProperty("uuid", "u" + id);
+        project.addProperty("name", "House " + id);
+        project.addProperty("latitude", latitude);
+        project.addProperty("longitude", Double.toString(POI_LONGITUDE));
+        project.addProperty("height_of_house", 25);
+        project.addProperty("must_height", 30);
+        project.addProperty("is_grid", grid);
+        project.addProperty("flight_path", gson.toJson(gson.toJson(flightPath())));
+        project.addProperty("obstacle_boundary", "[{\"height\": 50, \"number\": 1}]");
+        project.addProperty("flight_setting", "{\"noOfWaypoints\": 8, \"noOfInspectionWaypoints\": 8}");
+        return project;
+    }
+
+    private ExportedProject parse(JsonElement flightPath) {
+        JsonObject project = new JsonObject();
+        project.add("flight_path", flightPath);
+        return ExportedProject.listFrom(gson, project).get(0);
+    }
+
+    /**
+     * Two rings of 8 points around the POI, outer then inner, as the web planner draws them
+     */
+    private static JsonArray flightPath() {
+        JsonArray path = new JsonArray();
+        double[] lats = new double[8];
+        double[] lons = new double[8];
+        for (double radius : new double[]{40, 25}) {
+            Geodesy.circle(POI_LATITUDE, POI_LONGITUDE, radius, lats.length, 0, lats, lons);
+            for (int i = 0; i < lats.length; i++) {
+                JsonObject point = new JsonObject();
+                point.addProperty("lat", lats[i]);
+                point.addProperty("lng", lons[i]);
+                path.add(point);
+            }
+        }
+        return path;
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}